@@ -188,4 +188,12 @@ public @interface MethodInfo {
     String propertyOf() default "";
     
     String parentName() default "";
+
+    /**
+     * Defines whether this method is pure, i.e., whether its return value
+     * only depends on its parameters. Only the return values of pure methods
+     * are reused if the canvas uses
+     * {@link eu.mihosoft.vrl.reflection.DependencyMode#MEMOIZED}.
+     */
+    boolean pure() default false;
 }
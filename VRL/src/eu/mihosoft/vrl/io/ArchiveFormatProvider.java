@@ -73,6 +73,7 @@ public class ArchiveFormatProvider {
     
     static {
         defaultFormats.put("ZIP", new ZipFormat());
+        defaultFormats.put("PARALLEL_ZIP", new ParallelZipFormat());
     }
     
     public ArchiveFormat getFormat(String id) {
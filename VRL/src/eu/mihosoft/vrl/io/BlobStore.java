@@ -0,0 +1,526 @@
+/* 
+ * BlobStore.java
+ * 
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2007–2018 by Michael Hoffer,
+ * Copyright (c) 2015–2018 G-CSC, Uni Frankfurt,
+ * Copyright (c) 2009–2015 Steinbeis Forschungszentrum (STZ Ölbronn)
+ * 
+ * This file is part of Visual Reflection Library (VRL).
+ *
+ * VRL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * see: http://opensource.org/licenses/LGPL-3.0
+ *      file://path/to/VRL/src/eu/mihosoft/vrl/resources/license/lgplv3.txt
+ *
+ * VRL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * This version of VRL includes copyright notice and attribution requirements.
+ * According to the LGPL this information must be displayed even if you modify
+ * the source code of VRL. Neither the VRL Canvas attribution icon nor any
+ * copyright statement/attribution may be removed.
+ *
+ * Attribution Requirements:
+ *
+ * If you create derived work you must do three things regarding copyright
+ * notice and author attribution.
+ *
+ * First, the following text must be displayed on the Canvas:
+ * "based on VRL source code". In this case the VRL canvas icon must be removed.
+ * 
+ * Second, the copyright notice must remain. It must be reproduced in any
+ * program that uses VRL.
+ *
+ * Third, add an additional notice, stating that you modified VRL. A suitable
+ * notice might read
+ * "VRL source code modified by YourName 2012".
+ * 
+ * Note, that these requirements are in full accordance with the LGPL v3
+ * (see 7. Additional Terms, b).
+ *
+ * Please cite the publication(s) listed below.
+ *
+ * Publications:
+ *
+ * M. Hoffer, C. Poliwoda, & G. Wittum. (2013). Visual reflection library:
+ * a framework for declarative GUI programming on the Java platform.
+ * Computing and Visualization in Science, 2013, 16(4),
+ * 181–192. http://doi.org/10.1007/s00791-014-0230-y
+ */
+
+package eu.mihosoft.vrl.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * <p>
+ * Content addressed store for large binary data, e.g., serialized parameter
+ * values of sessions. Blobs are stored as compressed files named after the
+ * SHA-1 checksum of their content. Storing a blob that is already present
+ * does not touch the file system, i.e., unchanged data is neither rewritten
+ * nor committed again if the store is located inside a versioned folder (see
+ * {@link VProject#getBlobStore()}).
+ * </p>
+ * <p>
+ * Session data references blobs via strings of the form
+ * <code>vrl-blob:&lt;type&gt;:&lt;hash&gt;</code> (see
+ * {@link #toReference(java.lang.String, java.lang.String)}). The store that is
+ * used while loading or saving a session is available via
+ * {@link #getCurrent()}.
+ * </p>
+ * <p>
+ * Stores that are created via {@link #BlobStore()} keep their blobs in
+ * memory, e.g., to embed them in binary session files.
+ * </p>
+ *
+ * @author Michael Hoffer &lt;info@michaelhoffer.de&gt;
+ */
+public final class BlobStore {
+
+    /**
+     * prefix of blob references
+     */
+    public static final String REFERENCE_PREFIX = "vrl-blob:";
+    /**
+     * minimum size (in bytes) of data that should be stored as blob, smaller
+     * data is stored inline
+     */
+    public static final int MIN_BLOB_SIZE = 4096;
+    private static final ThreadLocal<BlobStore> current
+            = new ThreadLocal<BlobStore>();
+    private final File folder;
+    /**
+     * versioned file that contains the blobs (<code>null</code> if the blobs
+     * are located in a regular folder)
+     */
+    private final VersionedFile versionedFile;
+    /**
+     * path of the blob folder inside the versioned file
+     */
+    private final String path;
+    /**
+     * hashes of the blobs that have been stored since recording started
+     * (<code>null</code> if not recording)
+     */
+    private Set<String> recordedHashes;
+    /**
+     * blobs of in-memory stores by hash (<code>null</code> if the blobs are
+     * stored in a folder)
+     */
+    private final Map<String, byte[]> memoryBlobs;
+
+    /**
+     * Constructor. Creates a store that keeps its blobs in memory.
+     */
+    public BlobStore() {
+        this.folder = null;
+        this.versionedFile = null;
+        this.path = null;
+        this.memoryBlobs = new LinkedHashMap<String, byte[]>();
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param folder the folder that contains the blobs
+     */
+    public BlobStore(File folder) {
+        if (folder == null) {
+            throw new IllegalArgumentException(
+                    "Argument \"null\" not supported!");
+        }
+        this.folder = folder;
+        this.versionedFile = null;
+        this.path = null;
+        this.memoryBlobs = null;
+    }
+
+    /**
+     * Constructor. Creates a store that is located inside the content of the
+     * specified versioned file. If the file has been opened lazily, blobs are
+     * extracted on first access, i.e., the archive is never extracted
+     * completely.
+     *
+     * @param versionedFile the versioned file that contains the blobs (must
+     * be open)
+     * @param path the path of the blob folder (relative to the content
+     * folder, uses / as separator)
+     */
+    BlobStore(VersionedFile versionedFile, String path) {
+        if (versionedFile == null || path == null) {
+            throw new IllegalArgumentException(
+                    "Argument \"null\" not supported!");
+        }
+        this.versionedFile = versionedFile;
+        this.path = path.endsWith("/") ? path : path + "/";
+        this.folder = new File(versionedFile.getContentFolder(), path);
+        this.memoryBlobs = null;
+    }
+
+    /**
+     * Returns the folder that contains the blobs.
+     *
+     * @return the folder that contains the blobs or <code>null</code> if
+     * this store keeps its blobs in memory
+     */
+    public File getFolder() {
+        return folder;
+    }
+
+    /**
+     * Indicates whether this store keeps its blobs in memory.
+     *
+     * @return <code>true</code> if this store keeps its blobs in memory;
+     * <code>false</code> otherwise
+     */
+    public boolean isInMemory() {
+        return memoryBlobs != null;
+    }
+
+    /**
+     * Returns the hashes of all blobs of this store. Only supported by
+     * in-memory stores (see {@link #isInMemory()}).
+     *
+     * @return the hashes of all blobs of this store
+     * @throws UnsupportedOperationException if this store does not keep its
+     * blobs in memory
+     */
+    public Collection<String> getHashes() {
+        if (memoryBlobs == null) {
+            throw new UnsupportedOperationException(
+                    "Only supported by in-memory stores!");
+        }
+
+        synchronized (memoryBlobs) {
+            return new ArrayList<String>(memoryBlobs.keySet());
+        }
+    }
+
+    /**
+     * Returns the store that is used by the current thread, e.g., while
+     * loading or saving a session.
+     *
+     * @return the store that is used by the current thread or
+     * <code>null</code> if no store has been specified
+     */
+    public static BlobStore getCurrent() {
+        return current.get();
+    }
+
+    /**
+     * Defines the store that is used by the current thread.
+     *
+     * @param store store to use (may be <code>null</code>)
+     * @return the previously used store (may be <code>null</code>)
+     */
+    public static BlobStore setCurrent(BlobStore store) {
+        BlobStore previous = current.get();
+
+        if (store == null) {
+            current.remove();
+        } else {
+            current.set(store);
+        }
+
+        return previous;
+    }
+
+    /**
+     * Adds the specified data to this store. If this store already contains
+     * the data, nothing is written.
+     *
+     * @param data data to add
+     * @return the hash of the specified data
+     * @throws IOException if the data cannot be written
+     */
+    public String put(byte[] data) throws IOException {
+        String hash = IOUtil.generateSHA1Sum(data);
+
+        // existing blobs are recorded too, they might not be committed yet
+        record(hash);
+
+        if (memoryBlobs != null) {
+            synchronized (memoryBlobs) {
+                if (!memoryBlobs.containsKey(hash)) {
+                    memoryBlobs.put(hash, data.clone());
+                }
+            }
+            return hash;
+        }
+
+        File f = getFile(hash);
+
+        if (f.isFile()) {
+            return hash;
+        }
+
+        f.getParentFile().mkdirs();
+
+        // write to tmp file first, i.e., blobs are either complete or missing
+        File tmp = new File(f.getParentFile(), f.getName() + ".tmp");
+
+        OutputStream out = new GZIPOutputStream(new FileOutputStream(tmp));
+
+        try {
+            out.write(data);
+        } finally {
+            out.close();
+        }
+
+        if (!tmp.renameTo(f)) {
+            tmp.delete();
+
+            // another thread/process might have written the same blob
+            if (!f.isFile()) {
+                throw new IOException("Cannot write blob: " + f);
+            }
+        }
+
+        return hash;
+    }
+
+    /**
+     * Starts recording the hashes of stored blobs. Previously recorded hashes
+     * are discarded.
+     *
+     * @see #stopRecording()
+     */
+    public synchronized void startRecording() {
+        recordedHashes = new LinkedHashSet<String>();
+    }
+
+    /**
+     * Stops recording and returns the hashes of all blobs that have been
+     * stored since recording started (including blobs that already existed).
+     * Can be used to determine the blob files that belong to a saved session
+     * (see {@link #getRelativePath(java.lang.String)}).
+     *
+     * @return the recorded hashes (empty if recording has not been started)
+     */
+    public synchronized Collection<String> stopRecording() {
+        Collection<String> result = recordedHashes;
+        recordedHashes = null;
+
+        if (result == null) {
+            return Collections.emptySet();
+        }
+
+        return result;
+    }
+
+    /**
+     * Records the specified hash if recording has been started.
+     *
+     * @param hash hash to record
+     */
+    private synchronized void record(String hash) {
+        if (recordedHashes != null) {
+            recordedHashes.add(hash);
+        }
+    }
+
+    /**
+     * Returns the data with the specified hash.
+     *
+     * @param hash hash
+     * @return the data with the specified hash
+     * @throws IOException if this store does not contain the requested data
+     * or if the data cannot be read
+     */
+    public byte[] get(String hash) throws IOException {
+        if (memoryBlobs != null) {
+            checkHash(hash);
+
+            byte[] data;
+
+            synchronized (memoryBlobs) {
+                data = memoryBlobs.get(hash);
+            }
+
+            if (data == null) {
+                throw new IOException("Blob not found: " + hash);
+            }
+
+            return data.clone();
+        }
+
+        File f = getFile(hash);
+
+        if (!f.isFile()) {
+            throw new IOException("Blob not found: " + hash);
+        }
+
+        InputStream in = new GZIPInputStream(new FileInputStream(f));
+
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int n;
+
+            while ((n = in.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+
+            return out.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Indicates whether this store contains the data with the specified hash.
+     *
+     * @param hash hash
+     * @return <code>true</code> if this store contains the data;
+     * <code>false</code> otherwise
+     */
+    public boolean contains(String hash) {
+        if (memoryBlobs != null) {
+            checkHash(hash);
+
+            synchronized (memoryBlobs) {
+                return memoryBlobs.containsKey(hash);
+            }
+        }
+
+        return getFile(hash).isFile();
+    }
+
+    /**
+     * Returns the path of the blob with the specified hash (relative to the
+     * folder of the store, uses / as separator).
+     *
+     * @param hash hash
+     * @return the path of the blob with the specified hash
+     */
+    public static String getRelativePath(String hash) {
+        checkHash(hash);
+
+        return hash.substring(0, 2) + "/" + hash.substring(2);
+    }
+
+    /**
+     * Returns the file of the blob with the specified hash.
+     *
+     * @param hash hash
+     * @return the file of the blob with the specified hash
+     */
+    private File getFile(String hash) {
+        checkHash(hash);
+
+        // extracts the blob if the versioned file has been opened lazily
+        if (versionedFile != null) {
+            return versionedFile.getContentFile(
+                    path + getRelativePath(hash));
+        }
+
+        // two-level layout keeps folders small
+        return new File(new File(folder, hash.substring(0, 2)),
+                hash.substring(2));
+    }
+
+    /**
+     * Throws an exception if the specified string is no valid hash.
+     *
+     * @param hash string to check
+     */
+    private static void checkHash(String hash) {
+        if (hash == null || hash.length() < 3
+                || hash.indexOf('/') >= 0 || hash.indexOf('\\') >= 0
+                || hash.indexOf('.') >= 0) {
+            throw new IllegalArgumentException("Illegal hash: " + hash);
+        }
+    }
+
+    /**
+     * Returns a reference to the specified blob.
+     *
+     * @param type data type (must not contain <code>:</code>)
+     * @param hash hash of the blob
+     * @return a reference to the specified blob
+     */
+    public static String toReference(String type, String hash) {
+        return REFERENCE_PREFIX + type + ":" + hash;
+    }
+
+    /**
+     * Indicates whether the specified string is a blob reference.
+     *
+     * @param s string to check (may be <code>null</code>)
+     * @return <code>true</code> if the specified string is a blob reference;
+     * <code>false</code> otherwise
+     */
+    public static boolean isReference(String s) {
+        return s != null && s.startsWith(REFERENCE_PREFIX)
+                && s.indexOf(':', REFERENCE_PREFIX.length()) > 0;
+    }
+
+    /**
+     * Returns the data type of the specified blob reference.
+     *
+     * @param reference blob reference
+     * @return the data type of the specified blob reference
+     */
+    public static String getReferenceType(String reference) {
+        checkReference(reference);
+        return reference.substring(REFERENCE_PREFIX.length(),
+                reference.indexOf(':', REFERENCE_PREFIX.length()));
+    }
+
+    /**
+     * Returns the hash of the specified blob reference.
+     *
+     * @param reference blob reference
+     * @return the hash of the specified blob reference
+     */
+    public static String getReferenceHash(String reference) {
+        checkReference(reference);
+        return reference.substring(
+                reference.indexOf(':', REFERENCE_PREFIX.length()) + 1);
+    }
+
+    /**
+     * Returns the data of the specified blob reference.
+     *
+     * @param reference blob reference
+     * @return the data of the specified blob reference
+     * @throws IOException if this store does not contain the requested data
+     * or if the data cannot be read
+     */
+    public byte[] resolve(String reference) throws IOException {
+        return get(getReferenceHash(reference));
+    }
+
+    /**
+     * Throws an exception if the specified string is no blob reference.
+     *
+     * @param reference string to check
+     */
+    private static void checkReference(String reference) {
+        if (!isReference(reference)) {
+            throw new IllegalArgumentException(
+                    "Not a blob reference: " + reference);
+        }
+    }
+}
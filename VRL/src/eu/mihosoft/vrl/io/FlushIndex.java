@@ -0,0 +1,235 @@
+/* 
+ * FlushIndex.java
+ * 
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2007–2018 by Michael Hoffer,
+ * Copyright (c) 2015–2018 G-CSC, Uni Frankfurt,
+ * Copyright (c) 2009–2015 Steinbeis Forschungszentrum (STZ Ölbronn)
+ * 
+ * This file is part of Visual Reflection Library (VRL).
+ *
+ * VRL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * see: http://opensource.org/licenses/LGPL-3.0
+ *      file://path/to/VRL/src/eu/mihosoft/vrl/resources/license/lgplv3.txt
+ *
+ * VRL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * This version of VRL includes copyright notice and attribution requirements.
+ * According to the LGPL this information must be displayed even if you modify
+ * the source code of VRL. Neither the VRL Canvas attribution icon nor any
+ * copyright statement/attribution may be removed.
+ *
+ * Attribution Requirements:
+ *
+ * If you create derived work you must do three things regarding copyright
+ * notice and author attribution.
+ *
+ * First, the following text must be displayed on the Canvas:
+ * "based on VRL source code". In this case the VRL canvas icon must be removed.
+ * 
+ * Second, the copyright notice must remain. It must be reproduced in any
+ * program that uses VRL.
+ *
+ * Third, add an additional notice, stating that you modified VRL. A suitable
+ * notice might read
+ * "VRL source code modified by YourName 2012".
+ * 
+ * Note, that these requirements are in full accordance with the LGPL v3
+ * (see 7. Additional Terms, b).
+ *
+ * Please cite the publication(s) listed below.
+ *
+ * Publications:
+ *
+ * M. Hoffer, C. Poliwoda, & G. Wittum. (2013). Visual reflection library:
+ * a framework for declarative GUI programming on the Java platform.
+ * Computing and Visualization in Science, 2013, 16(4),
+ * 181–192. http://doi.org/10.1007/s00791-014-0230-y
+ */
+
+package eu.mihosoft.vrl.io;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Snapshot of the archive entries of a content folder. Each entry stores the
+ * size and the modification date of the corresponding file. Two snapshots can
+ * be compared to determine the entries that changed between two flushes of a
+ * {@link VersionedFile}.
+ * <p>
+ * A file that is modified shortly after the snapshot has been taken might
+ * keep its size and modification date (the resolution of file timestamps is
+ * limited). For such files the snapshot additionally stores a checksum of the
+ * content which is compared if size and modification date are equal.
+ * </p>
+ *
+ * @author Michael Hoffer &lt;info@michaelhoffer.de&gt;
+ */
+final class FlushIndex {
+
+    /**
+     * resolution of file modification dates (conservative, FAT uses 2s)
+     */
+    private static final long TIMESTAMP_RESOLUTION = 2000;
+    private final Map<String, File> files;
+    private final Map<String, long[]> stamps;
+    private final Map<String, String> checksums;
+
+    /**
+     * Constructor.
+     *
+     * @param files archive entries (entry name, file)
+     */
+    private FlushIndex(Map<String, File> files) {
+        this.files = files;
+        this.stamps = new HashMap<String, long[]>(files.size() * 2);
+        this.checksums = new HashMap<String, String>();
+
+        long snapshotTime = System.currentTimeMillis();
+
+        for (Map.Entry<String, File> e : files.entrySet()) {
+            addStamp(e.getKey(), e.getValue(), snapshotTime);
+        }
+    }
+
+    /**
+     * Stores the stamp of the specified entry. If the file has been modified
+     * within the timestamp resolution before the snapshot time, a later
+     * modification might not change the stamp. In this case the checksum of
+     * the file is stored as well.
+     *
+     * @param name entry name
+     * @param f file
+     * @param snapshotTime time before the stamp is created
+     */
+    private void addStamp(String name, File f, long snapshotTime) {
+        long[] stamp = f.isDirectory()
+                ? new long[]{0, 0}
+                : new long[]{f.length(), f.lastModified()};
+
+        stamps.put(name, stamp);
+
+        if (!f.isDirectory()
+                && stamp[1] > snapshotTime - TIMESTAMP_RESOLUTION) {
+            checksums.put(name, IOUtil.generateSHA1Sum(f));
+        } else {
+            checksums.remove(name);
+        }
+    }
+
+    /**
+     * Adds the specified entries to this snapshot, e.g., entries that have been
+     * extracted from the archive after the snapshot was taken.
+     *
+     * @param entries entries to add (entry name, file)
+     */
+    void addAll(Map<String, File> entries) {
+        long snapshotTime = System.currentTimeMillis();
+
+        for (Map.Entry<String, File> e : entries.entrySet()) {
+            files.put(e.getKey(), e.getValue());
+            addStamp(e.getKey(), e.getValue(), snapshotTime);
+        }
+    }
+
+    /**
+     * Creates a snapshot of the specified folder.
+     *
+     * @param folder content folder
+     * @param endings endings (only files that end with one of these strings
+     * will be included)
+     * @return the snapshot
+     */
+    static FlushIndex scan(File folder, String... endings) {
+        return new FlushIndex(IOUtil.listZipEntriesOfFolder(folder, endings));
+    }
+
+    /**
+     * Returns the entry names of this snapshot.
+     *
+     * @return the entry names of this snapshot
+     */
+    Set<String> getEntryNames() {
+        return files.keySet();
+    }
+
+    /**
+     * Returns the entries that have been added or modified since the
+     * specified snapshot was taken.
+     *
+     * @param previous previous snapshot
+     * @return the changed entries (entry name, file)
+     */
+    Map<String, File> getChangedEntries(FlushIndex previous) {
+        Map<String, File> result = new LinkedHashMap<String, File>();
+
+        for (Map.Entry<String, File> e : files.entrySet()) {
+            long[] stamp = stamps.get(e.getKey());
+            long[] previousStamp = previous.stamps.get(e.getKey());
+
+            if (previousStamp == null
+                    || stamp[0] != previousStamp[0]
+                    || stamp[1] != previousStamp[1]
+                    || !previous.hasSameContent(e.getKey(), e.getValue())) {
+                result.put(e.getKey(), e.getValue());
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Compares the specified file with the checksum stored in this snapshot.
+     * Entries without checksum are assumed to be unchanged (their stamp is
+     * reliable).
+     *
+     * @param name entry name
+     * @param f file
+     * @return <code>true</code> if the file content matches the checksum of
+     * this snapshot or if no checksum has been stored; <code>false</code>
+     * otherwise
+     */
+    private boolean hasSameContent(String name, File f) {
+        String checksum = checksums.get(name);
+
+        if (checksum == null) {
+            return true;
+        }
+
+        // empty checksum: file could not be read when the snapshot was taken
+        return !checksum.isEmpty()
+                && checksum.equals(IOUtil.generateSHA1Sum(f));
+    }
+
+    /**
+     * Returns the entries that have been removed since the specified snapshot
+     * was taken.
+     *
+     * @param previous previous snapshot
+     * @return the names of the removed entries
+     */
+    Collection<String> getRemovedEntries(FlushIndex previous) {
+        Collection<String> result = new ArrayList<String>();
+
+        for (String name : previous.files.keySet()) {
+            if (!files.containsKey(name)) {
+                result.add(name);
+            }
+        }
+
+        return result;
+    }
+}
@@ -289,7 +289,20 @@ public class IOUtil {
         MessageDigest md = null;
         try {
             md = MessageDigest.getInstance("SHA-1");
-            return convertToHex(md.digest(fileToByteArray(f)));
+
+            // we don't load the whole file into memory
+            InputStream in = new FileInputStream(f);
+            try {
+                byte[] buffer = new byte[8192];
+                int n;
+                while ((n = in.read(buffer)) != -1) {
+                    md.update(buffer, 0, n);
+                }
+            } finally {
+                in.close();
+            }
+
+            return convertToHex(md.digest());
         } catch (FileNotFoundException ex) {
             Logger.getLogger(IOUtil.class.getName()).log(Level.SEVERE, null, ex);
         } catch (IOException ex) {
@@ -1287,6 +1300,54 @@ public class IOUtil {
         }
     }
 
+    /**
+     * Returns the entries {@link #zipContentOfFolder(java.io.File, java.io.File,
+     * java.lang.String[]) } would create for the specified folder, i.e., all
+     * folders and all files that end with one of the specified strings. The
+     * entries are returned in the same order as they are written by
+     * <code>zipContentOfFolder()</code>.
+     *
+     * @param srcFolder the source folder
+     * @param endings strings (only files that end with one of these strings
+     * will be included)
+     * @return map containing the entry names (folder names end with
+     * <code>/</code>) and the corresponding files
+     */
+    static Map<String, File> listZipEntriesOfFolder(
+            File srcFolder, String... endings) {
+
+        VParamUtil.throwIfNotValid(
+                VParamUtil.VALIDATOR_EXISTING_FOLDER,
+                null, srcFolder);
+
+        final URI base = srcFolder.toURI();
+
+        Map<String, File> result = new LinkedHashMap<String, File>();
+
+        Deque<File> queue = new LinkedList<File>();
+        queue.push(srcFolder);
+
+        Set<File> matchedFiles = _getFilteredContent(srcFolder, endings);
+
+        while (!queue.isEmpty()) {
+            File folder = queue.pop();
+            for (File kid : folder.listFiles()) {
+
+                String name = base.relativize(kid.toURI()).getPath();
+
+                if (kid.isDirectory()) {
+                    queue.push(kid);
+                    name = name.endsWith("/") ? name : name + "/";
+                    result.put(name, kid);
+                } else if (matchedFiles.contains(kid)) {
+                    result.put(name, kid);
+                }
+            }
+        }
+
+        return result;
+    }
+
     /**
      * Compresses the content of a given folder and saves it as zip archive
      * file.
@@ -1454,12 +1515,30 @@ public class IOUtil {
                 } finally {
                     in.close();
                 }
+                restoreModificationDate(entry, file);
             }
         }
 
         zfile.close();
     }
 
+    /**
+     * Sets the modification date of an extracted file to the date of the
+     * corresponding archive entry. Otherwise extracted files cannot be
+     * distinguished from files that have been modified after extraction
+     * (see {@link FlushIndex}).
+     *
+     * @param entry archive entry
+     * @param file extracted file
+     */
+    static void restoreModificationDate(ZipEntry entry, File file) {
+        long time = entry.getTime();
+
+        if (time >= 0) {
+            file.setLastModified(time);
+        }
+    }
+
     // 08.06.2012 TODO: check whether channels are really so much faster than stream&custom buffer
     private static void _copy(InputStream in, OutputStream out) throws IOException {
         byte[] buffer = new byte[1024];
@@ -0,0 +1,112 @@
+/* 
+ * IncrementalArchiveFormat.java
+ * 
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2007–2018 by Michael Hoffer,
+ * Copyright (c) 2015–2018 G-CSC, Uni Frankfurt,
+ * Copyright (c) 2009–2015 Steinbeis Forschungszentrum (STZ Ölbronn)
+ * 
+ * This file is part of Visual Reflection Library (VRL).
+ *
+ * VRL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * see: http://opensource.org/licenses/LGPL-3.0
+ *      file://path/to/VRL/src/eu/mihosoft/vrl/resources/license/lgplv3.txt
+ *
+ * VRL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * This version of VRL includes copyright notice and attribution requirements.
+ * According to the LGPL this information must be displayed even if you modify
+ * the source code of VRL. Neither the VRL Canvas attribution icon nor any
+ * copyright statement/attribution may be removed.
+ *
+ * Attribution Requirements:
+ *
+ * If you create derived work you must do three things regarding copyright
+ * notice and author attribution.
+ *
+ * First, the following text must be displayed on the Canvas:
+ * "based on VRL source code". In this case the VRL canvas icon must be removed.
+ * 
+ * Second, the copyright notice must remain. It must be reproduced in any
+ * program that uses VRL.
+ *
+ * Third, add an additional notice, stating that you modified VRL. A suitable
+ * notice might read
+ * "VRL source code modified by YourName 2012".
+ * 
+ * Note, that these requirements are in full accordance with the LGPL v3
+ * (see 7. Additional Terms, b).
+ *
+ * Please cite the publication(s) listed below.
+ *
+ * Publications:
+ *
+ * M. Hoffer, C. Poliwoda, & G. Wittum. (2013). Visual reflection library:
+ * a framework for declarative GUI programming on the Java platform.
+ * Computing and Visualization in Science, 2013, 16(4),
+ * 181–192. http://doi.org/10.1007/s00791-014-0230-y
+ */
+
+package eu.mihosoft.vrl.io;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Archive format that supports incremental updates of existing archives. Used
+ * by {@link VersionedFile} to flush only those entries that changed since the
+ * last flush.
+ *
+ * @author Michael Hoffer &lt;info@michaelhoffer.de&gt;
+ */
+public interface IncrementalArchiveFormat extends ArchiveFormat {
+
+    /**
+     * Returns the names of all entries of the specified archive.
+     *
+     * @param archive archive file
+     * @return the entry names or <code>null</code> if the archive cannot be
+     * read or cannot be updated incrementally
+     */
+    public Set<String> getEntryNames(File archive);
+
+    /**
+     * Updates the specified archive. Changed entries replace existing entries
+     * with the same name, removed entries are deleted from the archive. An
+     * interrupted update can be reverted via
+     * {@link #recover(java.io.File, java.io.File) }.
+     *
+     * @param archive archive file to update
+     * @param changedEntries changed entries (entry name, file). Entry names of
+     * folders end with <code>/</code>
+     * @param removedEntries names of removed entries
+     * @param journal journal file that is used to revert interrupted updates
+     * @return <code>true</code> if the archive has been updated;
+     * <code>false</code> if the archive cannot be updated incrementally (the
+     * archive is left unchanged in this case)
+     */
+    public boolean update(File archive,
+            Map<String, File> changedEntries,
+            Collection<String> removedEntries,
+            File journal);
+
+    /**
+     * Reverts an interrupted update of the specified archive. Does nothing if
+     * the journal file does not exist.
+     *
+     * @param archive archive file
+     * @param journal journal file
+     * @return <code>true</code> if an interrupted update has been reverted;
+     * <code>false</code> otherwise
+     */
+    public boolean recover(File archive, File journal);
+}
@@ -0,0 +1,423 @@
+/* 
+ * JarIndex.java
+ * 
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2007–2018 by Michael Hoffer,
+ * Copyright (c) 2015–2018 G-CSC, Uni Frankfurt,
+ * Copyright (c) 2009–2015 Steinbeis Forschungszentrum (STZ Ölbronn)
+ * 
+ * This file is part of Visual Reflection Library (VRL).
+ *
+ * VRL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * see: http://opensource.org/licenses/LGPL-3.0
+ *      file://path/to/VRL/src/eu/mihosoft/vrl/resources/license/lgplv3.txt
+ *
+ * VRL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * This version of VRL includes copyright notice and attribution requirements.
+ * According to the LGPL this information must be displayed even if you modify
+ * the source code of VRL. Neither the VRL Canvas attribution icon nor any
+ * copyright statement/attribution may be removed.
+ *
+ * Attribution Requirements:
+ *
+ * If you create derived work you must do three things regarding copyright
+ * notice and author attribution.
+ *
+ * First, the following text must be displayed on the Canvas:
+ * "based on VRL source code". In this case the VRL canvas icon must be removed.
+ * 
+ * Second, the copyright notice must remain. It must be reproduced in any
+ * program that uses VRL.
+ *
+ * Third, add an additional notice, stating that you modified VRL. A suitable
+ * notice might read
+ * "VRL source code modified by YourName 2012".
+ * 
+ * Note, that these requirements are in full accordance with the LGPL v3
+ * (see 7. Additional Terms, b).
+ *
+ * Please cite the publication(s) listed below.
+ *
+ * Publications:
+ *
+ * M. Hoffer, C. Poliwoda, & G. Wittum. (2013). Visual reflection library:
+ * a framework for declarative GUI programming on the Java platform.
+ * Computing and Visualization in Science, 2013, 16(4),
+ * 181–192. http://doi.org/10.1007/s00791-014-0230-y
+ */
+
+package eu.mihosoft.vrl.io;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.jar.JarInputStream;
+
+/**
+ * <p>
+ * Entry and class name index of a jar file. Indices are cached in memory and,
+ * if a cache folder has been specified, on disk. Cached indices are used as
+ * long as size and modification date of the jar file do not change, i.e.,
+ * jar files are only scanned if they are new or have been modified.
+ * </p>
+ * <p>
+ * Class names are stored in sorted order which allows efficient prefix
+ * search (see {@link #getClassNamesWithPrefix(java.lang.String)}).
+ * </p>
+ *
+ * @author Michael Hoffer &lt;info@michaelhoffer.de&gt;
+ */
+public final class JarIndex {
+
+    /**
+     * first line of index files (format version)
+     */
+    private static final String HEADER = "VRL-JarIndex 1";
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final ConcurrentMap<File, JarIndex> indices
+            = new ConcurrentHashMap<File, JarIndex>();
+    private static volatile File cacheFolder;
+    private final File jarFile;
+    private final long size;
+    private final long lastModified;
+    private final List<String> entryNames;
+    private final List<String> classNames;
+    private final String[] sortedClassNames;
+
+    /**
+     * Constructor.
+     *
+     * @param jarFile jar file
+     * @param size size of the jar file
+     * @param lastModified modification date of the jar file
+     * @param entryNames names of all entries of the jar file
+     */
+    private JarIndex(File jarFile, long size, long lastModified,
+            List<String> entryNames) {
+        this.jarFile = jarFile;
+        this.size = size;
+        this.lastModified = lastModified;
+        this.entryNames = Collections.unmodifiableList(
+                new ArrayList<String>(entryNames));
+
+        ArrayList<String> names = new ArrayList<String>();
+
+        for (String name : entryNames) {
+            // same rules as VJarUtil.getClassNamesFromStream()
+            boolean isInDirectory = name.lastIndexOf("/") > 0;
+            boolean isClassFile = name.endsWith(".class");
+
+            if (isInDirectory && isClassFile) {
+                names.add(VJarUtil.pathToClassName(name));
+            }
+        }
+
+        this.classNames = Collections.unmodifiableList(names);
+        this.sortedClassNames = names.toArray(new String[names.size()]);
+        Arrays.sort(sortedClassNames);
+    }
+
+    /**
+     * Defines the folder where indices are stored. If no folder is specified,
+     * indices are only cached in memory.
+     *
+     * @param folder the folder to set (may be <code>null</code>)
+     */
+    public static void setCacheFolder(File folder) {
+        cacheFolder = folder;
+    }
+
+    /**
+     * Returns the folder where indices are stored.
+     *
+     * @return the folder where indices are stored or <code>null</code> if
+     * indices are only cached in memory
+     */
+    public static File getCacheFolder() {
+        return cacheFolder;
+    }
+
+    /**
+     * Returns the index of the specified jar file. The jar file is only
+     * scanned if no valid index exists.
+     *
+     * @param f jar file
+     * @return the index of the specified jar file
+     * @throws IOException if the jar file cannot be read
+     */
+    public static JarIndex getIndex(File f) throws IOException {
+        File jar = f.getAbsoluteFile();
+
+        JarIndex index = indices.get(jar);
+
+        if (index != null && index.matches(jar)) {
+            return index;
+        }
+
+        index = load(jar);
+
+        if (index == null) {
+            index = scan(jar);
+            save(index);
+        }
+
+        indices.put(jar, index);
+
+        return index;
+    }
+
+    /**
+     * Removes all indices from the in-memory cache.
+     */
+    public static void clearCache() {
+        indices.clear();
+    }
+
+    /**
+     * Returns the jar file of this index.
+     *
+     * @return the jar file of this index
+     */
+    public File getJarFile() {
+        return jarFile;
+    }
+
+    /**
+     * Returns the names of all entries (in jar order).
+     *
+     * @return unmodifiable list containing the names of all entries
+     */
+    public List<String> getEntryNames() {
+        return entryNames;
+    }
+
+    /**
+     * Returns the names of all classes (in jar order).
+     *
+     * @return unmodifiable list containing the names of all classes
+     */
+    public List<String> getClassNames() {
+        return classNames;
+    }
+
+    /**
+     * Indicates whether the jar file contains the specified class.
+     *
+     * @param className fully qualified class name
+     * @return <code>true</code> if the jar file contains the specified class;
+     * <code>false</code> otherwise
+     */
+    public boolean containsClass(String className) {
+        return Arrays.binarySearch(sortedClassNames, className) >= 0;
+    }
+
+    /**
+     * Returns the names of all classes that start with the specified prefix.
+     *
+     * @param prefix prefix (case sensitive)
+     * @return the names of all classes that start with the specified prefix
+     * (sorted)
+     */
+    public List<String> getClassNamesWithPrefix(String prefix) {
+        int start = Arrays.binarySearch(sortedClassNames, prefix);
+
+        if (start < 0) {
+            start = -start - 1;
+        }
+
+        int end = start;
+
+        while (end < sortedClassNames.length
+                && sortedClassNames[end].startsWith(prefix)) {
+            end++;
+        }
+
+        return Collections.unmodifiableList(
+                Arrays.asList(sortedClassNames).subList(start, end));
+    }
+
+    /**
+     * Indicates whether size and modification date of the specified file
+     * match this index.
+     *
+     * @param f jar file
+     * @return <code>true</code> if this index matches the specified file;
+     * <code>false</code> otherwise
+     */
+    private boolean matches(File f) {
+        return f.length() == size && f.lastModified() == lastModified;
+    }
+
+    /**
+     * Scans the specified jar file.
+     *
+     * @param jar jar file
+     * @return the index of the specified jar file
+     * @throws IOException if the jar file cannot be read
+     */
+    private static JarIndex scan(File jar) throws IOException {
+        long size = jar.length();
+        long lastModified = jar.lastModified();
+
+        List<String> entries = VJarUtil.getEntryNamesFromStream(
+                new JarInputStream(new FileInputStream(jar)));
+
+        return new JarIndex(jar, size, lastModified, entries);
+    }
+
+    /**
+     * Returns the index file of the specified jar file.
+     *
+     * @param jar jar file
+     * @return the index file of the specified jar file or <code>null</code> if
+     * no cache folder has been specified
+     */
+    private static File getIndexFile(File jar) {
+        File folder = cacheFolder;
+
+        if (folder == null) {
+            return null;
+        }
+
+        return new File(folder, IOUtil.generateSHA1Sum(
+                jar.getPath().getBytes(UTF8)) + ".idx");
+    }
+
+    /**
+     * Loads the index of the specified jar file from the cache folder.
+     *
+     * @param jar jar file
+     * @return the index or <code>null</code> if no valid index exists
+     */
+    private static JarIndex load(File jar) {
+        File indexFile = getIndexFile(jar);
+
+        if (indexFile == null || !indexFile.isFile()) {
+            return null;
+        }
+
+        BufferedReader reader = null;
+
+        try {
+            reader = new BufferedReader(new InputStreamReader(
+                    new FileInputStream(indexFile), UTF8));
+
+            if (!HEADER.equals(reader.readLine())
+                    || !jar.getPath().equals(reader.readLine())) {
+                return null;
+            }
+
+            long size = Long.parseLong(reader.readLine());
+            long lastModified = Long.parseLong(reader.readLine());
+
+            if (jar.length() != size || jar.lastModified() != lastModified) {
+                return null;
+            }
+
+            List<String> entries = new ArrayList<String>();
+
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                entries.add(line);
+            }
+
+            return new JarIndex(jar, size, lastModified, entries);
+        } catch (IOException ex) {
+            return null;
+        } catch (NumberFormatException ex) {
+            return null;
+        } finally {
+            close(reader);
+        }
+    }
+
+    /**
+     * Saves the specified index to the cache folder.
+     *
+     * @param index index to save
+     */
+    private static void save(JarIndex index) {
+        File indexFile = getIndexFile(index.jarFile);
+
+        if (indexFile == null) {
+            return;
+        }
+
+        // write to tmp file first, other VRL instances may read the index
+        File tmpFile = new File(indexFile.getPath() + ".tmp");
+
+        BufferedWriter writer = null;
+
+        try {
+            indexFile.getParentFile().mkdirs();
+
+            writer = new BufferedWriter(new OutputStreamWriter(
+                    new FileOutputStream(tmpFile), UTF8));
+
+            writer.write(HEADER);
+            writer.newLine();
+            writer.write(index.jarFile.getPath());
+            writer.newLine();
+            writer.write(Long.toString(index.size));
+            writer.newLine();
+            writer.write(Long.toString(index.lastModified));
+            writer.newLine();
+
+            for (String entry : index.entryNames) {
+                writer.write(entry);
+                writer.newLine();
+            }
+
+            writer.close();
+            writer = null;
+
+            if (!tmpFile.renameTo(indexFile)) {
+                indexFile.delete();
+                tmpFile.renameTo(indexFile);
+            }
+        } catch (IOException ex) {
+            // index is optional
+            System.out.println(">> cannot save jar index: " + indexFile);
+            tmpFile.delete();
+        } finally {
+            close(writer);
+        }
+    }
+
+    /**
+     * Closes the specified reader or writer and ignores exceptions.
+     *
+     * @param c reader or writer to close (may be <code>null</code>)
+     */
+    private static void close(Closeable c) {
+        if (c != null) {
+            try {
+                c.close();
+            } catch (IOException ex) {
+                ex.printStackTrace(System.err);
+            }
+        }
+    }
+}
@@ -0,0 +1,356 @@
+/* 
+ * LazyArchiveContent.java
+ * 
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2007–2018 by Michael Hoffer,
+ * Copyright (c) 2015–2018 G-CSC, Uni Frankfurt,
+ * Copyright (c) 2009–2015 Steinbeis Forschungszentrum (STZ Ölbronn)
+ * 
+ * This file is part of Visual Reflection Library (VRL).
+ *
+ * VRL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * see: http://opensource.org/licenses/LGPL-3.0
+ *      file://path/to/VRL/src/eu/mihosoft/vrl/resources/license/lgplv3.txt
+ *
+ * VRL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * This version of VRL includes copyright notice and attribution requirements.
+ * According to the LGPL this information must be displayed even if you modify
+ * the source code of VRL. Neither the VRL Canvas attribution icon nor any
+ * copyright statement/attribution may be removed.
+ *
+ * Attribution Requirements:
+ *
+ * If you create derived work you must do three things regarding copyright
+ * notice and author attribution.
+ *
+ * First, the following text must be displayed on the Canvas:
+ * "based on VRL source code". In this case the VRL canvas icon must be removed.
+ * 
+ * Second, the copyright notice must remain. It must be reproduced in any
+ * program that uses VRL.
+ *
+ * Third, add an additional notice, stating that you modified VRL. A suitable
+ * notice might read
+ * "VRL source code modified by YourName 2012".
+ * 
+ * Note, that these requirements are in full accordance with the LGPL v3
+ * (see 7. Additional Terms, b).
+ *
+ * Please cite the publication(s) listed below.
+ *
+ * Publications:
+ *
+ * M. Hoffer, C. Poliwoda, & G. Wittum. (2013). Visual reflection library:
+ * a framework for declarative GUI programming on the Java platform.
+ * Computing and Visualization in Science, 2013, 16(4),
+ * 181–192. http://doi.org/10.1007/s00791-014-0230-y
+ */
+
+package eu.mihosoft.vrl.io;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+/**
+ * Content of a zip archive that is extracted on demand. The archive is read in
+ * place and entries are extracted to the destination folder on first access.
+ * Entries that already exist in the destination folder are never overwritten.
+ * Used by {@link VersionedFile} to open files lazily.
+ *
+ * @author Michael Hoffer &lt;info@michaelhoffer.de&gt;
+ */
+final class LazyArchiveContent implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private final File archive;
+    private final File destFolder;
+    private final String destPath;
+    /**
+     * entries that have not been extracted yet (sorted for prefix queries)
+     */
+    private final SortedSet<String> pendingEntries = new TreeSet<String>();
+    /**
+     * archive (opened on demand)
+     */
+    private ZipFile zip;
+
+    /**
+     * Constructor. Reads the entry names of the specified archive. No entry
+     * is extracted.
+     *
+     * @param archive archive
+     * @param destFolder destination folder (will be created if it does not
+     * exist)
+     * @throws IOException if the archive cannot be read
+     */
+    LazyArchiveContent(File archive, File destFolder) throws IOException {
+        this.archive = archive;
+        this.destFolder = destFolder;
+
+        destFolder.mkdirs();
+
+        this.destPath = destFolder.getCanonicalPath() + File.separator;
+
+        Enumeration<? extends ZipEntry> entries = getZipFile().entries();
+
+        while (entries.hasMoreElements()) {
+            pendingEntries.add(entries.nextElement().getName());
+        }
+    }
+
+    /**
+     * Indicates whether all entries have been extracted.
+     *
+     * @return <code>true</code> if all entries have been extracted;
+     * <code>false</code> otherwise
+     */
+    synchronized boolean isComplete() {
+        return pendingEntries.isEmpty();
+    }
+
+    /**
+     * Extracts the specified entry. If the specified path denotes a folder all
+     * entries in this folder are extracted.
+     *
+     * @param path entry path (relative to the destination folder)
+     * @return the extracted entries (entry name, file)
+     * @throws IOException if extraction failed
+     */
+    synchronized Map<String, File> extract(String path) throws IOException {
+
+        while (path.startsWith("/")) {
+            path = path.substring(1);
+        }
+
+        List<String> names = new ArrayList<String>();
+
+        if (pendingEntries.contains(path)) {
+            names.add(path);
+        }
+
+        String folder = path.isEmpty() || path.endsWith("/")
+                ? path : path + "/";
+
+        for (String name : pendingEntries.tailSet(folder)) {
+            if (!name.startsWith(folder)) {
+                break;
+            }
+            names.add(name);
+        }
+
+        return extract(names);
+    }
+
+    /**
+     * Extracts all entries except those in the specified folders.
+     *
+     * @param excludedFolders folders to exclude (must end with <code>/</code>)
+     * @return the extracted entries (entry name, file)
+     * @throws IOException if extraction failed
+     */
+    synchronized Map<String, File> extractAllExcept(String... excludedFolders)
+            throws IOException {
+        List<String> names = new ArrayList<String>();
+
+        for (String name : pendingEntries) {
+            if (!isInFolder(name, excludedFolders)) {
+                names.add(name);
+            }
+        }
+
+        return extract(names);
+    }
+
+    /**
+     * Extracts all entries that end with one of the specified endings except
+     * those in the specified folders.
+     *
+     * @param endings entry endings, e.g., <code>.class</code>
+     * @param excludedFolders folders to exclude (must end with <code>/</code>)
+     * @return the extracted entries (entry name, file)
+     * @throws IOException if extraction failed
+     */
+    synchronized Map<String, File> extractAllEndingWith(String[] endings,
+            String... excludedFolders) throws IOException {
+        List<String> names = new ArrayList<String>();
+
+        for (String name : pendingEntries) {
+            if (isInFolder(name, excludedFolders)) {
+                continue;
+            }
+
+            for (String ending : endings) {
+                if (name.endsWith(ending)) {
+                    names.add(name);
+                    break;
+                }
+            }
+        }
+
+        return extract(names);
+    }
+
+    /**
+     * Indicates whether the specified entry is located in one of the
+     * specified folders.
+     *
+     * @param name entry name
+     * @param folders folders (must end with <code>/</code>)
+     * @return <code>true</code> if the entry is located in one of the
+     * specified folders; <code>false</code> otherwise
+     */
+    private static boolean isInFolder(String name, String... folders) {
+        for (String folder : folders) {
+            if (name.startsWith(folder)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Extracts the specified entries and their parent folders.
+     *
+     * @param names entry names
+     * @return the extracted entries (entry name, file)
+     * @throws IOException if extraction failed
+     */
+    private Map<String, File> extract(List<String> names) throws IOException {
+
+        Map<String, File> result = new LinkedHashMap<String, File>();
+
+        for (String name : names) {
+
+            // parent folders
+            int slash = name.lastIndexOf('/', name.length() - 2);
+
+            while (slash > 0) {
+                String parent = name.substring(0, slash + 1);
+                if (pendingEntries.contains(parent)) {
+                    extractEntry(parent, result);
+                }
+                slash = name.lastIndexOf('/', slash - 1);
+            }
+
+            if (pendingEntries.contains(name)) {
+                extractEntry(name, result);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Extracts the specified entry. Existing files are not overwritten and are
+     * not added to the result.
+     *
+     * @param name entry name
+     * @param result extracted entries
+     * @throws IOException if extraction failed
+     */
+    private void extractEntry(String name, Map<String, File> result)
+            throws IOException {
+
+        File file = new File(destFolder, name);
+
+        if (!file.getCanonicalPath().startsWith(destPath)) {
+            throw new ZipException(
+                    "Entry outside of destination folder: " + name);
+        }
+
+        pendingEntries.remove(name);
+
+        if (name.endsWith("/")) {
+            file.mkdirs();
+            result.put(name, file);
+            return;
+        }
+
+        if (file.exists()) {
+            return;
+        }
+
+        file.getParentFile().mkdirs();
+
+        ZipFile zipFile = getZipFile();
+        ZipEntry entry = zipFile.getEntry(name);
+
+        if (entry == null) {
+            throw new ZipException("Entry \"" + name
+                    + "\" does not exist in archive: " + archive);
+        }
+
+        InputStream in = zipFile.getInputStream(entry);
+
+        try {
+            FileOutputStream out = new FileOutputStream(file);
+
+            try {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int n;
+
+                while ((n = in.read(buffer)) >= 0) {
+                    out.write(buffer, 0, n);
+                }
+            } finally {
+                out.close();
+            }
+        } finally {
+            in.close();
+        }
+
+        IOUtil.restoreModificationDate(entry, file);
+
+        result.put(name, file);
+    }
+
+    /**
+     * Returns the archive. Opens it if necessary.
+     *
+     * @return the archive
+     * @throws IOException if the archive cannot be opened
+     */
+    private ZipFile getZipFile() throws IOException {
+        if (zip == null) {
+            zip = new ZipFile(archive);
+        }
+
+        return zip;
+    }
+
+    /**
+     * Closes the archive. It will be reopened on next access. This method has
+     * to be called before the archive is modified.
+     *
+     * @throws IOException if the archive cannot be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (zip != null) {
+            zip.close();
+            zip = null;
+        }
+    }
+}
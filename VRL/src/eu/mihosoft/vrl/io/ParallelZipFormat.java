@@ -0,0 +1,558 @@
+/* 
+ * ParallelZipFormat.java
+ * 
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2007–2018 by Michael Hoffer,
+ * Copyright (c) 2015–2018 G-CSC, Uni Frankfurt,
+ * Copyright (c) 2009–2015 Steinbeis Forschungszentrum (STZ Ölbronn)
+ * 
+ * This file is part of Visual Reflection Library (VRL).
+ *
+ * VRL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * see: http://opensource.org/licenses/LGPL-3.0
+ *      file://path/to/VRL/src/eu/mihosoft/vrl/resources/license/lgplv3.txt
+ *
+ * VRL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * This version of VRL includes copyright notice and attribution requirements.
+ * According to the LGPL this information must be displayed even if you modify
+ * the source code of VRL. Neither the VRL Canvas attribution icon nor any
+ * copyright statement/attribution may be removed.
+ *
+ * Attribution Requirements:
+ *
+ * If you create derived work you must do three things regarding copyright
+ * notice and author attribution.
+ *
+ * First, the following text must be displayed on the Canvas:
+ * "based on VRL source code". In this case the VRL canvas icon must be removed.
+ * 
+ * Second, the copyright notice must remain. It must be reproduced in any
+ * program that uses VRL.
+ *
+ * Third, add an additional notice, stating that you modified VRL. A suitable
+ * notice might read
+ * "VRL source code modified by YourName 2012".
+ * 
+ * Note, that these requirements are in full accordance with the LGPL v3
+ * (see 7. Additional Terms, b).
+ *
+ * Please cite the publication(s) listed below.
+ *
+ * Publications:
+ *
+ * M. Hoffer, C. Poliwoda, & G. Wittum. (2013). Visual reflection library:
+ * a framework for declarative GUI programming on the Java platform.
+ * Computing and Visualization in Science, 2013, 16(4),
+ * 181–192. http://doi.org/10.1007/s00791-014-0230-y
+ */
+
+package eu.mihosoft.vrl.io;
+
+import eu.mihosoft.vrl.system.VParamUtil;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+/**
+ * Zip format that packs and unpacks archives in parallel. Entries are
+ * compressed concurrently into separate buffers and written sequentially.
+ * Already compressed files (see {@link ZipArchiveUpdater#isCompressed(
+ * java.lang.String) }) are stored and copied via
+ * {@link FileChannel#transferTo(long, long,
+ * java.nio.channels.WritableByteChannel) }. Archives created by this format
+ * are regular zip files and support incremental updates.
+ *
+ * <p>If an archive exceeds the limits of the zip format without zip64
+ * extensions, packing falls back to {@link ZipFormat}.</p>
+ *
+ * @author Michael Hoffer &lt;info@michaelhoffer.de&gt;
+ */
+public class ParallelZipFormat extends ZipFormat {
+
+    private static final String IDENTIFIER = "PARALLEL_ZIP";
+    private static final int BUFFER_SIZE = 1 << 16;
+    /**
+     * files larger than this are compressed while writing (not buffered)
+     */
+    private static final long MAX_BUFFERED_SIZE = 1 << 26;
+    /**
+     * maximum number of bytes that are buffered by pending entries (a single
+     * entry may exceed this limit)
+     */
+    private static final long MAX_PENDING_SIZE = 1 << 28;
+    private final int numberOfThreads;
+    private final int compressionLevel;
+
+    /**
+     * Constructor. Uses one thread per available processor and the default
+     * compression level.
+     */
+    public ParallelZipFormat() {
+        this(Runtime.getRuntime().availableProcessors(),
+                Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param numberOfThreads number of threads
+     * @param compressionLevel compression level (see {@link Deflater})
+     */
+    public ParallelZipFormat(int numberOfThreads, int compressionLevel) {
+        if (numberOfThreads < 1) {
+            throw new IllegalArgumentException(
+                    "At least one thread is required!");
+        }
+
+        this.numberOfThreads = numberOfThreads;
+        this.compressionLevel = compressionLevel;
+    }
+
+    @Override
+    public boolean packContentsOfFolder(
+            File folder, File destFile, String... endings) {
+        try {
+            pack(IOUtil.listZipEntriesOfFolder(folder, endings), destFile);
+        } catch (ZipException ex) {
+            // zip64 required
+            return super.packContentsOfFolder(folder, destFile, endings);
+        } catch (IOException ex) {
+            Logger.getLogger(ParallelZipFormat.class.getName()).
+                    log(Level.SEVERE, null, ex);
+            return false;
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean packContentsOfFolder(File folder, File destFile) {
+        try {
+            // every path ends with the empty string
+            pack(IOUtil.listZipEntriesOfFolder(folder, ""), destFile);
+        } catch (ZipException ex) {
+            // zip64 required
+            return super.packContentsOfFolder(folder, destFile);
+        } catch (IOException ex) {
+            Logger.getLogger(ParallelZipFormat.class.getName()).
+                    log(Level.SEVERE, null, ex);
+            return false;
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean unpack(File archive, File destFolder) {
+        try {
+            unzip(archive, destFolder);
+        } catch (IOException ex) {
+            Logger.getLogger(ParallelZipFormat.class.getName()).
+                    log(Level.SEVERE, null, ex);
+            return false;
+        }
+
+        return true;
+    }
+
+    @Override
+    public String getIdentifier() {
+        return IDENTIFIER;
+    }
+
+    /**
+     * Packs the specified entries.
+     *
+     * @param entries entries (entry name, file)
+     * @param destFile destination file
+     * @throws IOException if packing failed
+     */
+    private void pack(Map<String, File> entries, File destFile)
+            throws IOException {
+
+        ExecutorService pool = Executors.newFixedThreadPool(numberOfThreads);
+
+        FileOutputStream out = new FileOutputStream(destFile);
+
+        try {
+            FileChannel channel = out.getChannel();
+
+            List<byte[]> records = new ArrayList<byte[]>(entries.size());
+
+            // limits the number of buffered entries
+            int window = numberOfThreads * 4;
+
+            Deque<Future<PackedEntry>> pending
+                    = new ArrayDeque<Future<PackedEntry>>(window);
+            Deque<Long> pendingSizes = new ArrayDeque<Long>(window);
+
+            // limits the number of buffered bytes
+            long pendingSize = 0;
+
+            Iterator<Map.Entry<String, File>> it
+                    = entries.entrySet().iterator();
+
+            Map.Entry<String, File> next = it.hasNext() ? it.next() : null;
+
+            while (next != null || !pending.isEmpty()) {
+
+                while (next != null && pending.size() < window) {
+                    long size = getBufferedSize(
+                            next.getKey(), next.getValue());
+
+                    // at least one entry is always in flight
+                    if (!pending.isEmpty()
+                            && pendingSize + size > MAX_PENDING_SIZE) {
+                        break;
+                    }
+
+                    pending.add(pool.submit(
+                            new PackTask(next.getKey(), next.getValue())));
+                    pendingSizes.add(size);
+                    pendingSize += size;
+
+                    next = it.hasNext() ? it.next() : null;
+                }
+
+                PackedEntry entry = pending.poll().get();
+                pendingSize -= pendingSizes.poll();
+
+                records.add(entry.write(channel));
+            }
+
+            ZipArchiveUpdater.writeCentralDirectory(channel, records);
+
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Packing interrupted: " + destFile, ex);
+        } catch (ExecutionException ex) {
+            throw unwrap(ex);
+        } finally {
+            pool.shutdownNow();
+            out.close();
+        }
+    }
+
+    /**
+     * Unpacks the specified archive.
+     *
+     * @param archive archive
+     * @param destFolder destination folder
+     * @throws IOException if unpacking failed
+     */
+    private void unzip(File archive, File destFolder) throws IOException {
+
+        VParamUtil.throwIfNotValid(
+                VParamUtil.VALIDATOR_EXISTING_FILE,
+                null, archive);
+
+        final ZipFile zip = new ZipFile(archive);
+
+        ExecutorService pool = Executors.newFixedThreadPool(numberOfThreads);
+
+        try {
+            String destPath = destFolder.getCanonicalPath() + File.separator;
+
+            List<Future<Void>> results = new ArrayList<Future<Void>>();
+
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+
+            while (entries.hasMoreElements()) {
+                final ZipEntry entry = entries.nextElement();
+                final File file = new File(destFolder, entry.getName());
+
+                if (!file.getCanonicalPath().startsWith(destPath)) {
+                    throw new ZipException(
+                            "Entry outside of destination folder: "
+                            + entry.getName());
+                }
+
+                if (entry.isDirectory()) {
+                    file.mkdirs();
+                    continue;
+                }
+
+                file.getParentFile().mkdirs();
+
+                results.add(pool.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws IOException {
+                        extract(zip, entry, file);
+                        return null;
+                    }
+                }));
+            }
+
+            for (Future<Void> f : results) {
+                f.get();
+            }
+
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Unpacking interrupted: " + archive, ex);
+        } catch (ExecutionException ex) {
+            throw unwrap(ex);
+        } finally {
+            pool.shutdownNow();
+            zip.close();
+        }
+    }
+
+    /**
+     * Extracts the specified entry.
+     *
+     * @param zip archive
+     * @param entry entry to extract
+     * @param file destination file
+     * @throws IOException if extraction failed
+     */
+    private static void extract(ZipFile zip, ZipEntry entry, File file)
+            throws IOException {
+        InputStream in = zip.getInputStream(entry);
+
+        try {
+            FileOutputStream out = new FileOutputStream(file);
+
+            try {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int n;
+
+                while ((n = in.read(buffer)) >= 0) {
+                    out.write(buffer, 0, n);
+                }
+            } finally {
+                out.close();
+            }
+        } finally {
+            in.close();
+        }
+
+        IOUtil.restoreModificationDate(entry, file);
+    }
+
+    /**
+     * Indicates whether the specified entry is compressed into a buffer
+     * before writing.
+     *
+     * @param name entry name
+     * @param file file
+     * @return <code>true</code> if the entry is compressed into a buffer;
+     * <code>false</code> otherwise
+     */
+    private static boolean isBuffered(String name, File file) {
+        return !name.endsWith("/")
+                && !ZipArchiveUpdater.isCompressed(name)
+                && file.length() <= MAX_BUFFERED_SIZE;
+    }
+
+    /**
+     * Returns the number of bytes that are buffered while packing the
+     * specified entry (input and compressed output).
+     *
+     * @param name entry name
+     * @param file file
+     * @return the number of bytes that are buffered while packing the
+     * specified entry
+     */
+    private static long getBufferedSize(String name, File file) {
+        return isBuffered(name, file) ? 2 * file.length() : 0;
+    }
+
+    private static IOException unwrap(ExecutionException ex) {
+        if (ex.getCause() instanceof IOException) {
+            return (IOException) ex.getCause();
+        }
+
+        return new IOException(ex.getCause());
+    }
+
+    /**
+     * Prepares an entry for writing. Runs on a worker thread.
+     */
+    private final class PackTask implements Callable<PackedEntry> {
+
+        private final String name;
+        private final File file;
+
+        PackTask(String name, File file) {
+            this.name = name;
+            this.file = file;
+        }
+
+        @Override
+        public PackedEntry call() throws IOException {
+            PackedEntry result = new PackedEntry(name, file);
+
+            if (name.endsWith("/")) {
+                result.method = ZipArchiveUpdater.STORED;
+            } else if (ZipArchiveUpdater.isCompressed(name)) {
+                result.method = ZipArchiveUpdater.STORED;
+                computeChecksum(result);
+            } else if (isBuffered(name, file)) {
+                result.method = ZipArchiveUpdater.DEFLATED;
+                deflate(result);
+            }
+
+            return result;
+        }
+
+        private void computeChecksum(PackedEntry entry) throws IOException {
+            RandomAccessFile in = new RandomAccessFile(file, "r");
+
+            try {
+                FileChannel channel = in.getChannel();
+                ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+                CRC32 crc = new CRC32();
+
+                while (channel.read(buffer) >= 0) {
+                    buffer.flip();
+                    entry.size += buffer.remaining();
+                    crc.update(buffer);
+                    buffer.clear();
+                }
+
+                entry.crc = crc.getValue();
+                entry.compressedSize = entry.size;
+            } finally {
+                in.close();
+            }
+        }
+
+        private void deflate(PackedEntry entry) throws IOException {
+            byte[] input = Files.readAllBytes(file.toPath());
+
+            CRC32 crc = new CRC32();
+            crc.update(input, 0, input.length);
+
+            Deflater deflater = new Deflater(compressionLevel, true);
+
+            try {
+                deflater.setInput(input);
+                deflater.finish();
+
+                byte[] output = new byte[Math.max(
+                        64, input.length + input.length / 1000 + 64)];
+                int length = 0;
+
+                while (!deflater.finished()) {
+                    if (length == output.length) {
+                        output = Arrays.copyOf(output, output.length * 2);
+                    }
+                    length += deflater.deflate(
+                            output, length, output.length - length);
+                }
+
+                entry.crc = crc.getValue();
+                entry.size = input.length;
+                entry.data = output;
+                entry.compressedSize = length;
+            } finally {
+                deflater.end();
+            }
+        }
+    }
+
+    /**
+     * Entry that is ready to be written.
+     */
+    private static final class PackedEntry {
+
+        private final String name;
+        private final File file;
+        /**
+         * compression method (-1 if the entry is compressed while writing)
+         */
+        private int method = -1;
+        private long crc;
+        private long size;
+        private long compressedSize;
+        /**
+         * compressed data (<code>null</code> for stored entries)
+         */
+        private byte[] data;
+
+        PackedEntry(String name, File file) {
+            this.name = name;
+            this.file = file;
+        }
+
+        /**
+         * Writes this entry at the current channel position.
+         *
+         * @param channel channel
+         * @return the central directory record of this entry
+         * @throws IOException if writing failed
+         */
+        byte[] write(FileChannel channel) throws IOException {
+
+            if (method < 0) {
+                return ZipArchiveUpdater.appendEntry(channel, name, file);
+            }
+
+            long offset = channel.position();
+
+            if (offset > ZipArchiveUpdater.MAX_32_BIT
+                    || compressedSize > ZipArchiveUpdater.MAX_32_BIT) {
+                throw new ZipException("Zip64 not supported");
+            }
+
+            byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+            int dosTime = ZipArchiveUpdater.toDosTime(file.lastModified());
+
+            ZipArchiveUpdater.writeFully(channel, ByteBuffer.wrap(
+                    ZipArchiveUpdater.createLocalHeader(nameBytes, method,
+                            dosTime, crc, compressedSize, size)));
+
+            if (data != null) {
+                ZipArchiveUpdater.writeFully(channel,
+                        ByteBuffer.wrap(data, 0, (int) compressedSize));
+            } else if (size > 0) {
+                RandomAccessFile in = new RandomAccessFile(file, "r");
+
+                try {
+                    ZipArchiveUpdater.transfer(
+                            in.getChannel(), 0, size, channel);
+                } finally {
+                    in.close();
+                }
+            }
+
+            return ZipArchiveUpdater.createCentralRecord(nameBytes, method,
+                    dosTime, crc, compressedSize, size, offset);
+        }
+    }
+}
@@ -80,6 +80,7 @@ public class ProjectFileInfo {
     
     private Collection<AbstractPluginDependency> pluginDependencies =
             new ArrayList<AbstractPluginDependency>();
+    private boolean binarySessions;
 
     /**
      * @return the fileVersionInfo
@@ -133,6 +134,26 @@ public class ProjectFileInfo {
     public void setPluginDependencies(Collection<AbstractPluginDependency> pluginDependencies) {
         this.pluginDependencies = pluginDependencies;
     }
-    
-    
+
+    /**
+     * Indicates whether session entries are saved in the binary session
+     * format (see {@link eu.mihosoft.vrl.io.vrlx.BinaryEntryFactory}).
+     *
+     * @return <code>true</code> if session entries are saved in the binary
+     * format; <code>false</code> otherwise
+     */
+    public boolean isBinarySessions() {
+        return binarySessions;
+    }
+
+    /**
+     * Defines whether to save session entries in the binary session format
+     * (see {@link eu.mihosoft.vrl.io.vrlx.BinaryEntryFactory}). Session
+     * entries are loaded in either format.
+     *
+     * @param binarySessions the state to set
+     */
+    public void setBinarySessions(boolean binarySessions) {
+        this.binarySessions = binarySessions;
+    }
 }
@@ -79,9 +79,8 @@ public class ProjectLibraryController {
     }
 
     void projectDefined() {
-        this.libFolderLocation = new File(
-                projectController.getProject().
-                getContentLocation() + "/" + LIB_FOLDER_NAME);
+        this.libFolderLocation = projectController.getProject().
+                getContentFile(LIB_FOLDER_NAME);
 
         if (!libFolderLocation.exists()) {
             libFolderLocation.mkdirs();
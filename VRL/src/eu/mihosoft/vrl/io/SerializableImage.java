@@ -74,8 +74,17 @@ import javax.imageio.ImageIO;
  */
 public class SerializableImage {
 
+    /**
+     * blob type of PNG images
+     */
+    private static final String BLOB_TYPE_PNG = "png";
     private String imageData;
     private String name;
+    /**
+     * the blob store that contains the image data (only used for blob
+     * references)
+     */
+    private BlobStore blobStore;
 
     public SerializableImage() {
     }
@@ -87,7 +96,26 @@ public class SerializableImage {
             ByteArrayOutputStream bas = new ByteArrayOutputStream();
             ImageIO.write(img, "png", bas);
 
-            String byteToString = Base64.encodeBytes(bas.toByteArray());
+            // large images are stored as blob if a blob store is available
+            BlobStore store = BlobStore.getCurrent();
+
+            String byteToString = null;
+
+            if (store != null && bas.size() >= BlobStore.MIN_BLOB_SIZE) {
+                try {
+                    byteToString = BlobStore.toReference(BLOB_TYPE_PNG,
+                            store.put(bas.toByteArray()));
+                } catch (IOException ex) {
+                    System.err.println(">> SerializableImage:"
+                            + " can't use blob store. Using Base64!");
+                    ex.printStackTrace(System.err);
+                }
+            }
+
+            if (byteToString == null) {
+                byteToString = Base64.encodeBytes(bas.toByteArray());
+            }
+
             setImageData(byteToString);
 
         } catch (IOException ex) {
@@ -102,7 +130,18 @@ public class SerializableImage {
         BufferedImage img = null;
 
         try {
-            byte[] stringToByte = Base64.decode(getImageData());
+            byte[] stringToByte;
+
+            if (BlobStore.isReference(getImageData())) {
+                if (blobStore == null) {
+                    throw new IOException(
+                            "No blob store available: " + getImageData());
+                }
+                stringToByte = blobStore.resolve(getImageData());
+            } else {
+                stringToByte = Base64.decode(getImageData());
+            }
+
             img = ImageIO.read(new ByteArrayInputStream(stringToByte));
 
         } catch (IOException ex) {
@@ -125,6 +164,12 @@ public class SerializableImage {
      */
     public void setImageData(String imageData) {
         this.imageData = imageData;
+
+        if (BlobStore.isReference(imageData)) {
+            blobStore = BlobStore.getCurrent();
+        } else {
+            blobStore = null;
+        }
     }
 
     /**
@@ -157,7 +157,17 @@ public class VJarUtil {
      * @throws IOException 
      */
     public static List<String> getClassNamesFromJar(File f) throws IOException {
-        return getClassNamesFromStream(new JarInputStream(new FileInputStream(f)));
+        return JarIndex.getIndex(f).getClassNames();
+    }
+
+    /**
+     * Returns the name of all entries in the specified file.
+     * @param f file to scan
+     * @return a list containing the names of all entries
+     * @throws IOException 
+     */
+    public static List<String> getEntryNamesFromJar(File f) throws IOException {
+        return JarIndex.getIndex(f).getEntryNames();
     }
 
     /**
@@ -235,8 +245,7 @@ public class VJarUtil {
         List<String> classNames = null;
 
         try {
-            classNames = VJarUtil.getClassNamesFromStream(
-                    new JarInputStream(new FileInputStream(f)));
+            classNames = getClassNamesFromJar(f);
             if (loader == null) {
                 loader =
                         new URLClassLoader(new URL[]{f.toURI().toURL()});
@@ -60,6 +60,7 @@ import eu.mihosoft.vrl.io.vrlx.AbstractComponentClassInfo;
 import eu.mihosoft.vrl.io.vrlx.FileFormat;
 import eu.mihosoft.vrl.io.vrlx.FileVersionInfo;
 import eu.mihosoft.vrl.io.vrlx.VRLXReflection;
+import eu.mihosoft.vrl.io.vrlx.SessionFileConverter;
 import eu.mihosoft.vrl.io.vrlx.VRLXSessionController;
 import eu.mihosoft.vrl.lang.CodeBuilder;
 import eu.mihosoft.vrl.lang.VLangUtils;
@@ -85,6 +86,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.jar.Manifest;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -102,6 +104,13 @@ public class VProject {
     private VRLXSessionController sessionController =
             new VRLXSessionController(format);
     private ProjectFileInfo projectInfo;
+    private BlobStore blobStore;
+    /**
+     * hashes of the blobs referenced by the last save of an entry (by entry
+     * path)
+     */
+    private final Map<String, Collection<String>> savedBlobs
+            = new HashMap<String, Collection<String>>();
     HashMap<String, VisualCanvas> openedEntriesByName =
             new HashMap<String, VisualCanvas>();
     HashMap<VisualCanvas, String> openedEntriesByCanvas =
@@ -113,6 +122,10 @@ public class VProject {
     public static final String PROJECT_INFO_DIR = "META-INF/VRL";
     public static final String PROJECT_PAYLOAD_VERSIONING = "META-INF/VRL/payload/versioning/";
     public static final String PROJECT_PAYLOAD_NO_VERSIONING = "META-INF/VRL/payload/no-versioning/";
+    /**
+     * the name of the blob folder (located in the versioned payload folder)
+     */
+    public static final String PROJECT_BLOB_DIR = "blobs";
 
     private VProject(VersionedFile projectFile) {
         this.projectFile = projectFile;
@@ -127,18 +140,45 @@ public class VProject {
     }
 
     /**
-     * Returns the content location of this project.
+     * Returns the content location of this project. Entries of lazily opened
+     * projects are not extracted, use {@link #getContentFile(java.lang.String)
+     * } or {@link #getContentFiles(java.lang.String[]) } to access them.
      *
      * @return the content location of this project
      */
     public File getContentLocation() {
-        return projectFile.getContent();
+        return projectFile.getContentFolder();
+    }
+
+    /**
+     * Returns the specified file or folder of the content location. Entries of
+     * lazily opened projects are extracted on first access.
+     *
+     * @param path path relative to the content location (uses / as
+     * separator)
+     * @return the specified file or folder (might not exist)
+     */
+    public File getContentFile(String path) {
+        return projectFile.getContentFile(path);
+    }
+
+    /**
+     * Returns all files of the content location that end with one of the
+     * specified endings. Entries of lazily opened projects are extracted on
+     * first access.
+     *
+     * @param endings file endings, e.g., <code>.class</code>
+     * @return all files of the content location that end with one of the
+     * specified endings
+     */
+    public ArrayList<File> getContentFiles(String... endings) {
+        return projectFile.getContentFiles(endings);
     }
 
     public URL getContentLocationAsURL() {
         try {
             return new URL("file://"
-                    + projectFile.getContent().getAbsolutePath() + "/");
+                    + getContentLocation().getAbsolutePath() + "/");
         } catch (MalformedURLException ex) {
             Logger.getLogger(VProject.class.getName()).
                     log(Level.SEVERE, null, ex);
@@ -204,7 +244,7 @@ public class VProject {
      * @return the versioned payload folder of this project
      */
     public File getVersionedPayloadFolder() {
-        return new File(getContentLocation(), PROJECT_PAYLOAD_VERSIONING);
+        return getContentFile(PROJECT_PAYLOAD_VERSIONING);
     }
 
     /**
@@ -214,7 +254,30 @@ public class VProject {
      * @return the non-versioned payload folder of this project
      */
     public File getNonVersionedPayloadFolder() {
-        return new File(getContentLocation(), PROJECT_PAYLOAD_NO_VERSIONING);
+        return getContentFile(PROJECT_PAYLOAD_NO_VERSIONING);
+    }
+
+    /**
+     * Returns the blob store of this project. It is located in the versioned
+     * payload folder and contains large values of session entries, e.g.,
+     * images and arrays. Blobs are content addressed, i.e., unchanged values
+     * are shared between session entries and are never committed twice.
+     *
+     * @return the blob store of this project
+     */
+    public synchronized BlobStore getBlobStore() {
+        String path = PROJECT_PAYLOAD_VERSIONING + PROJECT_BLOB_DIR;
+
+        // the path is resolved without extracting the archive, blobs are
+        // extracted on demand
+        File folder = new File(getContentLocation(), path);
+
+        // the content location changes if the archive is switched
+        if (blobStore == null || !blobStore.getFolder().equals(folder)) {
+            blobStore = new BlobStore(projectFile, path);
+        }
+
+        return blobStore;
     }
 
     private void createMainClass() throws IOException {
@@ -268,18 +331,14 @@ public class VProject {
                     new FileVersionInfo("0.1", "VRL Project File"));
         }
 
-        File contentDir = getContentLocation();
-
-        File projectInfoDir = new File(contentDir.getPath()
-                + "/" + PROJECT_INFO_DIR);
+        File projectInfoDir = projectFile.getContentFile(PROJECT_INFO_DIR);
 
         if (!projectInfoDir.exists()) {
             projectInfoDir.mkdirs();
         }
 
-        File versionInfo =
-                new File(contentDir.getPath()
-                + "/" + PROJECT_INFO_DIR + "/" + PROJECT_INFO_NAME);
+        File versionInfo = projectFile.getContentFile(
+                PROJECT_INFO_DIR + "/" + PROJECT_INFO_NAME);
 
 
         XMLEncoder e = null;
@@ -328,22 +387,18 @@ public class VProject {
     private ProjectFileInfo loadFileInfo()
             throws IOException {
 
-        File contentDir = getContentLocation();
-
         // file has to be opened
-        if (!contentDir.isDirectory()) {
+        if (!projectFile.isOpened()) {
             throw new IllegalStateException("File not opened!");
         }
 
-        File projectInfoFile =
-                new File(contentDir.getPath()
-                + "/" + PROJECT_INFO_DIR + "/" + PROJECT_INFO_NAME);
+        File projectInfoFile = projectFile.getContentFile(
+                PROJECT_INFO_DIR + "/" + PROJECT_INFO_NAME);
 
         // compatibility to old projects before 10.12.2012
         // can be removed if compatibility is not necessary
         if (!projectInfoFile.exists()) {
-            projectInfoFile =
-                    new File(contentDir.getPath() + "/" + PROJECT_INFO_NAME);
+            projectInfoFile = projectFile.getContentFile(PROJECT_INFO_NAME);
 
         }
 
@@ -387,6 +442,19 @@ public class VProject {
     }
 
     public static VProject open(File f) throws IOException {
+        return open(f, false);
+    }
+
+    /**
+     * Opens the specified project. Lazily opened projects extract entries on
+     * first access (see {@link VersionedFile#setLazyOpen(boolean) }).
+     *
+     * @param f project file
+     * @param lazy defines whether to open the project lazily
+     * @return the project
+     * @throws IOException if the project cannot be opened
+     */
+    public static VProject open(File f, boolean lazy) throws IOException {
 
         System.out.println(">> opening VProject: " + f.getAbsolutePath());
 
@@ -395,6 +463,7 @@ public class VProject {
                 new VersionedFile(f)
                 .setExcludeEndingsFromCleanup(".class")
                 .excludePathsFromCleanup(PROJECT_PAYLOAD_NO_VERSIONING).
+                setLazyOpen(lazy).
                 cleanup().open());
 
         prj.projectInfo = prj.loadFileInfo();
@@ -458,6 +527,7 @@ public class VProject {
             projectFile.open(false);
         }
 
+        sessionController.setBlobStore(getBlobStore());
         sessionController.loadSession(canvas,
                 getSessionFileByEntryName(name));
     }
@@ -599,7 +669,31 @@ public class VProject {
 
         // code generation END
 
-        sessionController.saveSession(canvas, sessionFile, showSaveConfirmMsg);
+        BlobStore store = getBlobStore();
+        sessionController.setBlobStore(store);
+
+        // existing binary entries are saved in the binary format even if
+        // the project does not request it
+        if (getProjectInfo() != null
+                && getProjectInfo().isBinarySessions()) {
+            sessionController.setModel(SessionFileConverter.newBinaryModel());
+        } else {
+            sessionController.setModel(null);
+        }
+
+        // blobs written by this save have to be committed with the entry
+        store.startRecording();
+
+        try {
+            sessionController.saveSession(
+                    canvas, sessionFile, showSaveConfirmMsg);
+        } finally {
+            Collection<String> hashes = store.stopRecording();
+
+            synchronized (savedBlobs) {
+                savedBlobs.put(getEntryPath(name, ".vrlx"), hashes);
+            }
+        }
 
 //        if (projectFile.hasUncommittedChanges() && commitChanges) {
 //            projectFile.commit("file saved");
@@ -647,8 +741,7 @@ public class VProject {
 
 
         ArrayList<File> codeFiles =
-                IOUtil.listFiles(getContentLocation(),
-                new String[]{".groovy"});
+                getContentFiles(".groovy");
 
         TextLoader loader = new TextLoader();
 
@@ -684,8 +777,7 @@ public class VProject {
     }
 
     public List<String> getShortClassNamesInPackage(String packageName) {
-        ArrayList<File> classFiles = IOUtil.listFiles(
-                getContentLocation(), new String[]{".class"});
+        ArrayList<File> classFiles = getContentFiles(".class");
 
         List<String> result = new ArrayList<String>();
 
@@ -733,23 +825,26 @@ public class VProject {
     }
 
     public File getClassFileByEntryName(String name) {
-        VParamUtil.throwIfNull(name);
-
-        String fileName = VLangUtils.dotToSlash(name);
-
-        // add default package
-        if (VLangUtils.isShortName(name)) {
-            fileName = "eu/mihosoft/vrl/user/" + fileName;
-        }
+        return projectFile.getContentFile(getEntryPath(name, ".class"));
+    }
 
-        if (!fileName.toLowerCase().endsWith(".class")) {
-            fileName = fileName + ".class";
-        }
+    public File getSessionFileByEntryName(String name) {
+        return projectFile.getContentFile(getEntryPath(name, ".vrlx"));
+    }
 
-        return new File(getContentLocation() + "/" + fileName);
+    public File getSourceFileByEntryName(String name) {
+        return projectFile.getContentFile(getEntryPath(name, ".groovy"));
     }
 
-    public File getSessionFileByEntryName(String name) {
+    /**
+     * Returns the path of the specified entry file relative to the content
+     * location.
+     *
+     * @param name entry name
+     * @param ending file ending, e.g., <code>.groovy</code>
+     * @return the path of the specified entry file
+     */
+    private static String getEntryPath(String name, String ending) {
         VParamUtil.throwIfNull(name);
 
         String fileName = VLangUtils.dotToSlash(name);
@@ -759,29 +854,45 @@ public class VProject {
             fileName = "eu/mihosoft/vrl/user/" + fileName;
         }
 
-        if (!fileName.toLowerCase().endsWith(".vrlx")) {
-            fileName = fileName + ".vrlx";
+        if (!fileName.toLowerCase().endsWith(ending)) {
+            fileName = fileName + ending;
         }
 
-        return new File(getContentLocation() + "/" + fileName);
+        return fileName;
     }
 
-    public File getSourceFileByEntryName(String name) {
-        VParamUtil.throwIfNull(name);
+    /**
+     * Returns the paths of the files that are written when saving the
+     * specified session entry (relative to the content location), including
+     * the blobs referenced by the last save of the entry. Can be used
+     * to commit a saved entry without scanning the whole project (see
+     * {@link VersionedFile#commit(java.lang.String, java.util.Collection) }).
+     *
+     * @param name entry name
+     * @return the paths of the files that are written when saving the
+     * specified session entry
+     */
+    public Collection<String> getSessionEntryPaths(String name) {
+        Collection<String> result = new ArrayList<String>();
 
-        String fileName = VLangUtils.dotToSlash(name);
+        result.add(getEntryPath(name, ".vrlx"));
+        result.add(getEntryPath(name, ".groovy"));
+        result.add(PROJECT_INFO_DIR + "/" + PROJECT_INFO_NAME);
 
-        // add default package
-        if (VLangUtils.isShortName(name)) {
-            fileName = "eu/mihosoft/vrl/user/" + fileName;
-        }
+        Collection<String> hashes;
 
+        synchronized (savedBlobs) {
+            hashes = savedBlobs.get(getEntryPath(name, ".vrlx"));
+        }
 
-        if (!fileName.toLowerCase().endsWith(".groovy")) {
-            fileName = fileName + ".groovy";
+        if (hashes != null) {
+            for (String hash : hashes) {
+                result.add(PROJECT_PAYLOAD_VERSIONING + PROJECT_BLOB_DIR
+                        + "/" + BlobStore.getRelativePath(hash));
+            }
         }
 
-        return new File(getContentLocation() + "/" + fileName);
+        return result;
     }
 
     /**
@@ -857,8 +968,7 @@ public class VProject {
             saver.saveFile(
                     "*.class\n"
                     + PROJECT_PAYLOAD_NO_VERSIONING,
-                    new File(getContentLocation().getAbsolutePath()
-                    + "/.gitignore"), "");
+                    projectFile.getContentFile(".gitignore"), "");
             
             
         } catch (IOException ex) {
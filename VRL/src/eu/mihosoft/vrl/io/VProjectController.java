@@ -142,6 +142,11 @@ public class VProjectController {
      * defines whether to flush project (add changes to project archive file)
      */
     private boolean flushOnSave = true;
+    /**
+     * defines whether to open projects lazily, i.e., to extract project
+     * entries on demand (see {@link VProject#open(java.io.File, boolean) }).
+     */
+    private boolean lazyOpen = true;
     /**
      * defines whether to commit changes when saving the project.
      */
@@ -1010,8 +1015,7 @@ public class VProjectController {
      * this project
      */
     public Collection<ClassFileDependency> getNamesOfUsedClasses() {
-        ArrayList<File> files = IOUtil.listFiles(getProject().
-                getContentLocation(), new String[]{".class"});
+        ArrayList<File> files = getProject().getContentFiles(".class");
 
         Collection<ClassFileDependency> result
                 = new ArrayList<ClassFileDependency>();
@@ -1141,8 +1145,7 @@ public class VProjectController {
      * @return the names of the classes that are defined by this project
      */
     public Collection<CompilationUnit> getNamesOfDefinedClasses() {
-        ArrayList<File> files = IOUtil.listFiles(getProject().
-                getContentLocation(), new String[]{".class"});
+        ArrayList<File> files = getProject().getContentFiles(".class");
 
         ArrayList<CompilationUnit> result = new ArrayList<CompilationUnit>();
 
@@ -1462,8 +1465,8 @@ public class VProjectController {
      */
     public void addComponentClassesToCurrentCanvas() {
 
-        Collection<File> componentClasses = IOUtil.listFiles(
-                project.getContentLocation(), new String[]{".class"});
+        Collection<File> componentClasses
+                = project.getContentFiles(".class");
 
 //        Collection<Class<?>> result = new ArrayList<Class<?>>();
         VisualCanvas canvas = getCurrentCanvas();
@@ -1711,7 +1714,7 @@ public class VProjectController {
         closeProject();
 
         try {
-            setProject(VProject.open(f));
+            setProject(VProject.open(f, isLazyOpen()));
 
             // register version controller listener (cleans and builds project)
             getVersionController().addVersionEventListener(
@@ -2150,13 +2153,18 @@ public class VProjectController {
                 addComponentClassesToCurrentCanvas();
             }
 
+            // only the saved files are compared and committed
+            Collection<String> paths = project.getSessionEntryPaths(name);
+
             if (commitChanges
-                    && project.getProjectFile().hasUncommittedChanges()) {
+                    && project.getProjectFile().hasUncommittedChanges(paths)) {
 
                 if (commitMessage == null) {
-                    project.getProjectFile().commit("<!--file saved-->");
+                    project.getProjectFile().commit(
+                            "<!--file saved-->", paths);
                 } else {
-                    getProject().getProjectFile().commit(commitMessage);
+                    getProject().getProjectFile().commit(
+                            commitMessage, paths);
                 }
             }
         } catch (IOException ex) {
@@ -2266,6 +2274,7 @@ public class VProjectController {
             getCurrentCanvas().getClassLoader().close();
 
             closeAll();
+            ProjectBuilder.dispose(this);
             project.close();
             currentEntry = null;
 
@@ -2785,6 +2794,28 @@ public class VProjectController {
         this.flushOnSave = flushOnSave;
     }
 
+    /**
+     * Indicates whether projects are opened lazily.
+     *
+     * @return <code>true</code> if projects are opened lazily;
+     * <code>false</code> otherwise
+     */
+    public boolean isLazyOpen() {
+        return lazyOpen;
+    }
+
+    /**
+     * Defines whether to open projects lazily. Lazily opened projects extract
+     * their entries on demand, e.g., the version history is only extracted if
+     * it is accessed. The setting is applied when the next project is loaded
+     * (see {@link #loadProject(java.io.File, boolean) }).
+     *
+     * @param lazyOpen the state to set
+     */
+    public void setLazyOpen(boolean lazyOpen) {
+        this.lazyOpen = lazyOpen;
+    }
+
     /**
      * @return <code>true</code> if commiting on save; <code>false</code>
      * otherise
@@ -56,6 +56,7 @@
 
 package eu.mihosoft.vrl.io;
 
+import eu.mihosoft.vrl.lang.groovy.CompiledClassCache;
 import eu.mihosoft.vrl.system.Constants;
 import eu.mihosoft.vrl.system.VSysUtil;
 import eu.mihosoft.vrl.system.VTerminalUtil;
@@ -82,6 +83,7 @@ public class VPropertyFolderManager {
     private  File PLUGIN_UPDATES;
     private  File UPDATES;
     private  File ETC;
+    private  File CACHE;
     private  File TMP;
     private  File RESOURCES;
     private  File PROJECT_TEMPLATES;
@@ -143,6 +145,9 @@ public class VPropertyFolderManager {
         // init etc folder
         ETC.mkdir();
 
+        // init cache folder
+        CACHE.mkdir();
+
         // init resources folder
         RESOURCES.mkdir();
 
@@ -188,6 +193,7 @@ public class VPropertyFolderManager {
             PLUGIN_UPDATES = new File(getPropertyFolder(), "plugin-updates");
             UPDATES = new File(getPropertyFolder(), "updates");
             ETC = new File(getPropertyFolder(), "etc");
+            CACHE = new File(getPropertyFolder(), "cache");
             RESOURCES = new File(getPropertyFolder(), "resources");
             PROJECT_TEMPLATES = new File(RESOURCES, "project-templates");
 
@@ -206,6 +212,11 @@ public class VPropertyFolderManager {
             }
 
             shiftTmpFolders();
+
+            JarIndex.setCacheFolder(new File(CACHE, "jar-index"));
+            CompiledClassCache.setCacheFolder(
+                    new File(CACHE, "groovy-classes"));
+
             initialized = true;
         } else {
             throw new IllegalStateException("Already initialized.");
@@ -281,6 +292,10 @@ public class VPropertyFolderManager {
         return ETC;
     }
 
+    public File getCacheFolder() {
+        return CACHE;
+    }
+
 //    public static void main(String[] args) {
 //        VPropertyFolderManager.init();
 //
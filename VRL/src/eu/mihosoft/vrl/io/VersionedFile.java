@@ -62,6 +62,10 @@ import eu.mihosoft.vrl.system.VSysUtil;
 import java.beans.XMLDecoder;
 import java.beans.XMLEncoder;
 import java.io.*;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -72,12 +76,15 @@ import org.eclipse.jgit.api.errors.*;
 import org.eclipse.jgit.errors.UnmergedPathException;
 import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.IndexDiff;
 import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.ObjectLoader;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.revwalk.RevSort;
 import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.FileTreeIterator;
 import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.PathFilterGroup;
 
 /**
  * An archive file with internal version control support.<p><b>Purpose:</b> The
@@ -87,9 +94,10 @@ import org.eclipse.jgit.treewalk.TreeWalk;
  * store data in the versioned archive file without making it necessary to write
  * archive specific code.</p>
  *
- * <p><b>Note:</b> VersionedFile does currently not support incremental flushing
- * of changes. For large files this might be an issue as a complete copy of the
- * file is created temporarily for each call of
+ * <p><b>Note:</b> if the archive format supports incremental updates (see
+ * {@link IncrementalArchiveFormat}) only those entries are written to the
+ * archive that changed since the last call of <code>flush()</code>.
+ * Otherwise, the complete archive is rewritten for each call of
  * <code>flush()</code>.</p>
  *
  * <p><b>Warnings:</b> do not use multiple VersionedFile instances for
@@ -198,6 +206,31 @@ public final class VersionedFile implements VersionController {
             new HashMap<String, Integer>();
     private boolean flushCommits = false;
     private ArchiveFormat archiveFormat;
+    /**
+     * snapshot of the content folder after the last flush (<code>null</code>
+     * if the archive is not known to be in sync with the content folder)
+     */
+    private FlushIndex flushIndex;
+    /**
+     * defines whether to open this file lazily
+     */
+    private boolean lazyOpen;
+    /**
+     * archive content that has not been extracted yet (<code>null</code> if
+     * this file has not been opened lazily or if all content has been
+     * extracted)
+     */
+    private LazyArchiveContent lazyContent;
+    /**
+     * paths and endings (<code>path*ending</code>) of the latest version that
+     * have been checked out on demand (lazily opened files only)
+     */
+    private final Set<String> lazyCheckouts = new HashSet<String>();
+    /**
+     * git repository of the content folder (kept open while this file is
+     * opened, <code>null</code> if not opened yet)
+     */
+    private Git openedGit;
 
     static {
         //
@@ -355,6 +388,11 @@ public final class VersionedFile implements VersionController {
      * to this location will be put under version control (except content that
      * matches one of the patterns in the .gitignore file).
      *
+     * <p><b>Note:</b> if this file has been opened lazily, calling this method
+     * extracts the complete content. Use
+     * {@link #getContentFile(java.lang.String) } to access individual
+     * entries.</p>
+     *
      * @return the content directory of this versioned file
      * @throws IllegalStateException if this file is currently not open
      */
@@ -366,9 +404,294 @@ public final class VersionedFile implements VersionController {
                     + "\" not opened!");
         }
 
+        try {
+            extractLazyContent();
+        } catch (IOException ex) {
+            Logger.getLogger(VersionedFile.class.getName()).
+                    log(Level.SEVERE, null, ex);
+        }
+
+        return tmpFolder;
+    }
+
+    /**
+     * Returns the location of the content directory of this versioned file.
+     * In contrast to {@link #getContent() } this method does not extract
+     * lazily opened content, i.e., the directory might not contain all
+     * entries. Use {@link #getContentFile(java.lang.String) } or
+     * {@link #getContentFiles(java.lang.String[]) } to access entries.
+     *
+     * @return the location of the content directory of this versioned file
+     * @throws IllegalStateException if this file is currently not open
+     */
+    public File getContentFolder() {
+
+        if (!isOpened()) {
+            throw new IllegalStateException(
+                    "File \"" + getFile().getAbsolutePath()
+                    + "\" not opened!");
+        }
+
         return tmpFolder;
     }
 
+    /**
+     * Returns all files of the content directory that end with one of the
+     * specified endings. If this file has been opened lazily only the
+     * corresponding entries are extracted or checked out from the latest
+     * version.
+     *
+     * @param endings file endings, e.g., <code>.class</code>
+     * @return all files of the content directory that end with one of the
+     * specified endings
+     * @throws IllegalStateException if this file is currently not open
+     */
+    public ArrayList<File> getContentFiles(String... endings) {
+
+        if (!isOpened()) {
+            throw new IllegalStateException(
+                    "File \"" + getFile().getAbsolutePath()
+                    + "\" not opened!");
+        }
+
+        if (lazyContent != null) {
+            try {
+                addToFlushIndex(
+                        lazyContent.extractAllEndingWith(endings, ".git/"));
+                checkoutOnDemand("", endings);
+            } catch (IOException ex) {
+                Logger.getLogger(VersionedFile.class.getName()).
+                        log(Level.SEVERE, null, ex);
+            }
+        }
+
+        return IOUtil.listFiles(tmpFolder, endings);
+    }
+
+    /**
+     * Returns the specified file or folder of the content directory. If this
+     * file has been opened lazily the corresponding entries are extracted or
+     * checked out from the latest version on first access.
+     *
+     * @param path path relative to the content directory (uses / as
+     * separator)
+     * @return the specified file or folder of the content directory (might not
+     * exist)
+     * @throws IllegalStateException if this file is currently not open
+     */
+    public File getContentFile(String path) {
+
+        if (!isOpened()) {
+            throw new IllegalStateException(
+                    "File \"" + getFile().getAbsolutePath()
+                    + "\" not opened!");
+        }
+
+        if (lazyContent != null) {
+            try {
+                addToFlushIndex(lazyContent.extract(path));
+                checkoutOnDemand(path);
+            } catch (IOException ex) {
+                Logger.getLogger(VersionedFile.class.getName()).
+                        log(Level.SEVERE, null, ex);
+            }
+        }
+
+        return new File(tmpFolder, path);
+    }
+
+    /**
+     * Adds extracted entries to the flush index. Extracted entries are in
+     * sync with the archive.
+     *
+     * @param entries extracted entries
+     */
+    private void addToFlushIndex(Map<String, File> entries) {
+        if (flushIndex != null) {
+            flushIndex.addAll(entries);
+        }
+    }
+
+    /**
+     * Extracts all content that has not been extracted yet, including the
+     * version history, and checks out all files of the latest version that
+     * have not been accessed yet. Does nothing if this file has not been
+     * opened lazily.
+     *
+     * @throws IOException if extraction failed
+     */
+    private void extractLazyContent() throws IOException {
+        if (lazyContent == null) {
+            return;
+        }
+
+        addToFlushIndex(lazyContent.extractAllExcept());
+
+        checkoutOnDemand("");
+
+        closeLazyContent();
+    }
+
+    /**
+     * Checks out the files of the latest version that are located in the
+     * specified folder (or match the specified path) and end with one of the
+     * specified endings. Existing files are never overwritten. Only the
+     * version history is extracted from the archive. Does nothing if this file
+     * has not been opened lazily.
+     *
+     * @param path path relative to the content directory (uses / as
+     * separator, the empty string denotes the content directory)
+     * @param endings file endings (if no ending is specified, all files are
+     * checked out)
+     * @throws IOException if the files cannot be checked out
+     */
+    private synchronized void checkoutOnDemand(String path, String... endings)
+            throws IOException {
+
+        if (lazyContent == null || lazyCheckouts.contains("")) {
+            return;
+        }
+
+        while (path.startsWith("/")) {
+            path = path.substring(1);
+        }
+
+        while (path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+
+        Collection<String> keys = new ArrayList<String>();
+
+        if (endings.length == 0) {
+            keys.add(path);
+        } else {
+            for (String ending : endings) {
+                keys.add(path + "*" + ending);
+            }
+        }
+
+        if (lazyCheckouts.containsAll(keys)) {
+            return;
+        }
+
+        Git git = openRepository();
+
+        ObjectId headId = git.getRepository().resolve(Constants.HEAD);
+
+        // no version committed yet
+        if (headId == null) {
+            lazyCheckouts.addAll(keys);
+            return;
+        }
+
+        RevWalk revWalk = new RevWalk(git.getRepository());
+        TreeWalk walk = new TreeWalk(git.getRepository());
+
+        try {
+            walk.setRecursive(true);
+            walk.addTree(revWalk.parseCommit(headId).getTree());
+
+            if (!path.isEmpty()) {
+                walk.setFilter(PathFilterGroup.createFromStrings(
+                        Collections.singleton(path)));
+            }
+
+            while (walk.next()) {
+                String fileName = walk.getPathString();
+
+                if (fileName.equals(FILE_INFO_NAME)
+                        || new File(tmpFolder, fileName).exists()
+                        || !matchesEnding(fileName, endings)) {
+                    continue;
+                }
+
+                checkoutFile(fileName, walk.getObjectId(0));
+            }
+        } finally {
+            walk.release();
+            revWalk.dispose();
+        }
+
+        lazyCheckouts.addAll(keys);
+    }
+
+    /**
+     * Indicates whether the specified path ends with one of the specified
+     * endings.
+     *
+     * @param path path
+     * @param endings endings (if no ending is specified, every path matches)
+     * @return <code>true</code> if the path matches; <code>false</code>
+     * otherwise
+     */
+    private static boolean matchesEnding(String path, String... endings) {
+        if (endings.length == 0) {
+            return true;
+        }
+
+        for (String ending : endings) {
+            if (path.endsWith(ending)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Closes the lazily opened archive (if any).
+     */
+    private void closeLazyContent() {
+        if (lazyContent == null) {
+            return;
+        }
+
+        try {
+            lazyContent.close();
+        } catch (IOException ex) {
+            Logger.getLogger(VersionedFile.class.getName()).
+                    log(Level.SEVERE, null, ex);
+        }
+
+        lazyContent = null;
+        lazyCheckouts.clear();
+    }
+
+    /**
+     * Returns the git repository of this file. The repository is opened once
+     * and shared until this file is closed. If this file has been opened
+     * lazily the complete content is extracted first, i.e., the content
+     * directory is in sync with the repository.
+     *
+     * @return the git repository of this file
+     * @throws IOException if the repository cannot be opened
+     */
+    private Git openGit() throws IOException {
+        extractLazyContent();
+
+        return openRepository();
+    }
+
+    /**
+     * Returns the git repository of this file without extracting the complete
+     * content of lazily opened files, i.e., only the version history is
+     * extracted. Must only be used to read objects from the repository.
+     *
+     * @return the git repository of this file
+     * @throws IOException if the repository cannot be opened
+     */
+    private Git openRepository() throws IOException {
+        if (openedGit == null) {
+            if (lazyContent != null) {
+                addToFlushIndex(lazyContent.extract(".git/"));
+            }
+
+            openedGit = Git.open(tmpFolder);
+        }
+
+        return openedGit;
+    }
+
     /**
      * Determines if the specified file exists.
      *
@@ -870,11 +1193,21 @@ public final class VersionedFile implements VersionController {
 
         try {
 
-            if (!archiveFormat.unpack(getFile(), new File(parentPath))) {
+            recoverInterruptedFlush();
+
+            if (lazyOpen && archiveFormat instanceof ZipFormat) {
+                lazyContent = new LazyArchiveContent(
+                        getFile(), new File(parentPath));
+                // file infos are always needed
+                lazyContent.extract(FILE_INFO_NAME);
+                lazyContent.extract(".gitignore");
+            } else if (!archiveFormat.unpack(getFile(), new File(parentPath))) {
                 throw new IOException("Could not unpack archive: " + getFile());
             }
 
             if (!isValidWithoutOpen()) {
+                closeLazyContent();
+                releaseGit();
                 rmTmpFolder();
                 throw new IOException(
                         "File \"" + getFile().getPath()
@@ -882,14 +1215,20 @@ public final class VersionedFile implements VersionController {
                         + " File info missing or damaged!");
             }
 
+            initFlushIndex();
+
             // checkout latest version to ensure consistency
-            if (checkoutLastest) {
+            // (lazily opened files use the flushed content and defer
+            // reading the version history)
+            if (checkoutLastest && lazyContent == null) {
                 checkoutLatestVersion();
             }
 
             return this;
 
         } catch (Exception ex) {
+            closeLazyContent();
+            releaseGit();
             throw new IOException(
                     "File \"" + getFile().getPath()
                     + "\" cannot be opened!", ex);
@@ -943,6 +1282,8 @@ public final class VersionedFile implements VersionController {
      */
     public VersionedFile cleanup() throws IOException {
 
+        recoverInterruptedFlush();
+
         // if thid file is not opened we do nothing
         if (!isOpened()) {
             return this;
@@ -1087,7 +1428,7 @@ public final class VersionedFile implements VersionController {
         Git git = null;
 
         try {
-            git = Git.open(tmpFolder);
+            git = openGit();
 
             Status status = git.status().call();
 
@@ -1154,11 +1495,22 @@ public final class VersionedFile implements VersionController {
      * @param git git repository to close
      */
     private void closeGit(Git git) {
-        if (git != null) {
+        // the shared repository stays open until this file is closed
+        if (git != null && git != openedGit) {
             git.getRepository().close();
         }
     }
 
+    /**
+     * Closes the shared git repository of this file (if opened).
+     */
+    private void releaseGit() {
+        if (openedGit != null) {
+            openedGit.getRepository().close();
+            openedGit = null;
+        }
+    }
+
     /**
      * Determines if this file has conflicts.
      *
@@ -1178,17 +1530,17 @@ public final class VersionedFile implements VersionController {
         Git git = null;
 
         try {
-            git = Git.open(tmpFolder);
+            git = openGit();
 
-            Status status = git.status().call();
+            // conflicts are stored in the index, i.e., we don't need to
+            // compare the working tree
+            boolean result = git.getRepository().readDirCache().
+                    hasUnmergedPaths();
 
             closeGit(git);
 
-            return !status.getConflicting().isEmpty();
+            return result;
 
-        } catch (UnmergedPathException ex) {
-            closeGit(git);
-            throw new IOException("Git exception", ex);
         } catch (IOException ex) {
             closeGit(git);
             throw new IOException("Git exception", ex);
@@ -1232,7 +1584,7 @@ public final class VersionedFile implements VersionController {
             System.out.print(">> commit version ");
 
             // open the git repository
-            git = Git.open(tmpFolder);
+            git = openGit();
 
             // retrieve the current git status
             Status status = git.status().call();
@@ -1257,17 +1609,7 @@ public final class VersionedFile implements VersionController {
             git.add().addFilepattern(".").call();
 
             // perform the commit
-            git.commit().setMessage(message).
-                    setAuthor(System.getProperty("user.name"), "?").call();
-
-            commits = null;
-
-            // updates the current version number
-            currentVersion = getNumberOfVersions() - 1;
-
-            System.out.println(currentVersion + ": ");
-            System.out.println(">>> commit-id (SHA-1): "
-                    + getVersions().get(currentVersion).getName());
+            commitIndex(git, message);
 
             if (isFlushCommits()) {
                 flush();
@@ -1304,6 +1646,153 @@ public final class VersionedFile implements VersionController {
         }
     }
 
+    /**
+     * Commits the changes of the specified files. In contrast to
+     * {@link #commit(java.lang.String) } only the specified paths are compared
+     * and staged, i.e., the rest of the content directory is not scanned.
+     * Changes of other files remain uncommitted. If flushing for commits is
+     * enabled changes will be flushed.
+     *
+     * @param message commit message
+     * @param paths paths of the changed files (relative to the content
+     * directory, uses / as separator)
+     * @return this file
+     * @throws IOException
+     * @throws IllegalStateException if this file is currently not open
+     */
+    public VersionedFile commit(String message, Collection<String> paths)
+            throws IOException {
+
+        // file has to be opened
+        if (!isOpened()) {
+            throw new IllegalStateException(
+                    "File\"" + getFile().getPath() + "\" not opened!");
+        }
+
+        // this should NEVER happen
+        if (hasConflicts()) {
+            throw new IllegalStateException(
+                    "File \"" + getFile().getPath()
+                    + "\" has conflicts!");
+        }
+
+        if (paths.isEmpty()) {
+            return this;
+        }
+
+        // ensures that message is not null
+        if (message == null || message.isEmpty()) {
+            message = "no message";
+        }
+
+        System.out.print(">> commit version ");
+
+        Git git = openGit();
+
+        try {
+            RmCommand rm = git.rm();
+            boolean needsRM = false;
+
+            for (String p : paths) {
+                if (new File(tmpFolder, p).exists()) {
+                    git.add().addFilepattern(p).call();
+                } else {
+                    rm.addFilepattern(p);
+                    needsRM = true;
+                }
+            }
+
+            if (needsRM) {
+                rm.call();
+            }
+
+            commitIndex(git, message);
+
+        } catch (NoFilepatternException ex) {
+            throw new IOException("Git exception", ex);
+        } catch (NoHeadException ex) {
+            throw new IOException("Git exception", ex);
+        } catch (NoMessageException ex) {
+            throw new IOException("Git exception", ex);
+        } catch (ConcurrentRefUpdateException ex) {
+            throw new IOException("Git exception", ex);
+        } catch (JGitInternalException ex) {
+            throw new IOException("Git exception", ex);
+        } catch (WrongRepositoryStateException ex) {
+            throw new IOException("Git exception", ex);
+        }
+
+        if (isFlushCommits()) {
+            flush();
+        }
+
+        return this;
+    }
+
+    /**
+     * Commits the current index and appends the new commit to the cached
+     * version list (the history is not walked again).
+     *
+     * @param git git repository
+     * @param message commit message
+     * @throws IOException
+     */
+    private void commitIndex(Git git, String message) throws IOException,
+            NoHeadException, NoMessageException, ConcurrentRefUpdateException,
+            WrongRepositoryStateException {
+
+        RevCommit commit = git.commit().setMessage(message).
+                setAuthor(System.getProperty("user.name"), "?").call();
+
+        // new commits are children of the latest version
+        if (commits != null) {
+            commits.add(commit);
+        }
+
+        // updates the current version number
+        currentVersion = getNumberOfVersions() - 1;
+
+        System.out.println(currentVersion + ": ");
+        System.out.println(">>> commit-id (SHA-1): " + commit.getName());
+    }
+
+    /**
+     * Determines whether the specified files contain uncommitted changes. In
+     * contrast to {@link #hasUncommittedChanges() } only the specified paths
+     * are compared.
+     *
+     * @param paths paths to check (relative to the content directory, uses /
+     * as separator)
+     * @return <code>true</code> if uncommited changes exist; <code>false</code>
+     * otherwise
+     */
+    public boolean hasUncommittedChanges(Collection<String> paths) {
+        // file has to be opened
+        if (!isOpened()) {
+            throw new IllegalStateException(
+                    "File \"" + getFile().getPath() + "\" not opened!");
+        }
+
+        if (paths.isEmpty()) {
+            return false;
+        }
+
+        try {
+            Git git = openGit();
+
+            IndexDiff diff = new IndexDiff(git.getRepository(),
+                    Constants.HEAD,
+                    new FileTreeIterator(git.getRepository()));
+            diff.setFilter(PathFilterGroup.createFromStrings(paths));
+
+            return diff.diff();
+        } catch (IOException ex) {
+            ex.printStackTrace(System.err);
+        }
+
+        return false;
+    }
+
     /**
      * Returns the number of versions.
      *
@@ -1438,7 +1927,7 @@ public final class VersionedFile implements VersionController {
         Git git = null;
 
         try {
-            git = Git.open(tmpFolder);
+            git = openGit();
             // create a tree walk to search for files
             TreeWalk walk = new TreeWalk(git.getRepository());
             if (walk != null) {
@@ -1503,7 +1992,7 @@ public final class VersionedFile implements VersionController {
 
         try {
 
-            git = Git.open(tmpFolder);
+            git = openGit();
 
             // create a tree walk to search for files.
             walk = new TreeWalk(git.getRepository());
@@ -1577,7 +2066,7 @@ public final class VersionedFile implements VersionController {
 
         try {
 
-            git = Git.open(tmpFolder);
+            git = openRepository();
 
             // checkout the file via an object loader
             ObjectLoader loader = git.getRepository().open(id);
@@ -1632,6 +2121,10 @@ public final class VersionedFile implements VersionController {
      * Returns a list containing commit objects of all versions. This method can
      * be used to show the version messages, e.g., for creating a ui that does
      * allow the selection of the version that shall be checked out.
+     * <p>
+     * The returned list is a snapshot, i.e., it is not affected by later
+     * commits and modifying it does not affect this file.
+     * </p>
      *
      * @return a list containing commit objects of all versions
      * @throws IOException
@@ -1642,7 +2135,7 @@ public final class VersionedFile implements VersionController {
 
         // use cached results if possible
         if (commits != null) {
-            return commits;
+            return new ArrayList<RevCommit>(commits);
         }
 
         // file has to be opened
@@ -1658,7 +2151,7 @@ public final class VersionedFile implements VersionController {
         try {
 
             // open the git repository
-            git = Git.open(tmpFolder);
+            git = openGit();
             walk = new RevWalk(git.getRepository());
 
             // retrieve the object id of the current HEAD version
@@ -1691,7 +2184,7 @@ public final class VersionedFile implements VersionController {
             }
         }
 
-        return commits;
+        return new ArrayList<RevCommit>(commits);
     }
 
     /**
@@ -1708,6 +2201,10 @@ public final class VersionedFile implements VersionController {
         System.out.println(" --> from: " + archiveFile);
         System.out.println(" --> to  : " + dest);
 
+        // the content is moved to a new location
+        extractLazyContent();
+        releaseGit();
+
         // keep the old folder location
         File oldTmpFolder = tmpFolder;
 
@@ -1719,6 +2216,7 @@ public final class VersionedFile implements VersionController {
         try {
             archiveFile = dest;
             updateTmpFolder();
+            flushIndex = null;
             canSwitch = true;
         } catch (IOException ex) {
             exception = ex;
@@ -1749,14 +2247,14 @@ public final class VersionedFile implements VersionController {
 
     /**
      * <p> Flushes this file. This method saves the current state of the content
-     * folder of this file in the archive file. The previous archive file will
-     * be backed up to
-     * <code>filename~</code> before it will be overwritten. This method shall
-     * be used to ensure the content directory and the archive file are in sync.
-     * </p> <p> <b>Note:</b> this method may cause performance problems when
-     * working with large files. Incremental flushing is currently unsupported.
-     * On the other hand, calling this method after content changes decreases
-     * the chance of data loss. </p>
+     * folder of this file in the archive file. This method shall be used to
+     * ensure the content directory and the archive file are in sync. </p> <p>
+     * If the archive format supports incremental updates only the entries that
+     * changed since the last flush are written. Interrupted updates are
+     * reverted the next time this file is opened. Otherwise, the archive is
+     * written to a temporary file that atomically replaces the previous
+     * archive file. </p> <p> <b>Note:</b> calling this method after content
+     * changes decreases the chance of data loss. </p>
      *
      * @return this file
      * @throws IOException
@@ -1772,39 +2270,48 @@ public final class VersionedFile implements VersionController {
         System.out.println(" --> flushing project...");
 
         try {
-            // backup archive file if it already exists to prevent data loss
-            if (getFile().exists()) {
-                IOUtil.copyFile(
-                        getFile(),
-                        VRL.getPropertyFolderManager().toLocalPathInTmpFolder(
-                        new File(getFile().getAbsolutePath() + "~")));
+
+            String[] endings = getFlushEndings();
+
+            FlushIndex newIndex = FlushIndex.scan(tmpFolder, endings);
+
+            if (flushIncrementally(newIndex)) {
+                flushIndex = newIndex;
+                System.out.println(" --> done.");
+                return this;
             }
 
-            // determine parent directory of the archive file
-            String parentPath = getFile().getParent();
+            flushIndex = null;
 
-            if (parentPath == null) {
-                parentPath = "./";
+            // the archive is rewritten, i.e., we need the complete content
+            if (lazyContent != null) {
+                extractLazyContent();
+                newIndex = FlushIndex.scan(tmpFolder, endings);
             }
 
-            Collection<String> endings = new ArrayList<String>();
+            // determine parent directory of the archive file
+            File parent = getFile().getAbsoluteFile().getParentFile();
 
-            endings.add(".git");
-            endings.add(".gitignore");
-            endings.add(FILE_INFO_NAME);
-            endings.add(".class");
-            endings.add("MANIFEST.MF");
-            endings.add("vproject-info.xml");
-     
-            endings.addAll(getExcludedPaths()); // check VProject.initGitIgnore()
+            // the previous archive file is replaced only if the new archive
+            // has been written completely to prevent data loss
+            File tmpArchive = File.createTempFile(
+                    getFile().getName() + ".", ".tmp", parent);
 
-            if (!archiveFormat.packContentsOfFolder(
-                    tmpFolder,
-                    new File(parentPath + "/" + getFile().getName()),
-                    endings.toArray(new String[endings.size()]))) {
-                throw new IOException("Could not pack archive: " + getFile());
+            try {
+                if (!archiveFormat.packContentsOfFolder(
+                        tmpFolder, tmpArchive, endings)) {
+                    throw new IOException(
+                            "Could not pack archive: " + getFile());
+                }
+
+                replaceArchive(tmpArchive);
+            } finally {
+                // only exists if the archive has not been replaced
+                tmpArchive.delete();
             }
 
+            flushIndex = newIndex;
+
 //            if (!archiveFormat.packContentsOfFolder(
 //                    tmpFolder,
 //                    new File(parentPath + "/" + getFile().getName()))) {
@@ -1826,6 +2333,138 @@ public final class VersionedFile implements VersionController {
         return this;
     }
 
+    /**
+     * Replaces the archive file with the specified file. The file is moved
+     * atomically if the file system supports it.
+     *
+     * @param newArchive the new archive file (must be located in the same
+     * folder as the archive file)
+     * @throws IOException if the archive file cannot be replaced
+     */
+    private void replaceArchive(File newArchive) throws IOException {
+        Path source = newArchive.toPath();
+        Path target = getFile().toPath();
+
+        try {
+            Files.move(source, target,
+                    StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Returns the endings of the files that are stored in the archive.
+     *
+     * @return the endings of the files that are stored in the archive
+     */
+    private String[] getFlushEndings() {
+        Collection<String> endings = new ArrayList<String>();
+
+        endings.add(".git");
+        endings.add(".gitignore");
+        endings.add(FILE_INFO_NAME);
+        endings.add(".class");
+        endings.add("MANIFEST.MF");
+        endings.add("vproject-info.xml");
+
+        endings.addAll(getExcludedPaths()); // check VProject.initGitIgnore()
+
+        return endings.toArray(new String[endings.size()]);
+    }
+
+    /**
+     * Writes the changes since the last flush to the archive file.
+     *
+     * @param newIndex snapshot of the current content folder
+     * @return <code>true</code> if the archive has been updated;
+     * <code>false</code> if the archive has to be rewritten
+     */
+    private boolean flushIncrementally(FlushIndex newIndex) {
+        if (flushIndex == null || !getFile().exists()
+                || !(archiveFormat instanceof IncrementalArchiveFormat)) {
+            return false;
+        }
+
+        Map<String, File> changedEntries =
+                newIndex.getChangedEntries(flushIndex);
+        Collection<String> removedEntries =
+                newIndex.getRemovedEntries(flushIndex);
+
+        if (changedEntries.isEmpty() && removedEntries.isEmpty()) {
+            System.out.println(" --> no changes.");
+            return true;
+        }
+
+        System.out.println(" --> changed entries: " + changedEntries.size()
+                + ", removed entries: " + removedEntries.size());
+
+        // entries that have not been extracted yet remain in the archive
+        if (lazyContent != null) {
+            try {
+                lazyContent.close();
+            } catch (IOException ex) {
+                Logger.getLogger(VersionedFile.class.getName()).
+                        log(Level.SEVERE, null, ex);
+                return false;
+            }
+        }
+
+        return ((IncrementalArchiveFormat) archiveFormat).update(
+                getFile(), changedEntries, removedEntries, getFlushJournal());
+    }
+
+    /**
+     * Initializes the flush index after opening the archive. The index is only
+     * used if the unpacked content matches the entries of the archive.
+     */
+    private void initFlushIndex() {
+        flushIndex = null;
+
+        if (!(archiveFormat instanceof IncrementalArchiveFormat)) {
+            return;
+        }
+
+        // all extracted entries are in sync with the archive
+        if (lazyContent != null) {
+            flushIndex = FlushIndex.scan(tmpFolder, getFlushEndings());
+            return;
+        }
+
+        Set<String> entryNames = ((IncrementalArchiveFormat) archiveFormat).
+                getEntryNames(getFile());
+
+        FlushIndex index = FlushIndex.scan(tmpFolder, getFlushEndings());
+
+        if (entryNames != null && entryNames.equals(index.getEntryNames())) {
+            flushIndex = index;
+        }
+    }
+
+    /**
+     * Reverts an interrupted incremental flush of the archive file.
+     */
+    private void recoverInterruptedFlush() {
+        if (archiveFormat instanceof IncrementalArchiveFormat
+                && ((IncrementalArchiveFormat) archiveFormat).recover(
+                getFile(), getFlushJournal())) {
+            System.err.println(
+                    ">> reverted interrupted flush of \"" + getFile() + "\"");
+        }
+    }
+
+    /**
+     * Returns the journal file used for incremental flushing. It is located
+     * next to the archive file. Tmp folders are rotated on startup, i.e., a
+     * journal located there would be lost after a crash.
+     *
+     * @return the journal file used for incremental flushing
+     */
+    File getFlushJournal() {
+        return new File(getFile().getAbsolutePath() + ".flush-journal");
+    }
+
     /**
      * <b>EXPERIMENTAL!</b> <br> <p> Flushes this file to a custom destination.
      * This method saves the current state of the content folder of this file in
@@ -1834,8 +2473,7 @@ public final class VersionedFile implements VersionController {
      *
      * This method shall be used to ensure the content directory and the archive
      * file are in sync. </p> <p> <b>Note:</b> this method may cause performance
-     * problems when working with large files. Incremental flushing is currently
-     * unsupported. On the other hand, calling this method after content changes
+     * problems when working with large files. On the other hand, calling this method after content changes
      * decreases the chance of data loss. </p>
      *
      * @return this file
@@ -1902,10 +2540,16 @@ public final class VersionedFile implements VersionController {
                     + "\" cannot be closed because flushing failed!", ex);
         }
 
+        closeLazyContent();
+        releaseGit();
+
         // we do not want to leave the temporary content folder opened.
         // thus, we delete it
         rmTmpFolder();
 
+        flushIndex = null;
+        commits = null;
+
         return this;
     }
 
@@ -2015,6 +2659,12 @@ public final class VersionedFile implements VersionController {
      */
     private void initGit() throws IOException {
 
+        extractLazyContent();
+
+        releaseGit();
+
+        commits = null;
+
         File repoFile = new File(tmpFolder.getAbsolutePath() + "/.git");
 
         // delete existing repository
@@ -2140,6 +2790,33 @@ public final class VersionedFile implements VersionController {
         return this;
     }
 
+    /**
+     * Indicates whether this file is opened lazily.
+     *
+     * @return <code>true</code> if this file is opened lazily;
+     * <code>false</code> otherwise
+     */
+    public boolean isLazyOpen() {
+        return lazyOpen;
+    }
+
+    /**
+     * Defines whether to open this file lazily. Lazily opened files are read in
+     * place. Entries are extracted on first access via
+     * {@link #getContentFile(java.lang.String) } and the version history is
+     * only extracted if a version related method is called. The latest version
+     * is not checked out on open, i.e., the flushed content is used. Only
+     * supported by zip based archive formats. Takes effect on the next call of
+     * <code>open()</code>.
+     *
+     * @param lazyOpen the state to set
+     * @return this file
+     */
+    public VersionedFile setLazyOpen(boolean lazyOpen) {
+        this.lazyOpen = lazyOpen;
+        return this;
+    }
+
     /**
      * @return the flushCommits
      */
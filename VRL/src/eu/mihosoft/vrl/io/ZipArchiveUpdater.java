@@ -0,0 +1,902 @@
+/* 
+ * ZipArchiveUpdater.java
+ * 
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2007–2018 by Michael Hoffer,
+ * Copyright (c) 2015–2018 G-CSC, Uni Frankfurt,
+ * Copyright (c) 2009–2015 Steinbeis Forschungszentrum (STZ Ölbronn)
+ * 
+ * This file is part of Visual Reflection Library (VRL).
+ *
+ * VRL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * see: http://opensource.org/licenses/LGPL-3.0
+ *      file://path/to/VRL/src/eu/mihosoft/vrl/resources/license/lgplv3.txt
+ *
+ * VRL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * This version of VRL includes copyright notice and attribution requirements.
+ * According to the LGPL this information must be displayed even if you modify
+ * the source code of VRL. Neither the VRL Canvas attribution icon nor any
+ * copyright statement/attribution may be removed.
+ *
+ * Attribution Requirements:
+ *
+ * If you create derived work you must do three things regarding copyright
+ * notice and author attribution.
+ *
+ * First, the following text must be displayed on the Canvas:
+ * "based on VRL source code". In this case the VRL canvas icon must be removed.
+ * 
+ * Second, the copyright notice must remain. It must be reproduced in any
+ * program that uses VRL.
+ *
+ * Third, add an additional notice, stating that you modified VRL. A suitable
+ * notice might read
+ * "VRL source code modified by YourName 2012".
+ * 
+ * Note, that these requirements are in full accordance with the LGPL v3
+ * (see 7. Additional Terms, b).
+ *
+ * Please cite the publication(s) listed below.
+ *
+ * Publications:
+ *
+ * M. Hoffer, C. Poliwoda, & G. Wittum. (2013). Visual reflection library:
+ * a framework for declarative GUI programming on the Java platform.
+ * Computing and Visualization in Science, 2013, 16(4),
+ * 181–192. http://doi.org/10.1007/s00791-014-0230-y
+ */
+
+package eu.mihosoft.vrl.io;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipException;
+
+/**
+ * Updates zip archives in place. Changed entries are appended to the archive
+ * and a new central directory is written. Entries that are not affected are
+ * neither read nor rewritten. Replaced entries remain in the archive as unused
+ * space until the archive is compacted. Compaction copies the raw (compressed)
+ * entry data to a new file which atomically replaces the archive.
+ *
+ * <p>
+ * Before an archive is modified, its original length is written to a journal
+ * file. If an update is interrupted, the appended data can be removed via
+ * {@link #recover(java.io.File, java.io.File) }. Zip64 archives are not
+ * supported.</p>
+ *
+ * <p><b>Note:</b> until an archive is compacted it must be read via its central
+ * directory (e.g. {@link java.util.zip.ZipFile}). Sequential readers such as
+ * {@link java.util.zip.ZipInputStream} stop at the first (outdated) central
+ * directory.</p>
+ *
+ * @author Michael Hoffer &lt;info@michaelhoffer.de&gt;
+ */
+final class ZipArchiveUpdater {
+
+    private static final int LOCAL_HEADER_SIG = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIG = 0x02014b50;
+    private static final int END_OF_CENTRAL_DIR_SIG = 0x06054b50;
+    private static final int ZIP64_LOCATOR_SIG = 0x07064b50;
+    private static final int DATA_DESCRIPTOR_SIG = 0x08074b50;
+    private static final int LOCAL_HEADER_SIZE = 30;
+    private static final int CENTRAL_HEADER_SIZE = 46;
+    private static final int END_OF_CENTRAL_DIR_SIZE = 22;
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+    static final long MAX_32_BIT = 0xFFFFFFFFL;
+    private static final int MAX_ENTRIES = 0xFFFF;
+    static final int STORED = 0;
+    static final int DEFLATED = 8;
+    private static final int FLAG_DATA_DESCRIPTOR = 0x08;
+    private static final int FLAG_UTF8 = 0x800;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Endings of files that are already compressed. Such files are stored
+     * without compression.
+     */
+    private static final String[] COMPRESSED_ENDINGS = {
+        ".zip", ".jar", ".vrlp", ".gz", ".tgz", ".bz2", ".xz", ".7z",
+        ".png", ".jpg", ".jpeg", ".gif", ".mp3", ".mp4", ".ogg", ".pack"};
+
+    /**
+     * Git objects are zlib compressed.
+     */
+    private static final String GIT_OBJECTS = ".git/objects/";
+
+    // no instanciation allowed
+    private ZipArchiveUpdater() {
+        throw new AssertionError(); // not in this class either!
+    }
+
+    /**
+     * Indicates whether the specified entry is already compressed, i.e.,
+     * whether it should be stored without compression.
+     *
+     * @param name entry name
+     * @return <code>true</code> if the specified entry is already compressed;
+     * <code>false</code> otherwise
+     */
+    static boolean isCompressed(String name) {
+
+        if (name.startsWith(GIT_OBJECTS) && !name.endsWith(".idx")) {
+            return true;
+        }
+
+        String lowerCaseName = name.toLowerCase(Locale.ENGLISH);
+
+        for (String ending : COMPRESSED_ENDINGS) {
+            if (lowerCaseName.endsWith(ending)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the entry names of the specified archive.
+     *
+     * @param archive archive
+     * @return the entry names or <code>null</code> if the archive cannot be
+     * updated incrementally
+     * @throws IOException if the archive cannot be read
+     */
+    static Set<String> getEntryNames(File archive) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(archive, "r");
+
+        try {
+            CentralDirectory cd = readCentralDirectory(file.getChannel());
+
+            return cd == null ? null : cd.entries.keySet();
+        } finally {
+            file.close();
+        }
+    }
+
+    /**
+     * Updates the specified archive.
+     *
+     * @param archive archive to update
+     * @param changedEntries changed entries (entry name, file)
+     * @param removedEntries names of removed entries
+     * @param journal journal file
+     * @return <code>true</code> if the archive has been updated;
+     * <code>false</code> if the archive cannot be updated incrementally
+     * @throws IOException if the update failed
+     */
+    static boolean update(File archive,
+            Map<String, File> changedEntries,
+            Collection<String> removedEntries,
+            File journal) throws IOException {
+
+        recover(archive, journal);
+
+        RandomAccessFile file = new RandomAccessFile(archive, "rw");
+        FileChannel channel = file.getChannel();
+
+        CentralDirectory cd;
+        long originalLength = channel.size();
+        boolean success = false;
+
+        try {
+
+            cd = readCentralDirectory(channel);
+
+            if (cd == null) {
+                return false;
+            }
+
+            for (String name : removedEntries) {
+                cd.entries.remove(name);
+            }
+
+            for (String name : changedEntries.keySet()) {
+                cd.entries.remove(name);
+            }
+
+            if (cd.entries.size() + changedEntries.size() > MAX_ENTRIES) {
+                return false;
+            }
+
+            writeJournal(journal, originalLength);
+
+            // entries are sorted to get reproducible archives
+            Map<String, File> sortedEntries
+                    = new TreeMap<String, File>(changedEntries);
+
+            channel.position(originalLength);
+
+            for (Map.Entry<String, File> e : sortedEntries.entrySet()) {
+                CentralEntry entry = writeEntry(
+                        channel, e.getKey(), e.getValue());
+                cd.entries.put(entry.name, entry);
+            }
+
+            writeCentralDirectory(channel, cd.entries.values());
+
+            channel.force(true);
+
+            success = true;
+
+        } catch (ZipException ex) {
+            // limits of the zip format exceeded (zip64 would be necessary)
+            return false;
+        } finally {
+            if (!success && channel.size() > originalLength) {
+                channel.truncate(originalLength);
+            }
+
+            file.close();
+
+            if (journal.exists()) {
+                journal.delete();
+            }
+        }
+
+        // compact if more than half of the archive is unused
+        long usedSpace = cd.getUsedSpace();
+
+        if (archive.length() - usedSpace > usedSpace) {
+            compact(archive);
+        }
+
+        return true;
+    }
+
+    /**
+     * Reverts an interrupted update of the specified archive.
+     *
+     * @param archive archive
+     * @param journal journal file
+     * @return <code>true</code> if an interrupted update has been reverted;
+     * <code>false</code> otherwise
+     * @throws IOException if the journal cannot be read or if the archive
+     * cannot be truncated
+     */
+    static boolean recover(File archive, File journal) throws IOException {
+
+        if (!journal.exists()) {
+            return false;
+        }
+
+        long originalLength;
+
+        try {
+            originalLength = Long.parseLong(
+                    new String(Files.readAllBytes(journal.toPath()),
+                            StandardCharsets.UTF_8).trim());
+        } catch (NumberFormatException ex) {
+            throw new IOException("Invalid journal file: " + journal, ex);
+        }
+
+        if (archive.exists() && archive.length() > originalLength) {
+            RandomAccessFile file = new RandomAccessFile(archive, "rw");
+            try {
+                file.getChannel().truncate(originalLength);
+            } finally {
+                file.close();
+            }
+        }
+
+        journal.delete();
+
+        return true;
+    }
+
+    /**
+     * Removes unused space from the specified archive. The raw entry data is
+     * copied to a new file which replaces the archive afterwards.
+     *
+     * @param archive archive to compact
+     * @throws IOException if compaction failed
+     */
+    static void compact(File archive) throws IOException {
+
+        File tmpFile = new File(archive.getAbsoluteFile().getParentFile(),
+                "." + archive.getName() + ".compact~");
+
+        RandomAccessFile src = new RandomAccessFile(archive, "r");
+        FileOutputStream dest = null;
+
+        try {
+            FileChannel srcChannel = src.getChannel();
+
+            CentralDirectory cd = readCentralDirectory(srcChannel);
+
+            if (cd == null) {
+                return;
+            }
+
+            dest = new FileOutputStream(tmpFile);
+            FileChannel destChannel = dest.getChannel();
+
+            for (CentralEntry entry : cd.entries.values()) {
+                long length = getLocalEntryLength(srcChannel, entry);
+                long newOffset = destChannel.position();
+
+                transfer(srcChannel, entry.localOffset, length, destChannel);
+
+                entry.setLocalOffset(newOffset);
+            }
+
+            writeCentralDirectory(destChannel, cd.entries.values());
+
+            destChannel.force(true);
+
+        } finally {
+            src.close();
+
+            if (dest != null) {
+                dest.close();
+            }
+        }
+
+        if (tmpFile.exists()) {
+            replace(tmpFile, archive);
+        }
+    }
+
+    /**
+     * Replaces the destination file with the source file. The file is moved
+     * atomically if supported by the file system.
+     *
+     * @param src source file
+     * @param dest destination file
+     * @throws IOException if the file cannot be moved
+     */
+    static void replace(File src, File dest) throws IOException {
+        try {
+            Files.move(src.toPath(), dest.toPath(),
+                    StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(src.toPath(), dest.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Copies the specified region of the source channel to the current
+     * position of the destination channel.
+     *
+     * @param src source channel
+     * @param position position of the region
+     * @param length length of the region
+     * @param dest destination channel
+     * @throws IOException if copying failed
+     */
+    static void transfer(FileChannel src, long position, long length,
+            FileChannel dest) throws IOException {
+        long transferred = 0;
+
+        while (transferred < length) {
+            long n = src.transferTo(
+                    position + transferred, length - transferred, dest);
+
+            if (n <= 0) {
+                throw new IOException("Unexpected end of archive");
+            }
+
+            transferred += n;
+        }
+    }
+
+    private static void writeJournal(File journal, long length)
+            throws IOException {
+        journal.getAbsoluteFile().getParentFile().mkdirs();
+
+        FileOutputStream out = new FileOutputStream(journal);
+
+        try {
+            out.write(Long.toString(length).getBytes(StandardCharsets.UTF_8));
+            out.getFD().sync();
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Returns the length of the local entry (header, data and optional data
+     * descriptor).
+     */
+    private static long getLocalEntryLength(
+            FileChannel channel, CentralEntry entry) throws IOException {
+
+        ByteBuffer header = read(channel, entry.localOffset, LOCAL_HEADER_SIZE);
+
+        if (header.getInt(0) != LOCAL_HEADER_SIG) {
+            throw new ZipException(
+                    "Invalid local header: " + entry.name);
+        }
+
+        long length = LOCAL_HEADER_SIZE
+                + (header.getShort(26) & 0xFFFF)
+                + (header.getShort(28) & 0xFFFF)
+                + entry.getCompressedSize();
+
+        if ((header.getShort(6) & FLAG_DATA_DESCRIPTOR) != 0) {
+            ByteBuffer descriptor = read(
+                    channel, entry.localOffset + length, 4);
+            length += descriptor.getInt(0) == DATA_DESCRIPTOR_SIG ? 16 : 12;
+        }
+
+        return length;
+    }
+
+    private static ByteBuffer read(FileChannel channel,
+            long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).
+                order(ByteOrder.LITTLE_ENDIAN);
+
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new ZipException("Unexpected end of archive");
+            }
+        }
+
+        buffer.flip();
+
+        return buffer;
+    }
+
+    /**
+     * Reads the central directory.
+     *
+     * @param channel channel
+     * @return the central directory or <code>null</code> if the archive
+     * cannot be updated incrementally (e.g. zip64 or multi-disk archives)
+     * @throws IOException if the central directory cannot be read
+     */
+    private static CentralDirectory readCentralDirectory(FileChannel channel)
+            throws IOException {
+
+        long size = channel.size();
+
+        if (size < END_OF_CENTRAL_DIR_SIZE) {
+            return null;
+        }
+
+        int tailLength = (int) Math.min(size,
+                END_OF_CENTRAL_DIR_SIZE + MAX_COMMENT_SIZE);
+        long tailOffset = size - tailLength;
+
+        ByteBuffer tail = read(channel, tailOffset, tailLength);
+
+        int eocd = -1;
+
+        for (int i = tailLength - END_OF_CENTRAL_DIR_SIZE; i >= 0; i--) {
+            if (tail.getInt(i) == END_OF_CENTRAL_DIR_SIG
+                    && i + END_OF_CENTRAL_DIR_SIZE
+                    + (tail.getShort(i + 20) & 0xFFFF) == tailLength) {
+                eocd = i;
+                break;
+            }
+        }
+
+        if (eocd < 0) {
+            return null;
+        }
+
+        // zip64 archives are not supported
+        if (eocd >= 20 && tail.getInt(eocd - 20) == ZIP64_LOCATOR_SIG) {
+            return null;
+        }
+
+        int disk = tail.getShort(eocd + 4) & 0xFFFF;
+        int cdDisk = tail.getShort(eocd + 6) & 0xFFFF;
+        int entriesOnDisk = tail.getShort(eocd + 8) & 0xFFFF;
+        int numberOfEntries = tail.getShort(eocd + 10) & 0xFFFF;
+        long cdSize = tail.getInt(eocd + 12) & MAX_32_BIT;
+        long cdOffset = tail.getInt(eocd + 16) & MAX_32_BIT;
+
+        if (disk != 0 || cdDisk != 0 || entriesOnDisk != numberOfEntries
+                || cdOffset + cdSize > tailOffset + eocd) {
+            return null;
+        }
+
+        ByteBuffer cdData = read(channel, cdOffset, (int) cdSize);
+
+        CentralDirectory result = new CentralDirectory();
+
+        int position = 0;
+
+        for (int i = 0; i < numberOfEntries; i++) {
+
+            if (position + CENTRAL_HEADER_SIZE > cdSize
+                    || cdData.getInt(position) != CENTRAL_HEADER_SIG) {
+                return null;
+            }
+
+            int recordLength = CENTRAL_HEADER_SIZE
+                    + (cdData.getShort(position + 28) & 0xFFFF)
+                    + (cdData.getShort(position + 30) & 0xFFFF)
+                    + (cdData.getShort(position + 32) & 0xFFFF);
+
+            if (position + recordLength > cdSize) {
+                return null;
+            }
+
+            byte[] record = new byte[recordLength];
+            cdData.position(position);
+            cdData.get(record);
+
+            CentralEntry entry = new CentralEntry(record);
+
+            if (entry.getCompressedSize() == MAX_32_BIT
+                    || entry.localOffset == MAX_32_BIT) {
+                return null;
+            }
+
+            result.entries.put(entry.name, entry);
+
+            position += recordLength;
+        }
+
+        return result;
+    }
+
+    private static void writeCentralDirectory(FileChannel channel,
+            Collection<CentralEntry> entries) throws IOException {
+
+        List<byte[]> records = new ArrayList<byte[]>(entries.size());
+
+        for (CentralEntry entry : entries) {
+            records.add(entry.record);
+        }
+
+        writeCentralDirectory(channel, records);
+    }
+
+    /**
+     * Writes the specified central directory records and the end of central
+     * directory record at the current channel position. The channel is
+     * truncated afterwards.
+     *
+     * @param channel channel
+     * @param records central directory records
+     * @throws IOException if writing failed or if the archive requires zip64
+     */
+    static void writeCentralDirectory(FileChannel channel,
+            List<byte[]> records) throws IOException {
+
+        long cdOffset = channel.position();
+
+        for (byte[] record : records) {
+            writeFully(channel, ByteBuffer.wrap(record));
+        }
+
+        long cdSize = channel.position() - cdOffset;
+
+        if (cdOffset > MAX_32_BIT || cdSize > MAX_32_BIT
+                || records.size() > MAX_ENTRIES) {
+            throw new ZipException("Zip64 not supported");
+        }
+
+        ByteBuffer eocd = ByteBuffer.allocate(END_OF_CENTRAL_DIR_SIZE).
+                order(ByteOrder.LITTLE_ENDIAN);
+
+        eocd.putInt(END_OF_CENTRAL_DIR_SIG);
+        eocd.putShort((short) 0); // disk
+        eocd.putShort((short) 0); // disk with central directory
+        eocd.putShort((short) records.size());
+        eocd.putShort((short) records.size());
+        eocd.putInt((int) cdSize);
+        eocd.putInt((int) cdOffset);
+        eocd.putShort((short) 0); // comment length
+        eocd.flip();
+
+        writeFully(channel, eocd);
+
+        channel.truncate(channel.position());
+    }
+
+    /**
+     * Writes the specified file as new entry at the current channel position.
+     * The file is read once and compressed while writing.
+     *
+     * @param channel channel
+     * @param name entry name
+     * @param f file (may be a directory)
+     * @return the central directory record of the entry
+     * @throws IOException if writing failed or if the archive requires zip64
+     */
+    static byte[] appendEntry(
+            FileChannel channel, String name, File f) throws IOException {
+        return writeEntry(channel, name, f).record;
+    }
+
+    /**
+     * Writes the specified file as new entry at the current channel position.
+     *
+     * @param channel channel
+     * @param name entry name
+     * @param f file (may be a directory)
+     * @return the central directory entry
+     * @throws IOException if writing failed
+     */
+    private static CentralEntry writeEntry(
+            FileChannel channel, String name, File f) throws IOException {
+
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        boolean directory = name.endsWith("/");
+        int method = directory || isCompressed(name) ? STORED : DEFLATED;
+        int dosTime = toDosTime(f.lastModified());
+
+        long offset = channel.position();
+
+        if (offset > MAX_32_BIT) {
+            throw new ZipException("Zip64 not supported");
+        }
+
+        // crc and sizes are written after data
+        writeFully(channel, ByteBuffer.wrap(
+                createLocalHeader(nameBytes, method, dosTime, 0, 0, 0)));
+
+        CRC32 crc = new CRC32();
+        long size = 0;
+        long compressedSize = 0;
+
+        if (!directory) {
+            FileInputStream in = new FileInputStream(f);
+            Deflater deflater = method == DEFLATED
+                    ? new Deflater(Deflater.DEFAULT_COMPRESSION, true) : null;
+
+            try {
+                byte[] input = new byte[BUFFER_SIZE];
+                byte[] output = new byte[BUFFER_SIZE];
+
+                int n;
+
+                while ((n = in.read(input)) >= 0) {
+                    crc.update(input, 0, n);
+                    size += n;
+
+                    if (deflater == null) {
+                        writeFully(channel, ByteBuffer.wrap(input, 0, n));
+                    } else {
+                        deflater.setInput(input, 0, n);
+                        while (!deflater.needsInput()) {
+                            int c = deflater.deflate(output);
+                            writeFully(channel, ByteBuffer.wrap(output, 0, c));
+                        }
+                    }
+                }
+
+                if (deflater != null) {
+                    deflater.finish();
+                    while (!deflater.finished()) {
+                        int c = deflater.deflate(output);
+                        writeFully(channel, ByteBuffer.wrap(output, 0, c));
+                    }
+                }
+            } finally {
+                in.close();
+
+                if (deflater != null) {
+                    deflater.end();
+                }
+            }
+
+            compressedSize = channel.position()
+                    - offset - LOCAL_HEADER_SIZE - nameBytes.length;
+        }
+
+        if (size > MAX_32_BIT || compressedSize > MAX_32_BIT) {
+            throw new ZipException("Zip64 not supported");
+        }
+
+        ByteBuffer sizes = ByteBuffer.allocate(12).
+                order(ByteOrder.LITTLE_ENDIAN);
+        sizes.putInt((int) crc.getValue());
+        sizes.putInt((int) compressedSize);
+        sizes.putInt((int) size);
+        sizes.flip();
+
+        while (sizes.hasRemaining()) {
+            channel.write(sizes, offset + 14 + sizes.position());
+        }
+
+        return new CentralEntry(createCentralRecord(nameBytes, method,
+                dosTime, crc.getValue(), compressedSize, size, offset));
+    }
+
+    /**
+     * Creates a local file header.
+     *
+     * @param name entry name (UTF-8)
+     * @param method compression method ({@link #STORED} or
+     * {@link #DEFLATED})
+     * @param dosTime modification time in MS-DOS format
+     * @param crc crc-32 of the uncompressed data
+     * @param compressedSize compressed size
+     * @param size uncompressed size
+     * @return the local file header
+     */
+    static byte[] createLocalHeader(byte[] name, int method, int dosTime,
+            long crc, long compressedSize, long size) {
+        ByteBuffer header = ByteBuffer.allocate(
+                LOCAL_HEADER_SIZE + name.length).
+                order(ByteOrder.LITTLE_ENDIAN);
+
+        header.putInt(LOCAL_HEADER_SIG);
+        header.putShort((short) 20); // version needed to extract
+        header.putShort((short) FLAG_UTF8);
+        header.putShort((short) method);
+        header.putInt(dosTime);
+        header.putInt((int) crc);
+        header.putInt((int) compressedSize);
+        header.putInt((int) size);
+        header.putShort((short) name.length);
+        header.putShort((short) 0); // extra length
+        header.put(name);
+
+        return header.array();
+    }
+
+    /**
+     * Creates a central directory record.
+     *
+     * @param name entry name (UTF-8)
+     * @param method compression method ({@link #STORED} or
+     * {@link #DEFLATED})
+     * @param dosTime modification time in MS-DOS format
+     * @param crc crc-32 of the uncompressed data
+     * @param compressedSize compressed size
+     * @param size uncompressed size
+     * @param offset offset of the local file header
+     * @return the central directory record
+     */
+    static byte[] createCentralRecord(byte[] name, int method, int dosTime,
+            long crc, long compressedSize, long size, long offset) {
+        ByteBuffer record = ByteBuffer.allocate(
+                CENTRAL_HEADER_SIZE + name.length).
+                order(ByteOrder.LITTLE_ENDIAN);
+
+        record.putInt(CENTRAL_HEADER_SIG);
+        record.putShort((short) 20); // version made by
+        record.putShort((short) 20); // version needed to extract
+        record.putShort((short) FLAG_UTF8);
+        record.putShort((short) method);
+        record.putInt(dosTime);
+        record.putInt((int) crc);
+        record.putInt((int) compressedSize);
+        record.putInt((int) size);
+        record.putShort((short) name.length);
+        record.putShort((short) 0); // extra length
+        record.putShort((short) 0); // comment length
+        record.putShort((short) 0); // disk number
+        record.putShort((short) 0); // internal attributes
+        record.putInt(0); // external attributes
+        record.putInt((int) offset);
+        record.put(name);
+
+        return record.array();
+    }
+
+    /**
+     * Writes the remaining bytes of the specified buffer to the channel.
+     *
+     * @param channel channel
+     * @param buffer buffer
+     * @throws IOException if writing failed
+     */
+    static void writeFully(FileChannel channel, ByteBuffer buffer)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Converts the specified time to MS-DOS date and time format.
+     *
+     * @param time time in milliseconds
+     * @return time in MS-DOS format
+     */
+    static int toDosTime(long time) {
+        Calendar c = Calendar.getInstance();
+        c.setTimeInMillis(time);
+
+        int year = c.get(Calendar.YEAR);
+
+        if (year < 1980) {
+            return (1 << 21) | (1 << 16);
+        }
+
+        return (year - 1980) << 25
+                | (c.get(Calendar.MONTH) + 1) << 21
+                | c.get(Calendar.DAY_OF_MONTH) << 16
+                | c.get(Calendar.HOUR_OF_DAY) << 11
+                | c.get(Calendar.MINUTE) << 5
+                | c.get(Calendar.SECOND) >> 1;
+    }
+
+    /**
+     * Central directory of a zip archive.
+     */
+    private static final class CentralDirectory {
+
+        private final Map<String, CentralEntry> entries
+                = new LinkedHashMap<String, CentralEntry>();
+
+        /**
+         * Returns the space used by the entries (excluding unused space left
+         * by replaced entries).
+         */
+        long getUsedSpace() {
+            long result = END_OF_CENTRAL_DIR_SIZE;
+
+            for (CentralEntry entry : entries.values()) {
+                // local header is approximated by the central header
+                result += entry.record.length * 2L + entry.getCompressedSize();
+            }
+
+            return result;
+        }
+    }
+
+    /**
+     * Central directory entry. The raw record is kept to preserve all
+     * attributes of entries that are not modified.
+     */
+    private static final class CentralEntry {
+
+        private final byte[] record;
+        private final String name;
+        private long localOffset;
+
+        CentralEntry(byte[] record) {
+            this.record = record;
+
+            ByteBuffer b = ByteBuffer.wrap(record).
+                    order(ByteOrder.LITTLE_ENDIAN);
+
+            int nameLength = b.getShort(28) & 0xFFFF;
+
+            this.name = new String(record, CENTRAL_HEADER_SIZE, nameLength,
+                    StandardCharsets.UTF_8);
+            this.localOffset = b.getInt(42) & MAX_32_BIT;
+        }
+
+        long getCompressedSize() {
+            return ByteBuffer.wrap(record).order(ByteOrder.LITTLE_ENDIAN).
+                    getInt(20) & MAX_32_BIT;
+        }
+
+        void setLocalOffset(long offset) {
+            this.localOffset = offset;
+            ByteBuffer.wrap(record).order(ByteOrder.LITTLE_ENDIAN).
+                    putInt(42, (int) offset);
+        }
+    }
+}
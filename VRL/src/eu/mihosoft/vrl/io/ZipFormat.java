@@ -58,6 +58,9 @@ package eu.mihosoft.vrl.io;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.zip.ZipException;
@@ -66,7 +69,7 @@ import java.util.zip.ZipException;
  *
  * @author Michael Hoffer &lt;info@michaelhoffer.de&gt;
  */
-public class ZipFormat implements ArchiveFormat {
+public class ZipFormat implements IncrementalArchiveFormat {
     
     private static final String IDENTIFIER = "ZIP";
 
@@ -114,6 +117,43 @@ public class ZipFormat implements ArchiveFormat {
         return true;
     }
 
+    @Override
+    public Set<String> getEntryNames(File archive) {
+        try {
+            return ZipArchiveUpdater.getEntryNames(archive);
+        } catch (IOException ex) {
+            Logger.getLogger(ZipFormat.class.getName()).
+                    log(Level.SEVERE, null, ex);
+            return null;
+        }
+    }
+
+    @Override
+    public boolean update(File archive,
+            Map<String, File> changedEntries,
+            Collection<String> removedEntries,
+            File journal) {
+        try {
+            return ZipArchiveUpdater.update(
+                    archive, changedEntries, removedEntries, journal);
+        } catch (IOException ex) {
+            Logger.getLogger(ZipFormat.class.getName()).
+                    log(Level.SEVERE, null, ex);
+            return false;
+        }
+    }
+
+    @Override
+    public boolean recover(File archive, File journal) {
+        try {
+            return ZipArchiveUpdater.recover(archive, journal);
+        } catch (IOException ex) {
+            Logger.getLogger(ZipFormat.class.getName()).
+                    log(Level.SEVERE, null, ex);
+            return false;
+        }
+    }
+
     @Override
     public String getIdentifier() {
         return IDENTIFIER;
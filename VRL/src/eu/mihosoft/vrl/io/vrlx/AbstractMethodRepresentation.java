@@ -211,6 +211,24 @@ public class AbstractMethodRepresentation {
         this.visibility = visibility;
     }
 
+    /**
+     * Decodes the parameter and return values in advance (see
+     * {@link AbstractParameter#prepare()}).
+     */
+    void prepare() {
+        if (getValueData() != null) {
+            for (AbstractParameter p : getValueData()) {
+                if (p != null) {
+                    p.prepare();
+                }
+            }
+        }
+
+        if (returnValueData != null) {
+            returnValueData.prepare();
+        }
+    }
+
     /**
      * Assigns properties to method representation. This method is used to
      * assign properties loaded from XML session file.
@@ -57,6 +57,7 @@ package eu.mihosoft.vrl.io.vrlx;
 
 import eu.mihosoft.vrl.visual.Canvas;
 import eu.mihosoft.vrl.io.Base64;
+import eu.mihosoft.vrl.io.BlobStore;
 import eu.mihosoft.vrl.lang.visual.StartObject;
 import eu.mihosoft.vrl.lang.visual.StopObject;
 import eu.mihosoft.vrl.reflection.DefaultMethodRepresentation;
@@ -90,9 +91,24 @@ public class AbstractObjectRepresentation
 
     private static final long serialVersionUID = 6770317538206416765L;
     /**
-     * serialized object (binary serialization, base64 with gz compression)
+     * serialized object (binary serialization, base64 with gz compression or
+     * blob reference, see {@link BlobStore})
      */
     private String objectData;
+    /**
+     * the blob store that contains the object data (only used for blob
+     * references)
+     */
+    private transient BlobStore blobStore;
+    /**
+     * the object decoded by {@link #prepare(VisualCanvas)}
+     */
+    private transient Object preparedObject;
+    /**
+     * indicates whether the object has been decoded by
+     * {@link #prepare(VisualCanvas)}
+     */
+    private transient boolean prepared;
     /**
      * the id of the object
      */
@@ -129,7 +145,21 @@ public class AbstractObjectRepresentation
 
         if (result instanceof Serializable) {
             Serializable serializable = (Serializable) result;
-            objectData = Base64.encodeObject(serializable, Base64.GZIP);
+
+            BlobStore store = BlobStore.getCurrent();
+
+            if (store != null) {
+                byte[] data = BlobValueUtil.serialize(serializable);
+
+                if (data != null && data.length >= BlobStore.MIN_BLOB_SIZE) {
+                    setObjectData(BlobValueUtil.toBlob(store,
+                            BlobValueUtil.BLOB_TYPE_SERIALIZED, data));
+                }
+            }
+
+            if (objectData == null) {
+                objectData = Base64.encodeObject(serializable, Base64.GZIP);
+            }
 
             if (objectData == null) {
                 throw new NotSerializableException("Object of class "
@@ -332,16 +362,70 @@ public class AbstractObjectRepresentation
         return result;
     }
 
+    /**
+     * Decodes the object and the parameter values of the methods in advance,
+     * e.g., while other parts of a session are loaded (see
+     * {@link PreparableSessionTask}). The canvas is not modified.
+     *
+     * @param mainCanvas the canvas object that is used for class loading
+     */
+    void prepare(VisualCanvas mainCanvas) {
+        synchronized (this) {
+            if (!prepared) {
+                preparedObject = decodeObjectData(mainCanvas);
+                prepared = true;
+            }
+        }
+
+        for (AbstractMethodRepresentation m : this) {
+            m.prepare();
+        }
+    }
+
     /**
      * Decodes and returns the object that is saved as compressed base64 string
-     * using the class loader of the specified canvas object.
+     * (or as blob) using the class loader of the specified canvas object.
      *
      * @param mainCanvas the canvas object that is used for class loading
      * @return the object that is saved as compressed base64 string
      */
     public Object decodeObject(VisualCanvas mainCanvas) {
+        synchronized (this) {
+            if (prepared) {
+                // prepared objects are only used once since callers expect
+                // a new instance
+                Object result = preparedObject;
+                preparedObject = null;
+                prepared = false;
+                return result;
+            }
+        }
+
+        return decodeObjectData(mainCanvas);
+    }
+
+    /**
+     * Decodes the object data using the class loader of the specified canvas.
+     *
+     * @param mainCanvas the canvas object that is used for class loading
+     * @return the decoded object
+     */
+    private Object decodeObjectData(VisualCanvas mainCanvas) {
         Object result = null;
-        if (objectData != null) {
+        if (BlobStore.isReference(objectData)) {
+            if (blobStore == null) {
+                System.err.println(">> AbstractObjectRepresentation: no blob"
+                        + " store available. Can't decode " + objectData);
+                return null;
+            }
+            try {
+                result = BlobValueUtil.deserialize(
+                        blobStore.resolve(objectData),
+                        mainCanvas.getClassLoader());
+            } catch (Exception ex) {
+                ex.printStackTrace(System.err);
+            }
+        } else if (objectData != null) {
             result = Base64.decodeToObject(
                     objectData, mainCanvas.getClassLoader());
         }
@@ -349,7 +433,7 @@ public class AbstractObjectRepresentation
     }
 
     /**
-     * Returns the base64 encoded object data as string.
+     * Returns the base64 encoded object data (or blob reference) as string.
      *
      * @return the base64 encoded object data as string
      */
@@ -358,12 +442,22 @@ public class AbstractObjectRepresentation
     }
 
     /**
-     * Sets the object data string.
+     * Sets the object data string. If the data is a blob reference, the
+     * current blob store (see {@link BlobStore#getCurrent()}) is used to load
+     * the object.
      *
      * @param objectData the object data to set
      */
-    public void setObjectData(String objectData) {
+    public synchronized void setObjectData(String objectData) {
         this.objectData = objectData;
+        this.preparedObject = null;
+        this.prepared = false;
+
+        if (BlobStore.isReference(objectData)) {
+            blobStore = BlobStore.getCurrent();
+        } else {
+            blobStore = null;
+        }
     }
 
     /**
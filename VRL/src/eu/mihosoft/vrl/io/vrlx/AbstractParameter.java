@@ -57,6 +57,7 @@
 package eu.mihosoft.vrl.io.vrlx;
 
 import eu.mihosoft.vrl.io.Base64;
+import eu.mihosoft.vrl.io.BlobStore;
 import eu.mihosoft.vrl.reflection.CustomParamData;
 import eu.mihosoft.vrl.reflection.TypeRepresentationBase;
 import eu.mihosoft.vrl.reflection.VisualCanvas;
@@ -68,6 +69,7 @@ import java.beans.XMLDecoder;
 import java.beans.XMLEncoder;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
 import java.io.Serializable;
 
 
@@ -79,9 +81,24 @@ import java.io.Serializable;
 public class AbstractParameter {
 
     /**
-     * serialized object encoded as XML or compressed base64 string
+     * serialized object encoded as XML, compressed base64 string or blob
+     * reference (see {@link BlobStore})
      */
     private String valueObjectData;
+    /**
+     * the blob store that contains the value data (only used for blob
+     * references)
+     */
+    private BlobStore blobStore;
+    /**
+     * the value object decoded by {@link #prepare()}
+     */
+    private Object preparedValueObject;
+    /**
+     * indicates whether the value object has been decoded by
+     * {@link #prepare()}
+     */
+    private boolean prepared;
     /**
      * the value options of this parameter
      */
@@ -123,7 +140,8 @@ public class AbstractParameter {
                 Serializable value =
                         (Serializable) t.getViewValueWithoutValidation();
 
-                ValueEncoder valueEncoder = new ValueEncoder();
+                ValueEncoder valueEncoder
+                        = new ValueEncoder(BlobStore.getCurrent());
                 setValueObjectData(valueEncoder.encodeParamValue(
                         value, t.preferBinarySerialization()));
 
@@ -154,32 +172,76 @@ public class AbstractParameter {
     }
 
     /**
-     * Returns the deserialized value object.
+     * Returns the deserialized value object. Values that are stored as blob
+     * are loaded from the blob store.
      * @return the deserialized value object
      */
     public Object getValueObject() {
+        synchronized (this) {
+            if (prepared) {
+                // prepared values are only used once since callers expect
+                // a new instance
+                Object result = preparedValueObject;
+                preparedValueObject = null;
+                prepared = false;
+                return result;
+            }
+        }
+
+        return decodeValueObject();
+    }
+
+    /**
+     * Decodes the value object in advance, e.g., while other parts of a
+     * session are loaded (see {@link PreparableSessionTask}). The next call
+     * of {@link #getValueObject()} returns the decoded value.
+     */
+    synchronized void prepare() {
+        if (!prepared) {
+            preparedValueObject = decodeValueObject();
+            prepared = true;
+        }
+    }
+
+    /**
+     * Decodes the value object.
+     * @return the deserialized value object
+     */
+    private Object decodeValueObject() {
         Object result = null;
         if (valueObjectData != null) {
             ValueDecoder valueDecoder = new ValueDecoder();
-            result = valueDecoder.decodeParamValue(valueObjectData);
+            result = valueDecoder.decodeParamValue(valueObjectData, blobStore);
         }
         return result;
     }
 
     /**
      * Returns the value object data.
-     * @return the value object data (encoded as XML or compressed base64)
+     * @return the value object data (encoded as XML, compressed base64 or
+     * blob reference)
      */
     public final String getValueObjectData() {
         return valueObjectData;
     }
 
     /**
-     * Defines the value object data.
+     * Defines the value object data. If the data is a blob reference, the
+     * current blob store (see {@link BlobStore#getCurrent()}) is used to load
+     * the value.
      * @param valueObjectData the value object Data to set
      */
-    public final void setValueObjectData(String valueObjectData) {
+    public final synchronized void setValueObjectData(
+            String valueObjectData) {
         this.valueObjectData = valueObjectData;
+        this.preparedValueObject = null;
+        this.prepared = false;
+
+        if (BlobStore.isReference(valueObjectData)) {
+            blobStore = BlobStore.getCurrent();
+        } else {
+            blobStore = null;
+        }
     }
 
     /**
@@ -227,7 +289,8 @@ public class AbstractParameter {
     }
 }
 /**
- * Encodes value objects to either XML string or compressed base64 strings
+ * Encodes value objects to either XML string or compressed base64 strings.
+ * Large values are stored in a blob store if available.
  * @author Michael Hoffer &lt;info@michaelhoffer.de&gt;
  */
 class ValueEncoder implements ExceptionListener {
@@ -240,6 +303,10 @@ class ValueEncoder implements ExceptionListener {
      * the XML encoder to use
      */
     private XMLEncoder encoder;
+    /**
+     * the blob store to use (may be <code>null</code>)
+     */
+    private BlobStore blobStore;
 
     /**
      * Constructor.
@@ -247,6 +314,15 @@ class ValueEncoder implements ExceptionListener {
     public ValueEncoder() {
     }
 
+    /**
+     * Constructor.
+     * @param blobStore the blob store that is used to store large values
+     * (may be <code>null</code>)
+     */
+    public ValueEncoder(BlobStore blobStore) {
+        this.blobStore = blobStore;
+    }
+
     @Override
     public void exceptionThrown(Exception e) {
         encodingErrorXML = true;
@@ -286,9 +362,29 @@ class ValueEncoder implements ExceptionListener {
         }
 
         if (!encodingErrorXML && !prefereBinary) {
-            valueData = out.toString();
+            if (out.size() >= BlobStore.MIN_BLOB_SIZE) {
+                valueData = BlobValueUtil.toBlob(blobStore,
+                        BlobValueUtil.BLOB_TYPE_XML, out.toByteArray());
+            }
+
+            if (valueData == null) {
+                valueData = out.toString();
+            }
         } else {
 
+            if (blobStore != null) {
+                byte[] data = BlobValueUtil.serialize(value);
+
+                if (data != null && data.length >= BlobStore.MIN_BLOB_SIZE) {
+                    valueData = BlobValueUtil.toBlob(blobStore,
+                            BlobValueUtil.BLOB_TYPE_SERIALIZED, data);
+                }
+
+                if (valueData != null) {
+                    return valueData;
+                }
+            }
+
             valueData = encodeToBase64(value);
 
             if (!encodingErrorXML) {
@@ -312,7 +408,8 @@ class ValueEncoder implements ExceptionListener {
 }
 
 /**
- * Decodes value objects from either XML string or compressed base64 strings
+ * Decodes value objects from either XML string, compressed base64 strings or
+ * blob references
  * @author Michael Hoffer &lt;info@michaelhoffer.de&gt;
  */
 class ValueDecoder implements ExceptionListener {
@@ -325,6 +422,10 @@ class ValueDecoder implements ExceptionListener {
      * the XML decoder to use
      */
     private XMLDecoder decoder;
+    /**
+     * the exception that occured during XML decoding
+     */
+    private Exception exception;
 
     /**
      * Constructor.
@@ -354,6 +455,49 @@ class ValueDecoder implements ExceptionListener {
         return result;
     }
 
+    /**
+     * Decodes serializable value. Blob references are resolved via the
+     * specified blob store.
+     * @param data the value that is to be decoded
+     * @param blobStore the blob store (may be <code>null</code>)
+     * @return the value object
+     */
+    public Object decodeParamValue(String data, BlobStore blobStore) {
+        if (!BlobStore.isReference(data)) {
+            return decodeParamValue(data);
+        }
+
+        if (blobStore == null) {
+            System.err.println(">> AbstractParameter: no blob store"
+                    + " available. Can't decode " + data);
+            return null;
+        }
+
+        try {
+            byte[] blob = blobStore.resolve(data);
+
+            if (BlobValueUtil.BLOB_TYPE_XML.equals(
+                    BlobStore.getReferenceType(data))) {
+                Object valueObject = decodeXML(new ByteArrayInputStream(blob));
+
+                if (exception != null) {
+                    throw exception;
+                }
+
+                return valueObject;
+            }
+
+            return BlobValueUtil.deserialize(
+                    blob, VRL.getInternalPluginClassLoader());
+        } catch (Exception ex) {
+            System.err.println(
+                    ">> AbstractParameter: error while decoding param:");
+            ex.printStackTrace(System.err);
+        }
+
+        return null;
+    }
+
     /**
      * Decodes serializable value.
      * <p>
@@ -364,12 +508,33 @@ class ValueDecoder implements ExceptionListener {
      * @return the value object
      */
     public Object decodeParamValue(String data) {
-        Object valueObject;
-        ByteArrayInputStream in = new ByteArrayInputStream(data.getBytes());
+        Object valueObject = decodeXML(
+                new ByteArrayInputStream(data.getBytes()));
 
-        valueObject = decoder = new XMLDecoder(in, null, this);
+        if (decodingErrorXML) {
+            System.out.println(">> AbstractParameter:"
+                    + " can't use XML persistence. Using Base64!");
+            valueObject = decodeFromBase64(data);
+        }
         
-        Exception exception = null;
+        if (valueObject == null && exception!=null) {
+            System.err.println(">> AbstractParameter: error while decoding param:");
+            exception.printStackTrace(System.err);
+        }
+
+        return valueObject;
+    }
+
+    /**
+     * Decodes XML encoded value.
+     * @param in the input stream to read from
+     * @return the value object or <code>null</code> if the value cannot be
+     * decoded
+     */
+    private Object decodeXML(InputStream in) {
+        Object valueObject = null;
+
+        decoder = new XMLDecoder(in, null, this);
 
         try {
             valueObject = decoder.readObject();
@@ -380,14 +545,7 @@ class ValueDecoder implements ExceptionListener {
         decoder.close();
 
         if (decodingErrorXML) {
-            System.out.println(">> AbstractParameter:"
-                    + " can't use XML persistence. Using Base64!");
-            valueObject = decodeFromBase64(data);
-        }
-        
-        if (valueObject == null && exception!=null) {
-            System.err.println(">> AbstractParameter: error while decoding param:");
-            exception.printStackTrace(System.err);
+            return null;
         }
 
         return valueObject;
@@ -56,9 +56,11 @@
 package eu.mihosoft.vrl.io.vrlx;
 
 import eu.mihosoft.vrl.reflection.Pair;
+import eu.mihosoft.vrl.reflection.VisualCanvas;
 import eu.mihosoft.vrl.visual.Canvas;
 import eu.mihosoft.vrl.visual.CanvasWindow;
 import eu.mihosoft.vrl.visual.MessageType;
+import eu.mihosoft.vrl.visual.VSwingUtil;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -76,13 +78,63 @@ public class AbstractWindows extends ArrayList<AbstractWindow> {
 
     public static final String NAME_KEY = "abstract-windows";
 
+    /**
+     * Decodes object and parameter data in advance (see
+     * {@link PreparableSessionTask}). Objects are decoded in parallel. This
+     * method returns after all objects have been decoded. The canvas is not
+     * modified.
+     *
+     * @param mainCanvas the canvas the windows shall be added to
+     */
+    void prepare(Canvas mainCanvas) {
+        if (!(mainCanvas instanceof VisualCanvas)) {
+            return;
+        }
+
+        final VisualCanvas canvas = (VisualCanvas) mainCanvas;
+
+        List<Runnable> tasks = new ArrayList<Runnable>();
+
+        for (AbstractWindow o : this) {
+            if (o.getContentProvider() instanceof AbstractObjectRepresentation) {
+                final AbstractObjectRepresentation oRep =
+                        (AbstractObjectRepresentation) o.getContentProvider();
+
+                tasks.add(new Runnable() {
+                    @Override
+                    public void run() {
+                        oRep.prepare(canvas);
+                    }
+                });
+            }
+        }
+
+        SessionTaskExecutor.invokeAll(tasks);
+    }
+
+    /**
+     * Adds the abstract object representations and windows to the specified
+     * canvas. The canvas is modified on the event dispatch thread in one
+     * step.
+     *
+     * @param mainCanvas the canvas the windows shall be added to
+     */
+    public void addToCanvas(final Canvas mainCanvas) {
+        VSwingUtil.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                addWindows(mainCanvas);
+            }
+        });
+    }
+
     /**
      * Adds the abstract object representations and windows to the specified
-     * canvas.
+     * canvas. Must be called from the event dispatch thread.
      *
      * @param mainCanvas the canvas the windows shall be added to
      */
-    public void addToCanvas(Canvas mainCanvas) {
+    private void addWindows(Canvas mainCanvas) {
 
         List<Pair<CanvasWindow, AbstractWindow>> windows =
                 new ArrayList<Pair<CanvasWindow, AbstractWindow>>();
@@ -0,0 +1,173 @@
+/* 
+ * BinaryEntry.java
+ * 
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2007–2018 by Michael Hoffer,
+ * Copyright (c) 2015–2018 G-CSC, Uni Frankfurt,
+ * Copyright (c) 2009–2015 Steinbeis Forschungszentrum (STZ Ölbronn)
+ * 
+ * This file is part of Visual Reflection Library (VRL).
+ *
+ * VRL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * see: http://opensource.org/licenses/LGPL-3.0
+ *      file://path/to/VRL/src/eu/mihosoft/vrl/resources/license/lgplv3.txt
+ *
+ * VRL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * This version of VRL includes copyright notice and attribution requirements.
+ * According to the LGPL this information must be displayed even if you modify
+ * the source code of VRL. Neither the VRL Canvas attribution icon nor any
+ * copyright statement/attribution may be removed.
+ *
+ * Attribution Requirements:
+ *
+ * If you create derived work you must do three things regarding copyright
+ * notice and author attribution.
+ *
+ * First, the following text must be displayed on the Canvas:
+ * "based on VRL source code". In this case the VRL canvas icon must be removed.
+ * 
+ * Second, the copyright notice must remain. It must be reproduced in any
+ * program that uses VRL.
+ *
+ * Third, add an additional notice, stating that you modified VRL. A suitable
+ * notice might read
+ * "VRL source code modified by YourName 2012".
+ * 
+ * Note, that these requirements are in full accordance with the LGPL v3
+ * (see 7. Additional Terms, b).
+ *
+ * Please cite the publication(s) listed below.
+ *
+ * Publications:
+ *
+ * M. Hoffer, C. Poliwoda, & G. Wittum. (2013). Visual reflection library:
+ * a framework for declarative GUI programming on the Java platform.
+ * Computing and Visualization in Science, 2013, 16(4),
+ * 181–192. http://doi.org/10.1007/s00791-014-0230-y
+ */
+
+package eu.mihosoft.vrl.io.vrlx;
+
+import java.io.IOException;
+
+/**
+ * Entry file for binary session files (see {@link BinaryEntryFactory}). The
+ * content of entries that have been loaded from a binary session file is
+ * decoded on first access.
+ *
+ * @author Michael Hoffer &lt;info@michaelhoffer.de&gt;
+ */
+public final class BinaryEntry implements SessionEntry, SessionEntryFile {
+
+    private String name;
+    private Object content;
+    private BinaryEntryFactory.Payload payload;
+
+    /**
+     * Constructor.
+     */
+    public BinaryEntry() {
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param name entry name
+     */
+    public BinaryEntry(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param name entry name
+     * @param content file content
+     */
+    public BinaryEntry(String name, Object content) {
+        this.name = name;
+        this.content = content;
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param name entry name
+     * @param payload encoded content (decoded on first access)
+     */
+    BinaryEntry(String name, BinaryEntryFactory.Payload payload) {
+        this.name = name;
+        this.payload = payload;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the content of this file. If the content has not been decoded
+     * yet, it is decoded now.
+     *
+     * @return the content of this file
+     * @throws IllegalStateException if the content cannot be decoded
+     */
+    @Override
+    public synchronized Object getContent() {
+        if (payload != null) {
+            try {
+                content = payload.decode();
+            } catch (IOException ex) {
+                throw new IllegalStateException(
+                        "Cannot decode entry \"" + name + "\"", ex);
+            }
+            payload = null;
+        }
+
+        return content;
+    }
+
+    @Override
+    public synchronized void setContent(Object content) {
+        this.content = content;
+        this.payload = null;
+    }
+
+    /**
+     * Returns the encoded content of this file.
+     *
+     * @return the encoded content of this file or <code>null</code> if the
+     * content has already been decoded
+     */
+    synchronized BinaryEntryFactory.Payload getPayload() {
+        return payload;
+    }
+
+    /**
+     * Indicates whether the content of this file has been decoded.
+     *
+     * @return <code>true</code> if the content has been decoded;
+     * <code>false</code> otherwise
+     */
+    public synchronized boolean isDecoded() {
+        return payload == null;
+    }
+
+    @Override
+    public boolean isFolder() {
+        return false;
+    }
+}
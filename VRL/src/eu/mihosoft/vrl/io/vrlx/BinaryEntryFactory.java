@@ -0,0 +1,829 @@
+/* 
+ * BinaryEntryFactory.java
+ * 
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2007–2018 by Michael Hoffer,
+ * Copyright (c) 2015–2018 G-CSC, Uni Frankfurt,
+ * Copyright (c) 2009–2015 Steinbeis Forschungszentrum (STZ Ölbronn)
+ * 
+ * This file is part of Visual Reflection Library (VRL).
+ *
+ * VRL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * see: http://opensource.org/licenses/LGPL-3.0
+ *      file://path/to/VRL/src/eu/mihosoft/vrl/resources/license/lgplv3.txt
+ *
+ * VRL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * This version of VRL includes copyright notice and attribution requirements.
+ * According to the LGPL this information must be displayed even if you modify
+ * the source code of VRL. Neither the VRL Canvas attribution icon nor any
+ * copyright statement/attribution may be removed.
+ *
+ * Attribution Requirements:
+ *
+ * If you create derived work you must do three things regarding copyright
+ * notice and author attribution.
+ *
+ * First, the following text must be displayed on the Canvas:
+ * "based on VRL source code". In this case the VRL canvas icon must be removed.
+ * 
+ * Second, the copyright notice must remain. It must be reproduced in any
+ * program that uses VRL.
+ *
+ * Third, add an additional notice, stating that you modified VRL. A suitable
+ * notice might read
+ * "VRL source code modified by YourName 2012".
+ * 
+ * Note, that these requirements are in full accordance with the LGPL v3
+ * (see 7. Additional Terms, b).
+ *
+ * Please cite the publication(s) listed below.
+ *
+ * Publications:
+ *
+ * M. Hoffer, C. Poliwoda, & G. Wittum. (2013). Visual reflection library:
+ * a framework for declarative GUI programming on the Java platform.
+ * Computing and Visualization in Science, 2013, 16(4),
+ * 181–192. http://doi.org/10.1007/s00791-014-0230-y
+ */
+
+package eu.mihosoft.vrl.io.vrlx;
+
+import eu.mihosoft.vrl.io.BlobStore;
+import eu.mihosoft.vrl.system.AbstractPluginDependency;
+import eu.mihosoft.vrl.system.VParamUtil;
+import java.beans.XMLDecoder;
+import java.beans.XMLEncoder;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * <p>
+ * Entry factory for binary session files. In contrast to XML based session
+ * files (see {@link XMLEntryFactory}) the entries of a binary session file are
+ * stored as length-prefixed binary records, i.e., the file structure can be
+ * read without decoding the entry contents. Entry contents are decoded on
+ * first access (see {@link BinaryEntry}). Each entry content is compressed
+ * separately (optional).
+ * </p>
+ * <p>
+ * File layout (all numbers are big-endian):
+ * </p>
+ * <pre>
+ * magic              4 bytes, "VRLB"
+ * format version     int
+ * file version       string
+ * file description   string
+ * plugin deps        payload
+ * blobs              int count, blob* (since format version 2)
+ * root entries       int count, entry*
+ *
+ * blob               string hash, payload
+ * entry              byte kind (folder/file), string name
+ *   folder           int count, entry*
+ *   file             payload
+ * payload            byte encoding, byte compression, int length, bytes
+ * string             int length (-1 for null), UTF-8 bytes
+ * </pre>
+ * <p>
+ * Byte arrays are stored without encoding. All other content objects are
+ * encoded with {@link XMLEncoder}, i.e., every object that can be stored in an
+ * XML based session file can be stored in a binary session file.
+ * </p>
+ * <p>
+ * Large values (objects and parameter values) are stored as raw bytes in the
+ * blob section instead of as base64 strings inside of the XML encoded
+ * entries. Entries reference them via blob references (see
+ * {@link BlobStore}). The blobs are taken from the current blob store (see
+ * {@link BlobStore#getCurrent()}) if it keeps its blobs in memory, which is
+ * the case for sessions that are not part of a project. When loading, blob
+ * references are resolved against the blob section of the file.
+ * </p>
+ * <p>
+ * All lengths and counts are validated against the remaining file size
+ * before data is allocated, i.e., corrupted files cause an
+ * {@link IOException}.
+ * </p>
+ *
+ * @author Michael Hoffer &lt;info@michaelhoffer.de&gt;
+ */
+public class BinaryEntryFactory implements SessionEntryFactory {
+
+    /**
+     * magic number of binary session files
+     */
+    private static final byte[] MAGIC = {'V', 'R', 'L', 'B'};
+    /**
+     * current format version
+     */
+    public static final int FORMAT_VERSION = 2;
+    /**
+     * payloads smaller than this number of bytes are not compressed
+     */
+    private static final int MIN_COMPRESSION_SIZE = 256;
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final byte KIND_FOLDER = 1;
+    private static final byte KIND_FILE = 2;
+    private static final byte ENCODING_NULL = 0;
+    private static final byte ENCODING_XML = 1;
+    private static final byte ENCODING_BYTES = 2;
+    private static final byte COMPRESSION_NONE = 0;
+    private static final byte COMPRESSION_DEFLATE = 1;
+    private boolean compressionEnabled = true;
+
+    /**
+     * Indicates whether the specified file is a binary session file.
+     *
+     * @param f file to check
+     * @return <code>true</code> if the specified file is a binary session
+     * file; <code>false</code> otherwise
+     */
+    public static boolean isBinarySessionFile(File f) {
+        if (f == null || !f.isFile()) {
+            return false;
+        }
+
+        InputStream in = null;
+
+        try {
+            in = new FileInputStream(f);
+
+            byte[] magic = new byte[MAGIC.length];
+
+            int n = 0;
+            while (n < magic.length) {
+                int r = in.read(magic, n, magic.length - n);
+                if (r < 0) {
+                    return false;
+                }
+                n += r;
+            }
+
+            return Arrays.equals(MAGIC, magic);
+        } catch (IOException ex) {
+            return false;
+        } finally {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException ex) {
+                    //
+                }
+            }
+        }
+    }
+
+    /**
+     * Indicates whether entry contents are compressed.
+     *
+     * @return <code>true</code> if entry contents are compressed;
+     * <code>false</code> otherwise
+     */
+    public boolean isCompressionEnabled() {
+        return compressionEnabled;
+    }
+
+    /**
+     * Defines whether to compress entry contents.
+     *
+     * @param compressionEnabled the state to set
+     */
+    public void setCompressionEnabled(boolean compressionEnabled) {
+        this.compressionEnabled = compressionEnabled;
+    }
+
+    @Override
+    public SessionFile newFile(FileVersionInfo version, String path) {
+        XMLFile f = new XMLFile(version);
+        f.setPath(path);
+        return f;
+    }
+
+    @Override
+    public SessionFile newFile(String path) {
+        XMLFile f = new XMLFile();
+        f.setPath(path);
+        return f;
+    }
+
+    @Override
+    public SessionEntryFile newEntryFile(String name) {
+        return new BinaryEntry(name);
+    }
+
+    @Override
+    public SessionEntryFile newEntryFile(String name, Object data) {
+        return new BinaryEntry(name, data);
+    }
+
+    @Override
+    public SessionEntryFolder newEntryFolder(String name) {
+        return new XMLFolder(name);
+    }
+
+    @Override
+    public SessionEntryFolder newEntryFolder(String name,
+            Collection<SessionEntry> data) {
+        return new XMLFolder(name, data);
+    }
+
+    @Override
+    public SessionFile loadFile(File f) throws IOException {
+
+        VParamUtil.throwIfNull(f);
+
+        // the class loader is used to decode the entries
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+
+        BoundedInputStream bounded = new BoundedInputStream(
+                new BufferedInputStream(new FileInputStream(f)), f.length());
+        DataInputStream in = new DataInputStream(bounded);
+
+        try {
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+
+            if (!Arrays.equals(MAGIC, magic)) {
+                throw new IOException(
+                        "Not a binary session file: " + f.getAbsolutePath());
+            }
+
+            int formatVersion = in.readInt();
+
+            if (formatVersion > FORMAT_VERSION) {
+                throw new IOException(
+                        "Unsupported binary session format version: "
+                        + formatVersion);
+            }
+
+            String version = readString(in, bounded);
+            String description = readString(in, bounded);
+
+            XMLFile sessionFile = new XMLFile();
+
+            if (version != null) {
+                sessionFile.setVersionInfo(
+                        new FileVersionInfo(version, description));
+            }
+
+            Object deps = readPayload(in, bounded, loader, null).decode();
+
+            if (deps instanceof Collection<?>) {
+                Collection<AbstractPluginDependency> pluginDependencies
+                        = new ArrayList<AbstractPluginDependency>();
+
+                for (Object d : (Collection<?>) deps) {
+                    pluginDependencies.add((AbstractPluginDependency) d);
+                }
+
+                sessionFile.setPluginDependencies(pluginDependencies);
+            }
+
+            BlobStore blobStore = null;
+
+            if (formatVersion >= 2) {
+                blobStore = readBlobs(in, bounded);
+            }
+
+            readEntries(in, bounded, sessionFile, loader, blobStore);
+
+            sessionFile.setPath(f.getAbsolutePath());
+
+            return sessionFile;
+        } catch (EOFException ex) {
+            throw new IOException(
+                    "Binary session file is truncated: "
+                    + f.getAbsolutePath(), ex);
+        } finally {
+            in.close();
+        }
+    }
+
+    @Override
+    public void saveFile(SessionFile file, File f)
+            throws IOException {
+
+        VParamUtil.throwIfNull(file, f);
+
+        // blobs referenced by copied entries have to be written too, i.e.,
+        // entries are written first
+        Collection<BlobStore> blobStores = new LinkedHashSet<BlobStore>();
+
+        BlobStore current = BlobStore.getCurrent();
+
+        if (current != null && current.isInMemory()) {
+            blobStores.add(current);
+        }
+
+        ByteArrayOutputStream entries = new ByteArrayOutputStream();
+        DataOutputStream entriesOut = new DataOutputStream(entries);
+        writeEntries(entriesOut, file.getContent(), blobStores);
+        entriesOut.close();
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(f)));
+
+        try {
+            out.write(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+
+            FileVersionInfo versionInfo = file.getVersionInfo();
+
+            writeString(out, versionInfo == null
+                    ? null : versionInfo.getVersion());
+            writeString(out, versionInfo == null
+                    ? null : versionInfo.getDescription());
+
+            Collection<AbstractPluginDependency> deps
+                    = file.getPluginDependencies();
+
+            writePayload(out, encode(deps == null
+                    ? null : new ArrayList<AbstractPluginDependency>(deps)));
+
+            writeBlobs(out, blobStores);
+
+            entries.writeTo(out);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Reads the blob section.
+     *
+     * @param in input stream
+     * @param bounded the bounded stream <code>in</code> reads from
+     * @return an in-memory store that contains the blobs or <code>null</code>
+     * if the file does not contain blobs
+     * @throws IOException if reading fails or if a blob is corrupted
+     */
+    private static BlobStore readBlobs(DataInputStream in,
+            BoundedInputStream bounded) throws IOException {
+        int count = readCount(in, bounded);
+
+        if (count == 0) {
+            return null;
+        }
+
+        BlobStore blobStore = new BlobStore();
+
+        for (int i = 0; i < count; i++) {
+            String hash = readString(in, bounded);
+            Object data = readPayload(in, bounded, null, null).decode();
+
+            if (!(data instanceof byte[])
+                    || !blobStore.put((byte[]) data).equals(hash)) {
+                throw new IOException("Corrupted blob: " + hash);
+            }
+        }
+
+        return blobStore;
+    }
+
+    /**
+     * Writes the blobs of the specified stores.
+     *
+     * @param out output stream
+     * @param blobStores in-memory stores
+     * @throws IOException if writing fails
+     */
+    private void writeBlobs(DataOutputStream out,
+            Collection<BlobStore> blobStores) throws IOException {
+        Map<String, BlobStore> blobs = new LinkedHashMap<String, BlobStore>();
+
+        for (BlobStore store : blobStores) {
+            for (String hash : store.getHashes()) {
+                if (!blobs.containsKey(hash)) {
+                    blobs.put(hash, store);
+                }
+            }
+        }
+
+        out.writeInt(blobs.size());
+
+        for (Map.Entry<String, BlobStore> b : blobs.entrySet()) {
+            writeString(out, b.getKey());
+            writePayload(out, encode(b.getValue().get(b.getKey())));
+        }
+    }
+
+    /**
+     * Reads entries and adds them to the specified folder.
+     *
+     * @param in input stream
+     * @param bounded the bounded stream <code>in</code> reads from
+     * @param folder folder
+     * @param loader class loader that is used to decode the entries
+     * @param blobStore store that contains the blobs of the file (may be
+     * <code>null</code>)
+     * @throws IOException if reading fails
+     */
+    private void readEntries(DataInputStream in, BoundedInputStream bounded,
+            SessionEntryFolder folder, ClassLoader loader,
+            BlobStore blobStore) throws IOException {
+        int count = readCount(in, bounded);
+
+        for (int i = 0; i < count; i++) {
+            byte kind = in.readByte();
+            String name = readString(in, bounded);
+
+            if (kind == KIND_FOLDER) {
+                SessionEntryFolder subFolder = newEntryFolder(name);
+                readEntries(in, bounded, subFolder, loader, blobStore);
+                folder.addEntry(subFolder);
+            } else if (kind == KIND_FILE) {
+                folder.addEntry(new BinaryEntry(name,
+                        readPayload(in, bounded, loader, blobStore)));
+            } else {
+                throw new IOException("Unknown entry kind: " + kind);
+            }
+        }
+    }
+
+    /**
+     * Writes the specified entries.
+     *
+     * @param out output stream
+     * @param entries entries to write
+     * @param blobStores stores of the blobs that have to be written (stores
+     * of copied entries are added)
+     * @throws IOException if writing fails
+     */
+    private void writeEntries(DataOutputStream out,
+            Collection<SessionEntry> entries,
+            Collection<BlobStore> blobStores) throws IOException {
+
+        if (entries == null) {
+            out.writeInt(0);
+            return;
+        }
+
+        out.writeInt(entries.size());
+
+        for (SessionEntry e : entries) {
+            if (e.isFolder()) {
+                out.writeByte(KIND_FOLDER);
+                writeString(out, e.getName());
+                writeEntries(out, ((SessionEntryFolder) e).getContent(),
+                        blobStores);
+            } else {
+                out.writeByte(KIND_FILE);
+                writeString(out, e.getName());
+
+                Payload payload = null;
+
+                // entries that have not been decoded are copied
+                if (e instanceof BinaryEntry) {
+                    payload = ((BinaryEntry) e).getPayload();
+                }
+
+                if (payload == null) {
+                    payload = encode(((SessionEntryFile) e).getContent());
+                } else if (payload.blobStore != null) {
+                    blobStores.add(payload.blobStore);
+                }
+
+                writePayload(out, payload);
+            }
+        }
+    }
+
+    /**
+     * Encodes the specified content object.
+     *
+     * @param o object to encode
+     * @return the encoded object
+     * @throws IOException if encoding fails
+     */
+    private Payload encode(Object o) throws IOException {
+        byte encoding;
+        byte[] data;
+
+        if (o == null) {
+            encoding = ENCODING_NULL;
+            data = new byte[0];
+        } else if (o instanceof byte[]) {
+            encoding = ENCODING_BYTES;
+            data = (byte[]) o;
+        } else {
+            encoding = ENCODING_XML;
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            XMLEncoder e = new XMLEncoder(bytes);
+            e.writeObject(o);
+            e.close();
+
+            data = bytes.toByteArray();
+        }
+
+        byte compression = COMPRESSION_NONE;
+
+        if (isCompressionEnabled() && data.length >= MIN_COMPRESSION_SIZE) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DeflaterOutputStream deflater = new DeflaterOutputStream(bytes);
+            deflater.write(data);
+            deflater.close();
+
+            // only use compressed data if it is smaller
+            if (bytes.size() < data.length) {
+                compression = COMPRESSION_DEFLATE;
+                data = bytes.toByteArray();
+            }
+        }
+
+        return new Payload(encoding, compression, data, null, null);
+    }
+
+    /**
+     * Reads a payload.
+     *
+     * @param in input stream
+     * @param bounded the bounded stream <code>in</code> reads from
+     * @param loader class loader that is used to decode the payload
+     * @param blobStore store that is used to resolve blob references while
+     * decoding (may be <code>null</code>)
+     * @return the payload
+     * @throws IOException if reading fails
+     */
+    private static Payload readPayload(DataInputStream in,
+            BoundedInputStream bounded, ClassLoader loader,
+            BlobStore blobStore) throws IOException {
+        byte encoding = in.readByte();
+        byte compression = in.readByte();
+        int length = in.readInt();
+
+        if (length < 0 || length > bounded.remaining()) {
+            throw new IOException("Invalid payload length: " + length);
+        }
+
+        byte[] data = new byte[length];
+        in.readFully(data);
+
+        return new Payload(encoding, compression, data, loader, blobStore);
+    }
+
+    /**
+     * Reads a count, i.e., the number of entries or blobs that follow.
+     *
+     * @param in input stream
+     * @param bounded the bounded stream <code>in</code> reads from
+     * @return the count
+     * @throws IOException if reading fails or if the count is invalid
+     */
+    private static int readCount(DataInputStream in,
+            BoundedInputStream bounded) throws IOException {
+        int count = in.readInt();
+
+        // every element occupies at least one byte
+        if (count < 0 || count > bounded.remaining()) {
+            throw new IOException("Invalid count: " + count);
+        }
+
+        return count;
+    }
+
+    /**
+     * Writes the specified payload.
+     *
+     * @param out output stream
+     * @param payload payload to write
+     * @throws IOException if writing fails
+     */
+    private static void writePayload(DataOutputStream out, Payload payload)
+            throws IOException {
+        out.writeByte(payload.encoding);
+        out.writeByte(payload.compression);
+        out.writeInt(payload.data.length);
+        out.write(payload.data);
+    }
+
+    /**
+     * Reads a string.
+     *
+     * @param in input stream
+     * @param bounded the bounded stream <code>in</code> reads from
+     * @return the string (may be <code>null</code>)
+     * @throws IOException if reading fails
+     */
+    private static String readString(DataInputStream in,
+            BoundedInputStream bounded) throws IOException {
+        int length = in.readInt();
+
+        if (length == -1) {
+            return null;
+        }
+
+        if (length < 0 || length > bounded.remaining()) {
+            throw new IOException("Invalid string length: " + length);
+        }
+
+        byte[] data = new byte[length];
+        in.readFully(data);
+
+        return new String(data, UTF8);
+    }
+
+    /**
+     * Writes the specified string.
+     *
+     * @param out output stream
+     * @param s string to write (may be <code>null</code>)
+     * @throws IOException if writing fails
+     */
+    private static void writeString(DataOutputStream out, String s)
+            throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+
+        byte[] data = s.getBytes(UTF8);
+        out.writeInt(data.length);
+        out.write(data);
+    }
+
+    /**
+     * Encoded entry content.
+     */
+    static final class Payload {
+
+        private final byte encoding;
+        private final byte compression;
+        private final byte[] data;
+        private final ClassLoader loader;
+        private final BlobStore blobStore;
+
+        /**
+         * Constructor.
+         *
+         * @param encoding encoding
+         * @param compression compression
+         * @param data encoded data
+         * @param loader class loader that is used for decoding
+         * @param blobStore store that is used to resolve blob references
+         * while decoding (may be <code>null</code>)
+         */
+        Payload(byte encoding, byte compression, byte[] data,
+                ClassLoader loader, BlobStore blobStore) {
+            this.encoding = encoding;
+            this.compression = compression;
+            this.data = data;
+            this.loader = loader;
+            this.blobStore = blobStore;
+        }
+
+        /**
+         * Decodes this payload.
+         *
+         * @return the decoded object
+         * @throws IOException if decoding fails
+         */
+        Object decode() throws IOException {
+            InputStream in = new ByteArrayInputStream(data);
+
+            if (compression == COMPRESSION_DEFLATE) {
+                in = new InflaterInputStream(in);
+            } else if (compression != COMPRESSION_NONE) {
+                throw new IOException("Unknown compression: " + compression);
+            }
+
+            switch (encoding) {
+                case ENCODING_NULL:
+                    return null;
+                case ENCODING_BYTES:
+                    return readAll(in);
+                case ENCODING_XML:
+                    XMLDecoder d = new XMLDecoder(in, null, null,
+                            loader != null ? loader
+                                    : Thread.currentThread().
+                                    getContextClassLoader());
+                    // blob references are resolved via the current store
+                    BlobStore previousBlobStore = null;
+
+                    if (blobStore != null) {
+                        previousBlobStore = BlobStore.setCurrent(blobStore);
+                    }
+
+                    try {
+                        return d.readObject();
+                    } finally {
+                        d.close();
+
+                        if (blobStore != null) {
+                            BlobStore.setCurrent(previousBlobStore);
+                        }
+                    }
+                default:
+                    throw new IOException("Unknown encoding: " + encoding);
+            }
+        }
+
+        /**
+         * Reads all bytes from the specified stream.
+         *
+         * @param in input stream
+         * @return all bytes from the specified stream
+         * @throws IOException if reading fails
+         */
+        private static byte[] readAll(InputStream in) throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+
+            int n;
+            while ((n = in.read(buffer)) >= 0) {
+                out.write(buffer, 0, n);
+            }
+
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * Input stream that knows the number of remaining bytes.
+     */
+    private static final class BoundedInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        /**
+         * Constructor.
+         *
+         * @param in input stream
+         * @param length number of bytes that can be read from the stream
+         */
+        BoundedInputStream(InputStream in, long length) {
+            super(in);
+            this.remaining = length;
+        }
+
+        /**
+         * Returns the number of remaining bytes.
+         *
+         * @return the number of remaining bytes
+         */
+        long remaining() {
+            return remaining;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+
+            if (b >= 0) {
+                remaining--;
+            }
+
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+
+            if (n > 0) {
+                remaining -= n;
+            }
+
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/* 
+ * BlobValueUtil.java
+ * 
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2007–2018 by Michael Hoffer,
+ * Copyright (c) 2015–2018 G-CSC, Uni Frankfurt,
+ * Copyright (c) 2009–2015 Steinbeis Forschungszentrum (STZ Ölbronn)
+ * 
+ * This file is part of Visual Reflection Library (VRL).
+ *
+ * VRL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * see: http://opensource.org/licenses/LGPL-3.0
+ *      file://path/to/VRL/src/eu/mihosoft/vrl/resources/license/lgplv3.txt
+ *
+ * VRL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * This version of VRL includes copyright notice and attribution requirements.
+ * According to the LGPL this information must be displayed even if you modify
+ * the source code of VRL. Neither the VRL Canvas attribution icon nor any
+ * copyright statement/attribution may be removed.
+ *
+ * Attribution Requirements:
+ *
+ * If you create derived work you must do three things regarding copyright
+ * notice and author attribution.
+ *
+ * First, the following text must be displayed on the Canvas:
+ * "based on VRL source code". In this case the VRL canvas icon must be removed.
+ * 
+ * Second, the copyright notice must remain. It must be reproduced in any
+ * program that uses VRL.
+ *
+ * Third, add an additional notice, stating that you modified VRL. A suitable
+ * notice might read
+ * "VRL source code modified by YourName 2012".
+ * 
+ * Note, that these requirements are in full accordance with the LGPL v3
+ * (see 7. Additional Terms, b).
+ *
+ * Please cite the publication(s) listed below.
+ *
+ * Publications:
+ *
+ * M. Hoffer, C. Poliwoda, & G. Wittum. (2013). Visual reflection library:
+ * a framework for declarative GUI programming on the Java platform.
+ * Computing and Visualization in Science, 2013, 16(4),
+ * 181–192. http://doi.org/10.1007/s00791-014-0230-y
+ */
+
+package eu.mihosoft.vrl.io.vrlx;
+
+import eu.mihosoft.vrl.io.BlobStore;
+import eu.mihosoft.vrl.io.VObjectInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+/**
+ * Stores value objects in a blob store and restores them (see
+ * {@link BlobStore}). Used by the XML session representations.
+ *
+ * @author Michael Hoffer &lt;info@michaelhoffer.de&gt;
+ */
+final class BlobValueUtil {
+
+    /**
+     * blob type of XML encoded values
+     */
+    static final String BLOB_TYPE_XML = "xml";
+    /**
+     * blob type of serialized values
+     */
+    static final String BLOB_TYPE_SERIALIZED = "ser";
+
+    // no instanciation allowed
+    private BlobValueUtil() {
+        throw new AssertionError(); // not in this class either!
+    }
+
+    /**
+     * Serializes the specified value.
+     * @param value the value that is to be serialized
+     * @return the serialized value or <code>null</code> if the value cannot
+     * be serialized
+     */
+    static byte[] serialize(Serializable value) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ObjectOutputStream oos = new ObjectOutputStream(out);
+            oos.writeObject(value);
+            oos.close();
+
+            return out.toByteArray();
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Deserializes the specified data.
+     * @param data the data that is to be deserialized
+     * @param loader the class loader to use
+     * @return the value object
+     * @throws IOException if the data cannot be read
+     * @throws ClassNotFoundException if a class cannot be found
+     */
+    static Object deserialize(byte[] data, ClassLoader loader)
+            throws IOException, ClassNotFoundException {
+        ObjectInputStream ois = new VObjectInputStream(
+                new ByteArrayInputStream(data), loader);
+
+        try {
+            return ois.readObject();
+        } finally {
+            ois.close();
+        }
+    }
+
+    /**
+     * Adds the specified data to the specified blob store.
+     * @param blobStore the blob store (may be <code>null</code>)
+     * @param type blob type
+     * @param data the data to add
+     * @return the blob reference or <code>null</code> if no blob store has
+     * been specified or if the data cannot be stored
+     */
+    static String toBlob(BlobStore blobStore, String type, byte[] data) {
+        if (blobStore == null) {
+            return null;
+        }
+
+        try {
+            return BlobStore.toReference(type, blobStore.put(data));
+        } catch (IOException ex) {
+            System.out.println(">> BlobValueUtil:"
+                    + " can't use blob store. Storing value inline!");
+            ex.printStackTrace(System.err);
+        }
+
+        return null;
+    }
+}
@@ -84,6 +84,17 @@ final class DefaultIOModel implements IOModel {
         this.entryFactory = entryFactory;
     }
 
+    /**
+     * Indicates whether this model saves binary session files (see
+     * {@link BinaryEntryFactory}).
+     *
+     * @return <code>true</code> if this model saves binary session files;
+     * <code>false</code> otherwise
+     */
+    boolean isBinary() {
+        return entryFactory instanceof BinaryEntryFactory;
+    }
+
     @Override
     public SessionFile newFile(String path) {
         return entryFactory.newFile(path);
@@ -96,6 +107,14 @@ final class DefaultIOModel implements IOModel {
 
     @Override
     public SessionFile loadFile(File f) throws IOException {
+
+        // binary session files can be loaded by all models, i.e.,
+        // the format is detected automatically
+        if (!(entryFactory instanceof BinaryEntryFactory)
+                && BinaryEntryFactory.isBinarySessionFile(f)) {
+            return new BinaryEntryFactory().loadFile(f);
+        }
+
         return entryFactory.loadFile(f);
     }
 
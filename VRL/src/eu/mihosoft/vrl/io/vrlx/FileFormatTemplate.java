@@ -61,6 +61,9 @@ import java.io.FileNotFoundException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -124,16 +127,117 @@ final class FileFormatTemplate implements DynamicFileFormat {
         return sessionTasks.get(entryName);
     }
 
+    /**
+     * Indicates whether the specified task is a load task.
+     *
+     * @param t task to check (may be <code>null</code>)
+     * @return <code>true</code> if the specified task is a load task;
+     * <code>false</code> otherwise
+     */
+    private static boolean isLoadTask(SessionTask t) {
+        return t != null
+                && (t.getType() == TaskType.LOAD
+                || t.getType() == TaskType.LOAD_AND_SAVE);
+    }
+
+    /**
+     * Starts preparation of the preparable load tasks that directly follow
+     * the specified index (including the task at the specified index). Stops
+     * at the first load task that does not support preparation.
+     *
+     * @param canvas canvas
+     * @param file session file
+     * @param index index of the first task
+     * @param preparations map that stores the preparations (by entry path)
+     * @return the index of the first task that has not been considered
+     */
+    private int prepareLoadTasks(Canvas canvas, SessionFile file, int index,
+            Map<String, Future<Long>> preparations) {
+        int i = index;
+
+        for (; i < paths.size(); i++) {
+            String sE = paths.get(i);
+            SessionTask t = getTask(sE);
+
+            if (!isLoadTask(t)) {
+                continue;
+            }
+
+            if (!(t instanceof PreparableSessionTask)) {
+                return i;
+            }
+
+            SessionEntry entry = null;
+
+            try {
+                entry = model.getEntry(file, sE);
+            } catch (FileNotFoundException ex) {
+                // nothing to prepare, load task reports the missing entry
+            }
+
+            if (entry != null) {
+                preparations.put(sE, SessionTaskExecutor.prepare(
+                        (PreparableSessionTask) t, canvas, entry));
+            }
+        }
+
+        return i;
+    }
+
+    /**
+     * Waits until the preparation of the specified task is finished.
+     *
+     * @param sE entry path of the task
+     * @param preparation preparation (may be <code>null</code>)
+     */
+    private static void waitForPreparation(
+            String sE, Future<Long> preparation) {
+        if (preparation == null) {
+            return;
+        }
+
+        long start = System.nanoTime();
+
+        try {
+            long duration = preparation.get();
+            long waited = (System.nanoTime() - start) / 1000000;
+
+            System.out.println(">> Preparing \"" + sE + "\": "
+                    + duration + " ms (waited " + waited + " ms)");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ex) {
+            // loading does not depend on successful preparation
+            System.err.println(">> Preparing \"" + sE + "\" failed:");
+            ex.getCause().printStackTrace(System.err);
+        }
+    }
+
     @Override
     public boolean performLoadTasks(
             Canvas canvas, SessionFile file) {
         boolean result = true;
 
-        for (String sE : paths) {
+        Map<String, Future<Long>> preparations
+                = new HashMap<String, Future<Long>>();
+        int unprepared = 0;
+
+        for (int i = 0; i < paths.size(); i++) {
+            String sE = paths.get(i);
             SessionTask t = getTask(sE);
-            if (t != null
-                    && (t.getType() == TaskType.LOAD
-                    || t.getType() == TaskType.LOAD_AND_SAVE)) {
+            if (isLoadTask(t)) {
+
+                // prepare this and the following preparable tasks in
+                // parallel (after all preceding tasks have been loaded)
+                if (t instanceof PreparableSessionTask && i >= unprepared) {
+                    unprepared = prepareLoadTasks(
+                            canvas, file, i, preparations);
+                }
+
+                waitForPreparation(sE, preparations.get(sE));
+
+                long start = System.nanoTime();
+
                 boolean v = false;
                 try {
                     v = t.load(canvas, model.getEntry(file, sE));
@@ -143,7 +247,8 @@ final class FileFormatTemplate implements DynamicFileFormat {
                 }
 
                 System.out.println(
-                        ">> Loading \"" + sE + "\": [" + v + "]");
+                        ">> Loading \"" + sE + "\": [" + v + "] "
+                        + (System.nanoTime() - start) / 1000000 + " ms");
 
                 if (result==true) {
                     result = v;
@@ -0,0 +1,87 @@
+/* 
+ * PreparableSessionTask.java
+ * 
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2007–2018 by Michael Hoffer,
+ * Copyright (c) 2015–2018 G-CSC, Uni Frankfurt,
+ * Copyright (c) 2009–2015 Steinbeis Forschungszentrum (STZ Ölbronn)
+ * 
+ * This file is part of Visual Reflection Library (VRL).
+ *
+ * VRL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * see: http://opensource.org/licenses/LGPL-3.0
+ *      file://path/to/VRL/src/eu/mihosoft/vrl/resources/license/lgplv3.txt
+ *
+ * VRL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * This version of VRL includes copyright notice and attribution requirements.
+ * According to the LGPL this information must be displayed even if you modify
+ * the source code of VRL. Neither the VRL Canvas attribution icon nor any
+ * copyright statement/attribution may be removed.
+ *
+ * Attribution Requirements:
+ *
+ * If you create derived work you must do three things regarding copyright
+ * notice and author attribution.
+ *
+ * First, the following text must be displayed on the Canvas:
+ * "based on VRL source code". In this case the VRL canvas icon must be removed.
+ * 
+ * Second, the copyright notice must remain. It must be reproduced in any
+ * program that uses VRL.
+ *
+ * Third, add an additional notice, stating that you modified VRL. A suitable
+ * notice might read
+ * "VRL source code modified by YourName 2012".
+ * 
+ * Note, that these requirements are in full accordance with the LGPL v3
+ * (see 7. Additional Terms, b).
+ *
+ * Please cite the publication(s) listed below.
+ *
+ * Publications:
+ *
+ * M. Hoffer, C. Poliwoda, & G. Wittum. (2013). Visual reflection library:
+ * a framework for declarative GUI programming on the Java platform.
+ * Computing and Visualization in Science, 2013, 16(4),
+ * 181–192. http://doi.org/10.1007/s00791-014-0230-y
+ */
+
+package eu.mihosoft.vrl.io.vrlx;
+
+import eu.mihosoft.vrl.visual.Canvas;
+
+/**
+ * Session task that supports preparation of the load step. Preparation is
+ * performed in parallel with other preparations and with loading of
+ * preceding tasks, i.e., off the thread that loads the session. Consecutive
+ * preparable tasks are prepared as soon as all preceding tasks that do not
+ * support preparation have been loaded (e.g. after session code has been
+ * compiled).
+ * <p>
+ * Implementations must not modify the canvas while preparing. Typically, they
+ * decode entries and payloads that are used by
+ * {@link #load(eu.mihosoft.vrl.visual.Canvas,
+ * eu.mihosoft.vrl.io.vrlx.SessionEntry)}. Loading must not depend on
+ * successful preparation.
+ * </p>
+ *
+ * @author Michael Hoffer &lt;info@michaelhoffer.de&gt;
+ */
+public interface PreparableSessionTask extends SessionTask {
+
+    /**
+     * Prepares loading of the specified entry.
+     *
+     * @param canvas the canvas (must not be modified)
+     * @param entry the entry to prepare
+     */
+    public void prepare(Canvas canvas, SessionEntry entry);
+}
@@ -0,0 +1,158 @@
+/* 
+ * SessionFileConverter.java
+ * 
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2007–2018 by Michael Hoffer,
+ * Copyright (c) 2015–2018 G-CSC, Uni Frankfurt,
+ * Copyright (c) 2009–2015 Steinbeis Forschungszentrum (STZ Ölbronn)
+ * 
+ * This file is part of Visual Reflection Library (VRL).
+ *
+ * VRL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * see: http://opensource.org/licenses/LGPL-3.0
+ *      file://path/to/VRL/src/eu/mihosoft/vrl/resources/license/lgplv3.txt
+ *
+ * VRL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * This version of VRL includes copyright notice and attribution requirements.
+ * According to the LGPL this information must be displayed even if you modify
+ * the source code of VRL. Neither the VRL Canvas attribution icon nor any
+ * copyright statement/attribution may be removed.
+ *
+ * Attribution Requirements:
+ *
+ * If you create derived work you must do three things regarding copyright
+ * notice and author attribution.
+ *
+ * First, the following text must be displayed on the Canvas:
+ * "based on VRL source code". In this case the VRL canvas icon must be removed.
+ * 
+ * Second, the copyright notice must remain. It must be reproduced in any
+ * program that uses VRL.
+ *
+ * Third, add an additional notice, stating that you modified VRL. A suitable
+ * notice might read
+ * "VRL source code modified by YourName 2012".
+ * 
+ * Note, that these requirements are in full accordance with the LGPL v3
+ * (see 7. Additional Terms, b).
+ *
+ * Please cite the publication(s) listed below.
+ *
+ * Publications:
+ *
+ * M. Hoffer, C. Poliwoda, & G. Wittum. (2013). Visual reflection library:
+ * a framework for declarative GUI programming on the Java platform.
+ * Computing and Visualization in Science, 2013, 16(4),
+ * 181–192. http://doi.org/10.1007/s00791-014-0230-y
+ */
+
+package eu.mihosoft.vrl.io.vrlx;
+
+import eu.mihosoft.vrl.system.VParamUtil;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Converts session files between the XML based format (see
+ * {@link XMLEntryFactory}) and the binary format (see
+ * {@link BinaryEntryFactory}).
+ *
+ * @author Michael Hoffer &lt;info@michaelhoffer.de&gt;
+ */
+public final class SessionFileConverter {
+
+    // no instanciation allowed
+    private SessionFileConverter() {
+        throw new AssertionError(); // not in this class either!
+    }
+
+    /**
+     * Returns a new io model for XML based session files.
+     *
+     * @return a new io model for XML based session files
+     */
+    public static IOModel newXMLModel() {
+        return new DefaultIOModel(new XMLEntryFactory());
+    }
+
+    /**
+     * Returns a new io model for binary session files.
+     *
+     * @return a new io model for binary session files
+     */
+    public static IOModel newBinaryModel() {
+        return new DefaultIOModel(new BinaryEntryFactory());
+    }
+
+    /**
+     * Converts the specified session file to the binary format. The source
+     * file may be an XML based or a binary session file.
+     *
+     * @param src source file
+     * @param dest destination file
+     * @throws IOException if the conversion fails
+     */
+    public static void toBinary(File src, File dest) throws IOException {
+        VParamUtil.throwIfNull(src, dest);
+
+        SessionFile file = newXMLModel().loadFile(src);
+
+        // entries of binary source files are copied without decoding
+        new BinaryEntryFactory().saveFile(file, dest);
+    }
+
+    /**
+     * Converts the specified session file to the XML based format. The
+     * source file may be an XML based or a binary session file.
+     *
+     * @param src source file
+     * @param dest destination file
+     * @throws IOException if the conversion fails
+     */
+    public static void toXML(File src, File dest) throws IOException {
+        VParamUtil.throwIfNull(src, dest);
+
+        XMLEntryFactory factory = new XMLEntryFactory();
+
+        SessionFile file = newXMLModel().loadFile(src);
+
+        SessionFile xmlFile = factory.newFile(
+                file.getVersionInfo(), dest.getAbsolutePath());
+        xmlFile.setPluginDependencies(file.getPluginDependencies());
+
+        copyEntries(file, xmlFile, factory);
+
+        factory.saveFile(xmlFile, dest);
+    }
+
+    /**
+     * Copies the entries of the specified source folder to the specified
+     * destination folder. Entries are created by the specified factory.
+     *
+     * @param src source folder
+     * @param dest destination folder
+     * @param factory entry factory
+     */
+    private static void copyEntries(SessionEntryFolder src,
+            SessionEntryFolder dest, SessionEntryFactory factory) {
+        for (SessionEntry e : src.getContent()) {
+            if (e.isFolder()) {
+                SessionEntryFolder folder
+                        = factory.newEntryFolder(e.getName());
+                copyEntries((SessionEntryFolder) e, folder, factory);
+                dest.addEntry(folder);
+            } else {
+                dest.addEntry(factory.newEntryFile(e.getName(),
+                        ((SessionEntryFile) e).getContent()));
+            }
+        }
+    }
+}
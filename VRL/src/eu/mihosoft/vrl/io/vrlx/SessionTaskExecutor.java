@@ -0,0 +1,205 @@
+/* 
+ * SessionTaskExecutor.java
+ * 
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2007–2018 by Michael Hoffer,
+ * Copyright (c) 2015–2018 G-CSC, Uni Frankfurt,
+ * Copyright (c) 2009–2015 Steinbeis Forschungszentrum (STZ Ölbronn)
+ * 
+ * This file is part of Visual Reflection Library (VRL).
+ *
+ * VRL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * see: http://opensource.org/licenses/LGPL-3.0
+ *      file://path/to/VRL/src/eu/mihosoft/vrl/resources/license/lgplv3.txt
+ *
+ * VRL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * This version of VRL includes copyright notice and attribution requirements.
+ * According to the LGPL this information must be displayed even if you modify
+ * the source code of VRL. Neither the VRL Canvas attribution icon nor any
+ * copyright statement/attribution may be removed.
+ *
+ * Attribution Requirements:
+ *
+ * If you create derived work you must do three things regarding copyright
+ * notice and author attribution.
+ *
+ * First, the following text must be displayed on the Canvas:
+ * "based on VRL source code". In this case the VRL canvas icon must be removed.
+ * 
+ * Second, the copyright notice must remain. It must be reproduced in any
+ * program that uses VRL.
+ *
+ * Third, add an additional notice, stating that you modified VRL. A suitable
+ * notice might read
+ * "VRL source code modified by YourName 2012".
+ * 
+ * Note, that these requirements are in full accordance with the LGPL v3
+ * (see 7. Additional Terms, b).
+ *
+ * Please cite the publication(s) listed below.
+ *
+ * Publications:
+ *
+ * M. Hoffer, C. Poliwoda, & G. Wittum. (2013). Visual reflection library:
+ * a framework for declarative GUI programming on the Java platform.
+ * Computing and Visualization in Science, 2013, 16(4),
+ * 181–192. http://doi.org/10.1007/s00791-014-0230-y
+ */
+
+package eu.mihosoft.vrl.io.vrlx;
+
+import eu.mihosoft.vrl.io.BlobStore;
+import eu.mihosoft.vrl.visual.Canvas;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executes preparations of session tasks (see {@link PreparableSessionTask}).
+ *
+ * @author Michael Hoffer &lt;info@michaelhoffer.de&gt;
+ */
+final class SessionTaskExecutor {
+
+    private static ExecutorService executor;
+
+    // no instanciation allowed
+    private SessionTaskExecutor() {
+        throw new AssertionError(); // not in this class either!
+    }
+
+    /**
+     * Prepares the specified task. The context class loader and the blob store
+     * of the calling thread are used for preparation.
+     *
+     * @param task task to prepare
+     * @param canvas canvas
+     * @param entry entry to prepare
+     * @return a future that returns the preparation time (in milliseconds)
+     */
+    static Future<Long> prepare(final PreparableSessionTask task,
+            final Canvas canvas, final SessionEntry entry) {
+
+        return getExecutor().submit(withContext(new Callable<Long>() {
+            @Override
+            public Long call() throws Exception {
+                long start = System.nanoTime();
+
+                task.prepare(canvas, entry);
+
+                return (System.nanoTime() - start) / 1000000;
+            }
+        }));
+    }
+
+    /**
+     * Executes the specified tasks in parallel and waits until all of them
+     * are finished. The calling thread executes tasks that have not been
+     * started by the executor. Thus, this method may be called from tasks
+     * that are executed by this executor. The context class loader and the
+     * blob store of the calling thread are used. Failed tasks are reported
+     * but do not prevent execution of the remaining tasks.
+     *
+     * @param tasks tasks to execute
+     */
+    static void invokeAll(Collection<? extends Runnable> tasks) {
+        List<FutureTask<Object>> futures = new ArrayList<FutureTask<Object>>();
+
+        for (Runnable r : tasks) {
+            FutureTask<Object> f = new FutureTask<Object>(
+                    withContext(Executors.callable(r)));
+            futures.add(f);
+            getExecutor().execute(f);
+        }
+
+        for (FutureTask<Object> f : futures) {
+            // does nothing if the task has already been started
+            f.run();
+        }
+
+        for (FutureTask<Object> f : futures) {
+            try {
+                f.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException ex) {
+                System.err.println(">> Preparing session task failed:");
+                ex.getCause().printStackTrace(System.err);
+            }
+        }
+    }
+
+    /**
+     * Returns a callable that executes the specified callable with the
+     * context class loader and the blob store of the calling thread.
+     *
+     * @param c callable
+     * @return a callable that executes the specified callable
+     */
+    private static <T> Callable<T> withContext(final Callable<T> c) {
+        final ClassLoader loader
+                = Thread.currentThread().getContextClassLoader();
+        final BlobStore blobStore = BlobStore.getCurrent();
+
+        return new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                ClassLoader previousLoader
+                        = Thread.currentThread().getContextClassLoader();
+                BlobStore previousBlobStore = BlobStore.setCurrent(blobStore);
+
+                Thread.currentThread().setContextClassLoader(loader);
+
+                try {
+                    return c.call();
+                } finally {
+                    Thread.currentThread().setContextClassLoader(
+                            previousLoader);
+                    BlobStore.setCurrent(previousBlobStore);
+                }
+            }
+        };
+    }
+
+    /**
+     * Returns the executor that is used for preparation.
+     *
+     * @return the executor that is used for preparation
+     */
+    private static synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(
+                    Runtime.getRuntime().availableProcessors(),
+                    new ThreadFactory() {
+                        private final AtomicInteger count
+                                = new AtomicInteger();
+
+                        @Override
+                        public Thread newThread(Runnable r) {
+                            Thread t = new Thread(r, "VRL-Session-Loader-"
+                                    + count.incrementAndGet());
+                            t.setDaemon(true);
+                            return t;
+                        }
+                    });
+        }
+
+        return executor;
+    }
+}
@@ -268,13 +268,20 @@ public final class VRLXReflection {
         }
     }
 
-    public static class DataConnectionsTask implements SessionTask {
+    public static class DataConnectionsTask implements PreparableSessionTask {
 
         @Override
         public TaskType getType() {
             return TaskType.LOAD_AND_SAVE;
         }
 
+        @Override
+        public void prepare(Canvas canvas, SessionEntry entry) {
+            // decodes the entry (binary session files are decoded lazily)
+            format.getModel().getFileContent(
+                    entry, AbstractDataConnections.class);
+        }
+
         @Override
         public boolean load(Canvas canvas, SessionEntry entry) {
             boolean result = false;
@@ -319,13 +326,21 @@ public final class VRLXReflection {
         }
     }
 
-    public static class ControlFlowConnectionsTask implements SessionTask {
+    public static class ControlFlowConnectionsTask
+            implements PreparableSessionTask {
 
         @Override
         public TaskType getType() {
             return TaskType.LOAD_AND_SAVE;
         }
 
+        @Override
+        public void prepare(Canvas canvas, SessionEntry entry) {
+            // decodes the entry (binary session files are decoded lazily)
+            format.getModel().getFileContent(
+                    entry, AbstractControlFlowConnections.class);
+        }
+
         @Override
         public boolean load(Canvas canvas, SessionEntry entry) {
             boolean result = false;
@@ -58,6 +58,7 @@ package eu.mihosoft.vrl.io.vrlx;
 
 import eu.mihosoft.vrl.animation.Animation;
 import eu.mihosoft.vrl.animation.AnimationTask;
+import eu.mihosoft.vrl.io.BlobStore;
 import eu.mihosoft.vrl.reflection.VisualCanvas;
 import eu.mihosoft.vrl.system.Constants;
 import eu.mihosoft.vrl.system.PluginDependency;
@@ -78,6 +79,8 @@ public final class VRLXSessionController
         implements SessionLoader, SessionSaver {
 
     private FileFormat format;
+    private IOModel model;
+    private BlobStore blobStore;
 
     /**
      * Constructor.
@@ -88,6 +91,68 @@ public final class VRLXSessionController
         this.format = format;
     }
 
+    /**
+     * Constructor.
+     *
+     * @param format file format
+     * @param model the io model that is used to load and save session files
+     * (e.g. {@link SessionFileConverter#newBinaryModel()}), <code>null</code>
+     * to use the model of the file format
+     */
+    public VRLXSessionController(FileFormat format, IOModel model) {
+        this.format = format;
+        this.model = model;
+    }
+
+    /**
+     * Returns the io model that is used to load and save session files.
+     *
+     * @return the io model that is used to load and save session files
+     */
+    public IOModel getModel() {
+        if (model != null) {
+            return model;
+        }
+
+        return format.getModel();
+    }
+
+    /**
+     * Defines the io model that is used to load and save session files, e.g.,
+     * to save sessions in the binary format (see
+     * {@link SessionFileConverter#newBinaryModel()}). Binary session files are
+     * detected automatically when loading. If no model has been specified,
+     * existing binary session files are saved in the binary format.
+     *
+     * @param model the model to set, <code>null</code> to use the model of
+     * the file format
+     */
+    public void setModel(IOModel model) {
+        this.model = model;
+    }
+
+    /**
+     * Returns the blob store that is used to store large values while loading
+     * and saving sessions.
+     *
+     * @return the blob store or <code>null</code> if large values are stored
+     * inline
+     */
+    public BlobStore getBlobStore() {
+        return blobStore;
+    }
+
+    /**
+     * Defines the blob store that is used to store large values while loading
+     * and saving sessions (see {@link BlobStore#getCurrent()}).
+     *
+     * @param blobStore the blob store to set, <code>null</code> to store
+     * large values inline
+     */
+    public void setBlobStore(BlobStore blobStore) {
+        this.blobStore = blobStore;
+    }
+
     public static void showErrorMessage(
             Canvas canvas, String title, Exception ex) {
 
@@ -243,6 +308,16 @@ public final class VRLXSessionController
     }
 
     public boolean loadSessionWithoutEffect(Canvas canvas, File f) {
+        BlobStore previousBlobStore = BlobStore.setCurrent(blobStore);
+
+        try {
+            return loadSessionWithoutEffectImpl(canvas, f);
+        } finally {
+            BlobStore.setCurrent(previousBlobStore);
+        }
+    }
+
+    private boolean loadSessionWithoutEffectImpl(Canvas canvas, File f) {
         boolean result = true;
 
         System.out.println(">> Loading File " + f.getAbsolutePath());
@@ -274,7 +349,7 @@ public final class VRLXSessionController
         boolean loadingError = false;
 
         try {
-            file = format.getModel().loadFile(f);
+            file = getModel().loadFile(f);
         } catch (Exception ex) {
             loadingError = true;
             String message = ex.toString();
@@ -455,13 +530,53 @@ public final class VRLXSessionController
     public boolean saveSessionWithoutEffect(Canvas canvas, File f,
             boolean showMessage) {
 
+        IOModel saveModel = getSaveModel(f);
+
+        BlobStore store = blobStore;
+
+        // binary session files embed large values if no blob store has
+        // been specified (see BinaryEntryFactory)
+        if (store == null && saveModel instanceof DefaultIOModel
+                && ((DefaultIOModel) saveModel).isBinary()) {
+            store = new BlobStore();
+        }
+
+        BlobStore previousBlobStore = BlobStore.setCurrent(store);
+
+        try {
+            return saveSessionWithoutEffectImpl(
+                    canvas, f, saveModel, showMessage);
+        } finally {
+            BlobStore.setCurrent(previousBlobStore);
+        }
+    }
+
+    /**
+     * Returns the io model that is used to save the specified file. If no
+     * model has been specified (see {@link #setModel(IOModel)}), existing
+     * binary session files are saved in the binary format.
+     *
+     * @param f the destination file
+     * @return the io model that is used to save the specified file
+     */
+    private IOModel getSaveModel(File f) {
+        if (model == null && BinaryEntryFactory.isBinarySessionFile(f)) {
+            return SessionFileConverter.newBinaryModel();
+        }
+
+        return getModel();
+    }
+
+    private boolean saveSessionWithoutEffectImpl(Canvas canvas, File f,
+            IOModel saveModel, boolean showMessage) {
+
         System.out.println(">> Saving File " + f.getAbsolutePath());
 
         boolean result = true;
 
         try {
 
-            SessionFile file = format.getModel().newFile(
+            SessionFile file = saveModel.newFile(
                     Constants.fileVersionCompatibility.getCurrentVersion(),
                     f.getAbsolutePath());
 
@@ -526,7 +641,7 @@ public final class VRLXSessionController
             // WRITE OBJECT
             // ********************************************************
 
-            format.getModel().saveFile(file, f);
+            saveModel.saveFile(file, f);
 
             if (result && showMessage) {
                 Message m = canvas.getMessageBox().addUniqueMessage(
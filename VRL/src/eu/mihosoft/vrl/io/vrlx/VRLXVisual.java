@@ -196,13 +196,24 @@ public final class VRLXVisual {
         }
     }
 
-    public static class WindowTask implements SessionTask {
+    public static class WindowTask implements PreparableSessionTask {
 
         @Override
         public TaskType getType() {
             return TaskType.LOAD_AND_SAVE;
         }
 
+        @Override
+        public void prepare(Canvas canvas, SessionEntry entry) {
+            AbstractWindows objects = (AbstractWindows) format.getModel().
+                    getFileContent(entry, AbstractWindows.class);
+
+            // decodes objects and parameter values
+            if (objects != null) {
+                objects.prepare(canvas);
+            }
+        }
+
         @Override
         public boolean load(Canvas canvas, SessionEntry entry) {
             boolean result = false;
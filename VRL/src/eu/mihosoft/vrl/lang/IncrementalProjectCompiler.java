@@ -0,0 +1,601 @@
+/* 
+ * IncrementalProjectCompiler.java
+ * 
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2007–2018 by Michael Hoffer,
+ * Copyright (c) 2015–2018 G-CSC, Uni Frankfurt,
+ * Copyright (c) 2009–2015 Steinbeis Forschungszentrum (STZ Ölbronn)
+ * 
+ * This file is part of Visual Reflection Library (VRL).
+ *
+ * VRL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * see: http://opensource.org/licenses/LGPL-3.0
+ *      file://path/to/VRL/src/eu/mihosoft/vrl/resources/license/lgplv3.txt
+ *
+ * VRL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * This version of VRL includes copyright notice and attribution requirements.
+ * According to the LGPL this information must be displayed even if you modify
+ * the source code of VRL. Neither the VRL Canvas attribution icon nor any
+ * copyright statement/attribution may be removed.
+ *
+ * Attribution Requirements:
+ *
+ * If you create derived work you must do three things regarding copyright
+ * notice and author attribution.
+ *
+ * First, the following text must be displayed on the Canvas:
+ * "based on VRL source code". In this case the VRL canvas icon must be removed.
+ * 
+ * Second, the copyright notice must remain. It must be reproduced in any
+ * program that uses VRL.
+ *
+ * Third, add an additional notice, stating that you modified VRL. A suitable
+ * notice might read
+ * "VRL source code modified by YourName 2012".
+ * 
+ * Note, that these requirements are in full accordance with the LGPL v3
+ * (see 7. Additional Terms, b).
+ *
+ * Please cite the publication(s) listed below.
+ *
+ * Publications:
+ *
+ * M. Hoffer, C. Poliwoda, & G. Wittum. (2013). Visual reflection library:
+ * a framework for declarative GUI programming on the Java platform.
+ * Computing and Visualization in Science, 2013, 16(4),
+ * 181–192. http://doi.org/10.1007/s00791-014-0230-y
+ */
+
+package eu.mihosoft.vrl.lang;
+
+import eu.mihosoft.vrl.asm.ByteCodeUtil;
+import eu.mihosoft.vrl.io.IOUtil;
+import eu.mihosoft.vrl.lang.groovy.CompiledClassCache;
+import groovy.lang.GroovyClassLoader;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.codehaus.groovy.control.CompilationUnit;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.MultipleCompilationErrorsException;
+import org.codehaus.groovy.control.messages.SyntaxErrorMessage;
+
+/**
+ * <p>
+ * In-process incremental compiler for the Groovy sources of a project. Only
+ * sources that have been changed since their last compilation (i.e., sources
+ * that are newer than their class files) and the sources of classes that
+ * depend on them are compiled. Dependencies are determined via
+ * {@link ByteCodeUtil#getClassesUsedBy(java.io.File, java.lang.String)} and
+ * are cached as long as the class files do not change. The class files of
+ * sources that have been removed since the previous build are deleted and the
+ * sources that depend on them are compiled.
+ * </p>
+ * <p>
+ * One compiler instance is kept per project location. It keeps the class
+ * loader of the project libraries and the dependency information between
+ * builds. If the libraries change, the whole project is recompiled.
+ * </p>
+ *
+ * @author Michael Hoffer &lt;info@michaelhoffer.de&gt;
+ */
+final class IncrementalProjectCompiler {
+
+    private static final Map<File, IncrementalProjectCompiler> compilers
+            = new HashMap<File, IncrementalProjectCompiler>();
+    /**
+     * project location (source and class files)
+     */
+    private final File location;
+    /**
+     * class loader of the project libraries
+     */
+    private GroovyClassLoader libraryLoader;
+    /**
+     * libraries used by the library class loader (path, size and date)
+     */
+    private List<String> libraryStamps = Collections.emptyList();
+    /**
+     * used classes by class file
+     */
+    private final Map<File, ClassFileInfo> classFileInfos
+            = new HashMap<File, ClassFileInfo>();
+    /**
+     * sources of the previous build (<code>null</code> if no build has been
+     * performed yet)
+     */
+    private Set<File> previousSources;
+
+    /**
+     * Constructor.
+     *
+     * @param location project location
+     */
+    private IncrementalProjectCompiler(File location) {
+        this.location = location;
+    }
+
+    /**
+     * Returns the compiler of the specified project location.
+     *
+     * @param location project location
+     * @return the compiler of the specified project location
+     */
+    static IncrementalProjectCompiler getCompiler(File location) {
+        File key = location.getAbsoluteFile();
+
+        synchronized (compilers) {
+            IncrementalProjectCompiler compiler = compilers.get(key);
+
+            if (compiler == null) {
+                compiler = new IncrementalProjectCompiler(key);
+                compilers.put(key, compiler);
+            }
+
+            return compiler;
+        }
+    }
+
+    /**
+     * Disposes the compiler of the specified project location, i.e., removes
+     * it and closes its library class loader. This method must be called if
+     * the project is closed.
+     *
+     * @param location project location
+     */
+    static void dispose(File location) {
+        IncrementalProjectCompiler compiler;
+
+        synchronized (compilers) {
+            compiler = compilers.remove(location.getAbsoluteFile());
+        }
+
+        if (compiler != null) {
+            compiler.close();
+        }
+    }
+
+    /**
+     * Closes the library class loader and forgets the dependency information
+     * of this compiler.
+     */
+    private synchronized void close() {
+        if (libraryLoader != null) {
+            try {
+                libraryLoader.close();
+            } catch (IOException ex) {
+                ex.printStackTrace(System.err);
+            }
+        }
+
+        libraryLoader = null;
+        libraryStamps = Collections.emptyList();
+        classFileInfos.clear();
+        previousSources = null;
+
+        CompiledClassCache.invalidateFolder(location);
+    }
+
+    /**
+     * Compiles all sources that have been changed since their last
+     * compilation and all sources that depend on them.
+     *
+     * @param libraries libraries (jar files) that are used for compilation
+     * @return the build result
+     */
+    synchronized VBuildResult build(Collection<File> libraries) {
+        long start = System.currentTimeMillis();
+
+        VBuildResultImpl result = new VBuildResultImpl();
+
+        boolean librariesChanged = updateLibraries(libraries);
+
+        List<File> sources = IOUtil.listFiles(location, new String[]{".groovy"});
+
+        Set<File> affected = new LinkedHashSet<File>();
+
+        for (File source : sources) {
+            File classFile = getClassFile(source);
+
+            if (librariesChanged || !classFile.isFile()
+                    || classFile.lastModified() < source.lastModified()) {
+                affected.add(source);
+            }
+        }
+
+        // sources that have been removed or renamed since the previous build
+        List<File> removed = new ArrayList<File>();
+
+        Set<File> currentSources = new HashSet<File>(sources);
+
+        if (previousSources != null) {
+            for (File source : previousSources) {
+                if (!currentSources.contains(source)) {
+                    removed.add(source);
+                }
+            }
+        }
+
+        previousSources = currentSources;
+
+        addDependentSources(sources, affected, removed);
+
+        // class files of removed sources must not be used by other classes
+        for (File source : removed) {
+            for (File f : getClassFiles(source)) {
+                f.delete();
+                classFileInfos.remove(f);
+            }
+        }
+
+        if (!removed.isEmpty()) {
+            CompiledClassCache.invalidateFolder(location);
+        }
+
+        if (affected.isEmpty()) {
+            System.out.println(">> Project is up to date.");
+            result.setSuccessful(true);
+            return result;
+        }
+
+        System.out.println(">> Compiling " + affected.size() + " of "
+                + sources.size() + " source files.");
+
+        // remove class files of affected sources, otherwise class files of
+        // removed inner classes/closures would remain
+        for (File source : affected) {
+            for (File f : getClassFiles(source)) {
+                f.delete();
+                classFileInfos.remove(f);
+            }
+        }
+
+        try {
+            compile(affected);
+            result.setSuccessful(true);
+        } catch (MultipleCompilationErrorsException ex) {
+            result.setSuccessful(false);
+            result.setException(ex);
+
+            for (Object m : ex.getErrorCollector().getErrors()) {
+                if (m instanceof SyntaxErrorMessage) {
+                    String entry = toEntryName(((SyntaxErrorMessage) m).
+                            getCause().getSourceLocator());
+
+                    if (entry != null
+                            && !result.getBrokenEntries().contains(entry)) {
+                        result.addBrokenCodeEntry(entry);
+                    }
+                }
+            }
+        } catch (Exception ex) {
+            result.setSuccessful(false);
+            result.setException(ex);
+        } finally {
+            CompiledClassCache.invalidateFolder(location);
+        }
+
+        System.out.println(">> Compilation "
+                + (result.isSuccessful() ? "finished" : "failed") + ": "
+                + (System.currentTimeMillis() - start) + " ms");
+
+        return result;
+    }
+
+    /**
+     * Removes all class files of the project.
+     */
+    synchronized void clean() {
+        for (File f : IOUtil.listFiles(location, new String[]{".class"})) {
+            f.delete();
+        }
+
+        classFileInfos.clear();
+
+        CompiledClassCache.invalidateFolder(location);
+    }
+
+    /**
+     * Compiles the specified sources.
+     *
+     * @param sources sources to compile
+     * @throws MultipleCompilationErrorsException if the sources cannot be
+     * compiled
+     * @throws IOException if the project location cannot be used as class path
+     */
+    private void compile(Collection<File> sources) throws IOException {
+        CompilerConfiguration config = new CompilerConfiguration();
+        config.setTargetDirectory(location);
+        config.setSourceEncoding("UTF-8");
+        config.setTargetBytecode("1.8");
+
+        // project classes are loaded by a new loader for each build, library
+        // classes by the resident library loader
+        GroovyClassLoader loader = new GroovyClassLoader(libraryLoader, config);
+
+        try {
+            loader.addURL(location.toURI().toURL());
+
+            CompilationUnit unit = new CompilationUnit(config, null, loader);
+
+            for (File source : sources) {
+                unit.addSource(source);
+            }
+
+            unit.compile();
+        } finally {
+            loader.close();
+        }
+    }
+
+    /**
+     * Adds the sources that depend on the affected or removed sources to the
+     * affected sources (transitive). The class files of removed sources must
+     * still exist.
+     *
+     * @param sources all sources
+     * @param affected affected sources
+     * @param removed sources that have been removed since the previous build
+     */
+    private void addDependentSources(Collection<File> sources,
+            Set<File> affected, Collection<File> removed) {
+
+        // dependencies of unaffected sources
+        Map<File, Set<String>> usedClassesBySource
+                = new HashMap<File, Set<String>>();
+
+        for (File source : sources) {
+            if (!affected.contains(source)) {
+                usedClassesBySource.put(source, getUsedClasses(source));
+            }
+        }
+
+        List<File> unprocessed = new ArrayList<File>(affected);
+        unprocessed.addAll(removed);
+
+        while (!unprocessed.isEmpty()) {
+            File source = unprocessed.remove(unprocessed.size() - 1);
+
+            Set<String> definedClasses = getDefinedClasses(source);
+
+            for (Map.Entry<File, Set<String>> e
+                    : usedClassesBySource.entrySet()) {
+
+                if (affected.contains(e.getKey())) {
+                    continue;
+                }
+
+                for (String className : definedClasses) {
+                    if (e.getValue().contains(className)) {
+                        affected.add(e.getKey());
+                        unprocessed.add(e.getKey());
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the names of the classes used by the class files of the
+     * specified source.
+     *
+     * @param source source
+     * @return the names of the classes used by the class files of the
+     * specified source
+     */
+    private Set<String> getUsedClasses(File source) {
+        Set<String> result = new HashSet<String>();
+
+        for (File f : getClassFiles(source)) {
+            ClassFileInfo info = classFileInfos.get(f);
+
+            if (info == null || info.lastModified != f.lastModified()) {
+                try {
+                    info = new ClassFileInfo(f.lastModified(),
+                            ByteCodeUtil.getClassesUsedBy(f, ""));
+                    classFileInfos.put(f, info);
+                } catch (IOException ex) {
+                    System.out.println(
+                            " >> cannot analyze .class file: " + f);
+                    continue;
+                }
+            }
+
+            result.addAll(info.usedClasses);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the names of the classes defined by the specified source. Only
+     * the class with the name of the source and its inner classes are
+     * considered.
+     *
+     * @param source source
+     * @return the names of the classes defined by the specified source
+     */
+    private Set<String> getDefinedClasses(File source) {
+        Set<String> result = new HashSet<String>();
+
+        String entryName = toEntryName(source.getPath());
+
+        if (entryName == null) {
+            return result;
+        }
+
+        String packagePrefix = "";
+
+        int index = entryName.lastIndexOf('/');
+
+        if (index >= 0) {
+            packagePrefix = entryName.substring(0, index + 1).replace('/', '.');
+        }
+
+        // the class might not exist anymore (class files are missing)
+        result.add(entryName.replace('/', '.'));
+
+        for (File f : getClassFiles(source)) {
+            String name = f.getName();
+            result.add(packagePrefix
+                    + name.substring(0, name.length() - ".class".length()));
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the class file of the specified source.
+     *
+     * @param source source
+     * @return the class file of the specified source
+     */
+    private static File getClassFile(File source) {
+        String name = source.getName();
+
+        return new File(source.getParentFile(),
+                name.substring(0, name.length() - ".groovy".length())
+                + ".class");
+    }
+
+    /**
+     * Returns the class files of the specified source (including inner
+     * classes and closures).
+     *
+     * @param source source
+     * @return the class files of the specified source
+     */
+    private static File[] getClassFiles(File source) {
+        String name = source.getName();
+        final String className
+                = name.substring(0, name.length() - ".groovy".length());
+
+        File[] result = source.getParentFile().listFiles(new FileFilter() {
+            @Override
+            public boolean accept(File f) {
+                String n = f.getName();
+                return n.endsWith(".class") && (n.equals(className + ".class")
+                        || n.startsWith(className + "$"));
+            }
+        });
+
+        return result == null ? new File[0] : result;
+    }
+
+    /**
+     * Converts the specified source path to an entry name (path relative to
+     * the project location without file ending).
+     *
+     * @param path source path
+     * @return the entry name or <code>null</code> if the specified path is not
+     * located in the project location
+     */
+    private String toEntryName(String path) {
+        if (path == null) {
+            return null;
+        }
+
+        String projectPath = location.getAbsolutePath().replace('\\', '/');
+        path = new File(path).getAbsolutePath().replace('\\', '/');
+
+        if (!path.startsWith(projectPath + "/")) {
+            return null;
+        }
+
+        path = path.substring(projectPath.length() + 1);
+
+        if (path.endsWith(".groovy")) {
+            path = path.substring(0, path.length() - ".groovy".length());
+        }
+
+        return path;
+    }
+
+    /**
+     * Updates the library class loader if the specified libraries differ from
+     * the libraries of the previous build.
+     *
+     * @param libraries libraries
+     * @return <code>true</code> if the libraries have been changed;
+     * <code>false</code> otherwise
+     */
+    private boolean updateLibraries(Collection<File> libraries) {
+        List<String> stamps = new ArrayList<String>();
+
+        for (File f : libraries) {
+            stamps.add(f.getAbsolutePath() + ":" + f.length()
+                    + ":" + f.lastModified());
+        }
+
+        if (libraryLoader != null && stamps.equals(libraryStamps)) {
+            return false;
+        }
+
+        boolean initialBuild = libraryLoader == null;
+
+        if (libraryLoader != null) {
+            try {
+                libraryLoader.close();
+            } catch (IOException ex) {
+                ex.printStackTrace(System.err);
+            }
+        }
+
+        libraryLoader = new GroovyClassLoader(
+                IncrementalProjectCompiler.class.getClassLoader());
+
+        for (File f : libraries) {
+            try {
+                libraryLoader.addURL(f.toURI().toURL());
+            } catch (MalformedURLException ex) {
+                ex.printStackTrace(System.err);
+            }
+        }
+
+        libraryStamps = stamps;
+
+        // class files are only reused for the initial build (up to date
+        // check); if libraries change while the project is opened, a full
+        // build is necessary
+        return !initialBuild;
+    }
+
+    /**
+     * Used classes of a class file.
+     */
+    private static final class ClassFileInfo {
+
+        private final long lastModified;
+        private final Set<String> usedClasses;
+
+        /**
+         * Constructor.
+         *
+         * @param lastModified modification date of the class file
+         * @param usedClasses names of the classes used by the class file
+         */
+        ClassFileInfo(long lastModified, Set<String> usedClasses) {
+            this.lastModified = lastModified;
+            this.usedClasses = usedClasses;
+        }
+    }
+}
@@ -59,135 +59,71 @@ package eu.mihosoft.vrl.lang;
 import eu.mihosoft.vrl.io.IOUtil;
 import eu.mihosoft.vrl.io.VProjectController;
 import eu.mihosoft.vrl.system.Constants;
-import eu.mihosoft.vrl.system.VRL;
 import java.io.File;
-import java.io.IOException;
-import java.io.InputStream;
-import java.util.logging.Level;
-import java.util.logging.Logger;
-import org.apache.tools.ant.BuildEvent;
-import org.apache.tools.ant.BuildException;
-import org.apache.tools.ant.BuildListener;
-import org.apache.tools.ant.DefaultLogger;
-import org.apache.tools.ant.Project;
-import org.apache.tools.ant.ProjectHelper;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
+ * Builds projects. Sources are compiled in-process and incrementally, i.e.,
+ * only changed sources and sources that depend on them are compiled (see
+ * {@link IncrementalProjectCompiler}).
  *
  * @author Michael Hoffer &lt;info@michaelhoffer.de&gt;
  */
 public class ProjectBuilder {
 
-    public static VBuildResult build(VProjectController vpc, boolean overwriteBuildScript) {
-        Project p = prepare(vpc, overwriteBuildScript);
-        ProjectBuildListener buildListener = new ProjectBuildListener(vpc);
-        p.addBuildListener(buildListener);
-
-        BuildException exception = null;
-        try {
-            p.fireBuildStarted();
-            p.init();
-            ProjectHelper helper = ProjectHelper.getProjectHelper();
-            p.addReference("ant.projectHelper", helper);
-            helper.parse(p, getBuildFile(vpc));
-
-            p.executeTarget(p.getDefaultTarget());
-            p.fireBuildFinished(null);
-         
-        } catch (BuildException e) {
-            p.fireBuildFinished(e);
-            exception = e;
-        }
-
-        return buildListener.getBuildResult();
-    }
-
     public static VBuildResult build(VProjectController vpc) {
-        return build(vpc, true);
-    }
-
-    private static File getBuildFile(VProjectController vpc) {
-        return new File(
-                vpc.getProject().getContentLocation().getAbsolutePath() + "/build.xml");
-    }
+        prepare(vpc);
 
-    private static Project prepare(VProjectController vpc) {
-        return prepare(vpc, true);
+        return IncrementalProjectCompiler.getCompiler(
+                vpc.getProject().getContentLocation()).
+                build(getLibraries(vpc));
     }
 
-    private static Project prepare(VProjectController vpc, boolean overwriteBuildScript) {
+    private static void prepare(VProjectController vpc) {
         if (!vpc.getProject().isOpened()) {
             throw new IllegalStateException(
                     "Project must be opened to be compiled!");
         }
 
-        File buildFile = getBuildFile(vpc);
-
-        if (overwriteBuildScript) {
-            try {
-                InputStream in =
-                        ProjectBuilder.class.getClassLoader().
-                        getResourceAsStream(
-                        "eu/mihosoft/vrl/lang/build-template.xml");
-
-                IOUtil.saveStreamToFile(in, buildFile);
-
-            } catch (IOException ex) {
-                Logger.getLogger(ProjectBuilder.class.getName()).
-                        log(Level.SEVERE, null, ex);
-            }
-        }
-
-//        File buildFile = new File("/home/miho/tmp/anttest/build.xml");
-        Project p = new Project();
-        p.setUserProperty("file.encoding", "UTF-8");
-        p.setUserProperty("ant.project.name", vpc.getProject().getFile().getName());
-        p.setUserProperty("ant.file", buildFile.getAbsolutePath());
-
-        p.setProperty("vrl.version", Constants.VERSION);
-        //
+        // lazily opened projects extract entries on demand, the compiler
+        // needs all sources and class files
+        vpc.getProject().getContentFiles(".groovy", ".class");
+    }
 
-        String projectClassPath = "";
+    /**
+     * Returns the libraries (jar files) of the specified project, i.e., the
+     * project class path.
+     *
+     * @param vpc project controller
+     * @return the libraries of the specified project
+     */
+    private static List<File> getLibraries(VProjectController vpc) {
+        List<File> libraries = new ArrayList<File>();
 
         // add plugin jars
-        for (File f : IOUtil.listFiles(new File(Constants.PLUGIN_DIR),
-                new String[]{".jar"})) {
-            projectClassPath += f.getAbsolutePath() + ":";
-        }
+        libraries.addAll(IOUtil.listFiles(new File(Constants.PLUGIN_DIR),
+                new String[]{".jar"}));
 
         // add custom-lib jars
-        for (File f : IOUtil.listFiles(new File(Constants.CUSTOM_LIB_DIR),
-                new String[]{".jar"})) {
-            projectClassPath += f.getAbsolutePath() + ":";
-        }
+        libraries.addAll(IOUtil.listFiles(new File(Constants.CUSTOM_LIB_DIR),
+                new String[]{".jar"}));
 
         // add lib jars
-        for (File f : IOUtil.listFiles(new File(Constants.LIB_DIR),
-                new String[]{".jar"})) {
-            projectClassPath += f.getAbsolutePath() + ":";
-        }
+        libraries.addAll(IOUtil.listFiles(new File(Constants.LIB_DIR),
+                new String[]{".jar"}));
 
         // add project lib jars
-        for (File f : IOUtil.listFiles(
+        libraries.addAll(IOUtil.listFiles(
                 vpc.getLibraryController().getLibFolderLocation(),
-                new String[]{".jar"})) {
-            projectClassPath += f.getAbsolutePath() + ":";
-        }
+                new String[]{".jar"}));
 
-        // defines project classpath (for groovy compiler)
-        p.setProperty("vrl.project-classpath", projectClassPath);
-
-        DefaultLogger consoleLogger = new DefaultLogger();
-        consoleLogger.setErrorPrintStream(System.err);
-        consoleLogger.setOutputPrintStream(System.out);
-        consoleLogger.setMessageOutputLevel(Project.MSG_INFO);
-        p.addBuildListener(consoleLogger);
-
-        return p;
+        return libraries;
     }
 
     /**
-     * Cleans the specified project.
+     * Cleans the specified project, i.e., removes all class files. The next
+     * build compiles all sources.
      *
      * To prevent cleaning of the whole project one may considder
      * {@link VProjectController#removeInnerClassFilesOf(java.lang.String) }
@@ -196,125 +132,23 @@ public class ProjectBuilder {
      * <code>true</code>.
      *
      * @param vpc project controller
-     * @throws BuildException
-     *
-     */
-    public static void clean(VProjectController vpc) throws BuildException {
-        Project p = prepare(vpc);
-        try {
-            p.fireBuildStarted();
-            p.init();
-            ProjectHelper helper = ProjectHelper.getProjectHelper();
-            p.addReference("ant.projectHelper", helper);
-            helper.parse(p, getBuildFile(vpc));
-
-            p.executeTarget("clean");
-            p.fireBuildFinished(null);
-        } catch (BuildException e) {
-            p.fireBuildFinished(e);
-            throw e;
-        }
-    }
-}
-
-class ProjectBuildListener implements BuildListener {
-
-    private boolean successful = false;
-    private boolean buildRunning = false;
-    private VBuildResultImpl buildResult;
-    private VProjectController vpc;
-
-    public ProjectBuildListener(VProjectController vpc) {
-        this.vpc = vpc;
-        buildResult = new VBuildResultImpl();
-    }
-
-    @Override
-    public void buildStarted(BuildEvent be) {
-        buildRunning = true;
-    }
-
-    @Override
-    public void buildFinished(BuildEvent be) {
-        buildRunning = false;
-        successful = be.getException() == null;
-        buildResult.setSuccessful(successful);
-    }
-
-    @Override
-    public void targetStarted(BuildEvent be) {
-//        System.out.println("target-started: " + be.getTarget().getName());
-    }
-
-    @Override
-    public void targetFinished(BuildEvent be) {
-//        System.out.println("target-finished: " + be.getTarget().getName());
-//        if (be.getException() != null) {
-//            System.out.println(" --> ex: " + be.getException());
-//        }
-    }
-
-    @Override
-    public void taskStarted(BuildEvent be) {
-//        System.out.println("task-started: " + be.getTask().getTaskName());
-    }
-
-    @Override
-    public void taskFinished(BuildEvent be) {
-//        System.out.println("task-finished: " + be.getTask().getTaskName());
-        if (be.getException() != null) {
-//            System.out.println(" --> ex: " + be.getException());
-            if (be.getException().getCause() != null) {
-                
-                buildResult.setException(be.getException().getCause());
-
-                String projectLocationPath = vpc.getProject().
-                        getContentLocation().getAbsolutePath();
-
-                String errorMsg = be.getException().getCause().getMessage();
-
-                String[] lines = errorMsg.split("\n");
-
-                for (String l : lines) {
-                    if (l.startsWith(projectLocationPath)) {
-                        String entryName = l.replace(projectLocationPath, "");
-                        entryName = entryName.split(":")[0];
-                        if (entryName.startsWith("/")) {
-                            entryName = entryName.substring(1);
-                        }
-                        
-                        buildResult.addBrokenCodeEntry(
-                                entryName.substring(0,
-                                entryName.length() - ".groovy".length()));
-                    }
-                }
-            }
-        }
-    }
-
-    @Override
-    public void messageLogged(BuildEvent be) {
-        //System.out.println("msg: " +be.getMessage());
-    }
-
-    /**
-     * @return the successful
      */
-    public boolean isSuccessful() {
-        return successful;
-    }
+    public static void clean(VProjectController vpc) {
+        prepare(vpc);
 
-    /**
-     * @return the buildRunning
-     */
-    public boolean isBuildRunning() {
-        return buildRunning;
+        IncrementalProjectCompiler.getCompiler(
+                vpc.getProject().getContentLocation()).clean();
     }
 
     /**
-     * @return the buildResult
+     * Releases the resources used for building the specified project, e.g.,
+     * the class loader of the project libraries. Must be called before the
+     * project is closed.
+     *
+     * @param vpc project controller
      */
-    public VBuildResultImpl getBuildResult() {
-        return buildResult;
+    public static void dispose(VProjectController vpc) {
+        IncrementalProjectCompiler.dispose(
+                vpc.getProject().getContentLocation());
     }
 }
@@ -0,0 +1,824 @@
+/* 
+ * CompiledClassCache.java
+ * 
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2007–2018 by Michael Hoffer,
+ * Copyright (c) 2015–2018 G-CSC, Uni Frankfurt,
+ * Copyright (c) 2009–2015 Steinbeis Forschungszentrum (STZ Ölbronn)
+ * 
+ * This file is part of Visual Reflection Library (VRL).
+ *
+ * VRL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * see: http://opensource.org/licenses/LGPL-3.0
+ *      file://path/to/VRL/src/eu/mihosoft/vrl/resources/license/lgplv3.txt
+ *
+ * VRL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * This version of VRL includes copyright notice and attribution requirements.
+ * According to the LGPL this information must be displayed even if you modify
+ * the source code of VRL. Neither the VRL Canvas attribution icon nor any
+ * copyright statement/attribution may be removed.
+ *
+ * Attribution Requirements:
+ *
+ * If you create derived work you must do three things regarding copyright
+ * notice and author attribution.
+ *
+ * First, the following text must be displayed on the Canvas:
+ * "based on VRL source code". In this case the VRL canvas icon must be removed.
+ * 
+ * Second, the copyright notice must remain. It must be reproduced in any
+ * program that uses VRL.
+ *
+ * Third, add an additional notice, stating that you modified VRL. A suitable
+ * notice might read
+ * "VRL source code modified by YourName 2012".
+ * 
+ * Note, that these requirements are in full accordance with the LGPL v3
+ * (see 7. Additional Terms, b).
+ *
+ * Please cite the publication(s) listed below.
+ *
+ * Publications:
+ *
+ * M. Hoffer, C. Poliwoda, & G. Wittum. (2013). Visual reflection library:
+ * a framework for declarative GUI programming on the Java platform.
+ * Computing and Visualization in Science, 2013, 16(4),
+ * 181–192. http://doi.org/10.1007/s00791-014-0230-y
+ */
+
+package eu.mihosoft.vrl.lang.groovy;
+
+import eu.mihosoft.vrl.io.IOUtil;
+import eu.mihosoft.vrl.system.Constants;
+import eu.mihosoft.vrl.system.VClassLoader;
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.GroovySystem;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.WeakHashMap;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.control.CompilationUnit;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.SourceUnit;
+
+/**
+ * <p>
+ * Persistent cache for classes compiled by {@link GroovyCompiler}. Entries
+ * contain the byte code of all classes generated from one source (including
+ * inner classes and closures). They are keyed by the SHA-1 checksum of the
+ * normalized source (including the import header), the target byte code
+ * version and a fingerprint of the class path that is visible to the
+ * compiler (see {@link #createKey(java.lang.String, java.lang.String,
+ * java.lang.ClassLoader)}).
+ * </p>
+ * <p>
+ * The cache is located in the <code>cache/groovy-classes</code> folder of the
+ * property folder. Its size is bounded, least recently used entries are
+ * removed first.
+ * </p>
+ * <p>
+ * Stamps of class folders are computed once and reused until the folder is
+ * invalidated (see {@link #invalidateFolder(java.io.File)}), e.g., after a
+ * project has been built.
+ * </p>
+ *
+ * @author Michael Hoffer &lt;info@michaelhoffer.de&gt;
+ */
+public final class CompiledClassCache {
+
+    /**
+     * first entry of cache files (format version)
+     */
+    private static final String HEADER = "VRL-CompiledClassCache 1";
+    /**
+     * default maximum size of the cache folder (in bytes)
+     */
+    public static final long DEFAULT_MAX_SIZE = 32 * 1024 * 1024;
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static volatile File cacheFolder;
+    private static volatile long maxSize = DEFAULT_MAX_SIZE;
+    /**
+     * content fingerprints of session classes (cache key or byte code hash)
+     */
+    private static final Map<Class<?>, String> classFingerprints
+            = Collections.synchronizedMap(
+                    new WeakHashMap<Class<?>, String>());
+    /**
+     * stamps of class folders (newest modification date of class files)
+     */
+    private static final Map<File, Long> folderStamps
+            = new HashMap<File, Long>();
+
+    // no instanciation allowed
+    private CompiledClassCache() {
+        throw new AssertionError(); // not in this class either!
+    }
+
+    /**
+     * Defines the folder where compiled classes are stored. If no folder is
+     * specified, classes are not cached.
+     *
+     * @param folder the folder to set (may be <code>null</code>)
+     */
+    public static void setCacheFolder(File folder) {
+        cacheFolder = folder;
+    }
+
+    /**
+     * Returns the folder where compiled classes are stored.
+     *
+     * @return the folder where compiled classes are stored or
+     * <code>null</code> if classes are not cached
+     */
+    public static File getCacheFolder() {
+        return cacheFolder;
+    }
+
+    /**
+     * Defines the maximum size of the cache folder.
+     *
+     * @param size maximum size (in bytes)
+     */
+    public static void setMaxSize(long size) {
+        maxSize = size;
+    }
+
+    /**
+     * Returns the maximum size of the cache folder.
+     *
+     * @return the maximum size (in bytes)
+     */
+    public static long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Indicates whether the cache is enabled, i.e., whether a cache folder has
+     * been specified.
+     *
+     * @return <code>true</code> if the cache is enabled; <code>false</code>
+     * otherwise
+     */
+    static boolean isEnabled() {
+        return cacheFolder != null;
+    }
+
+    /**
+     * Defines the content fingerprint of the specified class, i.e., the cache
+     * key of the source it has been compiled from.
+     *
+     * @param c class
+     * @param key cache key of the source of the class
+     */
+    static void setFingerprint(Class<?> c, String key) {
+        classFingerprints.put(c, key);
+    }
+
+    /**
+     * Returns the content fingerprint of the specified class. If the class
+     * has not been compiled from a cached source, the checksum of its byte
+     * code is used. If the byte code is not available, a unique fingerprint
+     * is returned, i.e., sources that depend on the class are not cached
+     * across sessions.
+     *
+     * @param c class
+     * @return the content fingerprint of the specified class
+     */
+    private static String getFingerprint(Class<?> c) {
+        String result = classFingerprints.get(c);
+
+        if (result == null) {
+            byte[] code = readByteCode(c);
+
+            result = code == null
+                    ? UUID.randomUUID().toString()
+                    : IOUtil.generateSHA1Sum(code);
+
+            classFingerprints.put(c, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Reads the byte code of the specified class from its class loader.
+     *
+     * @param c class
+     * @return the byte code or <code>null</code> if the byte code is not
+     * available
+     */
+    private static byte[] readByteCode(Class<?> c) {
+        String resource = c.getName().replace('.', '/') + ".class";
+
+        ClassLoader loader = c.getClassLoader();
+
+        InputStream in = loader == null
+                ? ClassLoader.getSystemResourceAsStream(resource)
+                : loader.getResourceAsStream(resource);
+
+        if (in == null) {
+            return null;
+        }
+
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int n;
+
+            while ((n = in.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+
+            return out.toByteArray();
+        } catch (IOException ex) {
+            return null;
+        } finally {
+            try {
+                in.close();
+            } catch (IOException ex) {
+                ex.printStackTrace(System.err);
+            }
+        }
+    }
+
+    /**
+     * Invalidates the stamps of the specified class folder and its
+     * subfolders. This method must be called whenever class files in the
+     * folder have been changed, e.g., after building a project.
+     *
+     * @param folder class folder
+     */
+    public static void invalidateFolder(File folder) {
+        String path = folder.getAbsolutePath();
+
+        synchronized (folderStamps) {
+            Iterator<File> it = folderStamps.keySet().iterator();
+
+            while (it.hasNext()) {
+                String p = it.next().getPath();
+
+                if (p.equals(path)
+                        || p.startsWith(path + File.separator)) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the stamp of the specified class folder, i.e., the newest
+     * modification date of the class files in the folder.
+     *
+     * @param folder class folder
+     * @return the stamp of the specified class folder
+     */
+    private static long getFolderStamp(File folder) {
+        File key = folder.getAbsoluteFile();
+
+        synchronized (folderStamps) {
+            Long stamp = folderStamps.get(key);
+
+            if (stamp == null) {
+                long lastModified = 0;
+                for (File cf : IOUtil.listFiles(key, new String[]{".class"})) {
+                    lastModified = Math.max(lastModified, cf.lastModified());
+                }
+                stamp = lastModified;
+                folderStamps.put(key, stamp);
+            }
+
+            return stamp;
+        }
+    }
+
+    /**
+     * Returns the cache key of the specified source.
+     *
+     * @param code source (including import header)
+     * @param targetBytecode target byte code version
+     * @param parent class loader that is visible to the compiler
+     * @return the cache key of the specified source
+     */
+    static String createKey(String code, String targetBytecode,
+            ClassLoader parent) {
+        StringBuilder sb = new StringBuilder();
+
+        // line numbers must not change, only line endings are normalized
+        sb.append(code.replace("\r\n", "\n").replace('\r', '\n'));
+        sb.append('\u0000').append(targetBytecode);
+        sb.append('\u0000').append(Constants.VERSION);
+        sb.append('\u0000').append(GroovySystem.getVersion());
+        sb.append('\u0000').append(System.getProperty("java.class.path"));
+
+        for (ClassLoader l = parent; l != null; l = l.getParent()) {
+            appendFingerprint(sb, l);
+        }
+
+        return IOUtil.generateSHA1Sum(sb.toString().getBytes(UTF8));
+    }
+
+    /**
+     * Appends the fingerprint of the specified class loader, i.e., its class
+     * path and the classes it provides.
+     *
+     * @param sb string builder
+     * @param loader class loader
+     */
+    private static void appendFingerprint(StringBuilder sb,
+            ClassLoader loader) {
+        sb.append('\u0000').append(loader.getClass().getName());
+
+        List<URL> urls = new ArrayList<URL>();
+
+        if (loader instanceof URLClassLoader) {
+            urls.addAll(Arrays.asList(((URLClassLoader) loader).getURLs()));
+        } else if (loader instanceof VClassLoader) {
+            VClassLoader vLoader = (VClassLoader) loader;
+
+            urls.addAll(vLoader.getURLs());
+
+            // classes compiled from session code
+            for (Map.Entry<String, Class<?>> e : new TreeMap<String, Class<?>>(
+                    vLoader.getClasses()).entrySet()) {
+                sb.append('\u0000').append(e.getKey()).
+                        append(':').append(getFingerprint(e.getValue()));
+            }
+        }
+
+        for (URL url : urls) {
+            sb.append('\u0000').append(url);
+
+            File f = toFile(url);
+
+            if (f == null) {
+                continue;
+            }
+
+            if (f.isDirectory()) {
+                // project class folders change whenever the project is built
+                sb.append(':').append(getFolderStamp(f));
+            } else {
+                sb.append(':').append(f.length()).
+                        append(':').append(f.lastModified());
+            }
+        }
+    }
+
+    /**
+     * Converts the specified url to a file.
+     *
+     * @param url url
+     * @return the file or <code>null</code> if the specified url does not
+     * denote a local file
+     */
+    private static File toFile(URL url) {
+        if (!"file".equals(url.getProtocol())) {
+            return null;
+        }
+
+        try {
+            return new File(url.toURI());
+        } catch (URISyntaxException ex) {
+            return new File(url.getPath());
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the cache file of the specified key.
+     *
+     * @param key cache key
+     * @return the cache file of the specified key or <code>null</code> if the
+     * cache is disabled
+     */
+    private static File getCacheFile(String key) {
+        File folder = cacheFolder;
+
+        if (folder == null) {
+            return null;
+        }
+
+        return new File(folder, key + ".classes");
+    }
+
+    /**
+     * Loads the entry with the specified key. Invalid entries, e.g., entries
+     * that have been truncated or corrupted, are deleted.
+     *
+     * @param key cache key
+     * @return the entry or <code>null</code> if no valid entry exists
+     */
+    static Entry load(String key) {
+        File f = getCacheFile(key);
+
+        if (f == null || !f.isFile()) {
+            return null;
+        }
+
+        Entry entry = null;
+
+        try {
+            entry = readEntry(f, key);
+        } catch (IOException ex) {
+            // invalid entry
+        } catch (RuntimeException ex) {
+            // invalid entry
+        } catch (OutOfMemoryError ex) {
+            // invalid entry (lengths are validated, but the entry might still
+            // be too large)
+        }
+
+        if (entry == null) {
+            System.out.println(">> removing invalid compiled classes: " + f);
+            f.delete();
+            return null;
+        }
+
+        // entries are evicted in least recently used order
+        f.setLastModified(System.currentTimeMillis());
+
+        return entry;
+    }
+
+    /**
+     * Reads the entry with the specified key from the specified file. All
+     * lengths are validated against the file size before data is allocated.
+     *
+     * @param f cache file
+     * @param key cache key
+     * @return the entry or <code>null</code> if the file does not contain a
+     * valid entry with the specified key
+     * @throws IOException if the file cannot be read or is truncated
+     */
+    private static Entry readEntry(File f, String key) throws IOException {
+        long length = f.length();
+
+        // entries are never larger than the cache
+        if (length > Math.max(maxSize, DEFAULT_MAX_SIZE)
+                || length > Integer.MAX_VALUE) {
+            return null;
+        }
+
+        byte[] data = new byte[(int) length];
+
+        DataInputStream in = new DataInputStream(new FileInputStream(f));
+
+        try {
+            in.readFully(data);
+        } finally {
+            in.close();
+        }
+
+        // available() returns the exact number of remaining bytes
+        in = new DataInputStream(new ByteArrayInputStream(data));
+
+        if (!HEADER.equals(in.readUTF()) || !key.equals(in.readUTF())) {
+            return null;
+        }
+
+        String mainClassName = in.readUTF();
+
+        int n = in.readInt();
+
+        if (n < 0 || n > in.available()) {
+            return null;
+        }
+
+        Map<String, byte[]> classes = new LinkedHashMap<String, byte[]>();
+
+        for (int i = 0; i < n; i++) {
+            String name = in.readUTF();
+            int codeLength = in.readInt();
+
+            if (codeLength < 0 || codeLength > in.available()) {
+                return null;
+            }
+
+            byte[] code = new byte[codeLength];
+            in.readFully(code);
+            classes.put(name, code);
+        }
+
+        if (in.available() != 0 || !classes.containsKey(mainClassName)) {
+            return null;
+        }
+
+        return new Entry(mainClassName, classes);
+    }
+
+    /**
+     * Saves the specified entry and removes least recently used entries if
+     * the cache exceeds its maximum size.
+     *
+     * @param key cache key
+     * @param entry entry to save
+     */
+    static void save(String key, Entry entry) {
+        File f = getCacheFile(key);
+
+        if (f == null) {
+            return;
+        }
+
+        File tmpFile = null;
+
+        DataOutputStream out = null;
+
+        try {
+            f.getParentFile().mkdirs();
+
+            // write to unique tmp file first, other threads and VRL instances
+            // may save or read the same entry
+            tmpFile = File.createTempFile(key + ".", ".tmp",
+                    f.getParentFile());
+
+            out = new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(tmpFile)));
+
+            out.writeUTF(HEADER);
+            out.writeUTF(key);
+            out.writeUTF(entry.getMainClassName());
+            out.writeInt(entry.getClasses().size());
+
+            for (Map.Entry<String, byte[]> e : entry.getClasses().entrySet()) {
+                out.writeUTF(e.getKey());
+                out.writeInt(e.getValue().length);
+                out.write(e.getValue());
+            }
+
+            out.close();
+            out = null;
+
+            try {
+                Files.move(tmpFile.toPath(), f.toPath(),
+                        StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(tmpFile.toPath(), f.toPath(),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException ex) {
+            // cache is optional
+            System.out.println(">> cannot save compiled classes: " + f);
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException ex) {
+                    ex.printStackTrace(System.err);
+                }
+            }
+
+            if (tmpFile != null) {
+                // does nothing if the entry has been moved
+                tmpFile.delete();
+            }
+        }
+
+        evict(f.getParentFile());
+    }
+
+    /**
+     * Removes least recently used entries until the size of the specified
+     * cache folder does not exceed the maximum size.
+     *
+     * @param folder cache folder
+     */
+    private static synchronized void evict(File folder) {
+        File[] files = folder.listFiles();
+
+        if (files == null) {
+            return;
+        }
+
+        long size = 0;
+
+        List<File> entries = new ArrayList<File>();
+
+        for (File f : files) {
+            if (f.getName().endsWith(".classes")) {
+                entries.add(f);
+                size += f.length();
+            }
+        }
+
+        if (size <= maxSize) {
+            return;
+        }
+
+        Collections.sort(entries, new Comparator<File>() {
+            @Override
+            public int compare(File f1, File f2) {
+                return Long.compare(f1.lastModified(), f2.lastModified());
+            }
+        });
+
+        for (File f : entries) {
+            if (size <= maxSize) {
+                break;
+            }
+
+            long length = f.length();
+
+            if (f.delete()) {
+                size -= length;
+            }
+        }
+    }
+
+    /**
+     * Cache entry, i.e., the byte code of all classes generated from one
+     * source.
+     */
+    static final class Entry {
+
+        private final String mainClassName;
+        private final Map<String, byte[]> classes;
+
+        /**
+         * Constructor.
+         *
+         * @param mainClassName name of the class returned by the compiler
+         * @param classes byte code by class name (in definition order)
+         */
+        Entry(String mainClassName, Map<String, byte[]> classes) {
+            this.mainClassName = mainClassName;
+            this.classes = classes;
+        }
+
+        /**
+         * Returns the name of the class returned by the compiler.
+         *
+         * @return the name of the class returned by the compiler
+         */
+        String getMainClassName() {
+            return mainClassName;
+        }
+
+        /**
+         * Returns the byte code by class name.
+         *
+         * @return the byte code by class name
+         */
+        Map<String, byte[]> getClasses() {
+            return classes;
+        }
+    }
+
+    /**
+     * Groovy class loader that records the byte code of all classes it
+     * generates.
+     */
+    static final class RecordingClassLoader extends GroovyClassLoader {
+
+        private final Map<String, byte[]> classes
+                = Collections.synchronizedMap(
+                        new LinkedHashMap<String, byte[]>());
+
+        /**
+         * Constructor.
+         *
+         * @param parent parent class loader
+         * @param config compiler configuration
+         */
+        RecordingClassLoader(ClassLoader parent, CompilerConfiguration config) {
+            super(parent, config);
+        }
+
+        @Override
+        protected ClassCollector createCollector(
+                CompilationUnit unit, SourceUnit su) {
+            return new ClassCollector(new InnerLoader(this), unit, su) {
+                @Override
+                protected Class<?> createClass(
+                        byte[] code, ClassNode classNode) {
+                    classes.put(classNode.getName(), code);
+                    return super.createClass(code, classNode);
+                }
+            };
+        }
+
+        /**
+         * Returns a cache entry that contains the byte code of all generated
+         * classes.
+         *
+         * @param mainClass class returned by the compiler
+         * @return a cache entry that contains the byte code of all generated
+         * classes
+         */
+        Entry toEntry(Class<?> mainClass) {
+            synchronized (classes) {
+                return new Entry(mainClass.getName(),
+                        new LinkedHashMap<String, byte[]>(classes));
+            }
+        }
+    }
+
+    /**
+     * Class loader that defines the classes of a cache entry. Classes of the
+     * entry take precedence over classes of the parent loader (as for classes
+     * compiled by {@link GroovyClassLoader#parseClass(java.lang.String)}).
+     */
+    static final class CachedClassLoader extends GroovyClassLoader {
+
+        private final Map<String, byte[]> classes;
+
+        /**
+         * Constructor.
+         *
+         * @param parent parent class loader
+         * @param config compiler configuration
+         * @param entry cache entry
+         */
+        CachedClassLoader(ClassLoader parent, CompilerConfiguration config,
+                Entry entry) {
+            super(parent, config);
+            this.classes = new HashMap<String, byte[]>(entry.getClasses());
+        }
+
+        /**
+         * Defines the classes of the cache entry and returns the main class.
+         *
+         * @param entry cache entry
+         * @return the main class
+         * @throws ClassNotFoundException if the classes cannot be defined
+         */
+        Class<?> defineClasses(Entry entry) throws ClassNotFoundException {
+            Class<?> result = null;
+
+            for (String name : entry.getClasses().keySet()) {
+                Class<?> c = loadClass(name, false);
+
+                if (name.equals(entry.getMainClassName())) {
+                    result = c;
+                }
+            }
+
+            if (result == null) {
+                throw new ClassNotFoundException(entry.getMainClassName());
+            }
+
+            return result;
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve)
+                throws ClassNotFoundException {
+            synchronized (getClassLoadingLock(name)) {
+                byte[] code = classes.get(name);
+
+                if (code == null) {
+                    return super.loadClass(name, resolve);
+                }
+
+                Class<?> c = findLoadedClass(name);
+
+                if (c == null) {
+                    c = defineClass(name, code, 0, code.length);
+                    setClassCacheEntry(c);
+                }
+
+                if (resolve) {
+                    resolveClass(c);
+                }
+
+                return c;
+            }
+        }
+    }
+}
@@ -85,6 +85,17 @@ import org.codehaus.groovy.control.SourceUnit;
  */
 public final class GroovyCompiler implements eu.mihosoft.vrl.lang.VCompiler {
 
+    /**
+     * configuration used for all compilations (not modified after
+     * initialization)
+     */
+    private static final CompilerConfiguration COMPILER_CONFIG
+            = new CompilerConfiguration();
+
+    static {
+        COMPILER_CONFIG.setSourceEncoding("UTF-8");
+        COMPILER_CONFIG.setTargetBytecode("1.6");
+    }
     private VisualCanvas mainCanvas;
     private ArrayList<String> imports = new ArrayList<String>();
     private boolean catchCompileException = true;
@@ -208,28 +219,24 @@ public final class GroovyCompiler implements eu.mihosoft.vrl.lang.VCompiler {
     public Class<?> compile(String code, VCodeEditor editor) {
         Class<?> result = null;
 
-        GroovyClassLoader gcl;
-        
-        CompilerConfiguration cfg = new CompilerConfiguration();
-        cfg.setSourceEncoding("UTF-8");
-        cfg.setTargetBytecode("1.6");
+        ClassLoader parent;
 
 //        String packageName = VLangUtils.packageNameFromCode(code);
 
         if (mainCanvas != null) {
-            gcl = new GroovyClassLoader(mainCanvas.getClassLoader(),cfg);
+            parent = mainCanvas.getClassLoader();
         } else {
-            gcl = new GroovyClassLoader(VRL.getInternalPluginClassLoader(),cfg);
+            parent = VRL.getInternalPluginClassLoader();
         }
 
-        String codeHeader = "";
+        StringBuilder codeHeader = new StringBuilder();
 //
 //        if (packageName != null && !packageName.equals("")) {
 //            codeHeader = "package " + packageName + ";";
 //        }
 //
         for (String s : getImports()) {
-            codeHeader += s;
+            codeHeader.append(s);
         }
 
 //        code = codeHeader + code;
@@ -256,7 +263,7 @@ public final class GroovyCompiler implements eu.mihosoft.vrl.lang.VCompiler {
         if (catchCompileException) {
             try {
 
-                result = gcl.parseClass(code);
+                result = parseClass(parent, code);
 
                 if (editor != null) {
                     editor.removeErrorNotifiers();
@@ -270,7 +277,7 @@ public final class GroovyCompiler implements eu.mihosoft.vrl.lang.VCompiler {
                 }
             }
         } else {
-            result = gcl.parseClass(code);
+            result = parseClass(parent, code);
 
             if (editor != null) {
                 editor.removeErrorNotifiers();
@@ -280,6 +287,58 @@ public final class GroovyCompiler implements eu.mihosoft.vrl.lang.VCompiler {
         return result;
     }
 
+    /**
+     * Compiles the specified code (including the import header). If the
+     * compiled classes of the code are cached (see
+     * {@link CompiledClassCache}), the classes are defined from the cached
+     * byte code and the code is not compiled.
+     *
+     * @param parent parent class loader
+     * @param code code to compile
+     * @return the class object
+     * @throws CompilationFailedException if the code could not be compiled
+     */
+    private static Class<?> parseClass(ClassLoader parent, String code) {
+
+        if (!CompiledClassCache.isEnabled()) {
+            return new GroovyClassLoader(parent, COMPILER_CONFIG).
+                    parseClass(code);
+        }
+
+        String key = CompiledClassCache.createKey(
+                code, COMPILER_CONFIG.getTargetBytecode(), parent);
+
+        CompiledClassCache.Entry entry = CompiledClassCache.load(key);
+
+        if (entry != null) {
+            try {
+                Class<?> result = new CompiledClassCache.CachedClassLoader(
+                        parent, COMPILER_CONFIG, entry).defineClasses(entry);
+                CompiledClassCache.setFingerprint(result, key);
+                return result;
+            } catch (ClassNotFoundException ex) {
+                System.out.println(
+                        ">> cannot define cached classes, recompiling: "
+                        + ex.getMessage());
+            } catch (LinkageError ex) {
+                System.out.println(
+                        ">> cannot define cached classes, recompiling: "
+                        + ex.getMessage());
+            }
+        }
+
+        CompiledClassCache.RecordingClassLoader gcl
+                = new CompiledClassCache.RecordingClassLoader(
+                        parent, COMPILER_CONFIG);
+
+        Class<?> result = gcl.parseClass(code);
+
+        CompiledClassCache.save(key, gcl.toEntry(result));
+        CompiledClassCache.setFingerprint(result, key);
+
+        return result;
+    }
+
     /**
      * Compiles Groovy code and returns the corresponding class object.
      *
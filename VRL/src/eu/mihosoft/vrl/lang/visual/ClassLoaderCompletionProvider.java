@@ -203,9 +203,11 @@ public class ClassLoaderCompletionProvider extends DefaultCompletionProvider {
     private Collection<Completion> getClassNameCompletions(String text) {
         ArrayList<Completion> result = new ArrayList<Completion>();
 
+        String lowerCaseText = text.toLowerCase();
+
         for (String clsName : loader.getClasses().keySet()) {
 
-            if (clsName.toLowerCase().contains(text.toLowerCase())) {
+            if (clsName.toLowerCase().contains(lowerCaseText)) {
 
                 result.add(
                         new VBasicCompletion(
@@ -214,15 +216,12 @@ public class ClassLoaderCompletionProvider extends DefaultCompletionProvider {
             }
         }
 
-        for (String clsName : CompletionUtil.getCompletionList().getClassNames()) {
-
-            if (clsName.toLowerCase().contains(text.toLowerCase())) {
+        for (String clsName : CompletionUtil.getClassNamesContaining(text)) {
 
-                result.add(
-                        new VBasicCompletion(
-                        this, clsName,
-                        clsName, CompletionType.CLASS));
-            }
+            result.add(
+                    new VBasicCompletion(
+                    this, clsName,
+                    clsName, CompletionType.CLASS));
         }
 
         return result;
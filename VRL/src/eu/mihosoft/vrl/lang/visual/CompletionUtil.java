@@ -58,11 +58,11 @@ package eu.mihosoft.vrl.lang.visual;
 import eu.mihosoft.vrl.io.VJarUtil;
 import eu.mihosoft.vrl.system.VTerminalUtil;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.jar.JarInputStream;
+import java.util.Collections;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -74,7 +74,7 @@ public class CompletionUtil {
 
     private final static Collection<ClassCompletionList> completionLists
             = new ArrayList<ClassCompletionList>();
-    private static ClassCompletionList completionListGroup
+    private static ClassCompletionListGroupImpl completionListGroup
             = new ClassCompletionListGroupImpl(completionLists);
 
     static {
@@ -121,6 +121,18 @@ public class CompletionUtil {
         return completionListGroup;
     }
 
+    /**
+     * Returns the names of all registered classes that contain the specified
+     * text (ignoring case). Inner classes are ignored.
+     *
+     * @param text text to search
+     * @return the names of all registered classes that contain the specified
+     * text
+     */
+    public static Collection<String> getClassNamesContaining(String text) {
+        return completionListGroup.getClassNamesContaining(text);
+    }
+
     public static void registerClassesFromJar(File f) {
         register(new JarClassCompletionList(f));
     }
@@ -146,10 +158,8 @@ class JarClassCompletionList implements ClassCompletionList {
 
     public JarClassCompletionList(File jarFile) {
         try {
-            classes
-                    = VJarUtil.getClassNamesFromStream(
-                            new JarInputStream(new FileInputStream(jarFile)));
-
+            // uses the jar index, i.e., the jar is only scanned if modified
+            classes = VJarUtil.getClassNamesFromJar(jarFile);
         } catch (IOException ex) {
             Logger.getLogger(JarClassCompletionList.class.getName()).
                     log(Level.SEVERE, null, ex);
@@ -162,26 +172,71 @@ class JarClassCompletionList implements ClassCompletionList {
     }
 }
 
+/**
+ * Group of class completion lists. The class names of the lists are collected
+ * on first access. Therefore, lists that are modified after first access have
+ * to be registered again.
+ */
 class ClassCompletionListGroupImpl implements ClassCompletionList {
 
     private Collection<ClassCompletionList> completionLists;
+    private List<String> classNames;
+    private String[] lowerCaseClassNames;
 
     public ClassCompletionListGroupImpl(Collection<ClassCompletionList> completionLists) {
         this.completionLists = completionLists;
     }
 
-    @Override
-    public Collection<String> getClassNames() {
-        Collection<String> classNames = new ArrayList<String>();
+    private synchronized void collectClassNames() {
+        if (classNames != null) {
+            return;
+        }
+
+        List<String> names = new ArrayList<String>();
 
         for (ClassCompletionList list : completionLists) {
             for (String n : list.getClassNames()) {
                 if (!n.contains("$")) {
-                    classNames.add(n);
+                    names.add(n);
                 }
             }
         }
 
+        lowerCaseClassNames = new String[names.size()];
+
+        for (int i = 0; i < lowerCaseClassNames.length; i++) {
+            lowerCaseClassNames[i] = names.get(i).toLowerCase();
+        }
+
+        classNames = Collections.unmodifiableList(names);
+    }
+
+    @Override
+    public Collection<String> getClassNames() {
+        collectClassNames();
         return classNames;
     }
+
+    /**
+     * Returns all class names that contain the specified text (ignoring
+     * case).
+     *
+     * @param text text to search
+     * @return all class names that contain the specified text
+     */
+    public Collection<String> getClassNamesContaining(String text) {
+        collectClassNames();
+
+        String lowerCaseText = text.toLowerCase();
+
+        Collection<String> result = new ArrayList<String>();
+
+        for (int i = 0; i < lowerCaseClassNames.length; i++) {
+            if (lowerCaseClassNames[i].contains(lowerCaseText)) {
+                result.add(classNames.get(i));
+            }
+        }
+
+        return result;
+    }
 }
@@ -0,0 +1,284 @@
+/* 
+ * DoubleFunctionCompiler.java
+ * 
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2007–2018 by Michael Hoffer,
+ * Copyright (c) 2015–2018 G-CSC, Uni Frankfurt,
+ * Copyright (c) 2009–2015 Steinbeis Forschungszentrum (STZ Ölbronn)
+ * 
+ * This file is part of Visual Reflection Library (VRL).
+ *
+ * VRL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * see: http://opensource.org/licenses/LGPL-3.0
+ *      file://path/to/VRL/src/eu/mihosoft/vrl/resources/license/lgplv3.txt
+ *
+ * VRL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * This version of VRL includes copyright notice and attribution requirements.
+ * According to the LGPL this information must be displayed even if you modify
+ * the source code of VRL. Neither the VRL Canvas attribution icon nor any
+ * copyright statement/attribution may be removed.
+ *
+ * Attribution Requirements:
+ *
+ * If you create derived work you must do three things regarding copyright
+ * notice and author attribution.
+ *
+ * First, the following text must be displayed on the Canvas:
+ * "based on VRL source code". In this case the VRL canvas icon must be removed.
+ * 
+ * Second, the copyright notice must remain. It must be reproduced in any
+ * program that uses VRL.
+ *
+ * Third, add an additional notice, stating that you modified VRL. A suitable
+ * notice might read
+ * "VRL source code modified by YourName 2012".
+ * 
+ * Note, that these requirements are in full accordance with the LGPL v3
+ * (see 7. Additional Terms, b).
+ *
+ * Please cite the publication(s) listed below.
+ *
+ * Publications:
+ *
+ * M. Hoffer, C. Poliwoda, & G. Wittum. (2013). Visual reflection library:
+ * a framework for declarative GUI programming on the Java platform.
+ * Computing and Visualization in Science, 2013, 16(4),
+ * 181–192. http://doi.org/10.1007/s00791-014-0230-y
+ */
+
+package eu.mihosoft.vrl.math;
+
+import groovy.lang.GroovyClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * Compiles function expressions to classes that implement
+ * {@link DoubleFunction1D}, {@link DoubleFunction2D} or
+ * {@link DoubleFunction3D}. Expressions are compiled statically, i.e., the
+ * generated bytecode uses primitive <code>double</code> arithmetic and calls
+ * the functions of <code>java.lang.Math</code> directly.
+ * </p>
+ * <p>
+ * Expressions that cannot be compiled statically (e.g. because they use
+ * dynamic Groovy features) are rejected. In this case the Groovy script based
+ * evaluation has to be used.
+ * </p>
+ * <p>
+ * Compiled functions are cached (per expression and variable names).
+ * </p>
+ *
+ * @author Michael Hoffer &lt;info@michaelhoffer.de&gt;
+ */
+final class DoubleFunctionCompiler {
+
+    /**
+     * maximum number of cached functions
+     */
+    private static final int MAX_CACHE_SIZE = 64;
+    /**
+     * placeholder for failed compilations
+     */
+    private static final Object FAILED = new Object();
+    private static final Map<List<Object>, Object> cache
+            = new LinkedHashMap<List<Object>, Object>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(
+                        Map.Entry<List<Object>, Object> eldest) {
+                    return size() > MAX_CACHE_SIZE;
+                }
+            };
+
+    // no instanciation allowed
+    private DoubleFunctionCompiler() {
+        throw new AssertionError(); // not in this class either!
+    }
+
+    /**
+     * Compiles the specified expression.
+     *
+     * @param expression expression
+     * @param xVarName name of the x variable
+     * @return the compiled function or <code>null</code> if the expression
+     * cannot be compiled
+     */
+    static DoubleFunction1D compile1D(String expression, String xVarName) {
+        return (DoubleFunction1D) compile(
+                DoubleFunction1D.class, expression, xVarName);
+    }
+
+    /**
+     * Compiles the specified expression.
+     *
+     * @param expression expression
+     * @param xVarName name of the x variable
+     * @param yVarName name of the y variable
+     * @return the compiled function or <code>null</code> if the expression
+     * cannot be compiled
+     */
+    static DoubleFunction2D compile2D(String expression,
+            String xVarName, String yVarName) {
+        return (DoubleFunction2D) compile(
+                DoubleFunction2D.class, expression, xVarName, yVarName);
+    }
+
+    /**
+     * Compiles the specified expression.
+     *
+     * @param expression expression
+     * @param xVarName name of the x variable
+     * @param yVarName name of the y variable
+     * @param zVarName name of the z variable
+     * @return the compiled function or <code>null</code> if the expression
+     * cannot be compiled
+     */
+    static DoubleFunction3D compile3D(String expression,
+            String xVarName, String yVarName, String zVarName) {
+        return (DoubleFunction3D) compile(DoubleFunction3D.class,
+                expression, xVarName, yVarName, zVarName);
+    }
+
+    /**
+     * Compiles the specified expression.
+     *
+     * @param functionInterface function interface
+     * @param expression expression
+     * @param varNames names of the variables (in parameter order)
+     * @return the compiled function or <code>null</code> if the expression
+     * cannot be compiled
+     */
+    private static Object compile(Class<?> functionInterface,
+            String expression, String... varNames) {
+
+        if (expression == null) {
+            return null;
+        }
+
+        for (String n : varNames) {
+            if (!isIdentifier(n)) {
+                return null;
+            }
+        }
+
+        List<Object> key = new ArrayList<Object>();
+        key.add(functionInterface);
+        key.add(expression);
+        key.addAll(Arrays.asList(varNames));
+
+        Object f;
+
+        synchronized (cache) {
+            f = cache.get(key);
+        }
+
+        if (f == null) {
+            // compilation is slow, the cache is not locked while compiling
+            // (concurrent compilations of the same expression are possible
+            // but harmless)
+            f = compile(functionInterface,
+                    createSource(functionInterface, expression, varNames));
+
+            synchronized (cache) {
+                Object cached = cache.get(key);
+
+                if (cached == null) {
+                    cache.put(key, f == null ? FAILED : f);
+                } else {
+                    f = cached;
+                }
+            }
+        }
+
+        return f == FAILED ? null : f;
+    }
+
+    /**
+     * Compiles the specified source code and creates an instance of the
+     * compiled class.
+     *
+     * @param functionInterface function interface
+     * @param source source code
+     * @return an instance of the compiled class or <code>null</code> if the
+     * source code cannot be compiled
+     */
+    private static Object compile(Class<?> functionInterface, String source) {
+        GroovyClassLoader gcl = new GroovyClassLoader(
+                DoubleFunctionCompiler.class.getClassLoader());
+
+        try {
+            Class<?> cls = gcl.parseClass(source);
+
+            return functionInterface.cast(cls.getDeclaredConstructor().newInstance());
+        } catch (Throwable tr) {
+            // not statically compilable, the script based evaluation
+            // is used instead
+            return null;
+        }
+    }
+
+    /**
+     * Creates the source code of the specified function.
+     *
+     * @param functionInterface function interface
+     * @param expression expression
+     * @param varNames names of the variables (in parameter order)
+     * @return the source code of the specified function
+     */
+    private static String createSource(Class<?> functionInterface,
+            String expression, String... varNames) {
+
+        StringBuilder params = new StringBuilder();
+
+        for (String n : varNames) {
+            if (params.length() > 0) {
+                params.append(", ");
+            }
+            params.append("double ").append(n);
+        }
+
+        return "import static java.lang.Math.*\n"
+                + "@groovy.transform.CompileStatic\n"
+                + "class CompiledFunction implements "
+                + functionInterface.getName() + " {\n"
+                + "    double eval(" + params + ") {\n"
+                + "        return ((" + expression + ") as double)\n"
+                + "    }\n"
+                + "}\n";
+    }
+
+    /**
+     * Indicates whether the specified name is a valid identifier.
+     *
+     * @param name name to check
+     * @return <code>true</code> if the specified name is a valid identifier;
+     * <code>false</code> otherwise
+     */
+    private static boolean isIdentifier(String name) {
+        if (name == null || name.isEmpty()
+                || !Character.isJavaIdentifierStart(name.charAt(0))) {
+            return false;
+        }
+
+        for (int i = 1; i < name.length(); i++) {
+            if (!Character.isJavaIdentifierPart(name.charAt(i))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,354 @@
+/* 
+ * FunctionSampler.java
+ * 
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2007–2018 by Michael Hoffer,
+ * Copyright (c) 2015–2018 G-CSC, Uni Frankfurt,
+ * Copyright (c) 2009–2015 Steinbeis Forschungszentrum (STZ Ölbronn)
+ * 
+ * This file is part of Visual Reflection Library (VRL).
+ *
+ * VRL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * see: http://opensource.org/licenses/LGPL-3.0
+ *      file://path/to/VRL/src/eu/mihosoft/vrl/resources/license/lgplv3.txt
+ *
+ * VRL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * This version of VRL includes copyright notice and attribution requirements.
+ * According to the LGPL this information must be displayed even if you modify
+ * the source code of VRL. Neither the VRL Canvas attribution icon nor any
+ * copyright statement/attribution may be removed.
+ *
+ * Attribution Requirements:
+ *
+ * If you create derived work you must do three things regarding copyright
+ * notice and author attribution.
+ *
+ * First, the following text must be displayed on the Canvas:
+ * "based on VRL source code". In this case the VRL canvas icon must be removed.
+ * 
+ * Second, the copyright notice must remain. It must be reproduced in any
+ * program that uses VRL.
+ *
+ * Third, add an additional notice, stating that you modified VRL. A suitable
+ * notice might read
+ * "VRL source code modified by YourName 2012".
+ * 
+ * Note, that these requirements are in full accordance with the LGPL v3
+ * (see 7. Additional Terms, b).
+ *
+ * Please cite the publication(s) listed below.
+ *
+ * Publications:
+ *
+ * M. Hoffer, C. Poliwoda, & G. Wittum. (2013). Visual reflection library:
+ * a framework for declarative GUI programming on the Java platform.
+ * Computing and Visualization in Science, 2013, 16(4),
+ * 181–192. http://doi.org/10.1007/s00791-014-0230-y
+ */
+
+package eu.mihosoft.vrl.math;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <p>
+ * Evaluates functions on primitive arrays and grids, e.g., for plotting.
+ * Large grids (at least {@link #PARALLEL_THRESHOLD} points) are evaluated in
+ * parallel.
+ * </p>
+ * <p>
+ * Example:
+ * <pre>
+ * <code>
+ * GroovyFunction2D f = new GroovyFunction2D("sin(sqrt(x*x+y*y))");
+ * double[] x = FunctionSampler.linspace(-10, 10, 1000);
+ * double[] y = FunctionSampler.linspace(-10, 10, 1000);
+ * double[][] z = FunctionSampler.sample(f, x, y);
+ * </code>
+ * </pre>
+ * </p>
+ *
+ * @author Michael Hoffer &lt;info@michaelhoffer.de&gt;
+ */
+public final class FunctionSampler {
+
+    /**
+     * minimum number of points that are evaluated in parallel
+     */
+    public static final int PARALLEL_THRESHOLD = 10000;
+    /**
+     * number of values per part (one dimensional sampling)
+     */
+    private static final int BLOCK_SIZE = 1000;
+    private static ExecutorService executor;
+
+    // no instanciation allowed
+    private FunctionSampler() {
+        throw new AssertionError(); // not in this class either!
+    }
+
+    /**
+     * Returns <code>n</code> equally spaced values from <code>min</code> to
+     * <code>max</code> (inclusive).
+     *
+     * @param min first value
+     * @param max last value
+     * @param n number of values
+     * @return <code>n</code> equally spaced values
+     */
+    public static double[] linspace(double min, double max, int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException(
+                    "Number of values must not be negative!");
+        }
+
+        double[] result = new double[n];
+
+        if (n == 1) {
+            result[0] = min;
+        } else {
+            double step = (max - min) / (n - 1);
+
+            for (int i = 0; i < n; i++) {
+                result[i] = min + i * step;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Evaluates the specified function for all specified values.
+     *
+     * @param f function to evaluate
+     * @param x input values
+     * @return the function output, i.e., <code>result[i] = f(x[i])</code>
+     */
+    public static double[] sample(final DoubleFunction1D f, final double[] x) {
+        final double[] result = new double[x.length];
+
+        final int numberOfBlocks = (x.length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+
+        execute(numberOfBlocks, x.length, new Task() {
+            @Override
+            public void run(int block) {
+                int start = block * BLOCK_SIZE;
+                int end = Math.min(x.length, start + BLOCK_SIZE);
+
+                for (int i = start; i < end; i++) {
+                    result[i] = f.eval(x[i]);
+                }
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Evaluates the specified function on the grid defined by the specified
+     * values.
+     *
+     * @param f function to evaluate
+     * @param x input values of the first dimension
+     * @param y input values of the second dimension
+     * @return the function output, i.e.,
+     * <code>result[i][j] = f(x[i], y[j])</code>
+     */
+    public static double[][] sample(final DoubleFunction2D f,
+            final double[] x, final double[] y) {
+        final double[][] result = new double[x.length][y.length];
+
+        execute(x.length, (long) x.length * y.length, new Task() {
+            @Override
+            public void run(int i) {
+                double[] row = result[i];
+                double xi = x[i];
+
+                for (int j = 0; j < y.length; j++) {
+                    row[j] = f.eval(xi, y[j]);
+                }
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Evaluates the specified function on the grid defined by the specified
+     * values.
+     *
+     * @param f function to evaluate
+     * @param x input values of the first dimension
+     * @param y input values of the second dimension
+     * @param z input values of the third dimension
+     * @return the function output, i.e.,
+     * <code>result[i][j][k] = f(x[i], y[j], z[k])</code>
+     */
+    public static double[][][] sample(final DoubleFunction3D f,
+            final double[] x, final double[] y, final double[] z) {
+        final double[][][] result = new double[x.length][y.length][z.length];
+
+        execute(x.length, (long) x.length * y.length * z.length, new Task() {
+            @Override
+            public void run(int i) {
+                double xi = x[i];
+
+                for (int j = 0; j < y.length; j++) {
+                    double[] row = result[i][j];
+                    double yj = y[j];
+
+                    for (int k = 0; k < z.length; k++) {
+                        row[k] = f.eval(xi, yj, z[k]);
+                    }
+                }
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Sampling task.
+     */
+    private interface Task {
+
+        /**
+         * Evaluates the specified part of the grid.
+         *
+         * @param i index of the part
+         */
+        void run(int i);
+    }
+
+    /**
+     * Executes the specified task for all parts of the grid. If the grid is
+     * large enough, the parts are evaluated in parallel.
+     *
+     * @param numberOfParts number of parts
+     * @param numberOfPoints number of grid points
+     * @param task task
+     */
+    private static void execute(final int numberOfParts, long numberOfPoints,
+            final Task task) {
+
+        int numberOfThreads = Math.min(numberOfParts,
+                Runtime.getRuntime().availableProcessors());
+
+        if (numberOfPoints < PARALLEL_THRESHOLD || numberOfThreads < 2) {
+            for (int i = 0; i < numberOfParts; i++) {
+                task.run(i);
+            }
+            return;
+        }
+
+        // parts are assigned dynamically since evaluation costs may vary
+        final AtomicInteger nextPart = new AtomicInteger();
+        // counts the parts that have not been completed yet
+        final CountDownLatch remainingParts = new CountDownLatch(numberOfParts);
+        final AtomicReference<Throwable> failure
+                = new AtomicReference<Throwable>();
+
+        final Runnable worker = new Runnable() {
+            @Override
+            public void run() {
+                int i;
+                while ((i = nextPart.getAndIncrement()) < numberOfParts) {
+                    try {
+                        task.run(i);
+                    } catch (Throwable tr) {
+                        failure.compareAndSet(null, tr);
+                    } finally {
+                        remainingParts.countDown();
+                    }
+                }
+            }
+        };
+
+        List<AtomicBoolean> startedFlags = new ArrayList<AtomicBoolean>();
+
+        for (int t = 1; t < numberOfThreads; t++) {
+            final AtomicBoolean started = new AtomicBoolean();
+            startedFlags.add(started);
+
+            getExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (started.compareAndSet(false, true)) {
+                        worker.run();
+                    }
+                }
+            });
+        }
+
+        // the calling thread participates
+        worker.run();
+
+        // all parts have been claimed. workers that have not been started
+        // yet are cancelled. otherwise, nested calls from pool threads would
+        // wait for workers that are queued behind them (deadlock). parts
+        // claimed by running workers are awaited below
+        for (AtomicBoolean started : startedFlags) {
+            started.set(true);
+        }
+
+        try {
+            remainingParts.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(
+                    "Interrupted while evaluating function", ex);
+        }
+
+        Throwable tr = failure.get();
+
+        if (tr instanceof RuntimeException) {
+            throw (RuntimeException) tr;
+        } else if (tr instanceof Error) {
+            throw (Error) tr;
+        } else if (tr != null) {
+            throw new IllegalStateException("Cannot evaluate function", tr);
+        }
+    }
+
+    /**
+     * Returns the executor that is used for parallel evaluation.
+     *
+     * @return the executor that is used for parallel evaluation
+     */
+    private static synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(
+                    Runtime.getRuntime().availableProcessors(),
+                    new ThreadFactory() {
+                        private final AtomicInteger count
+                                = new AtomicInteger();
+
+                        @Override
+                        public Thread newThread(Runnable r) {
+                            Thread t = new Thread(r,
+                                    "VRL-Function-" + count.incrementAndGet());
+                            t.setDaemon(true);
+                            return t;
+                        }
+                    });
+        }
+
+        return executor;
+    }
+}
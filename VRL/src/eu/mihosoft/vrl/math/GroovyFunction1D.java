@@ -81,11 +81,13 @@ import java.io.Serializable;
  * </p>
  * @author Michael Hoffer &lt;info@michaelhoffer.de&gt;
  */
-public class GroovyFunction1D implements Serializable, Function1D {
+public class GroovyFunction1D implements Serializable, Function1D,
+        DoubleFunction1D {
 
     private static final long serialVersionUID = -9203551757468880846L;
     private String expression;
     private transient Script script;
+    private transient DoubleFunction1D compiledFunction;
     private String xVarName = "x";
 
     /**
@@ -127,6 +129,7 @@ public class GroovyFunction1D implements Serializable, Function1D {
      */
     public void setExpression(String expression) {
         this.expression = expression;
+        this.compiledFunction = null;
         GroovyShell shell = new GroovyShell();
         script = shell.parse("import static java.lang.Math.*; result = (" +
                 expression + ") as Double");
@@ -141,6 +144,44 @@ public class GroovyFunction1D implements Serializable, Function1D {
         return (Double) getScript().getProperty("result");
     }
 
+    @Override
+    public double eval(double x) {
+        return getCompiledFunction().eval(x);
+    }
+
+    /**
+     * Returns the compiled function. The expression is compiled to bytecode
+     * that uses primitive <code>double</code> values, which is significantly
+     * faster than evaluating the groovy script. Expressions that cannot be
+     * compiled statically are evaluated via the groovy script.
+     * @return the compiled function
+     */
+    public DoubleFunction1D getCompiledFunction() {
+        DoubleFunction1D f = compiledFunction;
+
+        if (f == null) {
+            f = DoubleFunctionCompiler.compile1D(getExpression(),
+                    getXVarName());
+
+            if (f == null) {
+                f = new DoubleFunction1D() {
+                    @Override
+                    public double eval(double x) {
+                        // the script is not thread-safe
+                        synchronized (GroovyFunction1D.this) {
+                            Double result = run(x);
+                            return result == null ? Double.NaN : result;
+                        }
+                    }
+                };
+            }
+
+            compiledFunction = f;
+        }
+
+        return f;
+    }
+
     /**
      * Returns the groovy script that is used to evaluate the expression.
      * @return the groovy script that is used to evaluate the expression
@@ -161,5 +202,6 @@ public class GroovyFunction1D implements Serializable, Function1D {
      */
     public void setXVarName(String xValueName) {
         this.xVarName = xValueName;
+        this.compiledFunction = null;
     }
 }
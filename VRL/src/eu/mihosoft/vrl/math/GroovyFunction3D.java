@@ -76,11 +76,13 @@ import java.util.HashMap;
  *
  * @author Michael Hoffer &lt;info@michaelhoffer.de&gt;
  */
-public class GroovyFunction3D implements Serializable, Function3D {
+public class GroovyFunction3D implements Serializable, Function3D,
+        DoubleFunction3D {
 
     private static final long serialVersionUID = -9203551757468880846L;
     private String expression;
     private transient Script script;
+    private transient DoubleFunction3D compiledFunction;
     private String xVarName = "x";
     private String yVarName = "y";
     private String zVarName = "z";
@@ -132,6 +134,7 @@ public class GroovyFunction3D implements Serializable, Function3D {
      */
     public void setExpression(String expression) {
         this.expression = expression;
+        this.compiledFunction = null;
         GroovyShell shell = new GroovyShell();
         script = shell.parse("import static java.lang.Math.*; result = ("
                 + expression + ") as Double");
@@ -148,6 +151,45 @@ public class GroovyFunction3D implements Serializable, Function3D {
         return (Double) getScript().getProperty("result");
     }
 
+    @Override
+    public double eval(double x, double y, double z) {
+        return getCompiledFunction().eval(x, y, z);
+    }
+
+    /**
+     * Returns the compiled function. The expression is compiled to bytecode
+     * that uses primitive <code>double</code> values, which is significantly
+     * faster than evaluating the groovy script. Expressions that cannot be
+     * compiled statically are evaluated via the groovy script.
+     *
+     * @return the compiled function
+     */
+    public DoubleFunction3D getCompiledFunction() {
+        DoubleFunction3D f = compiledFunction;
+
+        if (f == null) {
+            f = DoubleFunctionCompiler.compile3D(getExpression(),
+                    getXVarName(), getYVarName(), getZVarName());
+
+            if (f == null) {
+                f = new DoubleFunction3D() {
+                    @Override
+                    public double eval(double x, double y, double z) {
+                        // the script is not thread-safe
+                        synchronized (GroovyFunction3D.this) {
+                            Double result = run(x, y, z);
+                            return result == null ? Double.NaN : result;
+                        }
+                    }
+                };
+            }
+
+            compiledFunction = f;
+        }
+
+        return f;
+    }
+
     /**
      * Returns the groovy script that is used to evaluate the expression.
      *
@@ -169,6 +211,7 @@ public class GroovyFunction3D implements Serializable, Function3D {
      */
     public void setXVarName(String xValueName) {
         this.xVarName = xValueName;
+        this.compiledFunction = null;
     }
 
     /**
@@ -183,6 +226,7 @@ public class GroovyFunction3D implements Serializable, Function3D {
      */
     public void setYVarName(String yValueName) {
         this.yVarName = yValueName;
+        this.compiledFunction = null;
     }
 
     /**
@@ -197,5 +241,6 @@ public class GroovyFunction3D implements Serializable, Function3D {
      */
     public void setZVarName(String zValueName) {
         this.zVarName = zValueName;
+        this.compiledFunction = null;
     }
 }
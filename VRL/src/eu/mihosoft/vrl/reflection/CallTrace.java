@@ -72,7 +72,7 @@ public class CallTrace {
      * Add a method call to the trace.
      * @param o the object that is to be added to the trace
      */
-    public void addCall(Object o) {
+    synchronized public void addCall(Object o) {
         getCallStack().add(o);
     }
 
@@ -83,14 +83,14 @@ public class CallTrace {
      * @return <code>true</code> if the object is in the trace; <code> false
      *                 </code> otherwise
      */
-    public boolean isInTrace(Object o) {
+    synchronized public boolean isInTrace(Object o) {
         return getCallStack().contains(o);
     }
 
     /**
      * Clears the trace (no elements will remain).
      */
-    public void clear() {
+    synchronized public void clear() {
         getCallStack().clear();
     }
 
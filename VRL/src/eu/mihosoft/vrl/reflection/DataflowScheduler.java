@@ -0,0 +1,459 @@
+/* 
+ * DataflowScheduler.java
+ * 
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2007–2018 by Michael Hoffer,
+ * Copyright (c) 2015–2018 G-CSC, Uni Frankfurt,
+ * Copyright (c) 2009–2015 Steinbeis Forschungszentrum (STZ Ölbronn)
+ * 
+ * This file is part of Visual Reflection Library (VRL).
+ *
+ * VRL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * see: http://opensource.org/licenses/LGPL-3.0
+ *      file://path/to/VRL/src/eu/mihosoft/vrl/resources/license/lgplv3.txt
+ *
+ * VRL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * This version of VRL includes copyright notice and attribution requirements.
+ * According to the LGPL this information must be displayed even if you modify
+ * the source code of VRL. Neither the VRL Canvas attribution icon nor any
+ * copyright statement/attribution may be removed.
+ *
+ * Attribution Requirements:
+ *
+ * If you create derived work you must do three things regarding copyright
+ * notice and author attribution.
+ *
+ * First, the following text must be displayed on the Canvas:
+ * "based on VRL source code". In this case the VRL canvas icon must be removed.
+ * 
+ * Second, the copyright notice must remain. It must be reproduced in any
+ * program that uses VRL.
+ *
+ * Third, add an additional notice, stating that you modified VRL. A suitable
+ * notice might read
+ * "VRL source code modified by YourName 2012".
+ * 
+ * Note, that these requirements are in full accordance with the LGPL v3
+ * (see 7. Additional Terms, b).
+ *
+ * Please cite the publication(s) listed below.
+ *
+ * Publications:
+ *
+ * M. Hoffer, C. Poliwoda, & G. Wittum. (2013). Visual reflection library:
+ * a framework for declarative GUI programming on the Java platform.
+ * Computing and Visualization in Science, 2013, 16(4),
+ * 181–192. http://doi.org/10.1007/s00791-014-0230-y
+ */
+
+package eu.mihosoft.vrl.reflection;
+
+import eu.mihosoft.vrl.system.VThread;
+import eu.mihosoft.vrl.visual.Connection;
+import eu.mihosoft.vrl.visual.Connections;
+import eu.mihosoft.vrl.visual.MessageBox;
+import eu.mihosoft.vrl.visual.MessageType;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <p>
+ * Invokes the outdated upstream methods of a method before it is invoked.
+ * </p>
+ * <p>
+ * Without a scheduler each input connector recursively invokes its outdated
+ * sender methods one after another (see
+ * {@link VConnector#receiveData(boolean, CallTrace)}). The scheduler builds
+ * the dependency graph of all outdated upstream methods from the data
+ * connections instead. Circular dependencies are detected before any method
+ * is invoked. They are reported to the message box and the edge that closes
+ * the cycle is ignored, i.e., the affected method uses its current input
+ * value (as it would after the circular call has been rejected). Each
+ * upstream method is invoked once, after all of its own upstream methods
+ * have been invoked. Independent methods are invoked concurrently.
+ * </p>
+ * <p>
+ * The scheduler is only used if the data processing mode of the canvas is not
+ * {@link eu.mihosoft.vrl.visual.DataProcessingMode#UPDATE_OFF}. Whether a
+ * method is outdated is decided exactly as without scheduler, i.e., in
+ * {@link eu.mihosoft.vrl.visual.DataProcessingMode#ALWAYS_INVOKE} mode all
+ * upstream methods are invoked. Errors of upstream methods are logged and do
+ * not prevent the invocation of dependent methods.
+ * </p>
+ * <p>
+ * <b>Note:</b> methods invoked concurrently update their type representations
+ * from worker threads. Only enable parallel invocation for sessions whose
+ * components can be invoked from several threads.
+ * </p>
+ *
+ * @author Michael Hoffer &lt;info@michaelhoffer.de&gt;
+ * @see VisualCanvas#setDataflowScheduler(DataflowScheduler)
+ */
+public class DataflowScheduler {
+
+    /**
+     * indicates whether the current thread is a worker of a scheduler
+     */
+    private static final ThreadLocal<Boolean> worker
+            = new ThreadLocal<Boolean>();
+    private final int numberOfThreads;
+    private ThreadPoolExecutor pool;
+
+    /**
+     * Constructor. Uses one thread per available processor.
+     */
+    public DataflowScheduler() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param numberOfThreads maximum number of methods that are invoked
+     * concurrently (<code>1</code> invokes all upstream methods sequentially
+     * on the calling thread)
+     */
+    public DataflowScheduler(int numberOfThreads) {
+        if (numberOfThreads < 1) {
+            throw new IllegalArgumentException(
+                    "At least one thread is required!");
+        }
+        this.numberOfThreads = numberOfThreads;
+    }
+
+    /**
+     * Returns the maximum number of methods that are invoked concurrently.
+     *
+     * @return the maximum number of methods that are invoked concurrently
+     */
+    public int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+    /**
+     * Stops the worker threads of this scheduler. Idle workers are stopped
+     * automatically. Thus, calling this method is optional. The scheduler can
+     * be used after calling this method.
+     */
+    public synchronized void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+    }
+
+    /**
+     * Invokes all outdated upstream methods of the specified method. Invoked
+     * methods are added to the specified call trace.
+     *
+     * @param m the method whose upstream methods shall be invoked
+     * @param methodDependencies the method dependencies
+     */
+    void invokeUpstream(DefaultMethodRepresentation m,
+            CallTrace methodDependencies) {
+
+        Map<DefaultMethodRepresentation, Node> nodes
+                = new LinkedHashMap<DefaultMethodRepresentation, Node>();
+
+        Set<DefaultMethodRepresentation> path
+                = Collections.newSetFromMap(
+                        new IdentityHashMap<DefaultMethodRepresentation, Boolean>());
+
+        path.add(m);
+
+        collectUpstream(m, null, nodes, path);
+
+        if (nodes.isEmpty()) {
+            return;
+        }
+
+        if (numberOfThreads == 1 || nodes.size() == 1
+                || Boolean.TRUE.equals(worker.get())) {
+            invokeSequentially(nodes, methodDependencies);
+        } else {
+            invokeConcurrently(nodes, methodDependencies);
+        }
+    }
+
+    /**
+     * Collects the outdated upstream methods of the specified method (depth
+     * first).
+     *
+     * @param m method
+     * @param node node of the method (<code>null</code> for the method that
+     * initiated the invocation)
+     * @param nodes collected nodes
+     * @param path methods on the current search path
+     */
+    private void collectUpstream(DefaultMethodRepresentation m, Node node,
+            Map<DefaultMethodRepresentation, Node> nodes,
+            Set<DefaultMethodRepresentation> path) {
+
+        Connections connections
+                = m.getParentObject().getMainCanvas().getDataConnections();
+
+        for (VConnector c : m.getConnectors()) {
+
+            if (!c.isInput()) {
+                continue;
+            }
+
+            for (Connection connection : connections.getAllWith(c)) {
+                TypeRepresentationContainer senderValueObject
+                        = (TypeRepresentationContainer) connection.
+                        getSender().getValueObject();
+
+                boolean isUpToDate = senderValueObject.getTypeRepresentation().
+                        isReturnTypeUpToDate();
+
+                if (isUpToDate) {
+                    continue;
+                }
+
+                DefaultMethodRepresentation sender
+                        = senderValueObject.getMethod();
+
+                // methods without inputs cannot produce circular calls
+                if (path.contains(sender) && sender.hasInputs()) {
+                    reportCircularCall(sender);
+                    continue;
+                }
+
+                Node senderNode = nodes.get(sender);
+
+                if (senderNode == null) {
+                    senderNode = new Node(sender);
+                    nodes.put(sender, senderNode);
+
+                    path.add(sender);
+                    collectUpstream(sender, senderNode, nodes, path);
+                    path.remove(sender);
+                }
+
+                if (node != null && senderNode != node
+                        && !node.dependencies.contains(senderNode)) {
+                    node.dependencies.add(senderNode);
+                    senderNode.dependents.add(node);
+                }
+            }
+        }
+    }
+
+    /**
+     * Invokes the specified nodes in topological order on the calling thread.
+     *
+     * @param nodes nodes to invoke
+     * @param methodDependencies the method dependencies
+     */
+    private void invokeSequentially(
+            Map<DefaultMethodRepresentation, Node> nodes,
+            CallTrace methodDependencies) {
+
+        Deque<Node> ready = new ArrayDeque<Node>();
+
+        for (Node n : nodes.values()) {
+            n.remaining = n.dependencies.size();
+            if (n.remaining == 0) {
+                ready.add(n);
+            }
+        }
+
+        while (!ready.isEmpty()) {
+            Node n = ready.poll();
+
+            invoke(n, methodDependencies);
+
+            for (Node d : n.dependents) {
+                d.remaining--;
+                if (d.remaining == 0) {
+                    ready.add(d);
+                }
+            }
+        }
+    }
+
+    /**
+     * Invokes the specified nodes concurrently. A node is invoked as soon as
+     * all of its dependencies have been invoked. This method returns after
+     * all nodes have been invoked.
+     *
+     * @param nodes nodes to invoke
+     * @param methodDependencies the method dependencies
+     */
+    private void invokeConcurrently(
+            Map<DefaultMethodRepresentation, Node> nodes,
+            final CallTrace methodDependencies) {
+
+        CompletionService<Node> completionService
+                = new ExecutorCompletionService<Node>(getPool());
+
+        int running = 0;
+
+        for (Node n : nodes.values()) {
+            n.remaining = n.dependencies.size();
+            if (n.remaining == 0) {
+                submit(completionService, n, methodDependencies);
+                running++;
+            }
+        }
+
+        try {
+            while (running > 0) {
+                Node n = completionService.take().get();
+                running--;
+
+                for (Node d : n.dependents) {
+                    d.remaining--;
+                    if (d.remaining == 0) {
+                        submit(completionService, d, methodDependencies);
+                        running++;
+                    }
+                }
+            }
+        } catch (InterruptedException ex) {
+            // methods that are already running will finish, the remaining
+            // methods are not invoked
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ex) {
+            // invoke() catches all exceptions
+            Logger.getLogger(DataflowScheduler.class.getName()).
+                    log(Level.SEVERE, null, ex);
+        }
+    }
+
+    /**
+     * Submits the invocation of the specified node.
+     *
+     * @param completionService completion service
+     * @param n node to invoke
+     * @param methodDependencies the method dependencies
+     */
+    private void submit(CompletionService<Node> completionService,
+            final Node n, final CallTrace methodDependencies) {
+        completionService.submit(new Runnable() {
+            @Override
+            public void run() {
+                worker.set(true);
+                try {
+                    invoke(n, methodDependencies);
+                } finally {
+                    worker.remove();
+                }
+            }
+        }, n);
+    }
+
+    /**
+     * Invokes the method of the specified node. Errors are logged (as
+     * without scheduler).
+     *
+     * @param n node
+     * @param methodDependencies the method dependencies
+     */
+    private static void invoke(Node n, CallTrace methodDependencies) {
+        methodDependencies.addCall(n.method);
+        try {
+            n.method.invokeScheduled(methodDependencies);
+        } catch (InvocationTargetException ex) {
+            Logger.getLogger(DataflowScheduler.class.getName()).
+                    log(Level.SEVERE, null, ex);
+        } catch (RuntimeException ex) {
+            Logger.getLogger(DataflowScheduler.class.getName()).
+                    log(Level.SEVERE, null, ex);
+        }
+    }
+
+    /**
+     * Reports a circular method call to the message box.
+     *
+     * @param m the method that closes the cycle
+     */
+    private static void reportCircularCall(DefaultMethodRepresentation m) {
+        System.out.println(">> Break: circular method call!");
+
+        MessageBox mBox = m.getParentObject().getMainCanvas().getMessageBox();
+
+        String text = "circular method call! "
+                + "Please check value dependencies!<br>>> " + m.getName();
+
+        mBox.addUniqueMessage("Can't invoke method:", text,
+                null, MessageType.ERROR);
+    }
+
+    /**
+     * Returns the worker pool (creates it if necessary).
+     *
+     * @return the worker pool
+     */
+    private synchronized ThreadPoolExecutor getPool() {
+        if (pool == null) {
+            final AtomicInteger threadNumber = new AtomicInteger();
+
+            pool = new ThreadPoolExecutor(numberOfThreads, numberOfThreads,
+                    60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                    new ThreadFactory() {
+                        @Override
+                        public Thread newThread(Runnable r) {
+                            VThread t = new VThread(r);
+                            t.setName("VRL-Dataflow-"
+                                    + threadNumber.incrementAndGet());
+                            t.setDaemon(true);
+                            return t;
+                        }
+                    });
+            pool.allowCoreThreadTimeOut(true);
+        }
+
+        return pool;
+    }
+
+    /**
+     * Node of the dependency graph.
+     */
+    private static class Node {
+
+        private final DefaultMethodRepresentation method;
+        /**
+         * upstream nodes
+         */
+        private final List<Node> dependencies = new ArrayList<Node>();
+        /**
+         * downstream nodes
+         */
+        private final List<Node> dependents = new ArrayList<Node>();
+        /**
+         * number of dependencies that have not been invoked yet
+         */
+        private int remaining;
+
+        public Node(DefaultMethodRepresentation method) {
+            this.method = method;
+        }
+    }
+}
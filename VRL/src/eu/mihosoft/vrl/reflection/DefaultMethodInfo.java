@@ -158,6 +158,11 @@ final class DefaultMethodInfo implements MethodInfo, Serializable{
         return "";
     }
 
+    @Override
+    public boolean pure() {
+        return false;
+    }
+
     @Override
     public int num() {
         return Integer.MAX_VALUE;
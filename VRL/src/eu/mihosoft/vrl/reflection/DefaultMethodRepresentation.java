@@ -913,14 +913,17 @@ public class DefaultMethodRepresentation extends VComponent
      * Receives parameter data from connected type representations.
      *
      * @param methodDependencies the method dependencies
+     * @param autoInvoke defines whether to recursively invoke outdated
+     * upstream methods
      */
-    private void receiveParamData(CallTrace methodDependencies) {
+    private void receiveParamData(CallTrace methodDependencies,
+            boolean autoInvoke) {
         logDebug("RECEIVE:");
         try {
             // set ParamValues
             for (VConnector c : this.connectorsMap.values()) {
                 logDebug("-> rec: " + c.getId());
-                c.receiveData(true, methodDependencies);
+                c.receiveData(autoInvoke, methodDependencies);
             }
         } catch (Exception ex) {
             MessageBox mBox
@@ -980,6 +983,34 @@ public class DefaultMethodRepresentation extends VComponent
      */
     Object invoke(VisualObjectInspector inspector,
             CallTrace methodDependencies) throws InvocationTargetException {
+        return invoke(inspector, methodDependencies, true);
+    }
+
+    /**
+     * Invokes the method. Outdated upstream methods must have been invoked
+     * already (used by {@link DataflowScheduler}).
+     *
+     * @param methodDependencies the method dependencies
+     * @return the return value of the method
+     */
+    Object invokeScheduled(CallTrace methodDependencies)
+            throws InvocationTargetException {
+        return invoke(getParentObject().getInspector(),
+                methodDependencies, false);
+    }
+
+    /**
+     * Invokes the method.
+     *
+     * @param inspector the inspector the method is associated with
+     * @param methodDependencies the method dependencies
+     * @param invokeUpstream defines whether to invoke outdated upstream
+     * methods
+     * @return the return value of the method
+     */
+    private Object invoke(VisualObjectInspector inspector,
+            CallTrace methodDependencies, boolean invokeUpstream)
+            throws InvocationTargetException {
 
         if (calledByUser && thread == null) {
             callTrace.removeFromTrace(this);
@@ -1015,18 +1046,33 @@ public class DefaultMethodRepresentation extends VComponent
         // invokation slowdown and wait effect
         VisualCanvas canvas = (VisualCanvas) getParentObject().getMainCanvas();
 
-        if (canvas.isInvokeWaitEffect()) {
+        // headless execution skips all visual slowdown
+        boolean headless = canvas.isHeadlessExecution();
+
+        if (canvas.isInvokeWaitEffect() && !headless) {
             startWaitEffect();
         }
 
-        receiveParamData(methodDependencies);
+        DataflowScheduler scheduler = canvas.getDataflowScheduler();
 
-        try {
-            Thread.sleep(canvas.getInvocationDelay());
-        } catch (InterruptedException ex) {
-            Logger.getLogger(
-                    DefaultMethodRepresentation.class.getName()).
-                    log(Level.SEVERE, null, ex);
+        if (!invokeUpstream) {
+            receiveParamData(methodDependencies, false);
+        } else if (scheduler != null && canvas.getDataProcessingMode()
+                != DataProcessingMode.UPDATE_OFF) {
+            scheduler.invokeUpstream(this, methodDependencies);
+            receiveParamData(methodDependencies, false);
+        } else {
+            receiveParamData(methodDependencies, true);
+        }
+
+        if (!headless) {
+            try {
+                Thread.sleep(canvas.getInvocationDelay());
+            } catch (InterruptedException ex) {
+                Logger.getLogger(
+                        DefaultMethodRepresentation.class.getName()).
+                        log(Level.SEVERE, null, ex);
+            }
         }
 
 //        System.out.println(">> M-DEP-SIZE: "
@@ -1074,7 +1120,7 @@ public class DefaultMethodRepresentation extends VComponent
             // running
             try {
                 // invoke the method from the inspector and receive return value
-                inspector.invoke(getDescription(), getParentObject().getID());
+                invokeOrReuseResult(inspector);
 
             } catch (Exception ex) {
                 MessageBox mBox
@@ -1145,7 +1191,7 @@ public class DefaultMethodRepresentation extends VComponent
             }
         }
 
-        if (canvas.isInvokeWaitEffect()) {
+        if (canvas.isInvokeWaitEffect() && !headless) {
             stopWaitEffect();
         }
 
@@ -1159,6 +1205,51 @@ public class DefaultMethodRepresentation extends VComponent
 
     }
 
+    /**
+     * Invokes the method via the specified inspector. If the canvas uses
+     * {@link DependencyMode#MEMOIZED}, the method is pure (see
+     * {@link MethodInfo#pure()}) and the parameters did not change since the
+     * last invocation the remembered return value is used instead.
+     *
+     * @param inspector the inspector the method is associated with
+     */
+    private void invokeOrReuseResult(VisualObjectInspector inspector)
+            throws InvocationTargetException {
+
+        VisualCanvas canvas = (VisualCanvas) getParentObject().getMainCanvas();
+        MethodDescription desc = getDescription();
+
+        // impure methods might depend on the state of their object, e.g.,
+        // methods without parameters
+        boolean memoize = canvas.getDependencyMode() == DependencyMode.MEMOIZED
+                && desc.getMethodType() == MethodType.DEFAULT
+                && !void.class.equals(desc.getReturnType())
+                && desc.getMethodInfo() != null
+                && desc.getMethodInfo().pure();
+
+        if (!memoize) {
+            inspector.invoke(desc, getParentObject().getID());
+            return;
+        }
+
+        MethodResultCache cache = canvas.getMethodResultCache();
+        Object object = inspector.getObject(desc.getObjectID());
+
+        Object result = cache.get(this, object, desc.getParameters());
+
+        if (result != null) {
+            desc.setReturnValue(result);
+            return;
+        }
+
+        // the result is not remembered if the invocation fails
+        cache.remove(this);
+
+        inspector.invoke(desc, getParentObject().getID());
+
+        cache.put(this, object, desc.getParameters(), desc.getReturnValue());
+    }
+
     public boolean areParamsValid() {
         return paramsAreValid;
     }
@@ -1212,8 +1303,7 @@ public class DefaultMethodRepresentation extends VComponent
             // running
             try {
                 // invoke the method from the inspector and receive return value
-                inspector.invoke(
-                        getDescription(), getParentObject().getID());
+                invokeOrReuseResult(inspector);
             } catch (Throwable ex) {
 
                 exception = new InvocationTargetException(
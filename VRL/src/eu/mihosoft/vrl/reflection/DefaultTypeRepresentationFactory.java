@@ -69,7 +69,12 @@ import eu.mihosoft.vrl.visual.Canvas;
 import eu.mihosoft.vrl.visual.CanvasChild;
 import eu.mihosoft.vrl.visual.VSwingUtil;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -99,8 +104,35 @@ final class DefaultTypeRepresentationFactory implements
     /**
      * instances of supported type representations
      */
-    private ArrayList<Class<? extends TypeRepresentationBase>> supportedTypes =
-            new ArrayList<Class<? extends TypeRepresentationBase>>();
+    private final TypeList supportedTypes = new TypeList();
+    /**
+     * compatible type representations by type and representation type (in
+     * the order of the supported types list)
+     */
+    private final Map<RepresentationKey, List<Class<? extends TypeRepresentationBase>>> representationIndex =
+            new HashMap<RepresentationKey, List<Class<? extends TypeRepresentationBase>>>();
+    /**
+     * type representations by class name and style (first occurence)
+     */
+    private final Map<List<String>, Class<? extends TypeRepresentationBase>> nameIndex =
+            new HashMap<List<String>, Class<? extends TypeRepresentationBase>>();
+    /**
+     * modification count of the supported types list the index has been
+     * built for (<code>-1</code> if the index is invalid)
+     */
+    private int indexModCount = -1;
+    /**
+     * type info of type representation classes
+     */
+    private static final ClassValue<TypeMetaData> metaData =
+            new ClassValue<TypeMetaData>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                protected TypeMetaData computeValue(Class<?> type) {
+                    return new TypeMetaData(
+                            (Class<? extends TypeRepresentationBase>) type);
+                }
+            };
     /**
      * permanent list
      */
@@ -200,6 +232,7 @@ final class DefaultTypeRepresentationFactory implements
         defaultSupportedTypes.add(SilentVGeometry3DType.class);
         defaultSupportedTypes.add(VGeometry3DArrayType.class);
         defaultSupportedTypes.add(VGeometry3DAppearanceType.class);
+        defaultSupportedTypes.add(PackedMeshType.class);
 
         defaultSupportedTypes.add(ResolutionSelectionType.class);
 
@@ -258,16 +291,24 @@ final class DefaultTypeRepresentationFactory implements
     @Override
     public final void addType(Class<? extends TypeRepresentationBase> tClass) {
 
-        for (Class<? extends TypeRepresentationBase> i : getSupportedTypes()) {
+        validateIndex();
 
-            if (i.getClass().getName().equals(tClass.getName())
-                    && TypeUtil.getStyle(i).equals(TypeUtil.getStyle(tClass))) {
-                getSupportedTypes().remove(i);
-                break;
-            }
-        } // end for
+        Class<? extends TypeRepresentationBase> equalType =
+                nameIndex.get(nameKey(tClass));
+
+        if (equalType != null) {
+            supportedTypes.remove(equalType);
+            // removal changes the order of the remaining entries, thus, we
+            // rebuild the index on demand
+            indexModCount = -1;
+        }
+
+        supportedTypes.add(tClass); // we add only the class of t
 
-        getSupportedTypes().add(tClass); // we add only the class of t
+        if (equalType == null) {
+            addToIndex(tClass);
+            indexModCount = supportedTypes.getModCount();
+        }
 //        t.setMainCanvas(mainCanvas);
     }
 
@@ -293,7 +334,7 @@ final class DefaultTypeRepresentationFactory implements
             RepresentationType valueType = RepresentationType.INPUT;
 
             // get compatible representations
-            ArrayList<Class<? extends TypeRepresentationBase>> compatibleRepresentations =
+            List<Class<? extends TypeRepresentationBase>> compatibleRepresentations =
                     findCompatibleTypes(type, valueType);
 
             // get requested style
@@ -351,7 +392,7 @@ final class DefaultTypeRepresentationFactory implements
             RepresentationType valueType = RepresentationType.OUTPUT;
 
             // get compatible representations
-            ArrayList<Class<? extends TypeRepresentationBase>> compatibleRepresentations =
+            List<Class<? extends TypeRepresentationBase>> compatibleRepresentations =
                     findCompatibleTypes(type, valueType);
 
             // get requested style
@@ -390,7 +431,7 @@ final class DefaultTypeRepresentationFactory implements
             RepresentationType valueType = RepresentationType.OUTPUT;
 
             // get compatible representations
-            ArrayList<Class<? extends TypeRepresentationBase>> compatibleRepresentations =
+            List<Class<? extends TypeRepresentationBase>> compatibleRepresentations =
                     findCompatibleTypes(type, valueType);
 
             // get requested style
@@ -452,7 +493,7 @@ final class DefaultTypeRepresentationFactory implements
      */
     private TypeRepresentationBase chooseRepresentation(
             Class<?> type,
-            ArrayList<Class<? extends TypeRepresentationBase>> availableRepresentations,
+            List<Class<? extends TypeRepresentationBase>> availableRepresentations,
             String representationStyle) {
 
         // is no style entered 
@@ -466,7 +507,7 @@ final class DefaultTypeRepresentationFactory implements
 
         // tries to find a representation supports the requested style
         for (Class<? extends TypeRepresentationBase> t : availableRepresentations) {
-            String style = TypeUtil.getStyle(t);
+            String style = metaData.get(t).style;
 
             if (style.equals(representationStyle)) {
 
@@ -493,7 +534,7 @@ final class DefaultTypeRepresentationFactory implements
         // try to find a representation that supports the default style
         if (value instanceof UnsupportedType) {
             for (Class<? extends TypeRepresentationBase> t : availableRepresentations) {
-                String style = TypeUtil.getStyle(t);
+                String style = metaData.get(t).style;
 
                 if (style.equals("default")) {
                     try {
@@ -604,30 +645,91 @@ final class DefaultTypeRepresentationFactory implements
      *
      * @param type the class object of the parameter that is to be visualized
      * @param valueType the representation type that is demanded
-     * @return a list containing all representations that are capable of
-     * displaying the requestedtype of parameters
+     * @return an unmodifiable list containing all representations that are
+     * capable of displaying the requestedtype of parameters
      */
-    private ArrayList<Class<? extends TypeRepresentationBase>> findCompatibleTypes(
+    private List<Class<? extends TypeRepresentationBase>> findCompatibleTypes(
             Class<?> type,
             RepresentationType valueType) {
 
-        ArrayList<Class<? extends TypeRepresentationBase>> compatibleRepresentations =
-                new ArrayList<Class<? extends TypeRepresentationBase>>();
+        if (type == null) {
+            return Collections.emptyList();
+        }
+
+        validateIndex();
+
+        List<Class<? extends TypeRepresentationBase>> compatibleRepresentations =
+                representationIndex.get(new RepresentationKey(type, valueType));
+
+        if (compatibleRepresentations == null) {
+            return Collections.emptyList();
+        }
+
+        return Collections.unmodifiableList(compatibleRepresentations);
+    }
+
+    /**
+     * Rebuilds the index if the supported types list has been modified
+     * since the index has been built.
+     */
+    private void validateIndex() {
+        if (indexModCount == supportedTypes.getModCount()) {
+            return;
+        }
+
+        representationIndex.clear();
+        nameIndex.clear();
+
+        for (Class<? extends TypeRepresentationBase> t : supportedTypes) {
+            addToIndex(t);
+        }
+
+        indexModCount = supportedTypes.getModCount();
+    }
+
+    /**
+     * Adds the specified type representation to the index. The type
+     * representation must be the last element of the supported types list.
+     *
+     * @param t the type representation to add
+     */
+    private void addToIndex(Class<? extends TypeRepresentationBase> t) {
+        TypeMetaData info = metaData.get(t);
 
-        for (Class<? extends TypeRepresentationBase> t : getSupportedTypes()) {
+        for (RepresentationType valueType : RepresentationType.values()) {
+            if (info.supports(valueType)) {
+                RepresentationKey key =
+                        new RepresentationKey(info.type, valueType);
 
-//            System.out.println("T: " + t);
-//            System.out.println("type:" + type);
-//            System.out.println("supports:" + valueType);
+                List<Class<? extends TypeRepresentationBase>> representations =
+                        representationIndex.get(key);
 
-            if (TypeUtil.getType(t).equals(type) && TypeUtil.supports(t, valueType)) {
-//                System.out.println("TR: " + t.getType().getName());
-//                System.out.println("TO: " + type.getName());
-                compatibleRepresentations.add(t);
+                if (representations == null) {
+                    representations =
+                            new ArrayList<Class<? extends TypeRepresentationBase>>(2);
+                    representationIndex.put(key, representations);
+                }
+
+                representations.add(t);
             }
-        } // end for supportedTypes
+        }
+
+        List<String> nameKey = nameKey(t);
+
+        if (!nameIndex.containsKey(nameKey)) {
+            nameIndex.put(nameKey, t);
+        }
+    }
 
-        return compatibleRepresentations;
+    /**
+     * Returns the key that identifies equal type representations, i.e.,
+     * type representations with equal class name and style.
+     *
+     * @param t type representation
+     * @return the key that identifies equal type representations
+     */
+    private static List<String> nameKey(Class<? extends TypeRepresentationBase> t) {
+        return Arrays.asList(t.getName(), metaData.get(t).style);
     }
 
     /**
@@ -773,4 +875,102 @@ final class DefaultTypeRepresentationFactory implements
 //            }
 //        }
     }
+
+    /**
+     * Supported types list that exposes its modification count.
+     */
+    private static final class TypeList
+            extends ArrayList<Class<? extends TypeRepresentationBase>> {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Returns the number of structural modifications of this list.
+         *
+         * @return the number of structural modifications of this list
+         */
+        public int getModCount() {
+            return modCount;
+        }
+    }
+
+    /**
+     * Type info of a type representation class.
+     */
+    private static final class TypeMetaData {
+
+        private final Class<?> type;
+        private final String style;
+        private final boolean input;
+        private final boolean output;
+
+        /**
+         * Constructor.
+         *
+         * @param cls type representation class
+         */
+        public TypeMetaData(Class<? extends TypeRepresentationBase> cls) {
+            this.type = TypeUtil.getType(cls);
+            this.style = TypeUtil.getStyle(cls);
+            this.input = TypeUtil.supportsInput(cls);
+            this.output = TypeUtil.supportsOutput(cls);
+        }
+
+        /**
+         * Indicates whether the specified representation type is supported.
+         *
+         * @param valueType representation type
+         * @return <code>true</code> if supported; <code>false</code> otherwise
+         */
+        public boolean supports(RepresentationType valueType) {
+            switch (valueType) {
+                case INPUT:
+                    return input;
+                case OUTPUT:
+                    return output;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    /**
+     * Index key (type and representation type).
+     */
+    private static final class RepresentationKey {
+
+        private final Class<?> type;
+        private final RepresentationType valueType;
+
+        /**
+         * Constructor.
+         *
+         * @param type the type
+         * @param valueType the representation type
+         */
+        public RepresentationKey(Class<?> type, RepresentationType valueType) {
+            this.type = type;
+            this.valueType = valueType;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+
+            if (!(obj instanceof RepresentationKey)) {
+                return false;
+            }
+
+            RepresentationKey other = (RepresentationKey) obj;
+
+            return type.equals(other.type) && valueType == other.valueType;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * type.hashCode() + valueType.hashCode();
+        }
+    }
 }
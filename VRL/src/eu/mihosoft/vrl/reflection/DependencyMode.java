@@ -57,9 +57,37 @@
 package eu.mihosoft.vrl.reflection;
 
 /**
+ * Defines how a method whose return value is outdated obtains its new return
+ * value.
  *
  * @author Michael Hoffer &lt;info@michaelhoffer.de&gt;
+ * @see VisualCanvas#setDependencyMode(DependencyMode)
  */
 public enum DependencyMode {
-    
+
+    /**
+     * Outdated methods are invoked whenever their return value is requested
+     * (default).
+     */
+    LAZY,
+    /**
+     * <p>
+     * Like {@link #LAZY}. But each pure method (see
+     * {@link eu.mihosoft.vrl.annotation.MethodInfo#pure()}) remembers the
+     * parameters and the return value of its last invocation. If an outdated
+     * pure method is invoked with unchanged parameters, the remembered return
+     * value is used instead of invoking the method again. Other methods are
+     * always invoked, since they might depend on the state of their object.
+     * </p>
+     * <p>
+     * Parameters of immutable value types (strings, numbers, booleans,
+     * characters, enums and classes) are compared by value. Methods with
+     * parameters of other types are always invoked, since such parameters
+     * might have been modified in place. Methods without return value and
+     * <code>null</code> results are never remembered.
+     * </p>
+     *
+     * @see MethodResultCache
+     */
+    MEMOIZED
 }
@@ -575,6 +575,11 @@ public final class MethodDescription {
                 return "";
             }
 
+            @Override
+            public boolean pure() {
+                return false;
+            }
+
             @Override
             public int num() {
                 return Integer.MAX_VALUE;
@@ -0,0 +1,223 @@
+/* 
+ * MethodInvokerCache.java
+ * 
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2007–2018 by Michael Hoffer,
+ * Copyright (c) 2015–2018 G-CSC, Uni Frankfurt,
+ * Copyright (c) 2009–2015 Steinbeis Forschungszentrum (STZ Ölbronn)
+ * 
+ * This file is part of Visual Reflection Library (VRL).
+ *
+ * VRL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * see: http://opensource.org/licenses/LGPL-3.0
+ *      file://path/to/VRL/src/eu/mihosoft/vrl/resources/license/lgplv3.txt
+ *
+ * VRL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * This version of VRL includes copyright notice and attribution requirements.
+ * According to the LGPL this information must be displayed even if you modify
+ * the source code of VRL. Neither the VRL Canvas attribution icon nor any
+ * copyright statement/attribution may be removed.
+ *
+ * Attribution Requirements:
+ *
+ * If you create derived work you must do three things regarding copyright
+ * notice and author attribution.
+ *
+ * First, the following text must be displayed on the Canvas:
+ * "based on VRL source code". In this case the VRL canvas icon must be removed.
+ * 
+ * Second, the copyright notice must remain. It must be reproduced in any
+ * program that uses VRL.
+ *
+ * Third, add an additional notice, stating that you modified VRL. A suitable
+ * notice might read
+ * "VRL source code modified by YourName 2012".
+ * 
+ * Note, that these requirements are in full accordance with the LGPL v3
+ * (see 7. Additional Terms, b).
+ *
+ * Please cite the publication(s) listed below.
+ *
+ * Publications:
+ *
+ * M. Hoffer, C. Poliwoda, & G. Wittum. (2013). Visual reflection library:
+ * a framework for declarative GUI programming on the Java platform.
+ * Computing and Visualization in Science, 2013, 16(4),
+ * 181–192. http://doi.org/10.1007/s00791-014-0230-y
+ */
+
+package eu.mihosoft.vrl.reflection;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * Caches the methods invoked by an object inspector (per class, method name
+ * and parameter types). Methods are resolved and made accessible only once.
+ * Repeatedly invoked methods are then executed via the accessor classes
+ * generated by the reflection implementation of the JVM.
+ * </p>
+ * <p>
+ * Classes are weakly referenced, i.e., classes of replaced class loaders do
+ * not leak. The cache should nevertheless be cleared if a class loader is
+ * replaced.
+ * </p>
+ *
+ * @author Michael Hoffer &lt;info@michaelhoffer.de&gt;
+ */
+public class MethodInvokerCache {
+
+    private volatile ClassValue<ConcurrentMap<Signature, Method>> methods
+            = createClassValue();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Returns the specified method. The method is accessible even if
+     * language visibility forbids invocation of this method.
+     *
+     * @param c the class that declares or inherits the method
+     * @param methodName method name
+     * @param parameterTypes parameter types
+     * @return the specified method
+     * @throws NoSuchMethodException if the method cannot be found
+     * @see Class#getMethod(java.lang.String, java.lang.Class[])
+     */
+    Method getMethod(Class<?> c, String methodName,
+            Class<?>[] parameterTypes) throws NoSuchMethodException {
+
+        ConcurrentMap<Signature, Method> classMethods = methods.get(c);
+
+        Signature signature = new Signature(methodName, parameterTypes);
+
+        Method m = classMethods.get(signature);
+
+        if (m != null) {
+            hits.incrementAndGet();
+            return m;
+        }
+
+        misses.incrementAndGet();
+
+        m = c.getMethod(methodName, parameterTypes);
+
+        // access this method even if language visibility forbids
+        // invocation of this method
+        m.setAccessible(true);
+
+        classMethods.put(signature.copy(), m);
+
+        return m;
+    }
+
+    /**
+     * Removes all methods and resets the counters.
+     */
+    public void clear() {
+        methods = createClassValue();
+        hits.set(0);
+        misses.set(0);
+    }
+
+    /**
+     * Returns the number of method lookups that could be answered from the
+     * cache.
+     *
+     * @return the number of cache hits
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of method lookups that had to resolve the method.
+     *
+     * @return the number of cache misses
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Creates the per-class method maps.
+     *
+     * @return the per-class method maps
+     */
+    private static ClassValue<ConcurrentMap<Signature, Method>>
+            createClassValue() {
+        return new ClassValue<ConcurrentMap<Signature, Method>>() {
+            @Override
+            protected ConcurrentMap<Signature, Method> computeValue(
+                    Class<?> type) {
+                return new ConcurrentHashMap<Signature, Method>();
+            }
+        };
+    }
+
+    /**
+     * Method signature (cache key).
+     */
+    private static final class Signature {
+
+        private final String name;
+        private final Class<?>[] parameterTypes;
+        private final int hash;
+
+        /**
+         * Constructor. The parameter types are not copied.
+         *
+         * @param name method name
+         * @param parameterTypes parameter types
+         */
+        public Signature(String name, Class<?>[] parameterTypes) {
+            this.name = name;
+            this.parameterTypes = parameterTypes == null
+                    ? new Class<?>[0] : parameterTypes;
+            this.hash = 31 * name.hashCode()
+                    + Arrays.hashCode(this.parameterTypes);
+        }
+
+        /**
+         * Returns a copy of this signature that does not share the parameter
+         * type array.
+         *
+         * @return a copy of this signature
+         */
+        public Signature copy() {
+            return new Signature(name, parameterTypes.clone());
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+
+            if (!(obj instanceof Signature)) {
+                return false;
+            }
+
+            Signature other = (Signature) obj;
+
+            return name.equals(other.name)
+                    && Arrays.equals(parameterTypes, other.parameterTypes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,282 @@
+/* 
+ * MethodResultCache.java
+ * 
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2007–2018 by Michael Hoffer,
+ * Copyright (c) 2015–2018 G-CSC, Uni Frankfurt,
+ * Copyright (c) 2009–2015 Steinbeis Forschungszentrum (STZ Ölbronn)
+ * 
+ * This file is part of Visual Reflection Library (VRL).
+ *
+ * VRL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * see: http://opensource.org/licenses/LGPL-3.0
+ *      file://path/to/VRL/src/eu/mihosoft/vrl/resources/license/lgplv3.txt
+ *
+ * VRL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * This version of VRL includes copyright notice and attribution requirements.
+ * According to the LGPL this information must be displayed even if you modify
+ * the source code of VRL. Neither the VRL Canvas attribution icon nor any
+ * copyright statement/attribution may be removed.
+ *
+ * Attribution Requirements:
+ *
+ * If you create derived work you must do three things regarding copyright
+ * notice and author attribution.
+ *
+ * First, the following text must be displayed on the Canvas:
+ * "based on VRL source code". In this case the VRL canvas icon must be removed.
+ * 
+ * Second, the copyright notice must remain. It must be reproduced in any
+ * program that uses VRL.
+ *
+ * Third, add an additional notice, stating that you modified VRL. A suitable
+ * notice might read
+ * "VRL source code modified by YourName 2012".
+ * 
+ * Note, that these requirements are in full accordance with the LGPL v3
+ * (see 7. Additional Terms, b).
+ *
+ * Please cite the publication(s) listed below.
+ *
+ * Publications:
+ *
+ * M. Hoffer, C. Poliwoda, & G. Wittum. (2013). Visual reflection library:
+ * a framework for declarative GUI programming on the Java platform.
+ * Computing and Visualization in Science, 2013, 16(4),
+ * 181–192. http://doi.org/10.1007/s00791-014-0230-y
+ */
+
+package eu.mihosoft.vrl.reflection;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers the last parameters and return value of method representations
+ * (see {@link DependencyMode#MEMOIZED}). The number of remembered results is
+ * bounded. If the bound is exceeded the least recently used result is
+ * evicted.
+ *
+ * @author Michael Hoffer &lt;info@michaelhoffer.de&gt;
+ */
+public class MethodResultCache {
+
+    /**
+     * default maximum number of remembered results
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 64;
+    private final Map<DefaultMethodRepresentation, CachedResult> entries
+            = new LinkedHashMap<DefaultMethodRepresentation, CachedResult>(
+                    16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(
+                        Map.Entry<DefaultMethodRepresentation, CachedResult> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+    private int maxEntries;
+
+    /**
+     * Constructor.
+     */
+    public MethodResultCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param maxEntries maximum number of remembered results
+     */
+    public MethodResultCache(int maxEntries) {
+        setMaxEntries(maxEntries);
+    }
+
+    /**
+     * Returns the remembered return value of the specified method.
+     *
+     * @param m method
+     * @param object the object the method belongs to
+     * @param parameters the parameters of the requested invocation
+     * @return the remembered return value or <code>null</code> if no result
+     * has been remembered for the specified object and parameters
+     */
+    synchronized Object get(DefaultMethodRepresentation m, Object object,
+            Object[] parameters) {
+        CachedResult e = entries.get(m);
+
+        if (e == null || e.object != object
+                || !parametersEqual(e.parameters, parameters)) {
+            return null;
+        }
+
+        return e.returnValue;
+    }
+
+    /**
+     * Remembers the return value of the specified method. The previous result
+     * of the method is replaced. <code>null</code> values are not
+     * remembered.
+     *
+     * @param m method
+     * @param object the object the method belongs to
+     * @param parameters the parameters of the invocation
+     * @param returnValue the return value of the invocation
+     */
+    synchronized void put(DefaultMethodRepresentation m, Object object,
+            Object[] parameters, Object returnValue) {
+        if (returnValue == null || maxEntries == 0) {
+            entries.remove(m);
+            return;
+        }
+
+        Object[] params = parameters == null
+                ? new Object[0] : parameters.clone();
+
+        entries.put(m, new CachedResult(object, params, returnValue));
+    }
+
+    /**
+     * Forgets the result of the specified method.
+     *
+     * @param m method
+     */
+    public synchronized void remove(DefaultMethodRepresentation m) {
+        entries.remove(m);
+    }
+
+    /**
+     * Forgets all results.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Returns the number of remembered results.
+     *
+     * @return the number of remembered results
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the maximum number of remembered results.
+     *
+     * @return the maximum number of remembered results
+     */
+    public synchronized int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * Defines the maximum number of remembered results. If the cache
+     * contains more results, the least recently used results are evicted.
+     *
+     * @param maxEntries the maximum number of remembered results
+     */
+    public synchronized void setMaxEntries(int maxEntries) {
+        if (maxEntries < 0) {
+            throw new IllegalArgumentException(
+                    "Negative number of entries not allowed!");
+        }
+
+        this.maxEntries = maxEntries;
+
+        while (entries.size() > maxEntries) {
+            DefaultMethodRepresentation eldest
+                    = entries.keySet().iterator().next();
+            entries.remove(eldest);
+        }
+    }
+
+    /**
+     * Compares remembered parameters with requested parameters.
+     *
+     * @param remembered remembered parameters
+     * @param parameters requested parameters
+     * @return <code>true</code> if the parameters are equal;
+     * <code>false</code> otherwise
+     */
+    private static boolean parametersEqual(Object[] remembered,
+            Object[] parameters) {
+
+        int length = parameters == null ? 0 : parameters.length;
+
+        if (remembered.length != length) {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+            Object a = remembered[i];
+            Object b = parameters[i];
+
+            if (a == null && b == null) {
+                continue;
+            }
+
+            // mutable arguments might have been modified in place, i.e.,
+            // even identical references are treated as different
+            if (a == null || b == null || !isValueType(a)
+                    || !a.equals(b)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Indicates whether the specified object is an instance of an immutable
+     * value type, i.e., whether it can be compared via
+     * {@link Object#equals(java.lang.Object)}.
+     *
+     * @param o object to check
+     * @return <code>true</code> if the object is an instance of an immutable
+     * value type; <code>false</code> otherwise
+     */
+    private static boolean isValueType(Object o) {
+        return o instanceof String
+                || o instanceof Integer
+                || o instanceof Long
+                || o instanceof Double
+                || o instanceof Float
+                || o instanceof Short
+                || o instanceof Byte
+                || o instanceof Boolean
+                || o instanceof Character
+                || o instanceof BigInteger
+                || o instanceof BigDecimal
+                || o instanceof Enum
+                || o instanceof Class;
+    }
+
+    /**
+     * Remembered invocation.
+     */
+    private static class CachedResult {
+
+        private final Object object;
+        private final Object[] parameters;
+        private final Object returnValue;
+
+        public CachedResult(Object object, Object[] parameters, Object returnValue) {
+            this.object = object;
+            this.parameters = parameters;
+            this.returnValue = returnValue;
+        }
+    }
+}
@@ -0,0 +1,456 @@
+/* 
+ * ObjectDescriptionTemplate.java
+ * 
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2007–2018 by Michael Hoffer,
+ * Copyright (c) 2015–2018 G-CSC, Uni Frankfurt,
+ * Copyright (c) 2009–2015 Steinbeis Forschungszentrum (STZ Ölbronn)
+ * 
+ * This file is part of Visual Reflection Library (VRL).
+ *
+ * VRL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * see: http://opensource.org/licenses/LGPL-3.0
+ *      file://path/to/VRL/src/eu/mihosoft/vrl/resources/license/lgplv3.txt
+ *
+ * VRL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * This version of VRL includes copyright notice and attribution requirements.
+ * According to the LGPL this information must be displayed even if you modify
+ * the source code of VRL. Neither the VRL Canvas attribution icon nor any
+ * copyright statement/attribution may be removed.
+ *
+ * Attribution Requirements:
+ *
+ * If you create derived work you must do three things regarding copyright
+ * notice and author attribution.
+ *
+ * First, the following text must be displayed on the Canvas:
+ * "based on VRL source code". In this case the VRL canvas icon must be removed.
+ * 
+ * Second, the copyright notice must remain. It must be reproduced in any
+ * program that uses VRL.
+ *
+ * Third, add an additional notice, stating that you modified VRL. A suitable
+ * notice might read
+ * "VRL source code modified by YourName 2012".
+ * 
+ * Note, that these requirements are in full accordance with the LGPL v3
+ * (see 7. Additional Terms, b).
+ *
+ * Please cite the publication(s) listed below.
+ *
+ * Publications:
+ *
+ * M. Hoffer, C. Poliwoda, & G. Wittum. (2013). Visual reflection library:
+ * a framework for declarative GUI programming on the Java platform.
+ * Computing and Visualization in Science, 2013, 16(4),
+ * 181–192. http://doi.org/10.1007/s00791-014-0230-y
+ */
+
+package eu.mihosoft.vrl.reflection;
+
+import eu.mihosoft.vrl.annotation.MethodInfo;
+import eu.mihosoft.vrl.annotation.ObjectInfo;
+import eu.mihosoft.vrl.annotation.OutputInfo;
+import eu.mihosoft.vrl.annotation.ParamGroupInfo;
+import eu.mihosoft.vrl.annotation.ParamInfo;
+import eu.mihosoft.vrl.annotation.ReferenceMethodInfo;
+import groovy.lang.GroovyObject;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * <p>
+ * Reflection data of a class that is necessary to create object descriptions
+ * (see
+ * {@link ObjectInspector#generateObjectDescription(java.lang.Object, java.lang.Integer, boolean)}).
+ * </p>
+ * <p>
+ * Templates are immutable and computed once per class. Creating an object
+ * description from a template does not use reflection. Templates are weakly
+ * associated with their class, i.e., classes loaded by a new class loader get
+ * new templates. {@link #clearCache()} is called if the class loader of a
+ * canvas is replaced.
+ * </p>
+ *
+ * @author Michael Hoffer &lt;info@michaelhoffer.de&gt;
+ */
+final class ObjectDescriptionTemplate {
+
+    private static volatile ClassValue<ObjectDescriptionTemplate> templates
+            = createClassValue();
+    private final Class<?> type;
+    private final ObjectInfo objectInfo;
+    /**
+     * method templates (<code>null</code> if not computed yet)
+     */
+    private volatile List<MethodTemplate> methods;
+    private volatile boolean hasCustomReferenceMethod;
+
+    /**
+     * Constructor.
+     *
+     * @param type the class
+     */
+    private ObjectDescriptionTemplate(Class<?> type) {
+        this.type = type;
+        this.objectInfo = type.getAnnotation(ObjectInfo.class);
+    }
+
+    /**
+     * Returns the template of the specified class.
+     *
+     * @param type class
+     * @return the template of the specified class
+     */
+    static ObjectDescriptionTemplate forClass(Class<?> type) {
+        return templates.get(type);
+    }
+
+    /**
+     * Removes all templates.
+     */
+    static void clearCache() {
+        templates = createClassValue();
+    }
+
+    /**
+     * Returns the object info of the class.
+     *
+     * @return the object info of the class or <code>null</code> if the class
+     * is not annotated
+     */
+    ObjectInfo getObjectInfo() {
+        return objectInfo;
+    }
+
+    /**
+     * Indicates whether the class declares a custom reference method.
+     *
+     * @return <code>true</code> if the class declares a custom reference
+     * method; <code>false</code> otherwise
+     */
+    boolean hasCustomReferenceMethod() {
+        getMethods();
+        return hasCustomReferenceMethod;
+    }
+
+    /**
+     * Creates an object description for an instance of the class.
+     *
+     * @param objID the object id of the instance
+     * @return the object description
+     * @throws IllegalArgumentException if the custom reference method of the
+     * class is invalid
+     */
+    ObjectDescription newObjectDescription(int objID) {
+        ObjectDescription result = new ObjectDescription();
+        result.setInfo(objectInfo);
+
+        result.setName(type.getName());
+
+        result.setID(objID);
+
+        for (MethodTemplate m : getMethods()) {
+            result.addMethod(m.newMethodDescription(objID));
+        }
+
+        // Object name
+        if (objectInfo != null && !objectInfo.name().equals("")) {
+            result.setName(objectInfo.name());
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the method templates (computes them if necessary).
+     *
+     * @return the method templates
+     */
+    private List<MethodTemplate> getMethods() {
+        List<MethodTemplate> result = methods;
+
+        if (result == null) {
+            synchronized (this) {
+                result = methods;
+                if (result == null) {
+                    result = createMethods();
+                    methods = result;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Creates the method templates.
+     *
+     * @return the method templates
+     */
+    private List<MethodTemplate> createMethods() {
+
+        List<MethodTemplate> result = new ArrayList<MethodTemplate>();
+
+        Class<?> c = type;
+
+        Method[] theMethods = null;
+
+        if (objectInfo != null && objectInfo.showInheritedMethods()) {
+            theMethods = c.getMethods();
+        } else {
+            ArrayList<Method> methodList = new ArrayList<Method>();
+            Set<Method> methodSet = new HashSet<Method>();
+
+            // methods declared by class c
+            for (Method m : c.getDeclaredMethods()) {
+                methodList.add(m);
+                methodSet.add(m);
+            }
+
+            // methods declared in superclasses of c
+            for (Method m : c.getMethods()) {
+                MethodInfo info = m.getAnnotation(MethodInfo.class);
+                // if m is marked as inheritGUI this method will
+                // be visualized even if it is a method declared
+                // in a superclass of c
+                if (info != null && info.inheritGUI()) {
+                    if (methodSet.add(m)) {
+                        methodList.add(m);
+                    }
+                }
+            }
+
+            Method[] tmpArray = new Method[methodList.size()];
+
+            theMethods = methodList.toArray(tmpArray);
+        }
+
+        boolean isGroovyObject = GroovyObject.class.isAssignableFrom(c);
+
+        for (int i = 0; i < theMethods.length; i++) {
+
+            // filter groovy object specific methods
+            String method = theMethods[i].getName();
+            boolean isGroovyMethod = method.equals("setProperty")
+                    || method.equals("getProperty")
+                    || method.equals("invokeMethod")
+                    || method.equals("getMetaClass")
+                    || method.equals("setMetaClass");
+
+            // For Groovy >= 1.6 private methods have $ sign in their
+            // name, e.g.,
+            //   private doSomething()
+            // will be changed to
+            //   this$2$doSomething()
+            // which is unfortunately accessible and thus will be
+            // visualized by vrl.
+            // To prevent groovys strange behavior
+            // methods with $ sign are ignored and treated as private.
+            boolean isPrivateGroovyMethod = method.contains("$");
+
+            if ((isGroovyObject && isGroovyMethod)
+                    || isPrivateGroovyMethod) {
+                continue;
+            }
+
+            Class[] parameterTypes = theMethods[i].getParameterTypes();
+
+            Annotation[][] allParameterAnnotations
+                    = theMethods[i].getParameterAnnotations();
+
+            String[] parameterNames
+                    = new String[allParameterAnnotations.length];
+
+            ParamInfo[] parameterAnnotations
+                    = new ParamInfo[allParameterAnnotations.length];
+
+            ParamGroupInfo[] parameterGroupAnnotations
+                    = new ParamGroupInfo[allParameterAnnotations.length];
+
+            // retrieving annotation information for each parameter
+            for (int j = 0; j < allParameterAnnotations.length; j++) {
+
+                // check all annotations of parameter j
+                // if we have a ParamInfo annotation retrieve data
+                // and store it as element of paramName
+                for (Annotation a : allParameterAnnotations[j]) {
+                    if (a.annotationType().equals(ParamInfo.class)) {
+                        ParamInfo n = (ParamInfo) a;
+                        if (!n.name().equals("")) {
+                            parameterNames[j] = n.name();
+                        }
+                        parameterAnnotations[j] = n;
+                    } else {
+                        if (a.annotationType().equals(ParamGroupInfo.class)) {
+                            ParamGroupInfo n = (ParamGroupInfo) a;
+                            parameterGroupAnnotations[j] = n;
+                        }
+                    }
+                } // end for a
+
+            } // end for j
+
+            Class returnType = theMethods[i].getReturnType();
+
+            String methodString = theMethods[i].getName();
+            String methodTitle = "";
+            String returnValueName = null;
+
+            int modifiers = theMethods[i].getModifiers();
+
+            // Method Annotations
+            Annotation[] annotations = theMethods[i].getAnnotations();
+            MethodInfo methodInfo = null;
+
+            OutputInfo outputInfo = null;
+
+            boolean interactive = true;
+
+            for (Annotation a : annotations) {
+                if (a.annotationType().equals(MethodInfo.class)) {
+                    MethodInfo n = (MethodInfo) a;
+
+                    methodTitle = n.name();
+                    interactive = n.interactive();
+                    returnValueName = n.valueName();
+
+                    methodInfo = n;
+                }
+
+                if (a.annotationType().equals(OutputInfo.class)) {
+                    outputInfo = (OutputInfo) a;
+                }
+            }
+
+            MethodTemplate m = new MethodTemplate(methodString, methodTitle,
+                    parameterTypes, parameterNames, parameterAnnotations,
+                    parameterGroupAnnotations, returnType, returnValueName,
+                    interactive, methodInfo, outputInfo);
+
+            if (theMethods[i].getAnnotation(ReferenceMethodInfo.class) != null) {
+                hasCustomReferenceMethod = true;
+
+                if (parameterTypes.length != 1) {
+                    throw new IllegalArgumentException(" Cannot to use "
+                            + "\"" + methodString + "\" as reference method"
+                            + " because the number of parameters does not"
+                            + " match. Exactly one parameter must be"
+                            + " provided.");
+                }
+
+                if (returnType == void.class
+                        || returnType.isPrimitive()) {
+                    throw new IllegalArgumentException(" Cannot to use "
+                            + "\"" + methodString + "\" as reference method"
+                            + " because it does not return an object."
+                            + " Returning primitives or void is not"
+                            + " allowed.");
+                }
+
+                m.methodType = MethodType.CUSTOM_REFERENCE;
+
+                result.add(m);
+            } //TODO: at the moment method id is always 0 and will only be
+            //      set from corresponding method representations
+            //
+            //      is it necessary to change that?
+            else if (Modifier.isPublic(modifiers)
+                    && (methodInfo == null || !methodInfo.ignore())) {
+                result.add(m);
+            }
+        } // end for i
+
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Creates the template map.
+     *
+     * @return the template map
+     */
+    private static ClassValue<ObjectDescriptionTemplate> createClassValue() {
+        return new ClassValue<ObjectDescriptionTemplate>() {
+            @Override
+            protected ObjectDescriptionTemplate computeValue(Class<?> type) {
+                return new ObjectDescriptionTemplate(type);
+            }
+        };
+    }
+
+    /**
+     * Reflection data of a method.
+     */
+    private static final class MethodTemplate {
+
+        private final String methodName;
+        private final String methodTitle;
+        private final Class[] parameterTypes;
+        private final String[] parameterNames;
+        private final ParamInfo[] paramInfos;
+        private final ParamGroupInfo[] paramGroupInfos;
+        private final Class returnType;
+        private final String returnValueName;
+        private final boolean interactive;
+        private final MethodInfo methodInfo;
+        private final OutputInfo outputInfo;
+        /**
+         * only modified while the template is created
+         */
+        private MethodType methodType = MethodType.DEFAULT;
+
+        public MethodTemplate(String methodName, String methodTitle,
+                Class[] parameterTypes, String[] parameterNames,
+                ParamInfo[] paramInfos, ParamGroupInfo[] paramGroupInfos,
+                Class returnType, String returnValueName,
+                boolean interactive, MethodInfo methodInfo,
+                OutputInfo outputInfo) {
+            this.methodName = methodName;
+            this.methodTitle = methodTitle;
+            this.parameterTypes = parameterTypes;
+            this.parameterNames = parameterNames;
+            this.paramInfos = paramInfos;
+            this.paramGroupInfos = paramGroupInfos;
+            this.returnType = returnType;
+            this.returnValueName = returnValueName;
+            this.interactive = interactive;
+            this.methodInfo = methodInfo;
+            this.outputInfo = outputInfo;
+        }
+
+        /**
+         * Creates a method description. Arrays are copied because method
+         * descriptions are mutable.
+         *
+         * @param objID the object id
+         * @return the method description
+         */
+        public MethodDescription newMethodDescription(int objID) {
+            MethodDescription result = new MethodDescription(objID,
+                    0,
+                    methodName, methodTitle, null, parameterTypes.clone(),
+                    parameterNames.clone(), paramInfos.clone(),
+                    paramGroupInfos.clone(),
+                    returnType, returnValueName, interactive,
+                    methodInfo, outputInfo);
+
+            result.setMethodType(methodType);
+
+            return result;
+        }
+    }
+}
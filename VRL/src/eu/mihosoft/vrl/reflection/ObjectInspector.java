@@ -91,6 +91,16 @@ public class ObjectInspector {
      * the objects that are associated with the inspector
      */
     private IDArrayList<ObjectEntry> objects;
+    /**
+     * the objects that are associated with the inspector (indexed by class
+     * name)
+     */
+    private final Map<String, List<ObjectEntry>> objectsByClassName
+            = new HashMap<String, List<ObjectEntry>>();
+    /**
+     * the methods invoked by the inspector
+     */
+    private final MethodInvokerCache invokerCache = new MethodInvokerCache();
 
     /**
      * Constructor.
@@ -101,6 +111,16 @@ public class ObjectInspector {
         objectDescriptions = new HashSet<ObjectDescription>();
     }
 
+    /**
+     * Returns the cache of the methods invoked by this inspector. Its
+     * counters can be used to check how often methods are resolved.
+     *
+     * @return the method cache of this inspector
+     */
+    public MethodInvokerCache getMethodInvokerCache() {
+        return invokerCache;
+    }
+
     /**
      * Generates a new error message based on the excpetion message.
      *
@@ -181,14 +201,12 @@ public class ObjectInspector {
             Method m = null;
 
             try {
-                m = o.getClass().getMethod(
+                // the cached method is accessible even if language
+                // visibility forbids invocation of this method
+                m = invokerCache.getMethod(o.getClass(),
                         methodDescription.getMethodName(),
                         methodDescription.getParameterTypes());
 
-                // access this method even if language visibility forbids
-                // invocation of this method
-                m.setAccessible(true);
-
                 methodDescription.setReturnValue(
                         m.invoke(o, methodDescription.getParameters()));
 
@@ -300,17 +318,11 @@ public class ObjectInspector {
     public Collection<Object> getObjectsByClassName(String name) {
         ArrayList<Object> result = new ArrayList<Object>();
 
-        for (ObjectEntry o : objects) {
-            if (o.getObject() != null
-                    && o.getObject().getClass().getName().equals(name)) {
+        List<ObjectEntry> entries = objectsByClassName.get(name);
+
+        if (entries != null) {
+            for (ObjectEntry o : entries) {
                 result.add(o.getObject());
-//                System.out.println("TRUE: O1: " + o.getObject()
-//                        + ", " + o.getObject().getClass().getName()
-//                        + " O2: " + name);
-            } else {
-//                System.out.println("FALSE: O1: " + o.getObject()
-//                        + ", " + o.getObject().getClass().getName()
-//                        + " O2: " + name);
             }
         }
 
@@ -335,14 +347,22 @@ public class ObjectInspector {
     public void removeObject(int ID) {
 
         // remove object entry
-        ObjectEntry removedElement1 = null;
-        for (ObjectEntry oEntry : objects) {
-            if (oEntry.getID() == ID) {
-                removedElement1 = oEntry;
-                break;
+        ObjectEntry removedElement1 = objects.getById(ID);
+        objects.remove(removedElement1);
+
+        if (removedElement1 != null && removedElement1.getObject() != null) {
+            String className
+                    = removedElement1.getObject().getClass().getName();
+            List<ObjectEntry> entries = objectsByClassName.get(className);
+
+            if (entries != null) {
+                entries.remove(removedElement1);
+
+                if (entries.isEmpty()) {
+                    objectsByClassName.remove(className);
+                }
             }
         }
-        objects.remove(removedElement1);
 
         // remove object description
         ObjectDescription removedElement2 = null;
@@ -381,16 +401,8 @@ public class ObjectInspector {
         }
 
         // Object annotations
-        ObjectInfo objectInfo = null;
-
-        Annotation[] objectAnnotations = o.getClass().getAnnotations();
-
-        for (Annotation a : objectAnnotations) {
-            if (a.annotationType().equals(ObjectInfo.class)) {
-                objectInfo = (ObjectInfo) a;
-                break;
-            }
-        }
+        ObjectInfo objectInfo = ObjectDescriptionTemplate.forClass(
+                o.getClass()).getObjectInfo();
 
         if (objectInfo != null
                 && objectInfo.instances()
@@ -415,26 +427,31 @@ public class ObjectInspector {
 
         ObjectDescription result = null;
 
-        // Object annotations
-        ObjectInfo objectInfo = null;
-
-        Annotation[] objectAnnotations = o.getClass().getAnnotations();
-
-        for (Annotation a : objectAnnotations) {
-            if (a.annotationType().equals(ObjectInfo.class)) {
-                objectInfo = (ObjectInfo) a;
-                break;
-            }
-        }
+        // class metadata is only reflected once per class
+        ObjectDescriptionTemplate template
+                = ObjectDescriptionTemplate.forClass(o.getClass());
 
         if (addObject) {
             ObjectEntry oEntry = new ObjectEntry(o);
+            boolean added;
             if (objID != null) {
-                objects.addWithID(oEntry, objID);
+                added = objects.addWithID(oEntry, objID);
             } else {
-                objects.add(oEntry);
+                added = objects.add(oEntry);
                 objID = oEntry.getID();
             }
+
+            if (added) {
+                String className = o.getClass().getName();
+                List<ObjectEntry> entries = objectsByClassName.get(className);
+
+                if (entries == null) {
+                    entries = new ArrayList<ObjectEntry>();
+                    objectsByClassName.put(className, entries);
+                }
+
+                entries.add(oEntry);
+            }
         }
 
         boolean hasCustomReferenceMethod = false;
@@ -456,230 +473,8 @@ public class ObjectInspector {
             }
 
         } else {
-            result = new ObjectDescription();
-            result.setInfo(objectInfo);
-
-            result.setName(o.getClass().getName());
-
-            result.setID(objID);
-
-            Class<?> c = o.getClass();
-
-            Method[] theMethods = null;
-
-            if (objectInfo != null && objectInfo.showInheritedMethods()) {
-                theMethods = c.getMethods();
-            } else {
-                ArrayList<Method> methods = new ArrayList<Method>();
-
-                // methods declared by class c
-                for (Method m : c.getDeclaredMethods()) {
-                    methods.add(m);
-                }
-
-                // methods declared in superclasses of c
-                for (Method m : c.getMethods()) {
-                    MethodInfo info = m.getAnnotation(MethodInfo.class);
-                    // if m is marked as inheritGUI this method will
-                    // be visualized even if it is a method declared
-                    // in a superclass of c
-                    if (info != null && info.inheritGUI()) {
-                        if (!methods.contains(m)) {
-                            methods.add(m);
-                        }
-                    }
-                }
-
-                Method[] tmpArray = new Method[methods.size()];
-
-                theMethods = methods.toArray(tmpArray);
-            }
-
-            for (int i = 0; i < theMethods.length; i++) {
-
-                // filter groovy object specific methods
-                String method = theMethods[i].getName();
-                boolean isGroovyObject = o instanceof GroovyObject;
-                boolean isGroovyMethod = method.equals("setProperty")
-                        || method.equals("getProperty")
-                        || method.equals("invokeMethod")
-                        || method.equals("getMetaClass")
-                        || method.equals("setMetaClass");// ||
-//                            // the following methods are only present
-//                            // for Groovy >= 1.6
-//                            method.equals("super$1$wait") ||
-//                            method.equals("super$1$toString") ||
-//                            method.equals("super$1$notify") ||
-//                            method.equals("super$1$notifyAll") ||
-//                            method.equals("super$1$getClass") ||
-//                            method.equals("super$1$equals") ||
-//                            method.equals("super$1$clone") ||
-//                            method.equals("super$1$hashCode") ||
-//                            method.equals("super$1$finalize");
-
-                // For Groovy >= 1.6 private methods have $ sign in their
-                // name, e.g.,
-                //   private doSomething()
-                // will be changed to
-                //   this$2$doSomething()
-                // which is unfortunately accessible and thus will be
-                // visualized by vrl.
-                // To prevent groovys strange behavior
-                // methods with $ sign are ignored and treated as private.
-                boolean isPrivateGroovyMethod = method.contains("$");
-
-                // TODO improve that code!
-                if ((isGroovyObject && isGroovyMethod)
-                        || isPrivateGroovyMethod) {
-                    continue;
-                }
-
-                Class[] parameterTypes = theMethods[i].getParameterTypes();
-
-                Annotation[][] allParameterAnnotations
-                        = theMethods[i].getParameterAnnotations();
-
-                ArrayList<String> paramNames = new ArrayList<String>();
-
-                ArrayList<ParamInfo> paramAnnotations
-                        = new ArrayList<ParamInfo>();
-                ArrayList<ParamGroupInfo> paramGroupAnnotations
-                        = new ArrayList<ParamGroupInfo>();
-
-                // retrieving annotation information for each parameter
-                for (int j = 0; j < allParameterAnnotations.length; j++) {
-
-                    Annotation[] annotations = allParameterAnnotations[j];
-
-                    // add name element and set it to null
-                    // because we don't know if parameter j is annotated
-                    paramNames.add(null);
-                    paramAnnotations.add(null);
-                    paramGroupAnnotations.add(null);
-
-                    // check all annotations of parameter j
-                    // if we have a ParamInfo annotation retrieve data
-                    // and store it as element of paramName
-                    for (Annotation a : annotations) {
-                        if (a.annotationType().equals(ParamInfo.class)) {
-                            ParamInfo n = (ParamInfo) a;
-                            if (!n.name().equals("")) {
-                                paramNames.set(j, n.name());
-                            }
-                            paramAnnotations.set(j, n);
-                        } else {
-                            if (a.annotationType().equals(ParamGroupInfo.class)) {
-                                ParamGroupInfo n = (ParamGroupInfo) a;
-                                paramGroupAnnotations.set(j, n);
-                            }
-                        }
-                    } // end for a
-
-                } // end for j
-
-                // convert list to array
-                String[] parameterNames
-                        = paramNames.toArray(new String[paramNames.size()]);
-
-                ParamInfo[] parameterAnnotations
-                        = paramAnnotations.toArray(
-                                new ParamInfo[paramAnnotations.size()]);
-
-                ParamGroupInfo[] parameterGroupAnnotations
-                        = paramGroupAnnotations.toArray(
-                                new ParamGroupInfo[paramGroupAnnotations.size()]);
-
-                Class returnType = theMethods[i].getReturnType();
-
-                String methodString = theMethods[i].getName();
-                String methodTitle = "";
-                String returnValueName = null;
-
-                int modifiers = theMethods[i].getModifiers();
-
-                String modifierString = Modifier.toString(modifiers);
-
-                // Method Annotations
-                Annotation[] annotations = theMethods[i].getAnnotations();
-                MethodInfo methodInfo = null;
-
-                OutputInfo outputInfo = null;
-
-                boolean interactive = true;
-                boolean hide = false;
-
-                for (Annotation a : annotations) {
-                    if (a.annotationType().equals(MethodInfo.class)) {
-                        MethodInfo n = (MethodInfo) a;
-
-                        methodTitle = n.name();
-                        interactive = n.interactive();
-                        hide = n.hide();
-                        returnValueName = n.valueName();
-
-                        methodInfo = n;
-                    }
-
-                    if (a.annotationType().equals(OutputInfo.class)) {
-                        outputInfo = (OutputInfo) a;
-                    }
-                }
-
-                if (theMethods[i].getAnnotation(ReferenceMethodInfo.class) != null) {
-                    hasCustomReferenceMethod = true;
-                    MethodDescription customReferenceMethod
-                            = new MethodDescription(objID,
-                                    0,
-                                    methodString, methodTitle, null, parameterTypes,
-                                    parameterNames, parameterAnnotations,
-                                    parameterGroupAnnotations,
-                                    returnType, returnValueName, interactive,
-                                    methodInfo, outputInfo);
-
-                    if (customReferenceMethod.getParameterTypes() == null
-                            || customReferenceMethod.getParameterTypes().length != 1) {
-                        throw new IllegalArgumentException(" Cannot to use "
-                                + "\"" + methodString + "\" as reference method"
-                                + " because the number of parameters does not"
-                                + " match. Exactly one parameter must be"
-                                + " provided.");
-                    }
-
-                    if (customReferenceMethod.getReturnType() == void.class
-                            || customReferenceMethod.getReturnType().isPrimitive()) {
-                        throw new IllegalArgumentException(" Cannot to use "
-                                + "\"" + methodString + "\" as reference method"
-                                + " because it does not return an object."
-                                + " Returning primitives or void is not"
-                                + " allowed.");
-                    }
-
-                    customReferenceMethod.setMethodType(
-                            MethodType.CUSTOM_REFERENCE);
-
-                    result.addMethod(customReferenceMethod);
-                }// 
-                //TODO: at the moment method id is always 0 and will only be
-                //      set from corresponding method representations
-                //
-                //      is it necessary to change that?
-                else if (modifierString.contains("public")
-                        && (methodInfo == null || !methodInfo.ignore())) {
-                    result.addMethod(new MethodDescription(objID,
-                            0,
-                            methodString, methodTitle, null, parameterTypes,
-                            parameterNames, parameterAnnotations,
-                            parameterGroupAnnotations,
-                            returnType, returnValueName, interactive,
-                            methodInfo, outputInfo));
-                }
-            } // end for i
-
-            // Object name
-            if (objectInfo != null && !objectInfo.name().equals("")) {
-                result.setName(objectInfo.name());
-            }
-
+            result = template.newObjectDescription(objID);
+            hasCustomReferenceMethod = template.hasCustomReferenceMethod();
         } // end else if (o instanceof ProxyObject)
 
         if (!hasCustomReferenceMethod) {
@@ -207,6 +207,14 @@ public abstract class TypeRepresentationBase extends VComponent
     private boolean selected = false;
     private SelectionEffect colorizeEffect;
     private String valueOptions = "";
+    /**
+     * evaluator of the value options (reused while the options don't change)
+     */
+    private transient Script optionEvaluator;
+    /**
+     * value options the evaluator belongs to
+     */
+    private transient String optionEvaluatorOptions;
     private boolean hideConnector = false;
     private boolean invokeMethodOnValueChange = false;
     private CustomParamData customData = new CustomParamData();
@@ -670,6 +678,16 @@ public abstract class TypeRepresentationBase extends VComponent
      * @param validValue the state to set
      */
     public void setValidValue(boolean validValue) {
+
+        VisualCanvas headlessCanvas = getHeadlessCanvas();
+
+        if (headlessCanvas != null) {
+            // the view is updated asynchronously (coalesced)
+            this.validValue = validValue;
+            headlessCanvas.getViewUpdateQueue().validityChanged(this);
+            return;
+        }
+
         if (validValue) {
             valueValidated();
         } else {
@@ -689,6 +707,19 @@ public abstract class TypeRepresentationBase extends VComponent
         this.validValue = validValue;
     }
 
+    /**
+     * Shows the current validation state. This method is used to apply the
+     * coalesced view updates of headless execution and must be called from
+     * the event dispatch thread.
+     */
+    void updateValidity() {
+        if (isValidValue()) {
+            valueValidated();
+        } else {
+            valueInvalidated();
+        }
+    }
+
     /**
      * Evaluates the contract, e.g., checks for correct data type or range condition.
      */
@@ -706,7 +737,8 @@ public abstract class TypeRepresentationBase extends VComponent
                     = getParentMethod().getParentObject().getParentWindow().
                     getTransparency();
 
-            if (!isHideConnector() && VSwingUtil.isVisible(getConnector())) {
+            if (!isHideConnector() && getHeadlessCanvas() == null
+                    && VSwingUtil.isVisible(getConnector())) {
 
                 getMainCanvas().getEffectPane().pulse(getConnector(),
                         MessageType.INFO_SINGLE, transparency);
@@ -717,20 +749,40 @@ public abstract class TypeRepresentationBase extends VComponent
                 invalidateValue();
                 System.out.println(getInvalidInputDataMessage().getText());
 
-                MessageBox box = getMainCanvas().getMessageBox();
-                box.addUniqueMessage(getInvalidInputDataMessage(),
-                        valueConnector);
+                showMessage(getInvalidInputDataMessage(), valueConnector);
             }
             if ((!isNullValidInput()) && isValidValue()) {
                 invalidateValue();
                 System.out.println(getEmptyInputDataMessage().getText());
 
-                MessageBox box = getMainCanvas().getMessageBox();
-                box.addUniqueMessage(getEmptyInputDataMessage(), valueConnector);
+                showMessage(getEmptyInputDataMessage(), valueConnector);
             }
         }
     }
 
+    /**
+     * Adds the specified message to the message box. During headless
+     * execution the message is added asynchronously, i.e., the calling thread
+     * does not wait for the event dispatch thread.
+     *
+     * @param message the message to show
+     * @param c the connector that is to be associated with the message
+     */
+    private void showMessage(final Message message, final Connector c) {
+        final MessageBox box = getMainCanvas().getMessageBox();
+
+        if (getHeadlessCanvas() != null) {
+            VSwingUtil.invokeLater(new Runnable() {
+                @Override
+                public void run() {
+                    box.addUniqueMessage(message, c);
+                }
+            });
+        } else {
+            box.addUniqueMessage(message, c);
+        }
+    }
+
     /**
      * Defines the message to show if the input data is invalid. Override this method to define a custom message.
      *
@@ -756,6 +808,15 @@ public abstract class TypeRepresentationBase extends VComponent
     @Override
     public void setValue(final Object o) {
 
+        VisualCanvas headlessCanvas = getHeadlessCanvas();
+
+        if (headlessCanvas != null) {
+            // the view is updated asynchronously (coalesced)
+            value = o;
+            headlessCanvas.getViewUpdateQueue().valueChanged(this);
+            return;
+        }
+
         if (!skipEmptyViewCallInSetValue) {
             VSwingUtil.invokeLater(new Runnable() {
                 @Override
@@ -793,24 +854,85 @@ public abstract class TypeRepresentationBase extends VComponent
                 VSwingUtil.invokeLater(new Runnable() {
                     @Override
                     public void run() {
-                        MessageBox box = getMainCanvas().getMessageBox();
-                        box.addUniqueMessage("Can't display value:",
-                                ">> TypeRepresentation&lt;" + getType().toString()
-                                + "&gt;.getValue(): value type does not match ("
-                                + o.getClass().toString()
-                                + "). Please "
-                                + "check the implementation of your type "
-                                + "representation or proxy object!",
-                                getConnector(),
-                                MessageType.ERROR);
+                        showValueTypeMismatch(o);
                     }
                 });
             }
         }
     }
 
+    /**
+     * Shows the current value. This method is used to apply the coalesced
+     * view updates of headless execution and must be called from the event
+     * dispatch thread.
+     */
+    void updateView() {
+        Object o = value;
+
+        if (!skipEmptyViewCallInSetValue) {
+            emptyView();
+        }
+
+        if (o != null) {
+            if (getType().isInstance(o)) {
+                setViewValue(o);
+                repaint();
+
+                if (isUpdateLayoutOnValueChange()) {
+                    updateLayout();
+                }
+            } else if (getMainCanvas() != null) {
+                showValueTypeMismatch(o);
+            }
+        }
+    }
+
+    /**
+     * Shows an error message because the specified value does not match the
+     * type of this type representation.
+     *
+     * @param o the value that cannot be displayed
+     */
+    private void showValueTypeMismatch(Object o) {
+        MessageBox box = getMainCanvas().getMessageBox();
+        box.addUniqueMessage("Can't display value:",
+                ">> TypeRepresentation&lt;" + getType().toString()
+                + "&gt;.getValue(): value type does not match ("
+                + o.getClass().toString()
+                + "). Please "
+                + "check the implementation of your type "
+                + "representation or proxy object!",
+                getConnector(),
+                MessageType.ERROR);
+    }
+
+    /**
+     * Returns the canvas of this type representation if it executes
+     * headless.
+     *
+     * @return the canvas of this type representation if it executes headless;
+     * <code>null</code> otherwise
+     */
+    private VisualCanvas getHeadlessCanvas() {
+        Canvas canvas = getMainCanvas();
+
+        if (canvas instanceof VisualCanvas
+                && ((VisualCanvas) canvas).isHeadlessExecution()) {
+            return (VisualCanvas) canvas;
+        }
+
+        return null;
+    }
+
     @Override
     public Object getValue() {
+
+        VisualCanvas headlessCanvas = getHeadlessCanvas();
+
+        if (headlessCanvas != null) {
+            return getHeadlessValue(headlessCanvas);
+        }
+
         VSwingUtil.invokeLater(new Runnable() {
             @Override
             public void run() {
@@ -851,6 +973,42 @@ public abstract class TypeRepresentationBase extends VComponent
         return value;
     }
 
+    /**
+     * Reads the view value that is used during headless execution, i.e., the
+     * value of unconnected inputs and empty values. This method is called
+     * once when headless execution is enabled and must be called from the
+     * event dispatch thread.
+     */
+    void readHeadlessValue() {
+        if (isInput()
+                && !getMainCanvas().getDataConnections().
+                alreadyConnected(getConnector())
+                || value == null) {
+            value = getViewValue();
+        }
+    }
+
+    /**
+     * Returns the value of this type representation during headless
+     * execution. The view value has been read when headless execution has
+     * been enabled (see {@link #readHeadlessValue()}). The contract is
+     * evaluated on the calling thread. Validation states and messages are
+     * shown asynchronously, i.e., this method never waits for the ui thread.
+     *
+     * @param canvas the headless canvas
+     * @return the value of this type representation
+     */
+    private Object getHeadlessValue(VisualCanvas canvas) {
+        validateValue();
+        evaluateContract();
+
+        if (isUpdateLayoutOnValueChange()) {
+            canvas.getViewUpdateQueue().layoutChanged(this);
+        }
+
+        return value;
+    }
+
     void setType(Class<?> type) {
         this.type = type;
     }
@@ -1281,10 +1439,26 @@ public abstract class TypeRepresentationBase extends VComponent
     protected Script getOptionEvaluator() {
         Script result = null;
 
+        // the evaluator is requested once per option, thus, we reuse it as
+        // long as the options do not change
+        String options = getValueOptions();
+
+        if (optionEvaluator != null && options != null
+                && options.equals(optionEvaluatorOptions)) {
+            return optionEvaluator;
+        }
+
 //        try {
-        GroovyShell shell = new GroovyShell();
-        result = shell.parse(getValueOptions());
-        result.run();
+        result = ValueOptionsEvaluator.getDefault().evaluate(options);
+
+        if (result == null) {
+            // empty options are handled by Groovy as before
+            result = new GroovyShell().parse(options);
+            result.run();
+        }
+
+        optionEvaluator = result;
+        optionEvaluatorOptions = options;
 //        } catch (Exception ex) {
 //            if (getMainCanvas() != null) {
 //                MessageBox mBox = getMainCanvas().getMessageBox();
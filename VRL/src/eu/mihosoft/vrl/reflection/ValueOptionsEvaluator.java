@@ -56,37 +56,443 @@
 
 package eu.mihosoft.vrl.reflection;
 
+import groovy.lang.Binding;
 import groovy.lang.GroovyShell;
 import groovy.lang.Script;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import org.codehaus.groovy.runtime.InvokerHelper;
 
 /**
+ * <p>
+ * Evaluates value options (see {@link eu.mihosoft.vrl.annotation.ParamInfo}).
+ * The returned script has already been run, i.e., options can be queried via
+ * {@link Script#getProperty(java.lang.String)}.
+ * </p>
+ * <p>
+ * Options that only consist of literal assignments, e.g.,
+ * <code>min=0; max=10.5d; name="value"; enabled=true</code> are parsed
+ * without Groovy compiler. Literals have the same types as in Groovy. All
+ * other options are compiled once per option string and class loader. Each
+ * call returns a new script instance that has been run. Thus, option values
+ * are never shared between type representations.
+ * </p>
  *
  * @author Michael Hoffer &lt;info@michaelhoffer.de&gt;
  */
 public class ValueOptionsEvaluator {
 
-    private HashMap<String, Script> entries = new HashMap<String, Script>();
+    /**
+     * maximum number of compiled scripts per class loader
+     */
+    private static final int MAX_ENTRIES = 256;
+    private static final ValueOptionsEvaluator defaultEvaluator
+            = new ValueOptionsEvaluator();
+    /**
+     * literal options (option string, options)
+     */
+    private final Map<String, Map<String, Object>> literalEntries
+            = createLruMap();
+    /**
+     * compiled scripts (class loader, option string, script class)
+     */
+    private final Map<ClassLoader, Map<String, Class<? extends Script>>> entries
+            = new WeakHashMap<ClassLoader, Map<String, Class<? extends Script>>>();
 
+    /**
+     * Returns the evaluator that is shared by all type representations.
+     *
+     * @return the shared evaluator
+     */
+    public static ValueOptionsEvaluator getDefault() {
+        return defaultEvaluator;
+    }
+
+    /**
+     * Evaluates the specified options.
+     *
+     * @param s options to evaluate
+     * @return a script that has been run or <code>null</code> if the
+     * specified options are empty
+     */
     public Script evaluate(String s) {
 
         if (s == null || s.isEmpty()) {
             return null;
         }
 
-        Script script = entries.get(s);
+        Map<String, Object> literals = getLiteralOptions(s);
 
-        if (script == null) {
-            
-            script = new GroovyShell().parse(s);
-            entries.put(s, script);
-            script.run();
+        if (literals != null) {
+            Script script = new LiteralScript();
+            script.setBinding(new Binding(new HashMap<String, Object>(literals)));
+            return script;
         }
 
+        Script script = InvokerHelper.createScript(
+                getScriptClass(s), new Binding());
+        script.run();
+
         return script;
     }
 
-    public void clear() {
+    /**
+     * Removes all cached options.
+     */
+    public synchronized void clear() {
+        literalEntries.clear();
         entries.clear();
     }
+
+    /**
+     * Returns the literal options of the specified option string.
+     *
+     * @param s option string
+     * @return the options or <code>null</code> if the option string is not a
+     * sequence of literal assignments
+     */
+    private synchronized Map<String, Object> getLiteralOptions(String s) {
+        if (literalEntries.containsKey(s)) {
+            return literalEntries.get(s);
+        }
+
+        Map<String, Object> result = new LiteralParser(s).parse();
+
+        literalEntries.put(s, result);
+
+        return result;
+    }
+
+    /**
+     * Returns the compiled script of the specified option string.
+     *
+     * @param s option string
+     * @return the compiled script
+     */
+    private Class<? extends Script> getScriptClass(String s) {
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+
+        synchronized (this) {
+            Map<String, Class<? extends Script>> classes = entries.get(loader);
+
+            if (classes != null && classes.containsKey(s)) {
+                return classes.get(s);
+            }
+        }
+
+        // compile outside of the lock
+        Class<? extends Script> scriptClass
+                = new GroovyShell().parse(s).getClass();
+
+        synchronized (this) {
+            Map<String, Class<? extends Script>> classes = entries.get(loader);
+
+            if (classes == null) {
+                classes = createLruMap();
+                entries.put(loader, classes);
+            }
+
+            classes.put(s, scriptClass);
+        }
+
+        return scriptClass;
+    }
+
+    /**
+     * Creates a map that evicts the least recently used entry if it contains
+     * more than {@link #MAX_ENTRIES} entries.
+     *
+     * @return the map
+     */
+    private static <V> Map<String, V> createLruMap() {
+        return new LinkedHashMap<String, V>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > MAX_ENTRIES;
+            }
+        };
+    }
+
+    /**
+     * Script that provides literal options via its binding.
+     */
+    private static class LiteralScript extends Script {
+
+        @Override
+        public Object run() {
+            return null;
+        }
+    }
+
+    /**
+     * Parses statements of the form <code>name = literal</code> separated by
+     * semicolons or line breaks. Supported literals are numbers (with Groovy
+     * suffixes), strings without escape sequences or GString expressions,
+     * booleans and <code>null</code>.
+     */
+    private static final class LiteralParser {
+
+        private final String s;
+        private int pos;
+
+        public LiteralParser(String s) {
+            this.s = s;
+        }
+
+        /**
+         * Parses the option string.
+         *
+         * @return the options or <code>null</code> if the option string
+         * contains other statements
+         */
+        public Map<String, Object> parse() {
+            Map<String, Object> result = new HashMap<String, Object>();
+
+            while (true) {
+                skipWhitespaceAndSeparators();
+
+                if (pos >= s.length()) {
+                    return result;
+                }
+
+                String name = parseIdentifier();
+
+                if (name == null || name.equals("def")) {
+                    return null;
+                }
+
+                skipWhitespace();
+
+                if (!consume('=')) {
+                    return null;
+                }
+
+                skipWhitespace();
+
+                Object[] value = parseLiteral();
+
+                if (value == null) {
+                    return null;
+                }
+
+                result.put(name, value[0]);
+
+                skipWhitespace();
+
+                // statements must be terminated by a separator or the end
+                if (pos < s.length() && !isSeparator(s.charAt(pos))) {
+                    return null;
+                }
+            }
+        }
+
+        private boolean consume(char c) {
+            if (pos < s.length() && s.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private static boolean isSeparator(char c) {
+            return c == ';' || c == '\n' || c == '\r';
+        }
+
+        private void skipWhitespace() {
+            while (pos < s.length()
+                    && (s.charAt(pos) == ' ' || s.charAt(pos) == '\t')) {
+                pos++;
+            }
+        }
+
+        private void skipWhitespaceAndSeparators() {
+            while (pos < s.length()
+                    && (Character.isWhitespace(s.charAt(pos))
+                    || s.charAt(pos) == ';')) {
+                pos++;
+            }
+        }
+
+        private String parseIdentifier() {
+            int start = pos;
+
+            if (pos < s.length()
+                    && Character.isJavaIdentifierStart(s.charAt(pos))) {
+                pos++;
+                while (pos < s.length()
+                        && Character.isJavaIdentifierPart(s.charAt(pos))) {
+                    pos++;
+                }
+                return s.substring(start, pos);
+            }
+
+            return null;
+        }
+
+        /**
+         * Parses a literal.
+         *
+         * @return an array that contains the value (the value may be
+         * <code>null</code>) or <code>null</code> if no supported literal has
+         * been found
+         */
+        private Object[] parseLiteral() {
+            if (pos >= s.length()) {
+                return null;
+            }
+
+            char c = s.charAt(pos);
+
+            if (c == '"' || c == '\'') {
+                return parseString(c);
+            }
+
+            if (c == '-' || Character.isDigit(c)) {
+                return parseNumber();
+            }
+
+            String word = parseIdentifier();
+
+            if ("true".equals(word)) {
+                return new Object[]{Boolean.TRUE};
+            } else if ("false".equals(word)) {
+                return new Object[]{Boolean.FALSE};
+            } else if ("null".equals(word)) {
+                return new Object[]{null};
+            }
+
+            return null;
+        }
+
+        private Object[] parseString(char quote) {
+            int start = ++pos;
+
+            while (pos < s.length() && s.charAt(pos) != quote) {
+                char c = s.charAt(pos);
+
+                // escape sequences, GStrings and multiline strings are
+                // evaluated by Groovy
+                if (c == '\\' || c == '\n' || (quote == '"' && c == '$')) {
+                    return null;
+                }
+
+                pos++;
+            }
+
+            if (pos >= s.length() || pos == start && pos + 1 < s.length()
+                    && s.charAt(pos + 1) == quote) {
+                // unterminated or triple quoted string
+                return null;
+            }
+
+            String value = s.substring(start, pos);
+
+            pos++;
+
+            return new Object[]{value};
+        }
+
+        private Object[] parseNumber() {
+            int start = pos;
+
+            consume('-');
+
+            int digitsStart = pos;
+
+            while (pos < s.length() && Character.isDigit(s.charAt(pos))) {
+                pos++;
+            }
+
+            if (pos == digitsStart) {
+                return null;
+            }
+
+            // octal and hexadecimal literals are evaluated by Groovy
+            if (s.charAt(digitsStart) == '0' && pos - digitsStart > 1) {
+                return null;
+            }
+
+            boolean decimal = false;
+
+            if (pos + 1 < s.length() && s.charAt(pos) == '.'
+                    && Character.isDigit(s.charAt(pos + 1))) {
+                decimal = true;
+                pos++;
+                while (pos < s.length() && Character.isDigit(s.charAt(pos))) {
+                    pos++;
+                }
+            }
+
+            String number = s.substring(start, pos);
+
+            char suffix = pos < s.length() ? s.charAt(pos) : ' ';
+
+            if (Character.isLetter(suffix)) {
+                pos++;
+                // e.g. exponents or identifiers are evaluated by Groovy
+                if (pos < s.length()
+                        && Character.isJavaIdentifierPart(s.charAt(pos))) {
+                    return null;
+                }
+            }
+
+            try {
+                switch (suffix) {
+                    case 'd':
+                    case 'D':
+                        return new Object[]{Double.valueOf(number)};
+                    case 'f':
+                    case 'F':
+                        return new Object[]{Float.valueOf(number)};
+                    case 'g':
+                    case 'G':
+                        return new Object[]{decimal
+                            ? new BigDecimal(number) : new BigInteger(number)};
+                    case 'l':
+                    case 'L':
+                        return decimal ? null
+                                : new Object[]{Long.valueOf(number)};
+                    case 'i':
+                    case 'I':
+                        return decimal ? null
+                                : new Object[]{Integer.valueOf(number)};
+                    default:
+                        if (Character.isLetter(suffix)) {
+                            return null;
+                        }
+                        if (decimal) {
+                            return new Object[]{new BigDecimal(number)};
+                        }
+                        return new Object[]{integerValue(number)};
+                }
+            } catch (NumberFormatException ex) {
+                return null;
+            }
+        }
+
+        /**
+         * Returns the smallest integer type that can hold the specified
+         * number (as Groovy does).
+         *
+         * @param number number
+         * @return the number
+         */
+        private static Number integerValue(String number) {
+            BigInteger value = new BigInteger(number);
+
+            if (value.bitLength() < 32) {
+                return value.intValue();
+            } else if (value.bitLength() < 64) {
+                return value.longValue();
+            }
+
+            return value;
+        }
+    }
 }
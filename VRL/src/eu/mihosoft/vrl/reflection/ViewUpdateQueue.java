@@ -0,0 +1,249 @@
+/* 
+ * ViewUpdateQueue.java
+ * 
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2007–2018 by Michael Hoffer,
+ * Copyright (c) 2015–2018 G-CSC, Uni Frankfurt,
+ * Copyright (c) 2009–2015 Steinbeis Forschungszentrum (STZ Ölbronn)
+ * 
+ * This file is part of Visual Reflection Library (VRL).
+ *
+ * VRL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * see: http://opensource.org/licenses/LGPL-3.0
+ *      file://path/to/VRL/src/eu/mihosoft/vrl/resources/license/lgplv3.txt
+ *
+ * VRL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * This version of VRL includes copyright notice and attribution requirements.
+ * According to the LGPL this information must be displayed even if you modify
+ * the source code of VRL. Neither the VRL Canvas attribution icon nor any
+ * copyright statement/attribution may be removed.
+ *
+ * Attribution Requirements:
+ *
+ * If you create derived work you must do three things regarding copyright
+ * notice and author attribution.
+ *
+ * First, the following text must be displayed on the Canvas:
+ * "based on VRL source code". In this case the VRL canvas icon must be removed.
+ * 
+ * Second, the copyright notice must remain. It must be reproduced in any
+ * program that uses VRL.
+ *
+ * Third, add an additional notice, stating that you modified VRL. A suitable
+ * notice might read
+ * "VRL source code modified by YourName 2012".
+ * 
+ * Note, that these requirements are in full accordance with the LGPL v3
+ * (see 7. Additional Terms, b).
+ *
+ * Please cite the publication(s) listed below.
+ *
+ * Publications:
+ *
+ * M. Hoffer, C. Poliwoda, & G. Wittum. (2013). Visual reflection library:
+ * a framework for declarative GUI programming on the Java platform.
+ * Computing and Visualization in Science, 2013, 16(4),
+ * 181–192. http://doi.org/10.1007/s00791-014-0230-y
+ */
+
+package eu.mihosoft.vrl.reflection;
+
+import eu.mihosoft.vrl.visual.VSwingUtil;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+/**
+ * <p>
+ * Collects the view updates of type representations during headless
+ * execution (see {@link VisualCanvas#setHeadlessExecution(boolean)}) and
+ * applies them on the event dispatch thread. Updates are coalesced, i.e., if a
+ * type representation receives several values between two updates, only the
+ * most recent value is shown. Updates are applied at most
+ * {@link #getFramesPerSecond()} times per second.
+ * </p>
+ *
+ * @author Michael Hoffer &lt;info@michaelhoffer.de&gt;
+ */
+public class ViewUpdateQueue {
+
+    /**
+     * default maximum number of updates per second
+     */
+    public static final int DEFAULT_FRAMES_PER_SECOND = 30;
+    private final Set<TypeRepresentationBase> valueUpdates
+            = new LinkedHashSet<TypeRepresentationBase>();
+    private final Set<TypeRepresentationBase> layoutUpdates
+            = new LinkedHashSet<TypeRepresentationBase>();
+    private final Set<TypeRepresentationBase> validityUpdates
+            = new LinkedHashSet<TypeRepresentationBase>();
+    private final Timer timer;
+    private boolean scheduled;
+
+    /**
+     * Constructor.
+     */
+    public ViewUpdateQueue() {
+        this(DEFAULT_FRAMES_PER_SECOND);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param framesPerSecond maximum number of updates per second
+     */
+    public ViewUpdateQueue(int framesPerSecond) {
+        timer = new Timer(0, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                applyUpdates();
+            }
+        });
+        timer.setRepeats(false);
+        setFramesPerSecond(framesPerSecond);
+    }
+
+    /**
+     * Schedules a view update for the value of the specified type
+     * representation.
+     *
+     * @param t type representation
+     */
+    void valueChanged(TypeRepresentationBase t) {
+        synchronized (this) {
+            valueUpdates.add(t);
+            schedule();
+        }
+    }
+
+    /**
+     * Schedules a layout update for the specified type representation.
+     *
+     * @param t type representation
+     */
+    void layoutChanged(TypeRepresentationBase t) {
+        synchronized (this) {
+            layoutUpdates.add(t);
+            schedule();
+        }
+    }
+
+    /**
+     * Schedules a view update for the validation state of the specified type
+     * representation.
+     *
+     * @param t type representation
+     */
+    void validityChanged(TypeRepresentationBase t) {
+        synchronized (this) {
+            validityUpdates.add(t);
+            schedule();
+        }
+    }
+
+    /**
+     * Starts the timer if no update is scheduled.
+     */
+    private void schedule() {
+        if (!scheduled) {
+            scheduled = true;
+            timer.restart();
+        }
+    }
+
+    /**
+     * Applies all pending updates. This method waits until the updates have
+     * been applied on the event dispatch thread.
+     */
+    public void flush() {
+        VSwingUtil.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                applyUpdates();
+            }
+        });
+    }
+
+    /**
+     * Removes all pending updates without applying them.
+     */
+    public synchronized void clear() {
+        timer.stop();
+        scheduled = false;
+        valueUpdates.clear();
+        layoutUpdates.clear();
+        validityUpdates.clear();
+    }
+
+    /**
+     * Applies all pending updates. Must be called from the event dispatch
+     * thread.
+     */
+    private void applyUpdates() {
+        assert SwingUtilities.isEventDispatchThread();
+
+        TypeRepresentationBase[] values;
+        TypeRepresentationBase[] layouts;
+        TypeRepresentationBase[] validities;
+
+        synchronized (this) {
+            scheduled = false;
+            values = valueUpdates.toArray(
+                    new TypeRepresentationBase[valueUpdates.size()]);
+            layouts = layoutUpdates.toArray(
+                    new TypeRepresentationBase[layoutUpdates.size()]);
+            validities = validityUpdates.toArray(
+                    new TypeRepresentationBase[validityUpdates.size()]);
+            valueUpdates.clear();
+            layoutUpdates.clear();
+            validityUpdates.clear();
+        }
+
+        for (TypeRepresentationBase t : values) {
+            t.updateView();
+        }
+
+        for (TypeRepresentationBase t : validities) {
+            t.updateValidity();
+        }
+
+        for (TypeRepresentationBase t : layouts) {
+            t.updateLayout();
+        }
+    }
+
+    /**
+     * Returns the maximum number of updates per second.
+     *
+     * @return the maximum number of updates per second
+     */
+    public int getFramesPerSecond() {
+        return 1000 / timer.getInitialDelay();
+    }
+
+    /**
+     * Defines the maximum number of updates per second.
+     *
+     * @param framesPerSecond the number of updates to set (must be greater
+     * than zero)
+     */
+    public final void setFramesPerSecond(int framesPerSecond) {
+        if (framesPerSecond < 1) {
+            throw new IllegalArgumentException(
+                    "Frames per second must be greater than zero!");
+        }
+
+        timer.setInitialDelay(Math.max(1, 1000 / framesPerSecond));
+    }
+}
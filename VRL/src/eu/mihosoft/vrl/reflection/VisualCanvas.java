@@ -56,6 +56,7 @@
 package eu.mihosoft.vrl.reflection;
 
 import eu.mihosoft.vrl.system.VClassLoader;
+import eu.mihosoft.vrl.system.VParamUtil;
 import eu.mihosoft.vrl.io.vrlx.VSessionInitializer;
 import eu.mihosoft.vrl.annotation.ObjectInfo;
 import eu.mihosoft.vrl.io.VProjectController;
@@ -176,6 +177,27 @@ public final class VisualCanvas extends Canvas {
      *
      */
     private boolean invokeWaitEffect = false;
+    /**
+     *
+     */
+    private DataflowScheduler dataflowScheduler;
+    /**
+     *
+     */
+    private DependencyMode dependencyMode = DependencyMode.LAZY;
+    /**
+     *
+     */
+    private final MethodResultCache methodResultCache
+            = new MethodResultCache();
+    /**
+     *
+     */
+    private volatile boolean headlessExecution = false;
+    /**
+     *
+     */
+    private final ViewUpdateQueue viewUpdateQueue = new ViewUpdateQueue();
     /**
      *
      */
@@ -1208,6 +1230,13 @@ public final class VisualCanvas extends Canvas {
      */
     public void setClassLoader(VClassLoader classLoader) {
         this.classLoader = classLoader;
+
+        // classes of the previous class loader are not used anymore
+        ObjectDescriptionTemplate.clearCache();
+
+        if (getInspector() != null) {
+            getInspector().getMethodInvokerCache().clear();
+        }
     }
 
     /**
@@ -1252,6 +1281,14 @@ public final class VisualCanvas extends Canvas {
             }
         }
 
+        if (dataflowScheduler != null) {
+            dataflowScheduler.shutdown();
+        }
+
+        methodResultCache.clear();
+
+        viewUpdateQueue.clear();
+
         getPopupMenu().removeAll();
 
         getTypeFactory().dispose();
@@ -1333,6 +1370,147 @@ public final class VisualCanvas extends Canvas {
         this.invokeWaitEffect = invokeWaitEffect;
     }
 
+    /**
+     * Returns the scheduler that invokes outdated upstream methods.
+     *
+     * @return the scheduler that invokes outdated upstream methods or
+     * <code>null</code> if upstream methods are invoked recursively by the
+     * input connectors (default)
+     */
+    public DataflowScheduler getDataflowScheduler() {
+        return dataflowScheduler;
+    }
+
+    /**
+     * Defines the scheduler that invokes outdated upstream methods. Use this
+     * to invoke independent upstream methods concurrently.
+     *
+     * @param dataflowScheduler the scheduler to set (<code>null</code>
+     * restores recursive invocation by the input connectors)
+     * @see DataflowScheduler
+     */
+    public void setDataflowScheduler(DataflowScheduler dataflowScheduler) {
+        this.dataflowScheduler = dataflowScheduler;
+    }
+
+    /**
+     * Indicates whether methods of this canvas are invoked headless.
+     *
+     * @return <code>true</code> if methods are invoked headless;
+     * <code>false</code> otherwise
+     * @see #setHeadlessExecution(boolean)
+     */
+    public boolean isHeadlessExecution() {
+        return headlessExecution;
+    }
+
+    /**
+     * <p>
+     * Defines whether to invoke methods of this canvas headless. Use this
+     * to run workflows in loops (batch processing).
+     * </p>
+     * <p>
+     * In headless mode the values of unconnected parameters are read from
+     * the ui only once, i.e., when headless execution is enabled. Changes of
+     * parameter values entered by the user are ignored until headless
+     * execution is enabled again. Method invocation does not wait for the
+     * event dispatch thread. Return values, validation states and layout
+     * changes are shown asynchronously by the
+     * {@link #getViewUpdateQueue() view update queue}. The invocation delay
+     * and the invoke wait effect are ignored.
+     * </p>
+     * <p>
+     * Pending view updates are applied if headless execution is disabled.
+     * </p>
+     *
+     * @param headlessExecution the state to set
+     */
+    public void setHeadlessExecution(boolean headlessExecution) {
+        if (headlessExecution && !this.headlessExecution) {
+            readHeadlessValues();
+        }
+
+        this.headlessExecution = headlessExecution;
+
+        if (!headlessExecution) {
+            viewUpdateQueue.flush();
+        }
+    }
+
+    /**
+     * Reads the view values of all type representations of this canvas that
+     * are used during headless execution. This method waits for the event
+     * dispatch thread.
+     */
+    private void readHeadlessValues() {
+        VSwingUtil.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                for (CanvasWindow w
+                        : getWindows().getAllWindowsOfType(VisualObject.class)) {
+                    DefaultObjectRepresentation oRep
+                            = ((VisualObject) w).getObjectRepresentation();
+
+                    for (DefaultMethodRepresentation mRep : oRep.getMethods()) {
+                        for (TypeRepresentationBase t : mRep.getParameters()) {
+                            t.readHeadlessValue();
+                        }
+
+                        if (mRep.getReturnValue() != null) {
+                            mRep.getReturnValue().readHeadlessValue();
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the queue that shows return values and layout changes during
+     * headless execution. Use it to define the maximum update rate.
+     *
+     * @return the view update queue of this canvas
+     */
+    public ViewUpdateQueue getViewUpdateQueue() {
+        return viewUpdateQueue;
+    }
+
+    /**
+     * Returns the dependency mode of this canvas.
+     *
+     * @return the dependency mode of this canvas
+     */
+    public DependencyMode getDependencyMode() {
+        return dependencyMode;
+    }
+
+    /**
+     * Defines the dependency mode of this canvas. Remembered method results
+     * are forgotten if the mode is not {@link DependencyMode#MEMOIZED}.
+     *
+     * @param dependencyMode the dependency mode to set
+     */
+    public void setDependencyMode(DependencyMode dependencyMode) {
+        VParamUtil.throwIfNull(dependencyMode);
+
+        this.dependencyMode = dependencyMode;
+
+        if (dependencyMode != DependencyMode.MEMOIZED) {
+            methodResultCache.clear();
+        }
+    }
+
+    /**
+     * Returns the cache that stores the method results of this canvas if the
+     * dependency mode is {@link DependencyMode#MEMOIZED}. Use it to define
+     * the maximum number of remembered results.
+     *
+     * @return the method result cache of this canvas
+     */
+    public MethodResultCache getMethodResultCache() {
+        return methodResultCache;
+    }
+
     /**
      * @return the objectRepresentationFactory
      */
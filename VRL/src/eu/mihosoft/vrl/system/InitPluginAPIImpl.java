@@ -69,17 +69,27 @@ import java.awt.event.ActionEvent;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.Icon;
 
 /**
+ * Init api implementation. Plugins are initialized in parallel. Therefore,
+ * changes of global state such as menu entries are buffered and applied via
+ * {@link #apply()} in boot order on the boot thread.
  *
  * @author Michael Hoffer &lt;info@michaelhoffer.de&gt;
  */
 class InitPluginAPIImpl implements InitPluginAPI {
 
     private PluginDataController dataController;
+    /**
+     * project template actions that have not been added to the templates
+     * menu yet
+     */
+    private final List<Action> templateActions = new ArrayList<Action>();
 
     public InitPluginAPIImpl(PluginDataController pdC) {
         this.dataController = pdC;
@@ -204,6 +214,22 @@ class InitPluginAPIImpl implements InitPluginAPI {
             }
         };
 
-        VRL.getFileTemplatesMenuController().addAction(a);
+        synchronized (templateActions) {
+            templateActions.add(a);
+        }
+    }
+
+    /**
+     * Applies the buffered changes, i.e., adds the project templates to the
+     * templates menu. This method must be called from the boot thread.
+     */
+    void apply() {
+        synchronized (templateActions) {
+            for (Action a : templateActions) {
+                VRL.getFileTemplatesMenuController().addAction(a);
+            }
+
+            templateActions.clear();
+        }
     }
 }
@@ -0,0 +1,275 @@
+/* 
+ * LogSink.java
+ * 
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2007–2018 by Michael Hoffer,
+ * Copyright (c) 2015–2018 G-CSC, Uni Frankfurt,
+ * Copyright (c) 2009–2015 Steinbeis Forschungszentrum (STZ Ölbronn)
+ * 
+ * This file is part of Visual Reflection Library (VRL).
+ *
+ * VRL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * see: http://opensource.org/licenses/LGPL-3.0
+ *      file://path/to/VRL/src/eu/mihosoft/vrl/resources/license/lgplv3.txt
+ *
+ * VRL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * This version of VRL includes copyright notice and attribution requirements.
+ * According to the LGPL this information must be displayed even if you modify
+ * the source code of VRL. Neither the VRL Canvas attribution icon nor any
+ * copyright statement/attribution may be removed.
+ *
+ * Attribution Requirements:
+ *
+ * If you create derived work you must do three things regarding copyright
+ * notice and author attribution.
+ *
+ * First, the following text must be displayed on the Canvas:
+ * "based on VRL source code". In this case the VRL canvas icon must be removed.
+ * 
+ * Second, the copyright notice must remain. It must be reproduced in any
+ * program that uses VRL.
+ *
+ * Third, add an additional notice, stating that you modified VRL. A suitable
+ * notice might read
+ * "VRL source code modified by YourName 2012".
+ * 
+ * Note, that these requirements are in full accordance with the LGPL v3
+ * (see 7. Additional Terms, b).
+ *
+ * Please cite the publication(s) listed below.
+ *
+ * Publications:
+ *
+ * M. Hoffer, C. Poliwoda, & G. Wittum. (2013). Visual reflection library:
+ * a framework for declarative GUI programming on the Java platform.
+ * Computing and Visualization in Science, 2013, 16(4),
+ * 181–192. http://doi.org/10.1007/s00791-014-0230-y
+ */
+
+package eu.mihosoft.vrl.system;
+
+import java.awt.Rectangle;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.swing.JTextArea;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
+
+/**
+ * <p>
+ * Log sink of a text area. Text can be appended from any thread without
+ * locking. Appended text is collected and written to the text area in batches
+ * at most {@link #getFramesPerSecond()} times per second. The text area works
+ * as ring buffer, i.e., if the number of lines exceeds
+ * {@link #getMaxLines()}, the oldest lines are removed.
+ * </p>
+ * <p>
+ * If the event dispatch thread cannot keep up, at most
+ * {@link #MAX_PENDING_CHARS} characters are kept. Older pending text is
+ * dropped.
+ * </p>
+ *
+ * @author Michael Hoffer &lt;info@michaelhoffer.de&gt;
+ */
+public final class LogSink {
+
+    /**
+     * default maximum number of lines
+     */
+    public static final int DEFAULT_MAX_LINES = 10000;
+    /**
+     * default maximum number of updates per second
+     */
+    public static final int DEFAULT_FRAMES_PER_SECOND = 20;
+    /**
+     * maximum number of characters that are waiting to be written
+     */
+    public static final int MAX_PENDING_CHARS = 1 << 20;
+    private final JTextArea view;
+    private final ConcurrentLinkedQueue<String> pending
+            = new ConcurrentLinkedQueue<String>();
+    private final AtomicInteger pendingChars = new AtomicInteger();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Timer timer;
+    private volatile int maxLines = DEFAULT_MAX_LINES;
+
+    /**
+     * Constructor.
+     *
+     * @param view text area
+     */
+    private LogSink(JTextArea view) {
+        this.view = view;
+
+        timer = new Timer(1000 / DEFAULT_FRAMES_PER_SECOND,
+                new ActionListener() {
+                    @Override
+                    public void actionPerformed(ActionEvent e) {
+                        flush();
+                    }
+                });
+        timer.setRepeats(false);
+    }
+
+    /**
+     * Returns the log sink of the specified text area. All streams that write
+     * to the same text area share one sink, i.e., the order of the text is
+     * preserved.
+     *
+     * @param view text area
+     * @return the log sink of the specified text area
+     */
+    public static LogSink getSink(JTextArea view) {
+        synchronized (view) {
+            LogSink sink = (LogSink) view.getClientProperty(LogSink.class);
+
+            if (sink == null) {
+                sink = new LogSink(view);
+                view.putClientProperty(LogSink.class, sink);
+            }
+
+            return sink;
+        }
+    }
+
+    /**
+     * Appends the specified text. This method can be called from any thread.
+     *
+     * @param text text to append
+     */
+    public void append(String text) {
+        pending.add(text);
+
+        // drop the oldest text if the event dispatch thread
+        // cannot keep up
+        if (pendingChars.addAndGet(text.length()) > MAX_PENDING_CHARS) {
+            String s;
+            while (pendingChars.get() > MAX_PENDING_CHARS
+                    && (s = pending.poll()) != null) {
+                pendingChars.addAndGet(-s.length());
+            }
+        }
+
+        if (scheduled.compareAndSet(false, true)) {
+            timer.restart();
+        }
+    }
+
+    /**
+     * Writes all pending text to the text area. Must be called from the event
+     * dispatch thread.
+     */
+    public void flush() {
+        assert SwingUtilities.isEventDispatchThread();
+
+        scheduled.set(false);
+
+        StringBuilder sb = new StringBuilder();
+
+        String s;
+        while ((s = pending.poll()) != null) {
+            pendingChars.addAndGet(-s.length());
+            sb.append(s);
+        }
+
+        if (sb.length() == 0) {
+            return;
+        }
+
+        Document doc = view.getDocument();
+
+        try {
+            doc.insertString(doc.getLength(), sb.toString(), null);
+            removeOldLines(doc);
+            view.setCaretPosition(doc.getLength());
+        } catch (BadLocationException e) {
+            // e.printStackTrace();
+        } catch (IllegalArgumentException e) {
+            // e.printStackTrace();
+        }
+
+        // automatically scroll down to the last line
+        view.scrollRectToVisible(
+                new Rectangle(0, view.getHeight() - 1, 1, 1));
+    }
+
+    /**
+     * Removes the oldest lines if the number of lines exceeds the maximum
+     * number of lines.
+     *
+     * @param doc document
+     * @throws BadLocationException
+     */
+    private void removeOldLines(Document doc) throws BadLocationException {
+        Element root = doc.getDefaultRootElement();
+
+        int numberOfLinesToRemove = root.getElementCount() - maxLines;
+
+        if (numberOfLinesToRemove > 0) {
+            int end = root.getElement(numberOfLinesToRemove).getStartOffset();
+            doc.remove(0, end);
+        }
+    }
+
+    /**
+     * Returns the maximum number of lines.
+     *
+     * @return the maximum number of lines
+     */
+    public int getMaxLines() {
+        return maxLines;
+    }
+
+    /**
+     * Defines the maximum number of lines. Oldest lines are removed with the
+     * next update.
+     *
+     * @param maxLines the number of lines to set (must be greater than zero)
+     */
+    public void setMaxLines(int maxLines) {
+        if (maxLines < 1) {
+            throw new IllegalArgumentException(
+                    "Max lines must be greater than zero!");
+        }
+
+        this.maxLines = maxLines;
+    }
+
+    /**
+     * Returns the maximum number of updates per second.
+     *
+     * @return the maximum number of updates per second
+     */
+    public int getFramesPerSecond() {
+        return 1000 / timer.getInitialDelay();
+    }
+
+    /**
+     * Defines the maximum number of updates per second.
+     *
+     * @param framesPerSecond the number of updates to set (must be greater
+     * than zero)
+     */
+    public void setFramesPerSecond(int framesPerSecond) {
+        if (framesPerSecond < 1) {
+            throw new IllegalArgumentException(
+                    "Frames per second must be greater than zero!");
+        }
+
+        timer.setInitialDelay(Math.max(1, 1000 / framesPerSecond));
+    }
+}
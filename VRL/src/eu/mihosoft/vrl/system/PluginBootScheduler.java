@@ -0,0 +1,259 @@
+/* 
+ * PluginBootScheduler.java
+ * 
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2007–2018 by Michael Hoffer,
+ * Copyright (c) 2015–2018 G-CSC, Uni Frankfurt,
+ * Copyright (c) 2009–2015 Steinbeis Forschungszentrum (STZ Ölbronn)
+ * 
+ * This file is part of Visual Reflection Library (VRL).
+ *
+ * VRL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * see: http://opensource.org/licenses/LGPL-3.0
+ *      file://path/to/VRL/src/eu/mihosoft/vrl/resources/license/lgplv3.txt
+ *
+ * VRL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * This version of VRL includes copyright notice and attribution requirements.
+ * According to the LGPL this information must be displayed even if you modify
+ * the source code of VRL. Neither the VRL Canvas attribution icon nor any
+ * copyright statement/attribution may be removed.
+ *
+ * Attribution Requirements:
+ *
+ * If you create derived work you must do three things regarding copyright
+ * notice and author attribution.
+ *
+ * First, the following text must be displayed on the Canvas:
+ * "based on VRL source code". In this case the VRL canvas icon must be removed.
+ * 
+ * Second, the copyright notice must remain. It must be reproduced in any
+ * program that uses VRL.
+ *
+ * Third, add an additional notice, stating that you modified VRL. A suitable
+ * notice might read
+ * "VRL source code modified by YourName 2012".
+ * 
+ * Note, that these requirements are in full accordance with the LGPL v3
+ * (see 7. Additional Terms, b).
+ *
+ * Please cite the publication(s) listed below.
+ *
+ * Publications:
+ *
+ * M. Hoffer, C. Poliwoda, & G. Wittum. (2013). Visual reflection library:
+ * a framework for declarative GUI programming on the Java platform.
+ * Computing and Visualization in Science, 2013, 16(4),
+ * 181–192. http://doi.org/10.1007/s00791-014-0230-y
+ */
+
+package eu.mihosoft.vrl.system;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <p>
+ * Executes plugin boot tasks, e.g., scanning plugin files and initializing
+ * plugins. Tasks are identified by their index. A task is executed after all
+ * tasks it depends on have been completed. Independent tasks are executed in
+ * parallel.
+ * </p>
+ * <p>
+ * For debugging, parallel boot can be disabled (command line option
+ * <code>-plugin-boot sequential</code>). In this case all tasks are executed
+ * one after another in index order on the calling thread.
+ * </p>
+ *
+ * @author Michael Hoffer &lt;info@michaelhoffer.de&gt;
+ */
+public final class PluginBootScheduler {
+
+    private static volatile boolean parallelBoot = true;
+
+    // no instanciation allowed
+    private PluginBootScheduler() {
+        throw new AssertionError(); // not in this class either!
+    }
+
+    /**
+     * Indicates whether parallel plugin boot is enabled.
+     *
+     * @return <code>true</code> if parallel plugin boot is enabled;
+     * <code>false</code> otherwise
+     */
+    public static boolean isParallelBootEnabled() {
+        return parallelBoot;
+    }
+
+    /**
+     * Defines whether to enable parallel plugin boot. If disabled, plugins are
+     * scanned and initialized one after another in boot order.
+     *
+     * @param v the state to set
+     */
+    public static void enableParallelBoot(boolean v) {
+        parallelBoot = v;
+    }
+
+    /**
+     * Boot task.
+     */
+    interface Task {
+
+        /**
+         * Executes the task with the specified index.
+         *
+         * @param i task index
+         * @throws Exception if the task fails
+         */
+        void run(int i) throws Exception;
+    }
+
+    /**
+     * Executes the specified tasks. This method returns after all tasks have
+     * been completed. Failing tasks are logged and count as completed.
+     *
+     * @param numberOfTasks number of tasks
+     * @param dependencies the indices of the tasks each task depends on
+     * (tasks may only depend on tasks with lower index), <code>null</code>
+     * if the tasks are independent
+     * @param task the task to execute
+     */
+    static void execute(int numberOfTasks,
+            List<? extends Collection<Integer>> dependencies, final Task task) {
+
+        int numberOfThreads = Math.min(numberOfTasks,
+                Runtime.getRuntime().availableProcessors());
+
+        if (!isParallelBootEnabled() || numberOfThreads < 2) {
+            for (int i = 0; i < numberOfTasks; i++) {
+                runTask(task, i);
+            }
+            return;
+        }
+
+        // number of unfinished dependencies and dependents of each task
+        int[] remaining = new int[numberOfTasks];
+        List<List<Integer>> dependents = new ArrayList<List<Integer>>();
+
+        for (int i = 0; i < numberOfTasks; i++) {
+            dependents.add(new ArrayList<Integer>());
+        }
+
+        if (dependencies != null) {
+            for (int i = 0; i < numberOfTasks; i++) {
+                for (Integer d : dependencies.get(i)) {
+                    if (d < 0 || d >= i) {
+                        throw new IllegalArgumentException(
+                                "Task " + i + " must not depend on task " + d);
+                    }
+                    remaining[i]++;
+                    dependents.get(d).add(i);
+                }
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(
+                numberOfThreads, new ThreadFactory() {
+                    private final AtomicInteger count = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread t = new Thread(r,
+                                "VRL-Boot-" + count.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    }
+                });
+
+        CompletionService<Integer> completionService
+                = new ExecutorCompletionService<Integer>(executor);
+
+        try {
+            int running = 0;
+
+            // tasks are submitted in index order, i.e., in boot order
+            for (int i = 0; i < numberOfTasks; i++) {
+                if (remaining[i] == 0) {
+                    submit(completionService, task, i);
+                    running++;
+                }
+            }
+
+            while (running > 0) {
+                int finished = completionService.take().get();
+                running--;
+
+                for (Integer i : dependents.get(finished)) {
+                    remaining[i]--;
+                    if (remaining[i] == 0) {
+                        submit(completionService, task, i);
+                        running++;
+                    }
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            Logger.getLogger(PluginBootScheduler.class.getName()).
+                    log(Level.SEVERE, null, ex);
+        } catch (ExecutionException ex) {
+            // cannot happen, runTask() catches all exceptions
+            Logger.getLogger(PluginBootScheduler.class.getName()).
+                    log(Level.SEVERE, null, ex);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Submits the specified task.
+     *
+     * @param completionService completion service
+     * @param task task
+     * @param i task index
+     */
+    private static void submit(CompletionService<Integer> completionService,
+            final Task task, final int i) {
+        completionService.submit(new Callable<Integer>() {
+            @Override
+            public Integer call() {
+                runTask(task, i);
+                return i;
+            }
+        });
+    }
+
+    /**
+     * Runs the specified task and logs all exceptions.
+     *
+     * @param task task
+     * @param i task index
+     */
+    private static void runTask(Task task, int i) {
+        try {
+            task.run(i);
+        } catch (Throwable tr) {
+            Logger.getLogger(PluginBootScheduler.class.getName()).
+                    log(Level.SEVERE, null, tr);
+        }
+    }
+}
@@ -64,14 +64,12 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
-import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.logging.Level;
@@ -275,28 +273,36 @@ public class PluginCacheController {
         return cache;
     }
 
-    private static Map<String, String> generateChecksums() {
-
-        Map<String, String> result = new HashMap<String, String>();
+    /**
+     * Returns the checksums of all plugin files in the plugin directory.
+     * Only files that changed since the last call (size or modification
+     * date) are read.
+     *
+     * @return a map containing the checksums of all plugin files (the paths
+     * relative to the plugin directory are used as keys)
+     */
+    static Map<String, String> generateChecksums() {
+        return PluginChecksumIndex.getIndex(
+                new File(Constants.PLUGIN_DIR)).getChecksums();
+    }
 
-        ArrayList<File> jarFiles = IOUtil.listFiles(
-                new File(Constants.PLUGIN_DIR), new String[]{".jar"});
+    /**
+     * Returns the SHA-1 checksum of the specified plugin file. Checksums of
+     * files in the plugin directory are taken from the checksum index if the
+     * file did not change.
+     *
+     * @param f plugin file
+     * @return the checksum of the specified file or an empty string if the
+     * file cannot be read
+     */
+    static String getChecksum(File f) {
+        File pluginDir = new File(Constants.PLUGIN_DIR).getAbsoluteFile();
 
-        for (File f : jarFiles) {
-            try {
-                String jarFileChecksum =
-                        IOUtil.generateSHA1Sum(IOUtil.fileToByteArray(f));
-                result.put(f.getAbsolutePath(), jarFileChecksum);
-            } catch (FileNotFoundException ex) {
-                Logger.getLogger(PluginCacheEntry.class.getName()).
-                        log(Level.SEVERE, null, ex);
-            } catch (IOException ex) {
-                Logger.getLogger(PluginCacheEntry.class.getName()).
-                        log(Level.SEVERE, null, ex);
-            }
+        if (pluginDir.equals(f.getAbsoluteFile().getParentFile())) {
+            return PluginChecksumIndex.getIndex(pluginDir).getChecksum(f);
         }
 
-        return result;
+        return IOUtil.generateSHA1Sum(f);
     }
 
     public static void deleteCache(File f) {
@@ -324,8 +330,6 @@ public class PluginCacheController {
             return !_isCacheAvailable(f);
         }
 
-        Map<String, String> checksums = generateChecksums();
-
         PluginCache cache = loadCache(f);
 
         if (cache == null) {
@@ -335,14 +339,16 @@ public class PluginCacheController {
             return true;
         }
 
-        if (cache.getEntries().size() != checksums.size()) {
+        if (cache.getEntries().isEmpty()) {
             SplashScreenGenerator.printBootMessage(
-                    ">> plugin cache needs update (wrong number of files)");
+                    ">> plugin cache needs update (no entries)");
             System.out.println(
-                    ">> plugin cache needs update (wrong number of files)");
+                    ">> plugin cache needs update (no entries)");
             return true;
         }
 
+        Map<String, String> checksums = generateChecksums();
+
         for (PluginCacheEntry e : cache.getEntries()) {
 
             String checkSum = checksums.get(e.getJarFile());
@@ -56,14 +56,9 @@
 
 package eu.mihosoft.vrl.system;
 
-import eu.mihosoft.vrl.io.IOUtil;
 import eu.mihosoft.vrl.io.VJarUtil;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.IOException;
 import java.util.ArrayList;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 
 /**
  *
@@ -97,15 +92,7 @@ public class PluginCacheEntry {
             return;
         }
         
-        try {
-            jarFileChecksum = IOUtil.generateSHA1Sum(IOUtil.fileToByteArray(f));
-        } catch (FileNotFoundException ex) {
-            Logger.getLogger(PluginCacheEntry.class.getName()).
-                    log(Level.SEVERE, null, ex);
-        } catch (IOException ex) {
-            Logger.getLogger(PluginCacheEntry.class.getName()).
-                    log(Level.SEVERE, null, ex);
-        }
+        jarFileChecksum = PluginCacheController.getChecksum(f);
     }
 
     /**
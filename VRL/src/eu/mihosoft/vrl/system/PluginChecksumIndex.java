@@ -0,0 +1,450 @@
+/* 
+ * PluginChecksumIndex.java
+ * 
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2007–2018 by Michael Hoffer,
+ * Copyright (c) 2015–2018 G-CSC, Uni Frankfurt,
+ * Copyright (c) 2009–2015 Steinbeis Forschungszentrum (STZ Ölbronn)
+ * 
+ * This file is part of Visual Reflection Library (VRL).
+ *
+ * VRL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * see: http://opensource.org/licenses/LGPL-3.0
+ *      file://path/to/VRL/src/eu/mihosoft/vrl/resources/license/lgplv3.txt
+ *
+ * VRL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * This version of VRL includes copyright notice and attribution requirements.
+ * According to the LGPL this information must be displayed even if you modify
+ * the source code of VRL. Neither the VRL Canvas attribution icon nor any
+ * copyright statement/attribution may be removed.
+ *
+ * Attribution Requirements:
+ *
+ * If you create derived work you must do three things regarding copyright
+ * notice and author attribution.
+ *
+ * First, the following text must be displayed on the Canvas:
+ * "based on VRL source code". In this case the VRL canvas icon must be removed.
+ * 
+ * Second, the copyright notice must remain. It must be reproduced in any
+ * program that uses VRL.
+ *
+ * Third, add an additional notice, stating that you modified VRL. A suitable
+ * notice might read
+ * "VRL source code modified by YourName 2012".
+ * 
+ * Note, that these requirements are in full accordance with the LGPL v3
+ * (see 7. Additional Terms, b).
+ *
+ * Please cite the publication(s) listed below.
+ *
+ * Publications:
+ *
+ * M. Hoffer, C. Poliwoda, & G. Wittum. (2013). Visual reflection library:
+ * a framework for declarative GUI programming on the Java platform.
+ * Computing and Visualization in Science, 2013, 16(4),
+ * 181–192. http://doi.org/10.1007/s00791-014-0230-y
+ */
+
+package eu.mihosoft.vrl.system;
+
+import eu.mihosoft.vrl.io.IOUtil;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <p>
+ * Checksum index of the plugin files of a plugin directory. The index is
+ * stored in the plugin directory. It maps the path of each plugin file
+ * (relative to the plugin directory) to its size, modification date and
+ * SHA-1 checksum. Checksums are only computed for files whose size or
+ * modification date changed. Checksums of several files are computed in
+ * parallel.
+ * </p>
+ *
+ * @author Michael Hoffer &lt;info@michaelhoffer.de&gt;
+ */
+final class PluginChecksumIndex {
+
+    /**
+     * name of the index file
+     */
+    static final String INDEX_FILE_NAME = "plugin-checksums.properties";
+    private static final Map<File, PluginChecksumIndex> indices
+            = new HashMap<File, PluginChecksumIndex>();
+    private final File pluginDir;
+    private final Map<String, Entry> entries = new HashMap<String, Entry>();
+    private boolean loaded;
+
+    /**
+     * Constructor.
+     *
+     * @param pluginDir plugin directory
+     */
+    private PluginChecksumIndex(File pluginDir) {
+        this.pluginDir = pluginDir;
+    }
+
+    /**
+     * Returns the checksum index of the specified plugin directory.
+     *
+     * @param pluginDir plugin directory
+     * @return the checksum index of the specified plugin directory
+     */
+    static PluginChecksumIndex getIndex(File pluginDir) {
+        File dir = pluginDir.getAbsoluteFile();
+
+        synchronized (indices) {
+            PluginChecksumIndex index = indices.get(dir);
+
+            if (index == null) {
+                index = new PluginChecksumIndex(dir);
+                indices.put(dir, index);
+            }
+
+            return index;
+        }
+    }
+
+    /**
+     * Returns the checksums of all plugin files in the plugin directory.
+     *
+     * @return a map containing the checksums of all plugin files (the paths
+     * relative to the plugin directory are used as keys)
+     */
+    synchronized Map<String, String> getChecksums() {
+        load();
+
+        ArrayList<File> pluginFiles = IOUtil.listFiles(
+                pluginDir, new String[]{".jar", ".vrlplugin"});
+
+        Map<String, File> outdated = new HashMap<String, File>();
+        Map<String, Entry> current = new HashMap<String, Entry>();
+
+        for (File f : pluginFiles) {
+            String key = keyOf(f);
+            Entry e = entries.get(key);
+
+            if (e != null && e.matches(f)) {
+                current.put(key, e);
+            } else {
+                outdated.put(key, f);
+            }
+        }
+
+        boolean modified = current.size() != entries.size();
+
+        if (!outdated.isEmpty()) {
+            current.putAll(computeEntries(outdated));
+            modified = true;
+        }
+
+        if (modified) {
+            entries.clear();
+            entries.putAll(current);
+            save();
+        }
+
+        Map<String, String> result = new HashMap<String, String>();
+
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            result.put(e.getKey(), e.getValue().checksum);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the checksum of the specified plugin file. The checksum is
+     * taken from the index if the size and the modification date of the file
+     * did not change.
+     *
+     * @param f plugin file (must be located in the plugin directory)
+     * @return the checksum of the specified file or an empty string if the
+     * file cannot be read
+     */
+    synchronized String getChecksum(File f) {
+        load();
+
+        String key = keyOf(f);
+        Entry e = entries.get(key);
+
+        if (e == null || !e.matches(f)) {
+            e = Entry.compute(f);
+
+            if (e == null) {
+                return "";
+            }
+
+            entries.put(key, e);
+            save();
+        }
+
+        return e.checksum;
+    }
+
+    /**
+     * Returns the index key of the specified file.
+     *
+     * @param f plugin file
+     * @return the path of the specified file relative to the plugin directory
+     */
+    private String keyOf(File f) {
+        return pluginDir.toURI().relativize(
+                f.getAbsoluteFile().toURI()).getPath();
+    }
+
+    /**
+     * Computes the index entries of the specified files in parallel.
+     *
+     * @param files files (index keys are used as map keys)
+     * @return the index entries of the specified files (files that cannot be
+     * read are not included)
+     */
+    private static Map<String, Entry> computeEntries(Map<String, File> files) {
+        Map<String, Entry> result = new HashMap<String, Entry>();
+
+        int numberOfThreads = Math.min(files.size(),
+                Runtime.getRuntime().availableProcessors());
+
+        if (numberOfThreads < 2) {
+            for (Map.Entry<String, File> f : files.entrySet()) {
+                Entry e = Entry.compute(f.getValue());
+                if (e != null) {
+                    result.put(f.getKey(), e);
+                }
+            }
+            return result;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(
+                numberOfThreads, new ThreadFactory() {
+                    private final AtomicInteger count = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread t = new Thread(r,
+                                "VRL-Checksum-" + count.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    }
+                });
+
+        try {
+            List<Future<Entry>> futures = new ArrayList<Future<Entry>>();
+            List<String> keys = new ArrayList<String>(files.keySet());
+
+            for (String key : keys) {
+                final File f = files.get(key);
+                futures.add(executor.submit(new Callable<Entry>() {
+                    @Override
+                    public Entry call() {
+                        return Entry.compute(f);
+                    }
+                }));
+            }
+
+            for (int i = 0; i < keys.size(); i++) {
+                try {
+                    Entry e = futures.get(i).get();
+                    if (e != null) {
+                        result.put(keys.get(i), e);
+                    }
+                } catch (ExecutionException ex) {
+                    Logger.getLogger(PluginChecksumIndex.class.getName()).
+                            log(Level.SEVERE, null, ex);
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            Logger.getLogger(PluginChecksumIndex.class.getName()).
+                    log(Level.SEVERE, null, ex);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return result;
+    }
+
+    /**
+     * Loads the index file (only once).
+     */
+    private void load() {
+        if (loaded) {
+            return;
+        }
+
+        loaded = true;
+
+        File indexFile = new File(pluginDir, INDEX_FILE_NAME);
+
+        if (!indexFile.isFile()) {
+            return;
+        }
+
+        Properties properties = new Properties();
+
+        InputStream in = null;
+
+        try {
+            in = new FileInputStream(indexFile);
+            properties.load(in);
+        } catch (IOException ex) {
+            System.out.println(">> cannot load plugin checksum index");
+            return;
+        } finally {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException ex) {
+                    ex.printStackTrace(System.err);
+                }
+            }
+        }
+
+        for (String name : properties.stringPropertyNames()) {
+            Entry e = Entry.parse(properties.getProperty(name));
+
+            if (e != null) {
+                entries.put(name, e);
+            }
+        }
+    }
+
+    /**
+     * Saves the index file.
+     */
+    private void save() {
+        Properties properties = new Properties();
+
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            properties.setProperty(e.getKey(), e.getValue().toString());
+        }
+
+        OutputStream out = null;
+
+        try {
+            out = new FileOutputStream(new File(pluginDir, INDEX_FILE_NAME));
+            properties.store(out, "VRL plugin checksums");
+        } catch (IOException ex) {
+            // index is optional, e.g., plugin dir may be read-only
+            System.out.println(">> cannot save plugin checksum index");
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException ex) {
+                    ex.printStackTrace(System.err);
+                }
+            }
+        }
+    }
+
+    /**
+     * Index entry (size, modification date and checksum of a file).
+     */
+    private static final class Entry {
+
+        private final long size;
+        private final long lastModified;
+        private final String checksum;
+
+        /**
+         * Constructor.
+         *
+         * @param size file size
+         * @param lastModified modification date
+         * @param checksum SHA-1 checksum
+         */
+        public Entry(long size, long lastModified, String checksum) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.checksum = checksum;
+        }
+
+        /**
+         * Computes the index entry of the specified file.
+         *
+         * @param f file
+         * @return the index entry of the specified file or <code>null</code>
+         * if the file cannot be read
+         */
+        public static Entry compute(File f) {
+            long size = f.length();
+            long lastModified = f.lastModified();
+
+            String checksum = IOUtil.generateSHA1Sum(f);
+
+            if (checksum == null || checksum.isEmpty()) {
+                return null;
+            }
+
+            return new Entry(size, lastModified, checksum);
+        }
+
+        /**
+         * Parses an index entry.
+         *
+         * @param s string representation of the entry
+         * @return the entry or <code>null</code> if the specified string is
+         * not a valid entry
+         */
+        public static Entry parse(String s) {
+            String[] values = s.split(",");
+
+            if (values.length != 3) {
+                return null;
+            }
+
+            try {
+                return new Entry(Long.parseLong(values[0]),
+                        Long.parseLong(values[1]), values[2]);
+            } catch (NumberFormatException ex) {
+                return null;
+            }
+        }
+
+        /**
+         * Indicates whether size and modification date of the specified file
+         * match this entry.
+         *
+         * @param f file
+         * @return <code>true</code> if this entry matches the specified file;
+         * <code>false</code> otherwise
+         */
+        public boolean matches(File f) {
+            return f.length() == size && f.lastModified() == lastModified;
+        }
+
+        @Override
+        public String toString() {
+            return size + "," + lastModified + "," + checksum;
+        }
+    }
+}
@@ -56,14 +56,10 @@
 
 package eu.mihosoft.vrl.system;
 
-import eu.mihosoft.vrl.visual.VSwingUtil;
 import java.awt.Color;
-import java.awt.Rectangle;
 import java.io.OutputStream;
 import java.io.PrintStream;
 import javax.swing.JTextArea;
-import javax.swing.JTextPane;
-import javax.swing.text.BadLocationException;
 import javax.swing.text.SimpleAttributeSet;
 import javax.swing.text.StyleConstants;
 
@@ -77,12 +73,14 @@ public class RedirectableStream extends PrintStream {
     private boolean redirectToUi;
     private boolean redirectToStdOut;
     SimpleAttributeSet attributeSet;
+    private final LogSink logSink;
 
     public RedirectableStream(OutputStream out, JTextArea textPane,
             SimpleAttributeSet attributeSet) {
         super(out);
         this.view = textPane;
         this.attributeSet = attributeSet;
+        this.logSink = LogSink.getSink(textPane);
     }
 
     public RedirectableStream(
@@ -90,6 +88,7 @@ public class RedirectableStream extends PrintStream {
         super(out);
         this.view = textPane;
         this.attributeSet = createAttributeSet(c, bold);
+        this.logSink = LogSink.getSink(textPane);
     }
 
     private static SimpleAttributeSet createAttributeSet(Color c, boolean bold) {
@@ -102,28 +101,8 @@ public class RedirectableStream extends PrintStream {
     @Override
     public void write(byte[] buf, int off, int len) {
         if (isRedirectToUi()) {
-            try {
-                int startOffSet = view.getDocument().getLength();
-                view.getDocument().insertString(startOffSet,
-                        new String(buf, off, len), attributeSet);
-                view.setCaretPosition(startOffSet + len);
-            } catch (BadLocationException e) {
-                // e.printStackTrace();
-            } catch (IllegalArgumentException e) {
-                // e.printStackTrace();
-            }
-
-            VSwingUtil.invokeLater(new Runnable() {
-
-                @Override
-                public void run() {
-                    // automatically scroll down to the last line
-                    view.scrollRectToVisible(
-                            new Rectangle(0, view.getHeight() - 1, 1, 1));
-
-                }
-            });
-
+            // the text is written to the view in batches (see LogSink)
+            getLogSink().append(new String(buf, off, len));
         }
 
         if (isRedirectToStdOut()) {
@@ -131,6 +110,15 @@ public class RedirectableStream extends PrintStream {
         }
     }
 
+    /**
+     * Returns the log sink of the view of this stream.
+     *
+     * @return the log sink of the view of this stream
+     */
+    public LogSink getLogSink() {
+        return logSink;
+    }
+
     /**
      * @return the redirectToUi
      */
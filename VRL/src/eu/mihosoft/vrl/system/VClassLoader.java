@@ -60,6 +60,9 @@ import eu.mihosoft.vrl.io.VURLClassLoader;
 import eu.mihosoft.vrl.system.VParamUtil;
 import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Set;
@@ -241,6 +244,15 @@ public class VClassLoader extends ClassLoader {
 ////        System.out.println("LOADER-rmURL:" + loader);
     }
 
+    /**
+     * Returns the urls of this class loader.
+     *
+     * @return the urls of this class loader (unmodifiable)
+     */
+    public Collection<URL> getURLs() {
+        return Collections.unmodifiableCollection(new ArrayList<URL>(urls));
+    }
+
     public void clearURLs() {
 
         urls.clear();
@@ -68,7 +68,8 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.*;
-import java.util.jar.JarInputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.imageio.IIOException;
@@ -91,7 +92,8 @@ public class VRL {
      * Plugin configurators accessible via plugin name.
      */
     private static Map<String, PluginConfigurator> plugins
-            = new HashMap<String, PluginConfigurator>();
+            = Collections.synchronizedMap(
+                    new HashMap<String, PluginConfigurator>());
     /**
      * Names of all invalid plugins. All plugins listed here will be excluded
      * from initialization.
@@ -101,7 +103,8 @@ public class VRL {
      * Plugin data controllers accessible through plugin name.
      */
     private static Map<String, PluginDataController> pluginsDataControllers
-            = new HashMap<String, PluginDataController>();
+            = Collections.synchronizedMap(
+                    new HashMap<String, PluginDataController>());
     /**
      * Plugin groups. A group is a jar file. All plugin names in the file can be
      * accessed via this map
@@ -194,7 +197,8 @@ public class VRL {
      * A map with all external classloaders.
      */
     private static Map<String, ClassLoader> externalCLMap
-            = new HashMap<String, ClassLoader>();
+            = Collections.synchronizedMap(
+                    new HashMap<String, ClassLoader>());
     /**
      * Defines whether to install plugin help.
      */
@@ -363,7 +367,7 @@ public class VRL {
         for (AbstractPluginDependency d : dependencies) {
             boolean found = false;
             PluginDependency dep = d.toPluginDependency();
-            for (PluginConfigurator p : plugins.values()) {
+            for (PluginConfigurator p : getPluginConfigurators()) {
                 if (d.toPluginDependency().verify(p.getIdentifier())) {
                     found = true;
                     break;
@@ -394,7 +398,7 @@ public class VRL {
         Collection<AbstractPluginDependency> dependencies
                 = new ArrayList<AbstractPluginDependency>();
 
-        for (PluginConfigurator p : plugins.values()) {
+        for (PluginConfigurator p : getPluginConfigurators()) {
             dependencies.add(new AbstractPluginDependency(
                     p.getIdentifier().getName(),
                     p.getIdentifier().getVersion().toString(),
@@ -404,6 +408,19 @@ public class VRL {
         return dependencies;
     }
 
+    /**
+     * Returns a snapshot of the registered plugin configurators. Plugins are
+     * initialized in parallel, i.e., the plugin map must not be iterated
+     * directly.
+     *
+     * @return a snapshot of the registered plugin configurators
+     */
+    private static List<PluginConfigurator> getPluginConfigurators() {
+        synchronized (plugins) {
+            return new ArrayList<PluginConfigurator>(plugins.values());
+        }
+    }
+
     /**
      * Initializes the plugins. Plugins usually perform canvas independent tasks
      * such as compiling additional classer or loading resources.
@@ -412,7 +429,7 @@ public class VRL {
         System.out.println(">> Init Plugins ( #" + plugins.size() + " )");
 
         // plugin validation
-        for (PluginConfigurator pC : plugins.values()) {
+        for (PluginConfigurator pC : getPluginConfigurators()) {
             PluginIdentifier id = pC.getIdentifier();
 
             boolean error = false;
@@ -455,9 +472,8 @@ public class VRL {
         invalidPlugins.clear();
 
         PluginManager graph = new PluginManager();
-        int counter = 0;
 
-        BootOrder result = graph.computeBootOrder(plugins.values());
+        BootOrder result = graph.computeBootOrder(getPluginConfigurators());
 
         if (result.hasErrors()) {
             if (initPluginError != null) {
@@ -469,9 +485,6 @@ public class VRL {
 
         List<PluginConfigurator> bootOrder = result.getOrder();
 
-        // root classloader 
-        ClassLoader root_parent = ClassLoader.getSystemClassLoader();
-
         // list containing root elements of plugin groups:
         // - a plugin group is a set of elements that are connected via graph
         //   edges, i.e., dependencies
@@ -494,167 +507,272 @@ public class VRL {
         // plugin classloaders connected as defined by the graph
         Collection<ClassLoader> externalLoaders = new ArrayList<ClassLoader>();
 
-        double incProgress = 80.0 / plugins.size();
-        double progressValue = SplashScreenGenerator.getProgress();
+        final double incProgress = 80.0 / plugins.size();
+        final double progressValue = SplashScreenGenerator.getProgress();
+        final AtomicInteger startedPlugins = new AtomicInteger();
 
         boolean updatedOrInstalledPlugins = false;
 
-        // initialize plugin
-        for (PluginConfigurator plugin : bootOrder) {
+        final List<PluginConfigurator> order = bootOrder;
+        final Map<String, String> parentageMap = pluginParentageMap;
+        final PluginInitResult[] initResults
+                = new PluginInitResult[bootOrder.size()];
+
+        // initialize plugins, independent plugins are initialized in parallel
+        PluginBootScheduler.execute(bootOrder.size(),
+                computeBootDependencies(bootOrder, pluginParentageMap),
+                new PluginBootScheduler.Task() {
+                    @Override
+                    public void run(int i) {
+                        int started = startedPlugins.getAndIncrement();
+                        SplashScreenGenerator.setProgress(
+                                (int) (progressValue + started * incProgress));
+
+                        PluginConfigurator plugin = order.get(i);
+                        initResults[i] = initPlugin(plugin, i + 1,
+                                parentageMap.get(
+                                        plugin.getIdentifier().getName()));
+                    }
+                });
 
-            SplashScreenGenerator.setProgress((int) progressValue);
+        // collect results in boot order
+        for (PluginInitResult initResult : initResults) {
 
-            progressValue += incProgress;
+            if (initResult == null) {
+                continue;
+            }
 
-            try {
-                counter++;
-                System.out.println(
-                        ">> Plugin (" + counter + "): "
-                        + plugin.getIdentifier());
+            // add the classloader if this is the loader of a root element
+            if (initResult.externalCL != null
+                    && pluginGroupsRootElements.contains(
+                            initResult.pluginID)) {
+                classLoaders.add(initResult.plugin.getClass().getClassLoader());
+                externalLoaders.add(initResult.externalCL);
+            }
+
+            updatedOrInstalledPlugins
+                    = updatedOrInstalledPlugins || initResult.installed;
 
-                SplashScreenGenerator.printBootMessage(
-                        ">> plugin (" + counter + "): "
-                        + plugin.getIdentifier());
+            // side effects of the init api are applied in boot order on
+            // this thread (plugins are initialized in parallel)
+            if (initResult.initAPI != null) {
+                initResult.initAPI.apply();
+            }
 
-                String pluginID = plugin.getIdentifier().getName();
-                String parentPluginID = pluginParentageMap.get(pluginID);
+            if (initResult.errorMsg != null) {
 
-                // set system classloader as parent classloader
-                ClassLoader parentCL = root_parent;
+                invalidPlugins.add(initResult.pluginID);
 
-                // if a parent is defined, change reference accordingly
-                if (parentPluginID != null) {
-                    parentCL = externalCLMap.get(parentPluginID);
+                if (initPluginError != null) {
+                    initPluginError += "<br> -->" + initResult.errorMsg;
+                } else {
+                    initPluginError = initResult.errorMsg;
                 }
+            }
+        }
+
+        if (updatedOrInstalledPlugins) {
+            updateHelpIndex();
+        }
 
-                // create new internal plugin classloader with the previously
-                // defined parent
-                ClassLoader internalCL = createInternalPluginClassLoader(
-                        plugin.getClass(),
-                        parentCL);
+        // remove invalid plugins
+        for (String name : invalidPlugins) {
+            plugins.remove(name);
+        }
 
-                // create a new instance of the plugin configurator after
-                // reloading the configurator class with the new classloader
-                plugin = instanceFromClassLoader(plugin.getClass(), internalCL);
+        // update plugin cache to allow the GC to remove unused classloaders
+        // and related classes, resources etc.
+        for (int i = 0; i < allPlugins.size(); i++) {
 
-                // create new external plugin classloader with the previously
-                // defined parent
-                ClassLoader externalCL = createExternalPluginClassLoader(
-                        plugin,
-                        parentCL, internalCL);
+            PluginConfigurator tmpPC = allPlugins.get(i);
+            PluginConfigurator newPC
+                    = plugins.get(tmpPC.getIdentifier().getName());
 
-                externalCLMap.put(pluginID, externalCL);
+            if (newPC != null) {
+                allPlugins.set(i, newPC);
+            }
+        }
 
-                // add the classloader if this is the loader of a root element
-                if (pluginGroupsRootElements.contains(pluginID)) {
-                    classLoaders.add(plugin.getClass().getClassLoader());
-                    externalLoaders.add(externalCL);
-                }
+        pluginClassLoader = new PluginClassLoader(classLoaders);
 
-                // update plugin map entry
-                plugins.put(pluginID, plugin);
+        externalPluginClassLoader = new PluginClassLoader(externalLoaders);
+    }
 
-                PluginDataController dataController
-                        = new PluginDataController(plugin);
+    /**
+     * Computes the boot dependencies of the specified plugins. A plugin
+     * depends on all plugins in the boot order that satisfy one of its
+     * dependencies and on its classloader parent.
+     *
+     * @param bootOrder plugins in boot order
+     * @param pluginParentageMap classloader parentage map
+     * @return the indices (boot order) of the plugins each plugin depends on
+     */
+    private static List<Set<Integer>> computeBootDependencies(
+            List<PluginConfigurator> bootOrder,
+            Map<String, String> pluginParentageMap) {
 
-                // update plugin data controller map entry
-                pluginsDataControllers.put(
-                        pluginID, dataController);
+        List<Set<Integer>> result = new ArrayList<Set<Integer>>();
 
-                InitPluginAPI initAPI = new InitPluginAPIImpl(dataController);
+        for (int i = 0; i < bootOrder.size(); i++) {
+            PluginConfigurator p = bootOrder.get(i);
+            String parentID = pluginParentageMap.get(
+                    p.getIdentifier().getName());
 
-                // perform native library loading if configurator supports this
-                if (plugin instanceof VPluginConfigurator) {
+            Set<Integer> deps = new HashSet<Integer>();
 
-                    try {
-                        ((VPluginConfigurator) plugin).setInitAPI(initAPI);
-                    } catch (AbstractMethodError ex) {
-                        System.err.println(
-                                "--> Error: plugin does not provide"
-                                + " setInitAPI() method. This is deprecated"
-                                + " since VRL-0.4.0.");
-                    }
+            for (int j = 0; j < i; j++) {
+                PluginIdentifier q = bootOrder.get(j).getIdentifier();
 
-                    try {
-                        InitFailure failureState = plugin.checkFailure(initAPI);
+                if (q.getName().equals(parentID)) {
+                    deps.add(j);
+                    continue;
+                }
 
-                        if (failureState.failed()) {
-                            throw new PluginInitFailedException(
-                                    failureState.getReason());
-                        }
-                    } catch (AbstractMethodError ex) {
-                        System.err.println(
-                                "--> Error: plugin does not provide"
-                                + " fail(InitPluginAPI) method. This is deprecated"
-                                + " since VRL-0.4.3.");
+                for (PluginDependency d : p.getDependencies()) {
+                    if (d.verify(q)) {
+                        deps.add(j);
+                        break;
                     }
-
-                    ((VPluginConfigurator) plugin).nativeInit(dataController);
                 }
+            }
 
-                // check whether to install/update this plugin
-                if (needsInstall(plugin, dataController)) {
+            result.add(deps);
+        }
 
-                    updatedOrInstalledPlugins = true;
+        return result;
+    }
 
-                    performConfiguratorInstall(plugin, dataController, initAPI);
-                }
+    /**
+     * Initializes the specified plugin. The plugin configurator is reloaded
+     * with a new plugin classloader. This method is called after all plugins
+     * the specified plugin depends on have been initialized.
+     *
+     * @param plugin plugin to initialize
+     * @param counter position of the plugin in the boot order
+     * @param parentPluginID name of the classloader parent of the plugin
+     * (may be <code>null</code>)
+     * @return the initialization result
+     */
+    private static PluginInitResult initPlugin(PluginConfigurator plugin,
+            int counter, String parentPluginID) {
+
+        PluginInitResult result = new PluginInitResult();
+        result.pluginID = plugin.getIdentifier().getName();
+
+        try {
+            System.out.println(
+                    ">> Plugin (" + counter + "): "
+                    + plugin.getIdentifier());
+
+            SplashScreenGenerator.printBootMessage(
+                    ">> plugin (" + counter + "): "
+                    + plugin.getIdentifier());
+
+            String pluginID = plugin.getIdentifier().getName();
+
+            // set system classloader as parent classloader
+            ClassLoader parentCL = ClassLoader.getSystemClassLoader();
+
+            // if a parent is defined, change reference accordingly
+            if (parentPluginID != null) {
+                parentCL = externalCLMap.get(parentPluginID);
+            }
+
+            // create new internal plugin classloader with the previously
+            // defined parent
+            ClassLoader internalCL = createInternalPluginClassLoader(
+                    plugin.getClass(),
+                    parentCL);
+
+            // create a new instance of the plugin configurator after
+            // reloading the configurator class with the new classloader
+            plugin = instanceFromClassLoader(plugin.getClass(), internalCL);
+
+            // create new external plugin classloader with the previously
+            // defined parent
+            ClassLoader externalCL = createExternalPluginClassLoader(
+                    plugin,
+                    parentCL, internalCL);
+
+            externalCLMap.put(pluginID, externalCL);
+
+            result.plugin = plugin;
+            result.externalCL = externalCL;
+
+            // update plugin map entry
+            plugins.put(pluginID, plugin);
+
+            PluginDataController dataController
+                    = new PluginDataController(plugin);
+
+            // update plugin data controller map entry
+            pluginsDataControllers.put(
+                    pluginID, dataController);
+
+            InitPluginAPIImpl initAPI = new InitPluginAPIImpl(dataController);
+
+            result.initAPI = initAPI;
+
+            // perform native library loading if configurator supports this
+            if (plugin instanceof VPluginConfigurator) {
 
                 try {
-                    // initialize the plugin
-                    plugin.init(initAPI);
+                    ((VPluginConfigurator) plugin).setInitAPI(initAPI);
                 } catch (AbstractMethodError ex) {
                     System.err.println(
                             "--> Error: plugin does not provide"
-                            + " init(InitPluginAPI) method. This is deprecated"
+                            + " setInitAPI() method. This is deprecated"
                             + " since VRL-0.4.0.");
                 }
 
-            } catch (Throwable tr) {
-
-                invalidPlugins.add(plugin.getIdentifier().getName());
-
-                Logger.getLogger(
-                        VRL.class.getName()).log(Level.SEVERE, null, tr);
+                try {
+                    InitFailure failureState = plugin.checkFailure(initAPI);
 
-                String errorMsg
-                        = " --> Error: cannot add plugin \""
-                        + plugin.getIdentifier().toString()
-                        + "\" because initialization failed.<br><br><b>Reason:</b><br><br>"
-                        + tr.toString();
-                if (initPluginError != null) {
-                    initPluginError += "<br> -->" + errorMsg;
-                } else {
-                    initPluginError = errorMsg;
+                    if (failureState.failed()) {
+                        throw new PluginInitFailedException(
+                                failureState.getReason());
+                    }
+                } catch (AbstractMethodError ex) {
+                    System.err.println(
+                            "--> Error: plugin does not provide"
+                            + " fail(InitPluginAPI) method. This is deprecated"
+                            + " since VRL-0.4.3.");
                 }
+
+                ((VPluginConfigurator) plugin).nativeInit(dataController);
             }
-        } // end for p in bootorder
 
-        if (updatedOrInstalledPlugins) {
-            updateHelpIndex();
-        }
+            // check whether to install/update this plugin
+            if (needsInstall(plugin, dataController)) {
 
-        // remove invalid plugins
-        for (String name : invalidPlugins) {
-            plugins.remove(name);
-        }
+                result.installed = true;
 
-        // update plugin cache to allow the GC to remove unused classloaders
-        // and related classes, resources etc.
-        for (int i = 0; i < allPlugins.size(); i++) {
-
-            PluginConfigurator tmpPC = allPlugins.get(i);
-            PluginConfigurator newPC
-                    = plugins.get(tmpPC.getIdentifier().getName());
+                performConfiguratorInstall(plugin, dataController, initAPI);
+            }
 
-            if (newPC != null) {
-                allPlugins.set(i, newPC);
+            try {
+                // initialize the plugin
+                plugin.init(initAPI);
+            } catch (AbstractMethodError ex) {
+                System.err.println(
+                        "--> Error: plugin does not provide"
+                        + " init(InitPluginAPI) method. This is deprecated"
+                        + " since VRL-0.4.0.");
             }
-        }
 
-        pluginClassLoader = new PluginClassLoader(classLoaders);
+        } catch (Throwable tr) {
 
-        externalPluginClassLoader = new PluginClassLoader(externalLoaders);
+            Logger.getLogger(
+                    VRL.class.getName()).log(Level.SEVERE, null, tr);
+
+            result.errorMsg
+                    = " --> Error: cannot add plugin \""
+                    + plugin.getIdentifier().toString()
+                    + "\" because initialization failed.<br><br><b>Reason:</b><br><br>"
+                    + tr.toString();
+        }
+
+        return result;
     }
 
     /**
@@ -672,7 +790,7 @@ public class VRL {
                         "<p>The list below contains all installed VRL plugins."
                         + " Click on an item to open the desired help page.</p>\n");
 
-        for (PluginConfigurator pC : plugins.values()) {
+        for (PluginConfigurator pC : getPluginConfigurators()) {
 
             String pluginIdentifier = pC.getIdentifier().toString();
             String pluginName = pC.getIdentifier().getName().toLowerCase();
@@ -1103,7 +1221,7 @@ public class VRL {
         VClassLoader loader
                 = new VClassLoader(new PluginClassLoader(usedClassLoaders));
 
-        for (PluginConfigurator plugin : plugins.values()) {
+        for (PluginConfigurator plugin : getPluginConfigurators()) {
 
             ClassLoader extLoader = externalCLMap.get(
                     plugin.getIdentifier().getName());
@@ -1125,7 +1243,7 @@ public class VRL {
      */
     public static PluginConfigurator getPluginByDependency(PluginDependency pDep) {
 
-        for (PluginConfigurator plugin : plugins.values()) {
+        for (PluginConfigurator plugin : getPluginConfigurators()) {
 
             if (pDep.verify(plugin.getIdentifier())) {
                 return plugin;
@@ -1179,7 +1297,7 @@ public class VRL {
 
         // register plugins with this canvas via the corresponding api
         // object
-        for (PluginConfigurator plugin : plugins.values()) {
+        for (PluginConfigurator plugin : getPluginConfigurators()) {
 
             // if not vrl plugin check whether we need to register with canvas
             if (!plugin.getIdentifier().getName().equals("VRL")) {
@@ -1320,28 +1438,83 @@ public class VRL {
         ArrayList<File> jarFiles = IOUtil.listFiles(
                 new File(Constants.PLUGIN_DIR), new String[]{".jar",".vrlplugin"});
 
-        for (File f : jarFiles) {
+        long checksumTime = 0;
+        long loadTime = 0;
+        long cacheTime = 0;
 
-            URL[] urls = new URL[1];
+        long start = System.nanoTime();
 
-            try {
-                urls[0] = f.toURI().toURL();
-            } catch (MalformedURLException ex) {
-                Logger.getLogger(VRL.class.getName()).
-                        log(Level.SEVERE, null, ex);
+        if (PluginCacheController.isChecksumsEnabled()) {
+            // computes checksums of new and modified plugin files only once
+            PluginCacheController.generateChecksums();
+        }
+
+        // decide which files need to be searched for plugins
+        final List<File> filesToScan = new ArrayList<File>();
+        boolean[] cached = new boolean[jarFiles.size()];
+
+        for (int i = 0; i < jarFiles.size(); i++) {
+            cached[i] = !PluginCacheController.needsUpdate(jarFiles.get(i));
+            if (!cached[i]) {
+                filesToScan.add(jarFiles.get(i));
             }
-            
-            URLClassLoader classLoader = new URLClassLoader(urls);
-            
-            if (PluginCacheController.needsUpdate(f)) {
-                loadPlugin(f, classLoader);
+        }
+
+        checksumTime = System.nanoTime() - start;
+
+        // search plugin files in parallel, plugins are added afterwards in
+        // file order because the first plugin with a given name wins
+        start = System.nanoTime();
+
+        final PluginFileScan[] scans = new PluginFileScan[filesToScan.size()];
+
+        PluginBootScheduler.execute(filesToScan.size(), null,
+                new PluginBootScheduler.Task() {
+                    @Override
+                    public void run(int i) throws Exception {
+                        File f = filesToScan.get(i);
+                        scans[i] = scanPluginFile(f,
+                                new URLClassLoader(
+                                        new URL[]{f.toURI().toURL()}));
+                    }
+                });
+
+        loadTime += System.nanoTime() - start;
+
+        int scanIndex = 0;
+
+        for (int i = 0; i < jarFiles.size(); i++) {
+
+            final File f = jarFiles.get(i);
+
+            start = System.nanoTime();
+
+            if (!cached[i]) {
+                PluginFileScan scan = scans[scanIndex++];
+
+                if (scan != null) {
+                    addScannedPlugins(scan, new PluginLoadAction() {
+                        @Override
+                        public void loaded(PluginConfigurator pC) {
+                            addPlugin(pC, f);
+                        }
+                    });
+                }
+
                 PluginCacheController.saveCache(f);
+
+                loadTime += System.nanoTime() - start;
             } else {
                 PluginCacheController.addPluginsFromCache(f);
-            }
 
+                cacheTime += System.nanoTime() - start;
+            }
         }
 
+        printBootTiming("plugin checksums", checksumTime);
+        printBootTiming("loading plugins", loadTime);
+        printBootTiming("loading plugins from cache", cacheTime);
+
 //        if (!file.exists()) {
 //            System.err.println(" --> Error: the file \"" + file.getName()
 //                    + "\" does not exist!");
@@ -1372,6 +1545,19 @@ public class VRL {
 //        }
     }
 
+    /**
+     * Prints the duration of a boot phase.
+     *
+     * @param phase name of the boot phase
+     * @param nanos duration in nanoseconds
+     */
+    private static void printBootTiming(String phase, long nanos) {
+        String msg = ">> " + phase + ": "
+                + TimeUnit.NANOSECONDS.toMillis(nanos) + " ms";
+        SplashScreenGenerator.printBootMessage(msg);
+        System.out.println(msg);
+    }
+
     /**
      * Adds a plugin to the plugin set.
      *
@@ -1459,6 +1645,7 @@ public class VRL {
     public static void evaluatePluginArguments(String[] args) {
         String enablePlugins = VArgUtil.getArg(args, "-plugins");
         String checksumTest = VArgUtil.getArg(args, "-plugin-checksum-test");
+        String bootMode = VArgUtil.getArg(args, "-plugin-boot");
         System.out.println(">> Plugin Options:");
 
         if (checksumTest != null) {
@@ -1478,6 +1665,23 @@ public class VRL {
             }
         }
 
+        if (bootMode != null) {
+            if (bootMode.equals("parallel")) {
+                System.out.println(
+                        " --> enabling parallel plugin boot");
+                PluginBootScheduler.enableParallelBoot(true);
+            } else if (bootMode.equals("sequential")) {
+                System.out.println(
+                        " --> disabling parallel plugin boot");
+                PluginBootScheduler.enableParallelBoot(false);
+            } else {
+                System.out.println(
+                        " --> -plugin-boot: "
+                        + "wrong value specified! Valid values:"
+                        + " [parallel/sequential]. Using default.");
+            }
+        }
+
         if (enablePlugins != null) {
             System.out.println(" --> enabling plugins, path: " + enablePlugins);
             Constants.PLUGIN_DIR = enablePlugins;
@@ -1526,9 +1730,29 @@ public class VRL {
      */
     private static void loadPlugin(File f, PluginLoadAction pA,
             ClassLoader searchClassLoader) {
+        addScannedPlugins(scanPluginFile(f, searchClassLoader), pA);
+    }
+
+    /**
+     * Searches for plugin configurators in the specified file and creates
+     * configurator instances. This method does not modify the plugin set and
+     * may be called from several threads concurrently.
+     *
+     * @param f file that contains the plugins to load
+     * @param searchClassLoader class loader used to load the classes of the
+     * specified file
+     * @return the scan result
+     */
+    private static PluginFileScan scanPluginFile(File f,
+            ClassLoader searchClassLoader) {
+
+        PluginFileScan result = new PluginFileScan(f);
+
         if (f.isFile() && (f.getName().toLowerCase().endsWith(".jar")
                 ||f.getName().toLowerCase().endsWith(".vrlplugin"))) {
 
+            result.valid = true;
+
             String message = ">> searching for plugins in \""
                     + f.getAbsolutePath() + "\".";
             System.out.println(message);
@@ -1539,7 +1763,7 @@ public class VRL {
             Collection<Class<?>> classes
                     = VJarUtil.loadClasses(f, searchClassLoader);
 
-            boolean platformSupported = isPlatformSupported(f);
+            result.platformSupported = isPlatformSupported(f);
 
             boolean isPlugin = false;
 
@@ -1567,25 +1791,7 @@ public class VRL {
                                 throw new RuntimeException("Cannot locate jar file", ex);
                             }
 
-                            if (platformSupported) {
-                                pA.loaded(pC);
-                            } else {
-                                invalidPlugins.add(pC.getIdentifier().getName());
-                                String errorMsg
-                                        = " --> Error: cannot add plugin \""
-                                        + pC.getIdentifier().toString()
-                                        + "\" because it depends on native"
-                                        + " libraries that are not"
-                                        + " available for your platform (<b>"
-                                        + VSysUtil.getPlatformInfo() + "</b>).";
-                                if (registrationError != null) {
-                                    initPluginError += "<br>" + errorMsg;
-                                } else {
-                                    initPluginError = errorMsg;
-                                }
-
-                                System.err.println(VTerminalUtil.red(errorMsg));
-                            }
+                            result.configurators.add(pC);
                         }
                     } catch (InstantiationException ex) {
                         Logger.getLogger(VRL.class.getName()).
@@ -1602,19 +1808,66 @@ public class VRL {
 
             if (isPlugin) {
                 try {
-                    Collection<String> entries
-                            = VJarUtil.getEntryNamesFromStream(
-                                    new JarInputStream(new FileInputStream(f)));
-                    addProvidedEntries(f.getName(), entries);
+                    result.entries = VJarUtil.getEntryNamesFromJar(f);
                 } catch (IOException ex) {
                     Logger.getLogger(VRL.class.getName()).
                             log(Level.SEVERE, null, ex);
                 }
             }
-        } else {
+        }
+
+        return result;
+    }
+
+    /**
+     * Adds the plugins found by {@link #scanPluginFile(java.io.File,
+     * java.lang.ClassLoader) }. Plugins that do not support the current
+     * platform are rejected.
+     *
+     * @param scan scan result
+     * @param pA action that is performed for each plugin
+     */
+    private static void addScannedPlugins(
+            PluginFileScan scan, PluginLoadAction pA) {
+
+        File f = scan.file;
+
+        if (!scan.valid) {
             System.err.println(VTerminalUtil.red(" --> Error: the file \""
                     + f.getName()
                     + "\" is no valid .jar-Archive!"));
+            return;
+        }
+
+        for (PluginConfigurator pC : scan.configurators) {
+            try {
+                if (scan.platformSupported) {
+                    pA.loaded(pC);
+                } else {
+                    invalidPlugins.add(pC.getIdentifier().getName());
+                    String errorMsg
+                            = " --> Error: cannot add plugin \""
+                            + pC.getIdentifier().toString()
+                            + "\" because it depends on native"
+                            + " libraries that are not"
+                            + " available for your platform (<b>"
+                            + VSysUtil.getPlatformInfo() + "</b>).";
+                    if (registrationError != null) {
+                        initPluginError += "<br>" + errorMsg;
+                    } else {
+                        initPluginError = errorMsg;
+                    }
+
+                    System.err.println(VTerminalUtil.red(errorMsg));
+                }
+            } catch (Exception ex) {
+                Logger.getLogger(VRL.class.getName()).
+                        log(Level.SEVERE, null, ex);
+            }
+        }
+
+        if (scan.entries != null) {
+            addProvidedEntries(f.getName(), scan.entries);
         }
     }
 
@@ -1911,7 +2164,7 @@ public class VRL {
     public static void registerPluginMenu(MenuAdapter infoMenu,
             MenuAdapter uninstallMenu) {
 
-        for (final PluginConfigurator p : plugins.values()) {
+        for (final PluginConfigurator p : getPluginConfigurators()) {
             pluginMenuController.addAction(
                     new VAction(p.getIdentifier().toString(), null) {
                         @Override
@@ -2808,3 +3061,42 @@ interface PluginLoadAction {
      */
     void loaded(PluginConfigurator pC);
 }
+
+/**
+ * Result of searching a plugin file for plugin configurators.
+ *
+ * @author Michael Hoffer &lt;info@michaelhoffer.de&gt;
+ */
+final class PluginFileScan {
+
+    final File file;
+    final List<PluginConfigurator> configurators
+            = new ArrayList<PluginConfigurator>();
+    boolean valid;
+    boolean platformSupported;
+    Collection<String> entries;
+
+    /**
+     * Constructor.
+     *
+     * @param file plugin file
+     */
+    PluginFileScan(File file) {
+        this.file = file;
+    }
+}
+
+/**
+ * Result of a plugin initialization.
+ *
+ * @author Michael Hoffer &lt;info@michaelhoffer.de&gt;
+ */
+final class PluginInitResult {
+
+    String pluginID;
+    PluginConfigurator plugin;
+    ClassLoader externalCL;
+    boolean installed;
+    String errorMsg;
+    InitPluginAPIImpl initAPI;
+}
@@ -67,6 +67,7 @@ import java.net.URLClassLoader;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.jar.JarInputStream;
 import java.util.logging.Level;
@@ -121,7 +122,8 @@ public class VSessionRunner {
                     loadClass("eu.mihosoft.vrl.user.Main"));
 
             // find all project classes
-            final Collection<String> projectClassNames = VJarUtil.getClassNamesFromJar(projectJarFile);
+            final Collection<String> projectClassNames = new HashSet<String>(
+                    VJarUtil.getClassNamesFromJar(projectJarFile));
 
             // custom classloader which loads project classes explicitly from the project jar
             // and not from the system classloader
@@ -1408,6 +1408,11 @@ public class ArrayBaseType extends TypeRepresentationBase {
                 return "";
             }
 
+            @Override
+            public boolean pure() {
+                return false;
+            }
+
             @Override
             public int num() {
                 return Integer.MAX_VALUE;
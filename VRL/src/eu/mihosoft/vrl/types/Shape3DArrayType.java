@@ -59,7 +59,9 @@ import eu.mihosoft.vrl.annotation.TypeInfo;
 import eu.mihosoft.vrl.dialogs.SaveImageDialog;
 import eu.mihosoft.vrl.reflection.CustomParamData;
 import eu.mihosoft.vrl.reflection.TypeRepresentationBase;
+import eu.mihosoft.vrl.v3d.PackedMesh;
 import eu.mihosoft.vrl.v3d.Shape3DArray;
+import eu.mihosoft.vrl.v3d.VGeometry3D;
 import eu.mihosoft.vrl.visual.VBoxLayout;
 import eu.mihosoft.vrl.visual.VContainer;
 import eu.mihosoft.vrl.visual.VGraphicsUtil;
@@ -96,6 +98,10 @@ import javax.swing.JMenuItem;
  * is suggested to use {@link eu.mihosoft.vrl.v3d.VGeometry3D} objects and the
  * corresponding type representation.
  *
+ * Besides Shape3DArray objects this type representation also accepts
+ * {@link eu.mihosoft.vrl.v3d.PackedMesh} objects as view value. They are
+ * visualized with the default VGeometry3D appearance.
+ *
  * <p>
  * Sample:</p> <br/> <img src="doc-files/shape3d-default-01.png"/> <br/>
  * 
@@ -373,7 +379,13 @@ public class Shape3DArrayType extends TypeRepresentationBase {
 //            System.out.println(" -> initialized");
         }
 
-        final Shape3DArray shapes = (Shape3DArray) o;
+        final Shape3DArray shapes;
+
+        if (o instanceof PackedMesh) {
+            shapes = new VGeometry3D((PackedMesh) o).generateShape3DArray();
+        } else {
+            shapes = (Shape3DArray) o;
+        }
 
         if (shapeParents[0] != null) {
             shapeParents[1] = new BranchGroup();
@@ -58,6 +58,7 @@ package eu.mihosoft.vrl.types;
 import eu.mihosoft.vrl.annotation.TypeInfo;
 import eu.mihosoft.vrl.reflection.ComponentUtil;
 import eu.mihosoft.vrl.reflection.RepresentationType;
+import eu.mihosoft.vrl.v3d.PackedMesh;
 import eu.mihosoft.vrl.v3d.Shape3DArray;
 import eu.mihosoft.vrl.v3d.VGeometry3D;
 import eu.mihosoft.vrl.v3d.VTriangleArray;
@@ -71,7 +72,9 @@ import eu.mihosoft.vrl.v3d.VTriangleArray;
  * <p>
  * <b>Note:</b> the memory footprint of VGeometry3D based geometries is
  * significantly higher than using Shape3D. Therefore, do not use it for highly
- * complex geometries (#Triangles > 10^5)</p>
+ * complex geometries (#Triangles > 10^5). For such geometries use
+ * {@link eu.mihosoft.vrl.v3d.PackedMesh} based geometries, i.e.,
+ * <code>new VGeometry3D(packedMesh)</code>.</p>
  * 
  * Style name: "default"
  *
@@ -133,7 +136,7 @@ public class VGeometry3DType extends Shape3DArrayType {
             geometryValue = geometry;
             setOrientationFromValues(geometry.getOrientation());
             super.setViewValue(geometry.generateShape3DArray());
-        } else if (o instanceof Shape3DArray) {
+        } else if (o instanceof Shape3DArray || o instanceof PackedMesh) {
             super.setViewValue(o);
         } else {
             super.setViewValue(null);
@@ -169,7 +172,22 @@ public class VGeometry3DType extends Shape3DArrayType {
     public boolean preferBinarySerialization() {
         return (geometryValue == null)
                 ? super.preferBinarySerialization()
-                : geometryValue.getGeometry().size() > 100;
+                : preferBinarySerialization(geometryValue);
+    }
+
+    /**
+     * Indicates whether to prefer binary serialization for the specified
+     * geometry. Packed meshes cannot be persisted via XML encoding, i.e.,
+     * geometries that are defined by a packed mesh are always serialized
+     * binary, regardless of their size.
+     *
+     * @param geometry geometry
+     * @return <code>true</code> if binary serialization is prefered;
+     * <code>false</code> otherwise
+     */
+    static boolean preferBinarySerialization(VGeometry3D geometry) {
+        return geometry.getPackedGeometry() != null
+                || geometry.getNumberOfTriangles() > 100;
     }
 
     /**
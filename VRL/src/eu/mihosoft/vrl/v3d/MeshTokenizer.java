@@ -0,0 +1,399 @@
+/* 
+ * MeshTokenizer.java
+ * 
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2007–2018 by Michael Hoffer,
+ * Copyright (c) 2015–2018 G-CSC, Uni Frankfurt,
+ * Copyright (c) 2009–2015 Steinbeis Forschungszentrum (STZ Ölbronn)
+ * 
+ * This file is part of Visual Reflection Library (VRL).
+ *
+ * VRL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * see: http://opensource.org/licenses/LGPL-3.0
+ *      file://path/to/VRL/src/eu/mihosoft/vrl/resources/license/lgplv3.txt
+ *
+ * VRL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * This version of VRL includes copyright notice and attribution requirements.
+ * According to the LGPL this information must be displayed even if you modify
+ * the source code of VRL. Neither the VRL Canvas attribution icon nor any
+ * copyright statement/attribution may be removed.
+ *
+ * Attribution Requirements:
+ *
+ * If you create derived work you must do three things regarding copyright
+ * notice and author attribution.
+ *
+ * First, the following text must be displayed on the Canvas:
+ * "based on VRL source code". In this case the VRL canvas icon must be removed.
+ * 
+ * Second, the copyright notice must remain. It must be reproduced in any
+ * program that uses VRL.
+ *
+ * Third, add an additional notice, stating that you modified VRL. A suitable
+ * notice might read
+ * "VRL source code modified by YourName 2012".
+ * 
+ * Note, that these requirements are in full accordance with the LGPL v3
+ * (see 7. Additional Terms, b).
+ *
+ * Please cite the publication(s) listed below.
+ *
+ * Publications:
+ *
+ * M. Hoffer, C. Poliwoda, & G. Wittum. (2013). Visual reflection library:
+ * a framework for declarative GUI programming on the Java platform.
+ * Computing and Visualization in Science, 2013, 16(4),
+ * 181–192. http://doi.org/10.1007/s00791-014-0230-y
+ */
+
+package eu.mihosoft.vrl.v3d;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Line based tokenizer that reads numbers directly from a byte stream. No
+ * strings are created for regular tokens. This class is used by
+ * {@link PackedMeshLoader}.
+ *
+ * @author Michael Hoffer <info@michaelhoffer.de>
+ */
+final class MeshTokenizer implements Closeable {
+
+    static final int EOF = -1;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_MANTISSA_DIGITS = 18;
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+        1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20,
+        1e21, 1e22};
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private int mark = -1;
+    private int lineNumber = 1;
+
+    /**
+     * Constructor.
+     *
+     * @param in the stream to read from
+     */
+    MeshTokenizer(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Returns the next byte without consuming it.
+     *
+     * @return the next byte or {@link #EOF}
+     * @throws IOException if reading fails
+     */
+    int peek() throws IOException {
+        if (position == limit) {
+            int offset = 0;
+
+            // keep marked bytes (start of the current token)
+            if (mark >= 0) {
+                offset = limit - mark;
+                if (offset == buffer.length) {
+                    throw error("token too long");
+                }
+                System.arraycopy(buffer, mark, buffer, 0, offset);
+                mark = 0;
+            }
+
+            int n = in.read(buffer, offset, buffer.length - offset);
+            position = offset;
+            limit = offset + Math.max(n, 0);
+
+            if (n <= 0) {
+                return EOF;
+            }
+        }
+
+        return buffer[position] & 0xff;
+    }
+
+    /**
+     * Consumes the next byte.
+     *
+     * @return the consumed byte or {@link #EOF}
+     * @throws IOException if reading fails
+     */
+    int read() throws IOException {
+        int c = peek();
+
+        if (c != EOF) {
+            position++;
+            if (c == '\n') {
+                lineNumber++;
+            }
+        }
+
+        return c;
+    }
+
+    /**
+     * Skips blanks (but not line endings).
+     *
+     * @return the next byte (not consumed)
+     * @throws IOException if reading fails
+     */
+    int skipBlanks() throws IOException {
+        int c = peek();
+
+        while (c == ' ' || c == '\t' || c == '\r') {
+            position++;
+            c = peek();
+        }
+
+        return c;
+    }
+
+    /**
+     * Indicates whether the current line contains more tokens.
+     *
+     * @return <code>true</code> if the current line contains more tokens;
+     * <code>false</code> otherwise
+     * @throws IOException if reading fails
+     */
+    boolean hasMoreTokens() throws IOException {
+        int c = skipBlanks();
+        return c != '\n' && c != EOF;
+    }
+
+    /**
+     * Skips the rest of the current line including the line ending.
+     *
+     * @throws IOException if reading fails
+     */
+    void skipLine() throws IOException {
+        int c = read();
+        while (c != '\n' && c != EOF) {
+            c = read();
+        }
+    }
+
+    /**
+     * Skips the current token.
+     *
+     * @throws IOException if reading fails
+     */
+    void skipToken() throws IOException {
+        int c = skipBlanks();
+        while (!isDelimiter(c)) {
+            position++;
+            c = peek();
+        }
+    }
+
+    /**
+     * Returns the current line number.
+     *
+     * @return the current line number
+     */
+    int getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Reads an integer.
+     *
+     * @return the integer
+     * @throws IOException if reading fails or if the next token is not an
+     * integer
+     */
+    int nextInt() throws IOException {
+        int c = skipBlanks();
+
+        boolean negative = false;
+
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            position++;
+            c = peek();
+        }
+
+        if (c < '0' || c > '9') {
+            throw error("integer expected");
+        }
+
+        long value = 0;
+
+        while (c >= '0' && c <= '9') {
+            value = value * 10 + (c - '0');
+
+            if (value > Integer.MAX_VALUE) {
+                throw error("integer out of range");
+            }
+
+            position++;
+            c = peek();
+        }
+
+        return (int) (negative ? -value : value);
+    }
+
+    /**
+     * Reads a floating point number. Numbers with up to 18 significant digits
+     * are parsed without creating intermediate objects. Other numbers as well
+     * as <code>NaN</code> and <code>Infinity</code> are delegated to
+     * {@link Float#parseFloat(java.lang.String) }.
+     *
+     * @return the floating point number
+     * @throws IOException if reading fails or if the next token is not a
+     * floating point number
+     */
+    float nextFloat() throws IOException {
+        int c = skipBlanks();
+
+        mark = position;
+
+        try {
+            return parseFloat(c);
+        } finally {
+            mark = -1;
+        }
+    }
+
+    /**
+     * Parses a floating point number that starts at the mark.
+     *
+     * @param c the first byte of the number
+     * @return the floating point number
+     * @throws IOException if reading fails or if the token is not a floating
+     * point number
+     */
+    private float parseFloat(int c) throws IOException {
+        boolean negative = false;
+
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            position++;
+            c = peek();
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean validNumber = false;
+
+        while (c >= '0' && c <= '9') {
+            if (digits < MAX_MANTISSA_DIGITS) {
+                mantissa = mantissa * 10 + (c - '0');
+                if (mantissa != 0) {
+                    digits++;
+                }
+            } else {
+                exponent++;
+            }
+            validNumber = true;
+            position++;
+            c = peek();
+        }
+
+        if (c == '.') {
+            position++;
+            c = peek();
+
+            while (c >= '0' && c <= '9') {
+                if (digits < MAX_MANTISSA_DIGITS) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (mantissa != 0) {
+                        digits++;
+                    }
+                    exponent--;
+                }
+                validNumber = true;
+                position++;
+                c = peek();
+            }
+        }
+
+        if (validNumber && (c == 'e' || c == 'E')) {
+            position++;
+            exponent += nextInt();
+            c = peek();
+        }
+
+        if (!validNumber || !isDelimiter(c)) {
+            return parseSlow();
+        }
+
+        double value = mantissa;
+
+        if (exponent < 0 && -exponent < POWERS_OF_TEN.length) {
+            value /= POWERS_OF_TEN[-exponent];
+        } else if (exponent > 0 && exponent < POWERS_OF_TEN.length) {
+            value *= POWERS_OF_TEN[exponent];
+        } else if (exponent != 0) {
+            value *= Math.pow(10, exponent);
+        }
+
+        return (float) (negative ? -value : value);
+    }
+
+    /**
+     * Parses the current token (starting at the mark) with
+     * {@link Float#parseFloat(java.lang.String) }.
+     *
+     * @return the floating point number
+     * @throws IOException if reading fails or if the token is not a floating
+     * point number
+     */
+    private float parseSlow() throws IOException {
+        int c = peek();
+
+        while (!isDelimiter(c)) {
+            position++;
+            c = peek();
+        }
+
+        String token = new String(buffer, mark, position - mark,
+                StandardCharsets.ISO_8859_1);
+
+        try {
+            return Float.parseFloat(token);
+        } catch (NumberFormatException ex) {
+            throw error("number expected but found \"" + token + "\"");
+        }
+    }
+
+    /**
+     * Indicates whether the specified byte terminates a token.
+     *
+     * @param c the byte to check
+     * @return <code>true</code> if the specified byte terminates a token;
+     * <code>false</code> otherwise
+     */
+    static boolean isDelimiter(int c) {
+        return c == ' ' || c == '\t' || c == '\r' || c == '\n' || c == EOF;
+    }
+
+    /**
+     * Creates an exception that contains the current line number.
+     *
+     * @param msg the message
+     * @return the exception
+     */
+    IOException error(String msg) {
+        return new IOException("line " + lineNumber + ": " + msg);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -291,6 +291,42 @@ public class OBJ2Geometry {
         return triangleArray;
     }
 
+    /**
+     * Loads obj file to a packed mesh. In contrast to
+     * {@link #loadAsVTriangleArray(java.io.File) } this method is suitable
+     * for large geometries. The nodes are centered as done by
+     * {@link #loadAsVTriangleArray(java.io.InputStream) }.
+     * @param file the file
+     * @return the packed mesh
+     * @throws java.io.IOException
+     * @see PackedMeshLoader
+     */
+    public PackedMesh loadAsPackedMesh(
+            @ParamInfo(name = "Input File:",
+            style = "load-dialog") File file) throws IOException {
+        PackedMesh mesh = new PackedMeshLoader().loadObj(file);
+        mesh.centerNodes();
+        return mesh;
+    }
+
+    /**
+     * Loads obj file to a packed mesh. In contrast to
+     * {@link #loadAsVTriangleArray(java.io.InputStream) } this method is
+     * suitable for large geometries. The nodes are centered as done by
+     * {@link #loadAsVTriangleArray(java.io.InputStream) }.
+     * @param in the stream
+     * @return the packed mesh
+     * @throws java.io.IOException
+     * @see PackedMeshLoader
+     */
+    public PackedMesh loadAsPackedMesh(
+            @ParamInfo(name = "Input File:",
+            style = "default") InputStream in) throws IOException {
+        PackedMesh mesh = new PackedMeshLoader().loadObj(in);
+        mesh.centerNodes();
+        return mesh;
+    }
+
     /**
      * Reads a node.
      * @param stringTokenizer the string tokenizer to use for reading
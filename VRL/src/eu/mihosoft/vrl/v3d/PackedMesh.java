@@ -0,0 +1,720 @@
+/* 
+ * PackedMesh.java
+ * 
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2007–2018 by Michael Hoffer,
+ * Copyright (c) 2015–2018 G-CSC, Uni Frankfurt,
+ * Copyright (c) 2009–2015 Steinbeis Forschungszentrum (STZ Ölbronn)
+ * 
+ * This file is part of Visual Reflection Library (VRL).
+ *
+ * VRL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * see: http://opensource.org/licenses/LGPL-3.0
+ *      file://path/to/VRL/src/eu/mihosoft/vrl/resources/license/lgplv3.txt
+ *
+ * VRL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * This version of VRL includes copyright notice and attribution requirements.
+ * According to the LGPL this information must be displayed even if you modify
+ * the source code of VRL. Neither the VRL Canvas attribution icon nor any
+ * copyright statement/attribution may be removed.
+ *
+ * Attribution Requirements:
+ *
+ * If you create derived work you must do three things regarding copyright
+ * notice and author attribution.
+ *
+ * First, the following text must be displayed on the Canvas:
+ * "based on VRL source code". In this case the VRL canvas icon must be removed.
+ * 
+ * Second, the copyright notice must remain. It must be reproduced in any
+ * program that uses VRL.
+ *
+ * Third, add an additional notice, stating that you modified VRL. A suitable
+ * notice might read
+ * "VRL source code modified by YourName 2012".
+ * 
+ * Note, that these requirements are in full accordance with the LGPL v3
+ * (see 7. Additional Terms, b).
+ *
+ * Please cite the publication(s) listed below.
+ *
+ * Publications:
+ *
+ * M. Hoffer, C. Poliwoda, & G. Wittum. (2013). Visual reflection library:
+ * a framework for declarative GUI programming on the Java platform.
+ * Computing and Visualization in Science, 2013, 16(4),
+ * 181–192. http://doi.org/10.1007/s00791-014-0230-y
+ */
+
+package eu.mihosoft.vrl.v3d;
+
+import eu.mihosoft.vrl.annotation.ObjectInfo;
+import java.io.Serializable;
+import javafx.scene.shape.TriangleMesh;
+import javax.media.j3d.GeometryArray;
+import javax.media.j3d.IndexedTriangleArray;
+import javax.media.j3d.TriangleArray;
+import javax.vecmath.Color3f;
+import javax.vecmath.Point3f;
+import javax.vecmath.Vector3f;
+
+/**
+ * An indexed triangle mesh that stores its data in primitive arrays.
+ *
+ * <p>
+ * In contrast to {@link VTriangleArray} no objects are created per node or
+ * triangle. Vertex coordinates are stored as <code>x0,y0,z0,x1,y1,z1,...</code>
+ * and each triangle is defined by three consecutive vertex indices. Optional
+ * per-vertex normals and colors (<code>r,g,b</code>) use the same layout as
+ * the coordinates. This makes it possible to load and display geometries with
+ * millions of triangles. For loading packed meshes from file see
+ * {@link PackedMeshLoader}. To visualize packed meshes use
+ * {@link VGeometry3D#VGeometry3D(eu.mihosoft.vrl.v3d.PackedMesh) }.
+ * </p>
+ *
+ * <p>
+ * <b>Note:</b> the arrays are not copied, i.e., changes to the arrays passed
+ * to or returned by this mesh directly affect the mesh. After modifying the
+ * arrays {@link #geometryChanged() } has to be called.
+ * </p>
+ *
+ * @author Michael Hoffer <info@michaelhoffer.de>
+ * @see PackedMeshLoader
+ * @see VTriangleArray
+ */
+@ObjectInfo(serializeParam = false)
+public class PackedMesh implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private float[] vertices;
+    private int[] indices;
+    private float[] normals;
+    private float[] colors;
+    private float scaleFactor;
+    private Vector3f offset;
+    private transient Bounds bounds;
+    private transient float[] computedNormals;
+    private transient IndexedTriangleArray indexedTriangleArray;
+    private transient boolean indexedTriangleArrayColored;
+
+    /**
+     * Constructor.
+     *
+     * @param vertices vertex coordinates (three entries per vertex)
+     * @param indices vertex indices (three entries per triangle)
+     */
+    public PackedMesh(float[] vertices, int[] indices) {
+        this(vertices, indices, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param vertices vertex coordinates (three entries per vertex)
+     * @param indices vertex indices (three entries per triangle)
+     * @param normals per-vertex normals (three entries per vertex, may be
+     * <code>null</code>)
+     */
+    public PackedMesh(float[] vertices, int[] indices, float[] normals) {
+        this(vertices, indices, normals, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param vertices vertex coordinates (three entries per vertex)
+     * @param indices vertex indices (three entries per triangle)
+     * @param normals per-vertex normals (three entries per vertex, may be
+     * <code>null</code>)
+     * @param colors per-vertex colors (three entries per vertex, may be
+     * <code>null</code>)
+     */
+    public PackedMesh(float[] vertices, int[] indices,
+            float[] normals, float[] colors) {
+        if (vertices == null || vertices.length % 3 != 0) {
+            throw new IllegalArgumentException(
+                    "Vertex array must contain three entries per vertex.");
+        }
+
+        if (indices == null || indices.length % 3 != 0) {
+            throw new IllegalArgumentException(
+                    "Index array must contain three entries per triangle.");
+        }
+
+        if (normals != null && normals.length != vertices.length) {
+            throw new IllegalArgumentException(
+                    "Normal array and vertex array must not differ in size.");
+        }
+
+        this.vertices = vertices;
+        this.indices = indices;
+        this.normals = normals;
+        setColors(colors);
+    }
+
+    /**
+     * Returns the vertex coordinates of this mesh.
+     *
+     * @return the vertex coordinates (three entries per vertex)
+     */
+    public float[] getVertices() {
+        return vertices;
+    }
+
+    /**
+     * Returns the vertex indices of this mesh.
+     *
+     * @return the vertex indices (three entries per triangle)
+     */
+    public int[] getIndices() {
+        return indices;
+    }
+
+    /**
+     * Returns the per-vertex normals of this mesh.
+     *
+     * @return the per-vertex normals or <code>null</code> if this mesh does
+     * not define normals
+     */
+    public float[] getNormals() {
+        return normals;
+    }
+
+    /**
+     * Indicates whether this mesh defines per-vertex normals.
+     *
+     * @return <code>true</code> if this mesh defines per-vertex normals;
+     * <code>false</code> otherwise
+     */
+    public boolean hasNormals() {
+        return normals != null;
+    }
+
+    /**
+     * Returns the per-vertex colors of this mesh.
+     *
+     * @return the per-vertex colors or <code>null</code> if this mesh does
+     * not define colors
+     */
+    public float[] getColors() {
+        return colors;
+    }
+
+    /**
+     * Defines the per-vertex colors of this mesh.
+     *
+     * @param colors the colors to set (three entries per vertex, may be
+     * <code>null</code>)
+     */
+    public final void setColors(float[] colors) {
+        if (colors != null && colors.length != vertices.length) {
+            throw new IllegalArgumentException(
+                    "Color array and vertex array must not differ in size.");
+        }
+
+        this.colors = colors;
+        indexedTriangleArray = null;
+    }
+
+    /**
+     * Indicates whether this mesh defines per-vertex colors.
+     *
+     * @return <code>true</code> if this mesh defines per-vertex colors;
+     * <code>false</code> otherwise
+     */
+    public boolean hasColors() {
+        return colors != null;
+    }
+
+    /**
+     * Returns the number of vertices.
+     *
+     * @return the number of vertices
+     */
+    public int getNumberOfVertices() {
+        return vertices.length / 3;
+    }
+
+    /**
+     * Returns the number of triangles.
+     *
+     * @return the number of triangles
+     */
+    public int getNumberOfTriangles() {
+        return indices.length / 3;
+    }
+
+    /**
+     * Returns the index of the specified triangle vertex.
+     *
+     * @param triangle the triangle index
+     * @param i node index (valid values are 0..2)
+     * @return the vertex index
+     */
+    public int getVertexIndex(int triangle, int i) {
+        return indices[triangle * 3 + i];
+    }
+
+    /**
+     * Returns the location of the specified vertex.
+     *
+     * @param vertex the vertex index
+     * @return the location of the specified vertex
+     */
+    public Point3f getLocation(int vertex) {
+        return new Point3f(vertices[vertex * 3],
+                vertices[vertex * 3 + 1], vertices[vertex * 3 + 2]);
+    }
+
+    /**
+     * Returns the specified triangle. In contrast to
+     * {@link VTriangleArray#getByIndex(java.lang.Integer) } this method does
+     * not search for the triangle. The returned triangle is created on demand,
+     * i.e., changing its nodes does not affect this mesh.
+     *
+     * @param i the triangle index
+     * @return the triangle
+     */
+    public Triangle getTriangle(int i) {
+        if (i < 0 || i >= getNumberOfTriangles()) {
+            throw new IndexOutOfBoundsException(
+                    "Index: " + i + ", #Triangles: " + getNumberOfTriangles());
+        }
+
+        return new Triangle(i,
+                createNode(indices[i * 3]),
+                createNode(indices[i * 3 + 1]),
+                createNode(indices[i * 3 + 2]));
+    }
+
+    /**
+     * Creates a node for the specified vertex.
+     *
+     * @param vertex the vertex index
+     * @return the node
+     */
+    private Node createNode(int vertex) {
+        Color3f color = null;
+
+        if (colors != null) {
+            color = new Color3f(colors[vertex * 3],
+                    colors[vertex * 3 + 1], colors[vertex * 3 + 2]);
+        }
+
+        return new Node(vertex, getLocation(vertex), color);
+    }
+
+    /**
+     * Returns the bounds of this mesh. The bounds are cached until
+     * {@link #geometryChanged() } is called.
+     *
+     * @return the bounds of this mesh
+     */
+    public Bounds getBounds() {
+
+        if (bounds != null) {
+            return bounds;
+        }
+
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double minZ = Double.POSITIVE_INFINITY;
+
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        double maxZ = Double.NEGATIVE_INFINITY;
+
+        for (int i = 0; i < vertices.length; i += 3) {
+            minX = Math.min(vertices[i], minX);
+            maxX = Math.max(vertices[i], maxX);
+            minY = Math.min(vertices[i + 1], minY);
+            maxY = Math.max(vertices[i + 1], maxY);
+            minZ = Math.min(vertices[i + 2], minZ);
+            maxZ = Math.max(vertices[i + 2], maxZ);
+        }
+
+        bounds = new Bounds(
+                new Vector3d(minX, minY, minZ),
+                new Vector3d(maxX, maxY, maxZ));
+
+        return bounds;
+    }
+
+    /**
+     * Invalidates cached data, such as bounds, computed normals and java 3d
+     * geometries. This method has to be called whenever the arrays of this
+     * mesh are modified directly.
+     */
+    public void geometryChanged() {
+        bounds = null;
+        computedNormals = null;
+        indexedTriangleArray = null;
+    }
+
+    /**
+     * Centers and scales the vertices of this mesh (same behavior as
+     * {@link Nodes#centerNodes()}).
+     */
+    public void centerNodes() {
+
+        if (vertices.length == 0) {
+            return;
+        }
+
+        Bounds b = getBounds();
+
+        float minX = (float) b.getMin().x;
+        float minY = (float) b.getMin().y;
+        float minZ = (float) b.getMin().z;
+        float maxX = (float) b.getMax().x;
+        float maxY = (float) b.getMax().y;
+        float maxZ = (float) b.getMax().z;
+
+        float xDimension = maxX - minX;
+        float yDimension = maxY - minY;
+        float zDimension = maxZ - minZ;
+
+        offset = new Vector3f(minX + xDimension / 2,
+                minY + yDimension / 2, minZ + zDimension / 2);
+
+        float maxDimension = Math.max(xDimension, yDimension);
+        maxDimension = Math.max(maxDimension, zDimension);
+
+        scaleFactor = maxDimension == 0 ? 1.f : 10 / maxDimension;
+
+        for (int i = 0; i < vertices.length; i += 3) {
+            vertices[i] = (vertices[i] - offset.x) * scaleFactor;
+            vertices[i + 1] = (vertices[i + 1] - offset.y) * scaleFactor;
+            vertices[i + 2] = (vertices[i + 2] - offset.z) * scaleFactor;
+        }
+
+        geometryChanged();
+    }
+
+    /**
+     * Returns the scale factor of the last {@link #centerNodes()} call.
+     *
+     * @return the scale factor
+     */
+    public float getScaleFactor() {
+
+        if (scaleFactor == 0) {
+            scaleFactor = 1.f;
+        }
+
+        return scaleFactor;
+    }
+
+    /**
+     * Returns the offset of the last {@link #centerNodes()} call.
+     *
+     * @return the offset
+     */
+    public Vector3f getOffset() {
+
+        if (offset == null) {
+            offset = new Vector3f();
+        }
+
+        return offset;
+    }
+
+    /**
+     * Converts this mesh to a triangle array. Vertices that are shared by
+     * several triangles are converted to shared nodes.
+     *
+     * <p>
+     * <b>Note:</b> the memory footprint of the resulting triangle array is
+     * significantly higher than the footprint of this mesh.
+     * </p>
+     *
+     * @return a triangle array that contains the triangles of this mesh
+     */
+    public VTriangleArray toVTriangleArray() {
+
+        int numberOfVertices = getNumberOfVertices();
+        int numberOfTriangles = getNumberOfTriangles();
+
+        Node[] nodes = new Node[numberOfVertices];
+
+        for (int i = 0; i < numberOfVertices; i++) {
+            nodes[i] = createNode(i);
+        }
+
+        VTriangleArray result = new VTriangleArray();
+        result.ensureCapacity(numberOfTriangles);
+
+        for (int i = 0; i < numberOfTriangles; i++) {
+            result.addTriangle(new Triangle(i,
+                    nodes[indices[i * 3]],
+                    nodes[indices[i * 3 + 1]],
+                    nodes[indices[i * 3 + 2]]));
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns a java 3d triangle array. If this mesh does not define normals,
+     * the triangle normals are used.
+     *
+     * @return a java 3d triangle array
+     */
+    public TriangleArray getTriangleArray() {
+        return getTriangleArray(true);
+    }
+
+    /**
+     * Returns a java 3d triangle array. If this mesh does not define normals,
+     * the triangle normals are used. In contrast to
+     * {@link #getIndexedTriangleArray(boolean) } vertices are duplicated.
+     *
+     * @param vertexColoring defines whether to use vertex colors (only
+     * possible if this mesh defines colors)
+     * @return a java 3d triangle array
+     */
+    public TriangleArray getTriangleArray(boolean vertexColoring) {
+
+        vertexColoring = vertexColoring && colors != null;
+
+        int numberOfTriangles = getNumberOfTriangles();
+
+        int vertexFormat = TriangleArray.COORDINATES | TriangleArray.NORMALS;
+
+        if (vertexColoring) {
+            vertexFormat |= TriangleArray.COLOR_3;
+        }
+
+        TriangleArray triangleArray
+                = new TriangleArray(numberOfTriangles * 3, vertexFormat);
+
+        float[] coords = new float[indices.length * 3];
+        float[] triangleNormals = new float[indices.length * 3];
+        float[] triangleColors = vertexColoring
+                ? new float[indices.length * 3] : null;
+
+        for (int i = 0; i < indices.length; i++) {
+            int v = indices[i] * 3;
+            coords[i * 3] = vertices[v];
+            coords[i * 3 + 1] = vertices[v + 1];
+            coords[i * 3 + 2] = vertices[v + 2];
+
+            if (normals != null) {
+                triangleNormals[i * 3] = normals[v];
+                triangleNormals[i * 3 + 1] = normals[v + 1];
+                triangleNormals[i * 3 + 2] = normals[v + 2];
+            }
+
+            if (vertexColoring) {
+                triangleColors[i * 3] = colors[v];
+                triangleColors[i * 3 + 1] = colors[v + 1];
+                triangleColors[i * 3 + 2] = colors[v + 2];
+            }
+        }
+
+        if (normals == null) {
+            computeTriangleNormals(coords, triangleNormals);
+        }
+
+        triangleArray.setCoordinates(0, coords);
+        triangleArray.setNormals(0, triangleNormals);
+
+        if (vertexColoring) {
+            triangleArray.setColors(0, triangleColors);
+        }
+
+        return triangleArray;
+    }
+
+    /**
+     * Returns a java 3d indexed triangle array. The array references the
+     * coordinate, normal and color arrays of this mesh, i.e., they are not
+     * copied. If this mesh does not define normals, per-vertex normals are
+     * computed from the adjacent triangles. The array is cached until
+     * {@link #geometryChanged() } is called.
+     *
+     * @param vertexColoring defines whether to use vertex colors (only
+     * possible if this mesh defines colors)
+     * @return a java 3d indexed triangle array
+     */
+    public IndexedTriangleArray getIndexedTriangleArray(
+            boolean vertexColoring) {
+
+        vertexColoring = vertexColoring && colors != null;
+
+        if (indexedTriangleArray != null
+                && indexedTriangleArrayColored == vertexColoring) {
+            return indexedTriangleArray;
+        }
+
+        int vertexFormat = GeometryArray.COORDINATES
+                | GeometryArray.NORMALS
+                | GeometryArray.BY_REFERENCE
+                | GeometryArray.USE_COORD_INDEX_ONLY;
+
+        if (vertexColoring) {
+            vertexFormat |= GeometryArray.COLOR_3;
+        }
+
+        IndexedTriangleArray result = new IndexedTriangleArray(
+                getNumberOfVertices(), vertexFormat, indices.length);
+
+        result.setCoordRefFloat(vertices);
+        result.setNormalRefFloat(getVertexNormals());
+
+        if (vertexColoring) {
+            result.setColorRefFloat(colors);
+        }
+
+        result.setCoordinateIndices(0, indices);
+
+        indexedTriangleArray = result;
+        indexedTriangleArrayColored = vertexColoring;
+
+        return result;
+    }
+
+    /**
+     * Returns per-vertex normals. If this mesh does not define normals, they
+     * are computed as area weighted average of the adjacent triangle normals.
+     *
+     * @return per-vertex normals
+     */
+    private float[] getVertexNormals() {
+
+        if (normals != null) {
+            return normals;
+        }
+
+        if (computedNormals != null) {
+            return computedNormals;
+        }
+
+        float[] result = new float[vertices.length];
+
+        for (int i = 0; i < indices.length; i += 3) {
+            int a = indices[i] * 3;
+            int b = indices[i + 1] * 3;
+            int c = indices[i + 2] * 3;
+
+            float abx = vertices[b] - vertices[a];
+            float aby = vertices[b + 1] - vertices[a + 1];
+            float abz = vertices[b + 2] - vertices[a + 2];
+            float acx = vertices[c] - vertices[a];
+            float acy = vertices[c + 1] - vertices[a + 1];
+            float acz = vertices[c + 2] - vertices[a + 2];
+
+            // not normalized, i.e., weighted by triangle area
+            float nx = aby * acz - abz * acy;
+            float ny = abz * acx - abx * acz;
+            float nz = abx * acy - aby * acx;
+
+            addVector(result, a, nx, ny, nz);
+            addVector(result, b, nx, ny, nz);
+            addVector(result, c, nx, ny, nz);
+        }
+
+        for (int i = 0; i < result.length; i += 3) {
+            float length = (float) Math.sqrt(result[i] * result[i]
+                    + result[i + 1] * result[i + 1]
+                    + result[i + 2] * result[i + 2]);
+
+            if (length > 0) {
+                result[i] /= length;
+                result[i + 1] /= length;
+                result[i + 2] /= length;
+            }
+        }
+
+        computedNormals = result;
+
+        return result;
+    }
+
+    private static void addVector(float[] target, int i,
+            float x, float y, float z) {
+        target[i] += x;
+        target[i + 1] += y;
+        target[i + 2] += z;
+    }
+
+    /**
+     * Computes triangle normals for non-indexed coordinates and assigns them
+     * to all three vertices of each triangle.
+     *
+     * @param coords non-indexed coordinates (nine entries per triangle)
+     * @param normals array to write the normals to (same size as coords)
+     */
+    static void computeTriangleNormals(float[] coords, float[] normals) {
+        for (int i = 0; i < coords.length; i += 9) {
+            float ax = coords[i + 3] - coords[i];
+            float ay = coords[i + 4] - coords[i + 1];
+            float az = coords[i + 5] - coords[i + 2];
+            float bx = coords[i + 6] - coords[i];
+            float by = coords[i + 7] - coords[i + 1];
+            float bz = coords[i + 8] - coords[i + 2];
+
+            float nx = ay * bz - az * by;
+            float ny = az * bx - ax * bz;
+            float nz = ax * by - ay * bx;
+
+            float length = (float) Math.sqrt(nx * nx + ny * ny + nz * nz);
+
+            if (length > 0) {
+                nx /= length;
+                ny /= length;
+                nz /= length;
+            }
+
+            for (int j = 0; j < 9; j += 3) {
+                normals[i + j] = nx;
+                normals[i + j + 1] = ny;
+                normals[i + j + 2] = nz;
+            }
+        }
+    }
+
+    /**
+     * Returns a JavaFX3D triangle mesh. In contrast to
+     * {@link VTriangleArray#getJFXTriangleMesh(boolean) } shared vertices are
+     * not duplicated.
+     *
+     * @return a JavaFX3D triangle mesh inside a mesh container
+     */
+    public JFXMeshContainer getJFXTriangleMesh() {
+
+        TriangleMesh mesh = new TriangleMesh();
+
+        mesh.getPoints().setAll(vertices);
+        mesh.getTexCoords().setAll(0, 0); // texture (not covered)
+
+        int[] faces = new int[indices.length * 2];
+
+        for (int i = 0; i < indices.length; i++) {
+            faces[i * 2] = indices[i];
+            // faces[i * 2 + 1] = 0 (texture not covered)
+        }
+
+        mesh.getFaces().setAll(faces);
+
+        Bounds b = getBounds();
+
+        return new JFXMeshContainer(b.getMin(), b.getMax(), mesh);
+    }
+
+    @Override
+    public String toString() {
+        return "PackedMesh: #Vertices: " + getNumberOfVertices()
+                + ", #Triangles: " + getNumberOfTriangles()
+                + ", Normals: " + hasNormals()
+                + ", Colors: " + hasColors();
+    }
+}
@@ -0,0 +1,504 @@
+/* 
+ * PackedMeshLoader.java
+ * 
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2007–2018 by Michael Hoffer,
+ * Copyright (c) 2015–2018 G-CSC, Uni Frankfurt,
+ * Copyright (c) 2009–2015 Steinbeis Forschungszentrum (STZ Ölbronn)
+ * 
+ * This file is part of Visual Reflection Library (VRL).
+ *
+ * VRL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * see: http://opensource.org/licenses/LGPL-3.0
+ *      file://path/to/VRL/src/eu/mihosoft/vrl/resources/license/lgplv3.txt
+ *
+ * VRL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * This version of VRL includes copyright notice and attribution requirements.
+ * According to the LGPL this information must be displayed even if you modify
+ * the source code of VRL. Neither the VRL Canvas attribution icon nor any
+ * copyright statement/attribution may be removed.
+ *
+ * Attribution Requirements:
+ *
+ * If you create derived work you must do three things regarding copyright
+ * notice and author attribution.
+ *
+ * First, the following text must be displayed on the Canvas:
+ * "based on VRL source code". In this case the VRL canvas icon must be removed.
+ * 
+ * Second, the copyright notice must remain. It must be reproduced in any
+ * program that uses VRL.
+ *
+ * Third, add an additional notice, stating that you modified VRL. A suitable
+ * notice might read
+ * "VRL source code modified by YourName 2012".
+ * 
+ * Note, that these requirements are in full accordance with the LGPL v3
+ * (see 7. Additional Terms, b).
+ *
+ * Please cite the publication(s) listed below.
+ *
+ * Publications:
+ *
+ * M. Hoffer, C. Poliwoda, & G. Wittum. (2013). Visual reflection library:
+ * a framework for declarative GUI programming on the Java platform.
+ * Computing and Visualization in Science, 2013, 16(4),
+ * 181–192. http://doi.org/10.1007/s00791-014-0230-y
+ */
+
+package eu.mihosoft.vrl.v3d;
+
+import eu.mihosoft.vrl.annotation.ParamInfo;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ * Loads obj and txt files as {@link PackedMesh}.</p>
+ * <p>
+ * In contrast to {@link OBJ2Geometry} and {@link TxT2Geometry} this loader
+ * parses the byte stream directly into primitive arrays, i.e., no strings,
+ * nodes or triangles are created while parsing. This allows loading geometries
+ * with millions of triangles.
+ * </p>
+ * <p>
+ * Supported obj elements:
+ * </p>
+ * <ul>
+ * <li><code>v x y z [w]</code> vertex (w is ignored)</li>
+ * <li><code>vn x y z</code> normal</li>
+ * <li><code>f v1[/vt1[/vn1]] v2[/vt2[/vn2]] ...</code> face with three or
+ * more vertices, n-gons are triangulated as triangle fans</li>
+ * </ul>
+ * <p>
+ * Negative (relative) indices are supported. If one vertex is referenced with
+ * different normals it is duplicated. All other elements are ignored. For a
+ * description of the txt format see {@link TxT2Geometry}.
+ * </p>
+ *
+ * @author Michael Hoffer <info@michaelhoffer.de>
+ * @see PackedMesh
+ */
+public class PackedMeshLoader implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Loads an obj file as packed mesh.
+     *
+     * @param file the file
+     * @return the mesh
+     * @throws java.io.IOException if the file cannot be read or is invalid
+     */
+    public PackedMesh loadObj(
+            @ParamInfo(name = "Input File:",
+                    style = "load-dialog") File file) throws IOException {
+        return loadObj(new FileInputStream(file));
+    }
+
+    /**
+     * Loads an obj file as packed mesh. The stream is closed after reading.
+     *
+     * @param in the stream
+     * @return the mesh
+     * @throws java.io.IOException if the stream cannot be read or is invalid
+     */
+    public PackedMesh loadObj(
+            @ParamInfo(name = "Input File:",
+                    style = "default") InputStream in) throws IOException {
+
+        try (MeshTokenizer tokenizer = new MeshTokenizer(in)) {
+            return new ObjParser(tokenizer).parse();
+        }
+    }
+
+    /**
+     * Loads a txt file as packed mesh.
+     *
+     * @param file the file
+     * @return the mesh
+     * @throws java.io.IOException if the file cannot be read or is invalid
+     */
+    public PackedMesh loadTxt(
+            @ParamInfo(name = "Input File:",
+                    style = "load-dialog") File file) throws IOException {
+        return loadTxt(new FileInputStream(file));
+    }
+
+    /**
+     * Loads a txt file as packed mesh. The stream is closed after reading.
+     *
+     * @param in the stream
+     * @return the mesh
+     * @throws java.io.IOException if the stream cannot be read or is invalid
+     */
+    public PackedMesh loadTxt(
+            @ParamInfo(name = "Input File:",
+                    style = "default") InputStream in) throws IOException {
+
+        try (MeshTokenizer tokenizer = new MeshTokenizer(in)) {
+            return parseTxt(tokenizer);
+        }
+    }
+
+    /**
+     * Parses the txt format.
+     *
+     * @param tokenizer the tokenizer
+     * @return the mesh
+     * @throws IOException if reading fails or if the file is invalid
+     */
+    private static PackedMesh parseTxt(MeshTokenizer tokenizer)
+            throws IOException {
+
+        int numberOfNodes = tokenizer.nextInt();
+        int numberOfTriangles = tokenizer.nextInt();
+
+        if (numberOfNodes < 0 || numberOfTriangles < 0) {
+            throw tokenizer.error("invalid number of nodes or triangles");
+        }
+
+        tokenizer.skipLine();
+
+        float[] vertices = new float[numberOfNodes * 3];
+        int[] nodeIds = new int[numberOfNodes];
+
+        // node ids usually equal the node position (0..n-1), only build
+        // a lookup table if this is not the case
+        boolean identity = true;
+
+        for (int i = 0; i < numberOfNodes; i++) {
+            nodeIds[i] = tokenizer.nextInt();
+            identity &= nodeIds[i] == i;
+            vertices[i * 3] = tokenizer.nextFloat();
+            vertices[i * 3 + 1] = tokenizer.nextFloat();
+            vertices[i * 3 + 2] = tokenizer.nextFloat();
+            tokenizer.skipLine();
+        }
+
+        Map<Integer, Integer> idToIndex = null;
+
+        if (!identity) {
+            idToIndex = new HashMap<Integer, Integer>(numberOfNodes * 2);
+            for (int i = 0; i < numberOfNodes; i++) {
+                idToIndex.put(nodeIds[i], i);
+            }
+        }
+
+        int[] indices = new int[numberOfTriangles * 3];
+
+        for (int i = 0; i < numberOfTriangles; i++) {
+            tokenizer.nextInt(); // triangle index
+
+            for (int j = 0; j < 3; j++) {
+                int id = tokenizer.nextInt();
+                int index = id;
+
+                if (idToIndex != null) {
+                    Integer mapped = idToIndex.get(id);
+                    index = mapped == null ? -1 : mapped;
+                }
+
+                if (index < 0 || index >= numberOfNodes) {
+                    throw tokenizer.error("invalid node index " + id);
+                }
+
+                indices[i * 3 + j] = index;
+            }
+
+            tokenizer.skipLine();
+        }
+
+        return new PackedMesh(vertices, indices);
+    }
+
+    /**
+     * Obj parser state.
+     */
+    private static final class ObjParser {
+
+        private final MeshTokenizer tokenizer;
+        private final FloatList positions = new FloatList();
+        private final FloatList normals = new FloatList();
+        /**
+         * Normal index per position (-1 if no normal has been assigned).
+         */
+        private final IntList normalOfPosition = new IntList();
+        /**
+         * Duplicated vertices (position index, normal index).
+         */
+        private final IntList duplicates = new IntList();
+        private final Map<Long, Integer> duplicateIndices
+                = new HashMap<Long, Integer>();
+        /**
+         * Triangle indices, duplicates are encoded as
+         * <code>-(duplicateIndex + 1)</code>.
+         */
+        private final IntList indices = new IntList();
+        private int[] polygon = new int[16];
+
+        ObjParser(MeshTokenizer tokenizer) {
+            this.tokenizer = tokenizer;
+        }
+
+        PackedMesh parse() throws IOException {
+            int c;
+
+            while ((c = tokenizer.skipBlanks()) != MeshTokenizer.EOF) {
+
+                if (c == 'v') {
+                    tokenizer.read();
+                    c = tokenizer.peek();
+
+                    if (MeshTokenizer.isDelimiter(c)) {
+                        readVertex();
+                    } else if (c == 'n') {
+                        tokenizer.read();
+                        if (MeshTokenizer.isDelimiter(tokenizer.peek())) {
+                            readNormal();
+                        }
+                    }
+                } else if (c == 'f') {
+                    tokenizer.read();
+                    if (MeshTokenizer.isDelimiter(tokenizer.peek())) {
+                        readFace();
+                    }
+                }
+
+                // comments, texture coordinates, groups, materials etc.
+                // are ignored
+                tokenizer.skipLine();
+            }
+
+            return createMesh();
+        }
+
+        private void readVertex() throws IOException {
+            positions.add(tokenizer.nextFloat());
+            positions.add(tokenizer.nextFloat());
+            positions.add(tokenizer.nextFloat());
+            normalOfPosition.add(-1);
+        }
+
+        private void readNormal() throws IOException {
+            normals.add(tokenizer.nextFloat());
+            normals.add(tokenizer.nextFloat());
+            normals.add(tokenizer.nextFloat());
+        }
+
+        private void readFace() throws IOException {
+            int n = 0;
+
+            while (tokenizer.hasMoreTokens()) {
+                if (n == polygon.length) {
+                    polygon = Arrays.copyOf(polygon, n * 2);
+                }
+                polygon[n++] = readFaceVertex();
+            }
+
+            if (n < 3) {
+                throw tokenizer.error("face with less than three vertices");
+            }
+
+            // triangulate as triangle fan
+            for (int i = 1; i < n - 1; i++) {
+                indices.add(polygon[0]);
+                indices.add(polygon[i]);
+                indices.add(polygon[i + 1]);
+            }
+        }
+
+        /**
+         * Reads a face vertex (<code>v</code>, <code>v/vt</code>,
+         * <code>v/vt/vn</code> or <code>v//vn</code>).
+         *
+         * @return the encoded vertex index
+         * @throws IOException if reading fails or if the vertex is invalid
+         */
+        private int readFaceVertex() throws IOException {
+            int position = resolve(tokenizer.nextInt(),
+                    normalOfPosition.size(), "vertex");
+            int normal = -1;
+
+            if (tokenizer.peek() == '/') {
+                tokenizer.read();
+
+                if (tokenizer.peek() != '/') {
+                    tokenizer.nextInt(); // texture coordinate (ignored)
+                }
+
+                if (tokenizer.peek() == '/') {
+                    tokenizer.read();
+                    normal = resolve(tokenizer.nextInt(),
+                            normals.size() / 3, "normal");
+                }
+            }
+
+            if (!MeshTokenizer.isDelimiter(tokenizer.peek())) {
+                throw tokenizer.error("invalid face vertex");
+            }
+
+            if (normal < 0) {
+                return position;
+            }
+
+            int assignedNormal = normalOfPosition.get(position);
+
+            if (assignedNormal < 0) {
+                normalOfPosition.set(position, normal);
+                return position;
+            } else if (assignedNormal == normal) {
+                return position;
+            }
+
+            // vertex is used with different normals, duplicate it
+            Long key = ((long) position << 32) | normal;
+            Integer duplicate = duplicateIndices.get(key);
+
+            if (duplicate == null) {
+                duplicate = duplicates.size() / 2;
+                duplicates.add(position);
+                duplicates.add(normal);
+                duplicateIndices.put(key, duplicate);
+            }
+
+            return -(duplicate + 1);
+        }
+
+        /**
+         * Converts an obj index (one-based or negative) to a zero-based
+         * index.
+         */
+        private int resolve(int index, int count, String type)
+                throws IOException {
+            int result = index < 0 ? count + index : index - 1;
+
+            if (result < 0 || result >= count) {
+                throw tokenizer.error("invalid " + type + " index " + index);
+            }
+
+            return result;
+        }
+
+        private PackedMesh createMesh() {
+            int numberOfPositions = normalOfPosition.size();
+            int numberOfDuplicates = duplicates.size() / 2;
+            int numberOfVertices = numberOfPositions + numberOfDuplicates;
+
+            float[] vertices = positions.toArray(numberOfVertices * 3);
+
+            float[] vertexNormals = null;
+
+            if (normals.size() > 0) {
+                vertexNormals = new float[numberOfVertices * 3];
+
+                for (int i = 0; i < numberOfPositions; i++) {
+                    copyNormal(normalOfPosition.get(i), vertexNormals, i);
+                }
+            }
+
+            for (int i = 0; i < numberOfDuplicates; i++) {
+                int v = numberOfPositions + i;
+                int p = duplicates.get(i * 2);
+                vertices[v * 3] = vertices[p * 3];
+                vertices[v * 3 + 1] = vertices[p * 3 + 1];
+                vertices[v * 3 + 2] = vertices[p * 3 + 2];
+                copyNormal(duplicates.get(i * 2 + 1), vertexNormals, v);
+            }
+
+            int[] triangles = indices.toArray(indices.size());
+
+            if (numberOfDuplicates > 0) {
+                for (int i = 0; i < triangles.length; i++) {
+                    if (triangles[i] < 0) {
+                        triangles[i] = numberOfPositions - triangles[i] - 1;
+                    }
+                }
+            }
+
+            return new PackedMesh(vertices, triangles, vertexNormals);
+        }
+
+        private void copyNormal(int normal, float[] target, int vertex) {
+            if (normal >= 0) {
+                target[vertex * 3] = normals.get(normal * 3);
+                target[vertex * 3 + 1] = normals.get(normal * 3 + 1);
+                target[vertex * 3 + 2] = normals.get(normal * 3 + 2);
+            }
+        }
+    }
+
+    /**
+     * Growable float array.
+     */
+    private static final class FloatList {
+
+        private float[] data = new float[1024];
+        private int size;
+
+        void add(float value) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = value;
+        }
+
+        float get(int i) {
+            return data[i];
+        }
+
+        int size() {
+            return size;
+        }
+
+        float[] toArray(int length) {
+            return Arrays.copyOf(data, length);
+        }
+    }
+
+    /**
+     * Growable int array.
+     */
+    private static final class IntList {
+
+        private int[] data = new int[1024];
+        private int size;
+
+        void add(int value) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = value;
+        }
+
+        int get(int i) {
+            return data[i];
+        }
+
+        void set(int i, int value) {
+            data[i] = value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray(int length) {
+            return Arrays.copyOf(data, length);
+        }
+    }
+}
@@ -175,6 +175,24 @@ public class TxT2Geometry implements Serializable {
     }
 
 
+    /**
+     * Loads text file to a packed mesh. In contrast to
+     * {@link #loadAsVTriangleArray(java.io.File) } this method is suitable
+     * for large geometries. The nodes are centered as done by
+     * {@link #loadAsVTriangleArray(java.io.File) }.
+     * @param file the file
+     * @return the packed mesh
+     * @throws java.io.IOException
+     * @see PackedMeshLoader
+     */
+    public PackedMesh loadAsPackedMesh(
+            @ParamInfo(name = "Input File:",
+            style = "load-dialog") File file) throws IOException {
+        PackedMesh mesh = new PackedMeshLoader().loadTxt(file);
+        mesh.centerNodes();
+        return mesh;
+    }
+
     /**
      * Reads a node.
      * @param stringTokenizer the string tokenizer to use for reading
@@ -61,6 +61,7 @@ import java.awt.Color;
 import java.io.Serializable;
 import java.util.Optional;
 import javafx.scene.paint.PhongMaterial;
+import javax.media.j3d.GeometryArray;
 import javax.media.j3d.Material;
 import javax.media.j3d.Shape3D;
 
@@ -75,6 +76,10 @@ import javax.media.j3d.Shape3D;
  * <p>
  * However, VGeometry3D is highly useful for small visualizations, e.g.,
  * function plotters that are directly implemented inside VRL projects.</p>
+ * <p>
+ * For large geometries use {@link PackedMesh} instead of
+ * {@link VTriangleArray}. Packed meshes are visualized without creating
+ * triangle and node objects.</p>
  *
  * @see: http://www.vtk.org/
  *
@@ -86,6 +91,7 @@ public class VGeometry3D implements Serializable {
     private static final long serialVersionUID = 1L;
     private VGeometry3DAppearance appearance;
     private VTriangleArray geometry;
+    private PackedMesh packedGeometry;
     private double[] orientation;
     public static final double[] DEFAULT_LOCATION = new double[16];
 
@@ -147,14 +153,87 @@ public class VGeometry3D implements Serializable {
         setAppearance(appearance);
     }
 
+    public VGeometry3D(PackedMesh geometry) {
+        setAppearance(new VGeometry3DAppearance());
+        setPackedGeometry(geometry);
+    }
+
+    public VGeometry3D(PackedMesh geometry,
+            VGeometry3DAppearance appearance) {
+        setPackedGeometry(geometry);
+        setAppearance(appearance);
+    }
+
+    /**
+     * Defines the geometry. A previously defined packed geometry is removed.
+     *
+     * @param geometry the geometry to set
+     */
     public void setGeometry(VTriangleArray geometry) {
         this.geometry = geometry;
+        this.packedGeometry = null;
     }
 
+    /**
+     * Returns the geometry.
+     *
+     * @return the geometry or <code>null</code> if this geometry is defined by
+     * a packed mesh (see {@link #getPackedGeometry() })
+     */
     public VTriangleArray getGeometry() {
         return geometry;
     }
 
+    /**
+     * Defines the geometry as packed mesh. A previously defined triangle
+     * array is removed.
+     *
+     * @param geometry the geometry to set
+     */
+    public void setPackedGeometry(PackedMesh geometry) {
+        this.packedGeometry = geometry;
+        this.geometry = null;
+    }
+
+    /**
+     * Returns the packed geometry.
+     *
+     * @return the packed geometry or <code>null</code> if this geometry is
+     * defined by a triangle array (see {@link #getGeometry() })
+     */
+    public PackedMesh getPackedGeometry() {
+        return packedGeometry;
+    }
+
+    /**
+     * Returns the number of triangles of this geometry.
+     *
+     * @return the number of triangles of this geometry
+     */
+    public int getNumberOfTriangles() {
+        if (packedGeometry != null) {
+            return packedGeometry.getNumberOfTriangles();
+        } else if (geometry != null) {
+            return geometry.size();
+        }
+
+        return 0;
+    }
+
+    /**
+     * Returns the java 3d geometry array of this geometry.
+     *
+     * @param vertexColoring defines whether to use vertex coloring
+     * @return the java 3d geometry array of this geometry
+     */
+    private GeometryArray getGeometryArray(boolean vertexColoring) {
+        if (packedGeometry != null) {
+            return packedGeometry.getIndexedTriangleArray(vertexColoring);
+        }
+
+        return getGeometry().getTriangleArray(vertexColoring);
+    }
+
     public Optional<JFXMeshContainer> generateJavaFXNode() {
 
         //TODO 02.07.2015 fix implementation
@@ -210,25 +289,25 @@ public class VGeometry3D implements Serializable {
         }
 
         if (onlySolid) {
-            result.add(new Shape3D(getGeometry().getTriangleArray(
+            result.add(new Shape3D(getGeometryArray(
                     getAppearance().isVertexColoring()),
                     aG.getColoredAppearance(getAppearance().getSolidColor(),
                             getAppearance().isVolumeRendering())));
         } else if (onlyWire) {
-            result.add(new Shape3D(getGeometry().getTriangleArray(false),
+            result.add(new Shape3D(getGeometryArray(false),
                     aG.getLinedAppearance(getAppearance().getWireColor(),
                             thickness, getAppearance().getLighting())));
         } else if (solidAndWire) {
             if (!getAppearance().isVertexColoring()) {
-                result.add(new Shape3D(getGeometry().getTriangleArray(false),
+                result.add(new Shape3D(getGeometryArray(false),
                         aG.getLinedAppearance(getAppearance().getWireColor(),
                                 thickness, getAppearance().getLighting())));
 
-                result.add(new Shape3D(getGeometry().getTriangleArray(
+                result.add(new Shape3D(getGeometryArray(
                         getAppearance().isVertexColoring()),
                         aG.getColoredAppearance(getAppearance().getSolidColor(), 1F)));
             } else {
-                result.add(new Shape3D(getGeometry().getTriangleArray(
+                result.add(new Shape3D(getGeometryArray(
                         getAppearance().isVertexColoring()),
                         aG.getColoredAppearance(getAppearance().getSolidColor(),
                                 getAppearance().isVolumeRendering())));
@@ -236,15 +315,15 @@ public class VGeometry3D implements Serializable {
         } else if (nothing) {
 
             if (!getAppearance().isVertexColoring()) {
-                result.add(new Shape3D(getGeometry().getTriangleArray(false),
+                result.add(new Shape3D(getGeometryArray(false),
                         aG.getLinedAppearance(Color.black,
                                 thickness, getAppearance().getLighting())));
 
-                result.add(new Shape3D(getGeometry().getTriangleArray(
+                result.add(new Shape3D(getGeometryArray(
                         getAppearance().isVertexColoring()),
                         aG.getColoredAppearance(Color.white, 1F)));
             } else {
-                result.add(new Shape3D(getGeometry().getTriangleArray(
+                result.add(new Shape3D(getGeometryArray(
                         getAppearance().isVertexColoring()),
                         aG.getColoredAppearance(Color.white, false)));
             }
@@ -60,12 +60,24 @@ import eu.mihosoft.vrl.animation.Animation;
 import eu.mihosoft.vrl.animation.ColorTransitionAnimation;
 import java.awt.Graphics;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 // XML
 
 /**
  * Represents a list of all connections inside a Canvas object.
+ * <p>
+ * Connections are indexed by sender and receiver connector. Thus, queries
+ * such as {@link #getAllWith(eu.mihosoft.vrl.visual.Connector)} or
+ * {@link #alreadyConnected(eu.mihosoft.vrl.visual.Connector) } do not have to
+ * iterate over all connections. Modifications that bypass the methods of this
+ * class (e.g. via iterators) invalidate the index. It is rebuilt on the next
+ * query. Sender and receiver of a connection must not be changed while the
+ * connection is an element of this list.
+ * </p>
  * @author Michael Hoffer <info@michaelhoffer.de>
  */
 public class Connections extends ArrayList<Connection>
@@ -78,6 +90,18 @@ public class Connections extends ArrayList<Connection>
      */
     private Canvas mainCanvas;
     private Connection prototype = new Connection();
+    /**
+     * sender index (sender, connections in list order)
+     */
+    private transient Map<Connector, List<Connection>> connectionsBySender;
+    /**
+     * receiver index (receiver, connections in list order)
+     */
+    private transient Map<Connector, List<Connection>> connectionsByReceiver;
+    /**
+     * modification count the index belongs to (-1 if invalid)
+     */
+    private transient int indexModCount = -1;
 
     /**
      * Creates an empty Connections object.
@@ -124,7 +148,7 @@ public class Connections extends ArrayList<Connection>
         a.setDuration(0.3);
         mainCanvas.getAnimationManager().addAnimation(a);
 
-        return super.add(c);
+        return appendConnection(c);
     }
 
     /**
@@ -140,8 +164,7 @@ public class Connections extends ArrayList<Connection>
         a.setDuration(0.3);
         mainCanvas.getAnimationManager().addAnimation(a);
 
-
-        super.add(c);
+        appendConnection(c);
 
         return c;
     }
@@ -151,9 +174,24 @@ public class Connections extends ArrayList<Connection>
      */
     public void remove(Connection c) {
 
-        Connector r = c.getReceiver();
+        boolean valid = isIndexValid();
+
+        // super.remove() removes the first connection that equals c,
+        // which is not necessarily c itself
+        Connection removed = valid ? find(c.getSender(), c.getReceiver())
+                : null;
+
+        if (super.remove(c) && removed != null) {
+            unindexConnection(removed);
+            indexModCount = modCount;
+        }
+    }
 
-        super.remove(c);
+    @Override
+    public Connection set(int index, Connection c) {
+        // ArrayList.set() does not increase the modification count
+        indexModCount = -1;
+        return super.set(index, c);
     }
 
 //    /**
@@ -250,8 +288,13 @@ public class Connections extends ArrayList<Connection>
     public List<Connection> getAllWith(CanvasWindow o) {
         ArrayList<Connection> connections = new ArrayList<Connection>();
 
+        validateIndex();
+
         for (Connector c : o.getConnectors()) {
-            connections.addAll(getAllWith(c));
+            if (connectionsBySender.containsKey(c)
+                    || connectionsByReceiver.containsKey(c)) {
+                connections.addAll(getAllWith(c));
+            }
         }
 
         return connections;
@@ -265,14 +308,31 @@ public class Connections extends ArrayList<Connection>
      * that are conneced with Connector o
      */
     public List<Connection> getAllWith(Connector o) {
+        validateIndex();
+
+        List<Connection> sent = connectionsBySender.get(o);
+        List<Connection> received = connectionsByReceiver.get(o);
+
         ArrayList<Connection> list = new ArrayList<Connection>();
-        for (int i = this.size() - 1; i >= 0; i--) {
-            Connection c = this.get(i);
 
-            if ((c.getSender().equals(o)) || (c.getReceiver().equals(o))) {
-                list.add(c);
+        if (sent != null && received != null) {
+            // connector is sender and receiver (rare), we need the list
+            // order to merge both lists
+            for (int i = this.size() - 1; i >= 0; i--) {
+                Connection c = this.get(i);
+
+                if (c.getSender() == o || c.getReceiver() == o) {
+                    list.add(c);
+                }
             }
+        } else if (sent != null) {
+            list.addAll(sent);
+            Collections.reverse(list);
+        } else if (received != null) {
+            list.addAll(received);
+            Collections.reverse(list);
         }
+
         return list;
     }
 
@@ -285,13 +345,19 @@ public class Connections extends ArrayList<Connection>
      * receiver r; returns <code>null</code> if connection does not exist
      */
     public Connection get(Connector s, Connector r) {
-        Connection tmpC = prototype.newInstance(s, r);
-        for (int i = this.size() - 1; i >= 0; i--) {
-            Connection c = this.get(i);
-            if (c.equals(tmpC)) {
-                return c;
+        validateIndex();
+
+        List<Connection> sent = connectionsBySender.get(s);
+
+        if (sent != null) {
+            for (int i = sent.size() - 1; i >= 0; i--) {
+                Connection c = sent.get(i);
+                if (c.getReceiver() == r) {
+                    return c;
+                }
             }
         }
+
         return null;
     }
     /**
@@ -301,7 +367,143 @@ public class Connections extends ArrayList<Connection>
      *         <code>false</code> otherwise
      */
     public boolean alreadyConnected(Connector c) {
-        return (!getAllWith(c).isEmpty());
+        validateIndex();
+        return connectionsBySender.containsKey(c)
+                || connectionsByReceiver.containsKey(c);
+    }
+
+    /**
+     * Adds the specified connection to the list and to the index.
+     * @param c connection to add
+     * @return <code>true</code> (as specified by {@link List#add(Object)})
+     */
+    private boolean appendConnection(Connection c) {
+        boolean valid = isIndexValid();
+
+        boolean result = super.add(c);
+
+        if (valid) {
+            indexConnection(c);
+            indexModCount = modCount;
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the first connection (in list order) with the specified sender
+     * and receiver. The index must be valid.
+     * @param s sender
+     * @param r receiver
+     * @return the first connection with the specified sender and receiver or
+     *         <code>null</code> if no such connection exists
+     */
+    private Connection find(Connector s, Connector r) {
+        List<Connection> sent = connectionsBySender.get(s);
+
+        if (sent != null) {
+            for (Connection c : sent) {
+                if (c.getReceiver() == r) {
+                    return c;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Adds the specified connection to the sender and receiver index.
+     * @param c connection to add
+     */
+    private void indexConnection(Connection c) {
+        addToIndex(connectionsBySender, c.getSender(), c);
+        addToIndex(connectionsByReceiver, c.getReceiver(), c);
+    }
+
+    /**
+     * Removes the specified connection from the sender and receiver index.
+     * @param c connection to remove
+     */
+    private void unindexConnection(Connection c) {
+        removeFromIndex(connectionsBySender, c.getSender(), c);
+        removeFromIndex(connectionsByReceiver, c.getReceiver(), c);
+    }
+
+    /**
+     * Adds a connection to the specified index.
+     * @param index index
+     * @param key connector
+     * @param c connection
+     */
+    private static void addToIndex(Map<Connector, List<Connection>> index,
+            Connector key, Connection c) {
+        List<Connection> list = index.get(key);
+
+        if (list == null) {
+            list = new ArrayList<Connection>(1);
+            index.put(key, list);
+        }
+
+        list.add(c);
+    }
+
+    /**
+     * Removes a connection from the specified index. Connectors without
+     * connections are removed from the index.
+     * @param index index
+     * @param key connector
+     * @param c connection
+     */
+    private static void removeFromIndex(Map<Connector, List<Connection>> index,
+            Connector key, Connection c) {
+        List<Connection> list = index.get(key);
+
+        if (list == null) {
+            return;
+        }
+
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i) == c) {
+                list.remove(i);
+                break;
+            }
+        }
+
+        if (list.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    /**
+     * Indicates whether the index is in sync with the list.
+     * @return <code>true</code> if the index is in sync with the list;
+     *         <code>false</code> otherwise
+     */
+    private boolean isIndexValid() {
+        return indexModCount == modCount && connectionsBySender != null;
+    }
+
+    /**
+     * Rebuilds the index if it is not in sync with the list. Queries may be
+     * performed from several threads (e.g. by parallel method invocation),
+     * thus, the index is rebuilt under lock.
+     */
+    private synchronized void validateIndex() {
+        if (isIndexValid()) {
+            return;
+        }
+
+        connectionsBySender =
+                new IdentityHashMap<Connector, List<Connection>>();
+        connectionsByReceiver =
+                new IdentityHashMap<Connector, List<Connection>>();
+
+        for (Connection c : this) {
+            indexConnection(c);
+        }
+
+        indexModCount = modCount;
     }
 
 //    public Element getXMLDescription() {
@@ -59,13 +59,20 @@ import eu.mihosoft.vrl.system.Constants;
 import eu.mihosoft.vrl.system.VMessage;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This is an extended version of <code>ArrayList</code>. Its purpose is to give
  * each element in the list a unique ID value which is independant of the
- * position in the list. For a big number of elements HashMap is probably more
- * efficient in many cases.
+ * position in the list. Elements and indices are indexed by id, i.e.,
+ * {@link #getById(int) } and {@link #getIndexById(int) } do not scan the list.
+ * The index is updated by the methods of this class and rebuilt on demand if
+ * the list has been modified otherwise (e.g. via iterators or
+ * <code>addAll()</code>). Ids that have been changed externally (via
+ * {@link IDObject#setID(int) }) are detected, in this case the list is
+ * scanned.
  *
  * @author Michael Hoffer <info@michaelhoffer.de>
  * @param <E>
@@ -93,6 +100,34 @@ public class IDArrayList<E extends IDObject> extends ArrayList<E> {
     private final List<Thread> threads = new ArrayList<Thread>();
 
     private final Object lock = new Object();
+    /**
+     * id index (id, element)
+     */
+    private transient Map<Integer, E> elementsById
+            = new HashMap<Integer, E>();
+    /**
+     * position index (id, index)
+     */
+    private transient Map<Integer, Integer> indicesById
+            = new HashMap<Integer, Integer>();
+    /**
+     * modification count the id index belongs to (-1 if invalid)
+     */
+    private transient int elementIndexModCount = -1;
+    /**
+     * modification count the position index belongs to (-1 if invalid)
+     */
+    private transient int positionIndexModCount = -1;
+    /**
+     * indicates whether the list contains elements with equal ids (only
+     * possible after a critical error)
+     */
+    private transient boolean duplicateIds;
+    /**
+     * all ids smaller than this value are in use (valid if the id index is
+     * valid)
+     */
+    private transient int smallestUnusedIdCandidate;
 
     @Override
     public boolean add(E e) {
@@ -110,10 +145,9 @@ public class IDArrayList<E extends IDObject> extends ArrayList<E> {
             }
 
 //        System.out.println(">> IDArrayList: entry added.");
-            boolean result = super.add(e);
+            boolean result = appendElement(e);
 
             updateToolTips();
-            updateIdTable();
 
             return result;
         }
@@ -171,8 +205,15 @@ public class IDArrayList<E extends IDObject> extends ArrayList<E> {
 
             e.setID(id);
 
+            boolean elementIndexValid = isElementIndexValid();
+
             super.add(index, e);
 
+            if (elementIndexValid) {
+                indexElement(e);
+                elementIndexModCount = modCount;
+            }
+
             updateToolTips();
             updateIdTable();
         }
@@ -198,11 +239,10 @@ public class IDArrayList<E extends IDObject> extends ArrayList<E> {
             } else {
                 e.setID(ID);
 
-                result = super.add(e);
+                result = appendElement(e);
             }
 
             updateToolTips();
-            updateIdTable();
 
             return result;
         }
@@ -219,12 +259,31 @@ public class IDArrayList<E extends IDObject> extends ArrayList<E> {
 
         synchronized (lock) {
 
-            E element = null;
+            if (!isElementIndexValid()) {
+                rebuildElementIndex();
+            }
+
+            E element = elementsById.get(ID);
+
+            if (element != null && element.getID() == ID) {
+                return element;
+            }
+
+            // ids might have been changed externally (IDObject.setID() does
+            // not notify the list), i.e., stale hits and misses are verified
+            element = null;
+
             for (E e : this) {
                 if (e.getID() == ID) {
                     element = e;
+                    break;
                 }
             }
+
+            if (element != null || elementsById.containsKey(ID)) {
+                rebuildElementIndex();
+            }
+
             return element;
 
         }
@@ -241,13 +300,31 @@ public class IDArrayList<E extends IDObject> extends ArrayList<E> {
 
         synchronized (lock) {
 
-            Integer result = null;
-            for (int i = 0; i < size(); i++) {
+            if (positionIndexModCount != modCount) {
+                rebuildPositionIndex();
+            }
 
+            Integer result = indicesById.get(ID);
+
+            if (result != null && get(result).getID() == ID) {
+                return result;
+            }
+
+            // ids might have been changed externally, i.e., stale hits and
+            // misses are verified
+            result = null;
+
+            for (int i = 0; i < size(); i++) {
                 if (get(i).getID() == ID) {
                     result = i;
+                    break;
                 }
             }
+
+            if (result != null || indicesById.containsKey(ID)) {
+                rebuildPositionIndex();
+            }
+
             return result;
         }
     }
@@ -290,31 +367,18 @@ public class IDArrayList<E extends IDObject> extends ArrayList<E> {
                 result = originalIdTable.get(size());
 //            System.out.println("ID FROM TABLE: " + result);
             } else {
-                int maxId = getMaxId();
-                boolean foundUnusedId = true;
-
-                // we want to find the smallest unused id value
-                for (int i = 0; i <= maxId; i++) {
-                    foundUnusedId = true;
-                    for (IDObject o : this) {
-//                System.out.println(">> i = " + i + ", id = " + o.getID());
-                        if (o.getID() == i) {
-                            foundUnusedId = false;
-                        }
-                    }
-                    if (foundUnusedId) {
-                        result = i;
-//                 System.out.println(">> found id = " + id);
-                        break;
-                    }
-                }
 
-                // if we didn't find an unused id smaller than maxId then
-                // we use id=maxId+1, which isn't in use
-                if (!foundUnusedId) {
-                    result = maxId + 1;
+                // we want to find the smallest unused id value. if all ids
+                // up to maxId are in use we get id=maxId+1
+                result = isElementIndexValid()
+                        ? smallestUnusedIdCandidate : 0;
+
+                while (getById(result) != null) {
+                    result++;
                 }
 
+                smallestUnusedIdCandidate = result;
+
 //            System.out.println("NEW ID: " + result);
             }
 
@@ -325,19 +389,104 @@ public class IDArrayList<E extends IDObject> extends ArrayList<E> {
     }
 
     /**
-     * Returns the maximum id value that has been assigned to an IDObject entry.
-     * <p>
-     * <b>Warning:</b> it returns 0, even 0 is not in use. </p>
+     * Appends the specified element and updates the indices.
+     *
+     * @param e element to append
+     * @return <code>true</code> (as specified by {@link Collection#add})
+     */
+    private boolean appendElement(E e) {
+        boolean elementIndexValid = isElementIndexValid();
+        boolean positionIndexValid = positionIndexModCount == modCount;
+        boolean idTableValid = idTable.size() == size();
+
+        boolean result = super.add(e);
+
+        if (elementIndexValid) {
+            indexElement(e);
+            elementIndexModCount = modCount;
+        }
+
+        if (positionIndexValid) {
+            indicesById.put(e.getID(), size() - 1);
+            positionIndexModCount = modCount;
+        }
+
+        if (idTableValid) {
+            idTable.add(e.getID());
+        } else {
+            updateIdTable();
+        }
+
+        return result;
+    }
+
+    /**
+     * Adds the specified element to the id index.
      *
-     * @return the maximum id value, valid range: [0,MAX_INT]
+     * @param e element to add
+     */
+    private void indexElement(E e) {
+        if (elementsById.put(e.getID(), e) != null) {
+            duplicateIds = true;
+        }
+    }
+
+    /**
+     * Indicates whether the id index is in sync with the list.
+     *
+     * @return <code>true</code> if the id index is in sync with the list;
+     * <code>false</code> otherwise
+     */
+    private boolean isElementIndexValid() {
+        return elementIndexModCount == modCount;
+    }
+
+    /**
+     * Rebuilds the id index. If ids are not unique the last element with a
+     * given id is indexed.
      */
-    private int getMaxId() {
-        int max = 0;
+    private void rebuildElementIndex() {
+        elementsById.clear();
+        duplicateIds = false;
+        smallestUnusedIdCandidate = 0;
+
         for (E e : this) {
-            max = Math.max(e.getID(), max);
+            indexElement(e);
+        }
+
+        elementIndexModCount = modCount;
+    }
+
+    /**
+     * Rebuilds the position index. If ids are not unique the last index of a
+     * given id is indexed.
+     */
+    private void rebuildPositionIndex() {
+        indicesById.clear();
+
+        for (int i = 0; i < size(); i++) {
+            indicesById.put(get(i).getID(), i);
+        }
+
+        positionIndexModCount = modCount;
+    }
+
+    /**
+     * Removes the specified element from the id index (the position index
+     * becomes invalid).
+     *
+     * @param e removed element
+     * @param elementIndexValid defines whether the id index was valid before
+     * removing the element
+     */
+    private void unindexElement(E e, boolean elementIndexValid) {
+        if (elementIndexValid && !duplicateIds
+                && elementsById.get(e.getID()) == e) {
+            elementsById.remove(e.getID());
+            elementIndexModCount = modCount;
+            smallestUnusedIdCandidate = Math.max(0, Math.min(
+                    smallestUnusedIdCandidate, e.getID()));
         }
-//        System.out.println(">> max = " + max);
-        return max;
     }
 
     private void updateIdTable() {
@@ -362,10 +511,17 @@ public class IDArrayList<E extends IDObject> extends ArrayList<E> {
             // id table
             int size = Math.min(size(), idTable.size());
 
+            // ids are changed, the indices are invalid
+            elementIndexModCount = -1;
+            positionIndexModCount = -1;
+
             for (int i = 0; i < size(); i++) {
                 if (i < size) {
                     get(i).setID(idTable.get(i));
                 } else if (i < size()) {
+                    // new ids must not collide with ids assigned in
+                    // previous iterations
+                    elementIndexModCount = -1;
                     get(i).setID(getNewId());
                 }
             }
@@ -374,6 +530,10 @@ public class IDArrayList<E extends IDObject> extends ArrayList<E> {
                 originalIdTable.add(i);
             }
 
+            // ids have changed
+            elementIndexModCount = -1;
+            positionIndexModCount = -1;
+
             updateToolTips();
             updateIdTable();
 
@@ -399,8 +559,12 @@ public class IDArrayList<E extends IDObject> extends ArrayList<E> {
 
         synchronized (lock) {
 
+            boolean elementIndexValid = isElementIndexValid();
+
             E result = super.remove(index);
 
+            unindexElement(result, elementIndexValid);
+
             updateToolTips();
             updateIdTable();
 
@@ -430,7 +594,13 @@ public class IDArrayList<E extends IDObject> extends ArrayList<E> {
 
             if (o instanceof IDObject) {
 
+                boolean elementIndexValid = isElementIndexValid();
+
                 result = super.remove((E) o);
+
+                if (result) {
+                    unindexElement((E) o, elementIndexValid);
+                }
             }
 
             updateToolTips();
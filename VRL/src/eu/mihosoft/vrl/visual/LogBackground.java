@@ -14,6 +14,9 @@ import java.awt.font.TextAttribute;
 import java.awt.font.TextLayout;
 import java.text.AttributedCharacterIterator;
 import java.text.AttributedString;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
 import javax.swing.UIManager;
 
 /**
@@ -21,6 +24,11 @@ import javax.swing.UIManager;
  * @author Michael Hoffer <info@michaelhoffer.de>
  */
 public class LogBackground implements GlobalBackgroundPainter {
+
+    /**
+     * maximum number of lines that are passed to the log background
+     */
+    public static final int MAX_LINES = 200;
     
     private Canvas mainCanvas;
     private String text;
@@ -29,38 +37,80 @@ public class LogBackground implements GlobalBackgroundPainter {
         this.mainCanvas = mainCanvas;
     }
     
+    /**
+     * Paints the specified text. If the text does not fit into the clip
+     * bounds, only the last lines are laid out and painted.
+     *
+     * @param g graphics context
+     * @param x x coordinate
+     * @param y y coordinate
+     * @param input text to paint
+     */
     public void paint(Graphics g, int x, int y, String input) {
 
         Graphics2D g2d = (Graphics2D) g;
 
         int width = g.getClipBounds().width;
+        int height = g.getClipBounds().height - y;
+
+        Font font = (Font) UIManager.get("Label.font");
+        Color color = (Color) UIManager.get("Label.foreground");
+        FontRenderContext fontRenderContext = g2d.getFontRenderContext();
+
+        // layout paragraphs from last to first until the visible area is full
+        LinkedList<TextLayout> layouts = new LinkedList<TextLayout>();
+        float layoutHeight = 0;
 
         String[] paragraphs = input.split("\n");
-        for (String p : paragraphs) {
-            AttributedString attributedString = new AttributedString(p);
-            attributedString.addAttribute(TextAttribute.FONT, (Font) UIManager
-                    .get("Label.font"));
-            Color color = (Color) UIManager.get("Label.foreground");
+        for (int i = paragraphs.length - 1;
+                i >= 0 && layoutHeight < height; i--) {
 
+            String p = paragraphs[i];
+
+            if (p.isEmpty()) {
+                continue;
+            }
+
+            AttributedString attributedString = new AttributedString(p);
+            attributedString.addAttribute(TextAttribute.FONT, font);
             attributedString.addAttribute(TextAttribute.FOREGROUND, color);
 
             AttributedCharacterIterator characterIterator = attributedString
                     .getIterator();
-            FontRenderContext fontRenderContext = g2d.getFontRenderContext();
             LineBreakMeasurer measurer = new LineBreakMeasurer(characterIterator,
                     fontRenderContext);
+
+            List<TextLayout> paragraphLayouts = new ArrayList<TextLayout>();
+
             while (measurer.getPosition() < characterIterator.getEndIndex()) {
                 TextLayout textLayout = measurer.nextLayout(width);
-                y += textLayout.getAscent();
-                textLayout.draw(g2d, x, y);
-                y += textLayout.getDescent() + textLayout.getLeading();
+                paragraphLayouts.add(textLayout);
+                layoutHeight += textLayout.getAscent()
+                        + textLayout.getDescent() + textLayout.getLeading();
             }
+
+            layouts.addAll(0, paragraphLayouts);
+        }
+
+        // skip lines that do not fit
+        while (layoutHeight > height && layouts.size() > 1) {
+            TextLayout textLayout = layouts.removeFirst();
+            layoutHeight -= textLayout.getAscent()
+                    + textLayout.getDescent() + textLayout.getLeading();
+        }
+
+        for (TextLayout textLayout : layouts) {
+            y += textLayout.getAscent();
+            textLayout.draw(g2d, x, y);
+            y += textLayout.getDescent() + textLayout.getLeading();
         }
     }
 
     @Override
     public void paintGlobal(Graphics g) {
-        paint(g, 10, 10, text);
+        if (text != null) {
+            paint(g, 10, 10, text);
+        }
     }
     
     public void setText(String text) {
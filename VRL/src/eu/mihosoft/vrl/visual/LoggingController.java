@@ -56,6 +56,7 @@
 package eu.mihosoft.vrl.visual;
 
 import eu.mihosoft.vrl.io.ConfigurationFile;
+import eu.mihosoft.vrl.system.LogSink;
 import eu.mihosoft.vrl.system.Messaging;
 import eu.mihosoft.vrl.system.RedirectableStream;
 import java.awt.Color;
@@ -72,6 +73,9 @@ import java.util.logging.SimpleFormatter;
 import javax.swing.JTextArea;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
 
 /**
  *
@@ -87,6 +91,7 @@ public class LoggingController {
     private RedirectableStream msgout;
     public static final String SHOW_OUT_LOG_KEY = "Log:show-out";
     public static final String SHOW_ERR_LOG_KEY = "Log:show-err";
+    public static final String MAX_LOG_LINES_KEY = "Log:max-lines";
     private final ConfigurationFile config;
     private LogBackground logBackground;
 
@@ -152,26 +157,22 @@ public class LoggingController {
             }
         });
 
+        // the log sink writes in batches, i.e., the log background is
+        // updated at most once per batch
         view.getDocument().addDocumentListener(new DocumentListener() {
             @Override
             public void insertUpdate(DocumentEvent e) {
-                if (logBackground != null) {
-                    logBackground.setText(view.getText());
-                }
+                updateLogBackground();
             }
 
             @Override
             public void removeUpdate(DocumentEvent e) {
-                if (logBackground != null) {
-                    logBackground.setText(view.getText());
-                }
+                updateLogBackground();
             }
 
             @Override
             public void changedUpdate(DocumentEvent e) {
-                if (logBackground != null) {
-                    logBackground.setText(view.getText());
-                }
+                updateLogBackground();
             }
         });
 
@@ -191,6 +192,60 @@ public class LoggingController {
                     config.getProperty(SHOW_ERR_LOG_KEY));
             setStdErrEnabled(enableErr);
         }
+
+        if (config.containsProperty(MAX_LOG_LINES_KEY)) {
+            try {
+                setMaxLines(Integer.parseInt(
+                        config.getProperty(MAX_LOG_LINES_KEY)));
+            } catch (IllegalArgumentException ex) {
+                System.err.println(">> LoggingController: invalid value for "
+                        + MAX_LOG_LINES_KEY + ": "
+                        + config.getProperty(MAX_LOG_LINES_KEY));
+            }
+        }
+    }
+
+    /**
+     * Updates the log background (only the last lines of the log are
+     * passed to the log background).
+     */
+    private void updateLogBackground() {
+        if (logBackground == null) {
+            return;
+        }
+
+        Document doc = view.getDocument();
+        Element root = doc.getDefaultRootElement();
+
+        int firstLine = Math.max(0,
+                root.getElementCount() - LogBackground.MAX_LINES);
+        int start = root.getElement(firstLine).getStartOffset();
+
+        try {
+            logBackground.setText(doc.getText(start, doc.getLength() - start));
+        } catch (BadLocationException ex) {
+            Logger.getLogger(LoggingController.class.getName()).
+                    log(Level.SEVERE, null, ex);
+        }
+    }
+
+    /**
+     * Defines the maximum number of lines of the log view. Oldest lines are
+     * removed.
+     *
+     * @param maxLines the number of lines to set (must be greater than zero)
+     */
+    public void setMaxLines(int maxLines) {
+        LogSink.getSink(view).setMaxLines(maxLines);
+    }
+
+    /**
+     * Returns the maximum number of lines of the log view.
+     *
+     * @return the maximum number of lines of the log view
+     */
+    public int getMaxLines() {
+        return LogSink.getSink(view).getMaxLines();
     }
 
     public void setStdOutEnabled(boolean v) {
@@ -0,0 +1,154 @@
+/* 
+ * FlushIndexTest.java
+ * 
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2007–2018 by Michael Hoffer,
+ * Copyright (c) 2015–2018 G-CSC, Uni Frankfurt,
+ * Copyright (c) 2009–2015 Steinbeis Forschungszentrum (STZ Ölbronn)
+ * 
+ * This file is part of Visual Reflection Library (VRL).
+ *
+ * VRL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * see: http://opensource.org/licenses/LGPL-3.0
+ *      file://path/to/VRL/src/eu/mihosoft/vrl/resources/license/lgplv3.txt
+ *
+ * VRL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * This version of VRL includes copyright notice and attribution requirements.
+ * According to the LGPL this information must be displayed even if you modify
+ * the source code of VRL. Neither the VRL Canvas attribution icon nor any
+ * copyright statement/attribution may be removed.
+ *
+ * Attribution Requirements:
+ *
+ * If you create derived work you must do three things regarding copyright
+ * notice and author attribution.
+ *
+ * First, the following text must be displayed on the Canvas:
+ * "based on VRL source code". In this case the VRL canvas icon must be removed.
+ * 
+ * Second, the copyright notice must remain. It must be reproduced in any
+ * program that uses VRL.
+ *
+ * Third, add an additional notice, stating that you modified VRL. A suitable
+ * notice might read
+ * "VRL source code modified by YourName 2012".
+ * 
+ * Note, that these requirements are in full accordance with the LGPL v3
+ * (see 7. Additional Terms, b).
+ *
+ * Please cite the publication(s) listed below.
+ *
+ * Publications:
+ *
+ * M. Hoffer, C. Poliwoda, & G. Wittum. (2013). Visual reflection library:
+ * a framework for declarative GUI programming on the Java platform.
+ * Computing and Visualization in Science, 2013, 16(4),
+ * 181–192. http://doi.org/10.1007/s00791-014-0230-y
+ */
+
+package eu.mihosoft.vrl.io;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests change detection of flush snapshots.
+ *
+ * @author Michael Hoffer &lt;info@michaelhoffer.de&gt;
+ */
+public class FlushIndexTest {
+
+    private File testDir;
+
+    @Before
+    public void setUp() {
+        testDir = new File(new File("build"), "test-tmp/flush-index");
+        IOUtil.deleteDirectory(testDir);
+        testDir.mkdirs();
+    }
+
+    private static void write(File f, String content) throws IOException {
+        OutputStream out = new FileOutputStream(f);
+        try {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        } finally {
+            out.close();
+        }
+    }
+
+    @Test
+    public void unchangedEntriesTest() throws IOException {
+        write(new File(testDir, "a.xml"), "content a");
+
+        FlushIndex previous = FlushIndex.scan(testDir, ".xml");
+        FlushIndex current = FlushIndex.scan(testDir, ".xml");
+
+        Assert.assertTrue(current.getChangedEntries(previous).isEmpty());
+        Assert.assertTrue(current.getRemovedEntries(previous).isEmpty());
+    }
+
+    @Test
+    public void modificationWithEqualStampTest() throws IOException {
+        File a = new File(testDir, "a.xml");
+        write(a, "content a");
+
+        long lastModified = a.lastModified();
+
+        FlushIndex previous = FlushIndex.scan(testDir, ".xml");
+
+        // same size and same modification date, e.g., if the file has been
+        // modified within the timestamp resolution
+        write(a, "content b");
+        a.setLastModified(lastModified);
+
+        FlushIndex current = FlushIndex.scan(testDir, ".xml");
+
+        Assert.assertEquals(1, current.getChangedEntries(previous).size());
+    }
+
+    @Test
+    public void unzipRestoresModificationDateTest() throws IOException {
+        File archive = new File(testDir, "archive.zip");
+
+        // one day ago (even seconds, zip entries store dos dates)
+        long time = (System.currentTimeMillis() - 24 * 60 * 60 * 1000)
+                / 2000 * 2000;
+
+        ZipOutputStream out = new ZipOutputStream(
+                new FileOutputStream(archive));
+
+        try {
+            ZipEntry entry = new ZipEntry("a.xml");
+            entry.setTime(time);
+            out.putNextEntry(entry);
+            out.write("content a".getBytes(StandardCharsets.UTF_8));
+            out.closeEntry();
+        } finally {
+            out.close();
+        }
+
+        File destDir = new File(testDir, "content");
+
+        IOUtil.unzip(archive, destDir);
+
+        // extracted files must not look like recently modified files,
+        // otherwise each snapshot has to compute checksums
+        Assert.assertEquals(time, new File(destDir, "a.xml").lastModified());
+    }
+}
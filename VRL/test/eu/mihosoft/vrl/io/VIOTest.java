@@ -13,6 +13,8 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.JFrame;
@@ -218,6 +220,63 @@ public class VIOTest {
 
     }
 
+    @Test
+    public void saveEntryCommitsBlobsTest() {
+
+        Assert.assertTrue("saving project must not throw exception!", createProject());
+
+        Assert.assertTrue("loading project must not throw exception!", openProject());
+
+        boolean success = false;
+
+        try {
+            // large enough to be stored in the blob store
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; sb.length() < 2 * BlobStore.MIN_BLOB_SIZE; i++) {
+                sb.append(i).append(' ');
+            }
+
+            projectController.getCurrentCanvas().addObject(sb.toString());
+
+            String name = projectController.getCurrentSession();
+
+            projectController.save(name, true, false, "large value", false);
+
+            VProject p = projectController.getProject();
+
+            Collection<String> blobPaths = new ArrayList<String>();
+
+            String blobFolderPath = p.getBlobStore().getFolder().
+                    getAbsolutePath();
+
+            for (File f : IOUtil.listFiles(
+                    p.getBlobStore().getFolder(), new String[]{""})) {
+                blobPaths.add(VProject.PROJECT_PAYLOAD_VERSIONING
+                        + VProject.PROJECT_BLOB_DIR + "/"
+                        + f.getAbsolutePath().substring(
+                                blobFolderPath.length() + 1).
+                        replace('\\', '/'));
+            }
+
+            Assert.assertFalse("entry must reference a blob!",
+                    blobPaths.isEmpty());
+
+            Assert.assertTrue("entry paths must contain blobs!",
+                    p.getSessionEntryPaths(name).containsAll(blobPaths));
+
+            Assert.assertFalse("blobs must be committed with the entry!",
+                    p.getProjectFile().hasUncommittedChanges(blobPaths));
+
+            success = true;
+        } catch (Exception ex) {
+            Logger.getLogger(VIOTest.class.getName()).log(Level.SEVERE, null, ex);
+        }
+
+        Assert.assertTrue("saving entry must not throw exception!", success);
+
+        Assert.assertTrue("closing project must not throw exception!", closeProject());
+    }
+
     public boolean createConsoleApp(VProject project) {
 
         boolean success = false;
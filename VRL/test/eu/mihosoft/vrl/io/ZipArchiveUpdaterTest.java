@@ -0,0 +1,229 @@
+/* 
+ * ZipArchiveUpdaterTest.java
+ * 
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2007–2018 by Michael Hoffer,
+ * Copyright (c) 2015–2018 G-CSC, Uni Frankfurt,
+ * Copyright (c) 2009–2015 Steinbeis Forschungszentrum (STZ Ölbronn)
+ * 
+ * This file is part of Visual Reflection Library (VRL).
+ *
+ * VRL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * see: http://opensource.org/licenses/LGPL-3.0
+ *      file://path/to/VRL/src/eu/mihosoft/vrl/resources/license/lgplv3.txt
+ *
+ * VRL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * This version of VRL includes copyright notice and attribution requirements.
+ * According to the LGPL this information must be displayed even if you modify
+ * the source code of VRL. Neither the VRL Canvas attribution icon nor any
+ * copyright statement/attribution may be removed.
+ *
+ * Attribution Requirements:
+ *
+ * If you create derived work you must do three things regarding copyright
+ * notice and author attribution.
+ *
+ * First, the following text must be displayed on the Canvas:
+ * "based on VRL source code". In this case the VRL canvas icon must be removed.
+ * 
+ * Second, the copyright notice must remain. It must be reproduced in any
+ * program that uses VRL.
+ *
+ * Third, add an additional notice, stating that you modified VRL. A suitable
+ * notice might read
+ * "VRL source code modified by YourName 2012".
+ * 
+ * Note, that these requirements are in full accordance with the LGPL v3
+ * (see 7. Additional Terms, b).
+ *
+ * Please cite the publication(s) listed below.
+ *
+ * Publications:
+ *
+ * M. Hoffer, C. Poliwoda, & G. Wittum. (2013). Visual reflection library:
+ * a framework for declarative GUI programming on the Java platform.
+ * Computing and Visualization in Science, 2013, 16(4),
+ * 181–192. http://doi.org/10.1007/s00791-014-0230-y
+ */
+
+package eu.mihosoft.vrl.io;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests recovery of interrupted incremental archive updates.
+ *
+ * @author Michael Hoffer &lt;info@michaelhoffer.de&gt;
+ */
+public class ZipArchiveUpdaterTest {
+
+    private File testDir;
+
+    @Before
+    public void setUp() {
+        testDir = new File(new File("build"), "test-tmp/zip-updater");
+        IOUtil.deleteDirectory(testDir);
+        testDir.mkdirs();
+    }
+
+    /**
+     * Creates an archive with two entries.
+     *
+     * @param archive archive to create
+     * @throws IOException
+     */
+    private static void createArchive(File archive) throws IOException {
+        ZipOutputStream out = new ZipOutputStream(
+                new FileOutputStream(archive));
+
+        try {
+            out.putNextEntry(new ZipEntry("a.txt"));
+            out.write("content of a".getBytes(StandardCharsets.UTF_8));
+            out.closeEntry();
+            out.putNextEntry(new ZipEntry("b.txt"));
+            out.write("content of b".getBytes(StandardCharsets.UTF_8));
+            out.closeEntry();
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Simulates an update that has been interrupted after appending entry
+     * data but before writing the new central directory.
+     *
+     * @param archive archive
+     * @param journal journal file
+     * @throws IOException
+     */
+    private static void appendTruncatedEntry(File archive, File journal)
+            throws IOException {
+        long length = archive.length();
+
+        OutputStream journalOut = new FileOutputStream(journal);
+        try {
+            journalOut.write(Long.toString(length).
+                    getBytes(StandardCharsets.UTF_8));
+        } finally {
+            journalOut.close();
+        }
+
+        RandomAccessFile file = new RandomAccessFile(archive, "rw");
+
+        try {
+            file.seek(length);
+            // local header signature followed by truncated entry data,
+            // large enough to hide the end of central directory record
+            file.write(new byte[]{0x50, 0x4b, 0x03, 0x04});
+            file.write(new byte[0x20000]);
+        } finally {
+            file.close();
+        }
+    }
+
+    @Test
+    public void recoverTruncatedAppendTest() throws IOException {
+        File archive = new File(testDir, "archive.zip");
+        File journal = new File(testDir, "archive.zip.flush-journal");
+
+        createArchive(archive);
+
+        long length = archive.length();
+        Set<String> names = ZipArchiveUpdater.getEntryNames(archive);
+
+        appendTruncatedEntry(archive, journal);
+
+        Assert.assertTrue("interrupted update must be reverted",
+                ZipArchiveUpdater.recover(archive, journal));
+        Assert.assertEquals(length, archive.length());
+        Assert.assertFalse("journal must be removed", journal.exists());
+        Assert.assertEquals(names, ZipArchiveUpdater.getEntryNames(archive));
+
+        ZipFile zip = new ZipFile(archive);
+        try {
+            Assert.assertEquals(2, zip.size());
+        } finally {
+            zip.close();
+        }
+
+        Assert.assertFalse("nothing to recover",
+                ZipArchiveUpdater.recover(archive, journal));
+    }
+
+    @Test
+    public void updateAfterInterruptedUpdateTest() throws IOException {
+        File archive = new File(testDir, "archive.zip");
+        File journal = new File(testDir, "archive.zip.flush-journal");
+
+        createArchive(archive);
+        appendTruncatedEntry(archive, journal);
+
+        File c = new File(testDir, "c.txt");
+        OutputStream out = new FileOutputStream(c);
+        try {
+            out.write("content of c".getBytes(StandardCharsets.UTF_8));
+        } finally {
+            out.close();
+        }
+
+        Assert.assertTrue("archive must be updated incrementally",
+                ZipArchiveUpdater.update(archive,
+                        Collections.singletonMap("c.txt", c),
+                        Collections.singleton("a.txt"), journal));
+
+        Assert.assertFalse("journal must be removed", journal.exists());
+
+        Set<String> expected = new HashSet<String>();
+        expected.add("b.txt");
+        expected.add("c.txt");
+
+        Assert.assertEquals(expected, ZipArchiveUpdater.getEntryNames(archive));
+    }
+
+    @Test
+    public void versionedFileRecoversInterruptedFlushTest() throws IOException {
+        File archive = new File(testDir, "file.vrlp").getAbsoluteFile();
+
+        VersionedFile f = new VersionedFile(archive).create();
+        f.close();
+
+        long length = archive.length();
+
+        // journal must survive restarts, i.e., it must not be located in
+        // the (rotated) tmp folder
+        File journal = f.getFlushJournal();
+
+        Assert.assertEquals(archive.getParentFile(), journal.getParentFile());
+
+        appendTruncatedEntry(archive, journal);
+
+        f = new VersionedFile(archive).open();
+
+        Assert.assertFalse("journal must be removed", journal.exists());
+        Assert.assertEquals(length, archive.length());
+
+        f.close();
+    }
+}
@@ -0,0 +1,239 @@
+/* 
+ * CompiledClassCacheTest.java
+ * 
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2007–2018 by Michael Hoffer,
+ * Copyright (c) 2015–2018 G-CSC, Uni Frankfurt,
+ * Copyright (c) 2009–2015 Steinbeis Forschungszentrum (STZ Ölbronn)
+ * 
+ * This file is part of Visual Reflection Library (VRL).
+ *
+ * VRL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * see: http://opensource.org/licenses/LGPL-3.0
+ *      file://path/to/VRL/src/eu/mihosoft/vrl/resources/license/lgplv3.txt
+ *
+ * VRL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * This version of VRL includes copyright notice and attribution requirements.
+ * According to the LGPL this information must be displayed even if you modify
+ * the source code of VRL. Neither the VRL Canvas attribution icon nor any
+ * copyright statement/attribution may be removed.
+ *
+ * Attribution Requirements:
+ *
+ * If you create derived work you must do three things regarding copyright
+ * notice and author attribution.
+ *
+ * First, the following text must be displayed on the Canvas:
+ * "based on VRL source code". In this case the VRL canvas icon must be removed.
+ * 
+ * Second, the copyright notice must remain. It must be reproduced in any
+ * program that uses VRL.
+ *
+ * Third, add an additional notice, stating that you modified VRL. A suitable
+ * notice might read
+ * "VRL source code modified by YourName 2012".
+ * 
+ * Note, that these requirements are in full accordance with the LGPL v3
+ * (see 7. Additional Terms, b).
+ *
+ * Please cite the publication(s) listed below.
+ *
+ * Publications:
+ *
+ * M. Hoffer, C. Poliwoda, & G. Wittum. (2013). Visual reflection library:
+ * a framework for declarative GUI programming on the Java platform.
+ * Computing and Visualization in Science, 2013, 16(4),
+ * 181–192. http://doi.org/10.1007/s00791-014-0230-y
+ */
+
+package eu.mihosoft.vrl.lang.groovy;
+
+import eu.mihosoft.vrl.io.IOUtil;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the persistent cache of compiled classes.
+ *
+ * @author Michael Hoffer &lt;info@michaelhoffer.de&gt;
+ */
+public class CompiledClassCacheTest {
+
+    private static final String CODE = "class A {\n  int a = 1\n}\n";
+    private File testDir;
+
+    @Before
+    public void setUp() {
+        testDir = new File(new File("build"), "test-tmp/class-cache").
+                getAbsoluteFile();
+        IOUtil.deleteDirectory(testDir);
+        testDir.mkdirs();
+        CompiledClassCache.setCacheFolder(new File(testDir, "cache"));
+    }
+
+    @After
+    public void tearDown() {
+        CompiledClassCache.setCacheFolder(null);
+        CompiledClassCache.setMaxSize(CompiledClassCache.DEFAULT_MAX_SIZE);
+        IOUtil.deleteDirectory(testDir);
+    }
+
+    /**
+     * Creates an entry with one class.
+     *
+     * @param size size of the byte code
+     * @return the entry
+     */
+    private static CompiledClassCache.Entry createEntry(int size) {
+        Map<String, byte[]> classes = new LinkedHashMap<String, byte[]>();
+        byte[] code = new byte[size];
+
+        for (int i = 0; i < code.length; i++) {
+            code[i] = (byte) i;
+        }
+
+        classes.put("A", code);
+
+        return new CompiledClassCache.Entry("A", classes);
+    }
+
+    @Test
+    public void keyStabilityTest() {
+        ClassLoader loader = new URLClassLoader(new URL[0], null);
+
+        String key = CompiledClassCache.createKey(CODE, "1.8", loader);
+
+        Assert.assertEquals(key,
+                CompiledClassCache.createKey(CODE, "1.8", loader));
+        Assert.assertEquals("line endings must not change the key", key,
+                CompiledClassCache.createKey(
+                        CODE.replace("\n", "\r\n"), "1.8", loader));
+        Assert.assertFalse(key.equals(
+                CompiledClassCache.createKey(CODE + " ", "1.8", loader)));
+        Assert.assertFalse(key.equals(
+                CompiledClassCache.createKey(CODE, "1.7", loader)));
+    }
+
+    @Test
+    public void hitTest() {
+        String key = CompiledClassCache.createKey(CODE, "1.8", null);
+
+        Assert.assertNull(CompiledClassCache.load(key));
+
+        CompiledClassCache.Entry entry = createEntry(100);
+        CompiledClassCache.save(key, entry);
+
+        CompiledClassCache.Entry loaded = CompiledClassCache.load(key);
+
+        Assert.assertNotNull(loaded);
+        Assert.assertEquals("A", loaded.getMainClassName());
+        Assert.assertArrayEquals(entry.getClasses().get("A"),
+                loaded.getClasses().get("A"));
+
+        // no tmp files are left
+        Assert.assertEquals(1, new File(testDir, "cache").list().length);
+    }
+
+    @Test
+    public void classFolderInvalidationTest() throws IOException {
+        File classes = new File(testDir, "classes");
+        File classFile = new File(classes, "B.class");
+        classes.mkdirs();
+        classFile.createNewFile();
+        classFile.setLastModified(1000000000L);
+
+        ClassLoader loader = new URLClassLoader(
+                new URL[]{classes.toURI().toURL()}, null);
+
+        String key = CompiledClassCache.createKey(CODE, "1.8", loader);
+
+        // a rebuild changes the class files
+        classFile.setLastModified(2000000000L);
+
+        Assert.assertEquals("folder stamps are reused until invalidation",
+                key, CompiledClassCache.createKey(CODE, "1.8", loader));
+
+        CompiledClassCache.invalidateFolder(classes);
+
+        Assert.assertFalse(key.equals(
+                CompiledClassCache.createKey(CODE, "1.8", loader)));
+    }
+
+    @Test
+    public void invalidEntryTest() throws IOException {
+        String key = CompiledClassCache.createKey(CODE, "1.8", null);
+
+        CompiledClassCache.save(key, createEntry(100));
+
+        File f = new File(new File(testDir, "cache"), key + ".classes");
+
+        Assert.assertTrue(f.isFile());
+
+        // corrupt the length of the byte code
+        RandomAccessFile file = new RandomAccessFile(f, "rw");
+
+        try {
+            file.seek(f.length() - 100 - 4);
+            file.writeInt(Integer.MAX_VALUE);
+        } finally {
+            file.close();
+        }
+
+        Assert.assertNull(CompiledClassCache.load(key));
+        Assert.assertFalse("invalid entries must be deleted", f.exists());
+
+        // truncated entry
+        CompiledClassCache.save(key, createEntry(100));
+
+        file = new RandomAccessFile(f, "rw");
+
+        try {
+            file.setLength(f.length() - 10);
+        } finally {
+            file.close();
+        }
+
+        Assert.assertNull(CompiledClassCache.load(key));
+        Assert.assertFalse("invalid entries must be deleted", f.exists());
+    }
+
+    @Test
+    public void evictionTest() {
+        CompiledClassCache.setMaxSize(2500);
+
+        File folder = new File(testDir, "cache");
+
+        String[] keys = new String[3];
+
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = CompiledClassCache.createKey(CODE + i, "1.8", null);
+            CompiledClassCache.save(keys[i], createEntry(1000));
+
+            // entries are evicted in least recently used order
+            new File(folder, keys[i] + ".classes").
+                    setLastModified(1000000000L + i * 1000L);
+        }
+
+        // the last save exceeded the maximum size
+        Assert.assertFalse(new File(folder, keys[0] + ".classes").exists());
+        Assert.assertNotNull(CompiledClassCache.load(keys[1]));
+        Assert.assertNotNull(CompiledClassCache.load(keys[2]));
+    }
+}
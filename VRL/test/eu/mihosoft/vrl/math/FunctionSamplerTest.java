@@ -0,0 +1,122 @@
+/* 
+ * FunctionSamplerTest.java
+ * 
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2007–2018 by Michael Hoffer,
+ * Copyright (c) 2015–2018 G-CSC, Uni Frankfurt,
+ * Copyright (c) 2009–2015 Steinbeis Forschungszentrum (STZ Ölbronn)
+ * 
+ * This file is part of Visual Reflection Library (VRL).
+ *
+ * VRL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * see: http://opensource.org/licenses/LGPL-3.0
+ *      file://path/to/VRL/src/eu/mihosoft/vrl/resources/license/lgplv3.txt
+ *
+ * VRL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * This version of VRL includes copyright notice and attribution requirements.
+ * According to the LGPL this information must be displayed even if you modify
+ * the source code of VRL. Neither the VRL Canvas attribution icon nor any
+ * copyright statement/attribution may be removed.
+ *
+ * Attribution Requirements:
+ *
+ * If you create derived work you must do three things regarding copyright
+ * notice and author attribution.
+ *
+ * First, the following text must be displayed on the Canvas:
+ * "based on VRL source code". In this case the VRL canvas icon must be removed.
+ * 
+ * Second, the copyright notice must remain. It must be reproduced in any
+ * program that uses VRL.
+ *
+ * Third, add an additional notice, stating that you modified VRL. A suitable
+ * notice might read
+ * "VRL source code modified by YourName 2012".
+ * 
+ * Note, that these requirements are in full accordance with the LGPL v3
+ * (see 7. Additional Terms, b).
+ *
+ * Please cite the publication(s) listed below.
+ *
+ * Publications:
+ *
+ * M. Hoffer, C. Poliwoda, & G. Wittum. (2013). Visual reflection library:
+ * a framework for declarative GUI programming on the Java platform.
+ * Computing and Visualization in Science, 2013, 16(4),
+ * 181–192. http://doi.org/10.1007/s00791-014-0230-y
+ */
+
+package eu.mihosoft.vrl.math;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests parallel function sampling.
+ *
+ * @author Michael Hoffer &lt;info@michaelhoffer.de&gt;
+ */
+public class FunctionSamplerTest {
+
+    @Test
+    public void allValuesSampledTest() {
+        double[] x = FunctionSampler.linspace(0, 1, 200);
+        double[] y = FunctionSampler.linspace(0, 1, 200);
+
+        for (int run = 0; run < 20; run++) {
+            double[][] z = FunctionSampler.sample(new DoubleFunction2D() {
+                @Override
+                public double eval(double x, double y) {
+                    // some work, workers are still running when the
+                    // calling thread runs out of parts
+                    double v = 0;
+                    for (int k = 0; k < 1000; k++) {
+                        v += Math.sin(k);
+                    }
+                    return 1 + x + y + v * 0;
+                }
+            }, x, y);
+
+            for (int i = 0; i < x.length; i++) {
+                for (int j = 0; j < y.length; j++) {
+                    Assert.assertEquals(1 + x[i] + y[j], z[i][j], 1e-12);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void nestedSamplingTest() {
+        final double[] inner = FunctionSampler.linspace(0, 1, 20000);
+
+        final DoubleFunction1D g = new DoubleFunction1D() {
+            @Override
+            public double eval(double x) {
+                return 1;
+            }
+        };
+
+        double[] r = FunctionSampler.sample(new DoubleFunction1D() {
+            @Override
+            public double eval(double x) {
+                double sum = 0;
+                for (double v : FunctionSampler.sample(g, inner)) {
+                    sum += v;
+                }
+                return sum;
+            }
+        }, FunctionSampler.linspace(0, 1, 20000));
+
+        for (double v : r) {
+            Assert.assertEquals(inner.length, v, 0);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/* 
+ * PackedMeshLoaderTest.java
+ * 
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2007–2018 by Michael Hoffer,
+ * Copyright (c) 2015–2018 G-CSC, Uni Frankfurt,
+ * Copyright (c) 2009–2015 Steinbeis Forschungszentrum (STZ Ölbronn)
+ * 
+ * This file is part of Visual Reflection Library (VRL).
+ *
+ * VRL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * see: http://opensource.org/licenses/LGPL-3.0
+ *      file://path/to/VRL/src/eu/mihosoft/vrl/resources/license/lgplv3.txt
+ *
+ * VRL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * This version of VRL includes copyright notice and attribution requirements.
+ * According to the LGPL this information must be displayed even if you modify
+ * the source code of VRL. Neither the VRL Canvas attribution icon nor any
+ * copyright statement/attribution may be removed.
+ *
+ * Attribution Requirements:
+ *
+ * If you create derived work you must do three things regarding copyright
+ * notice and author attribution.
+ *
+ * First, the following text must be displayed on the Canvas:
+ * "based on VRL source code". In this case the VRL canvas icon must be removed.
+ * 
+ * Second, the copyright notice must remain. It must be reproduced in any
+ * program that uses VRL.
+ *
+ * Third, add an additional notice, stating that you modified VRL. A suitable
+ * notice might read
+ * "VRL source code modified by YourName 2012".
+ * 
+ * Note, that these requirements are in full accordance with the LGPL v3
+ * (see 7. Additional Terms, b).
+ *
+ * Please cite the publication(s) listed below.
+ *
+ * Publications:
+ *
+ * M. Hoffer, C. Poliwoda, & G. Wittum. (2013). Visual reflection library:
+ * a framework for declarative GUI programming on the Java platform.
+ * Computing and Visualization in Science, 2013, 16(4),
+ * 181–192. http://doi.org/10.1007/s00791-014-0230-y
+ */
+
+package eu.mihosoft.vrl.v3d;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the packed mesh loader and compares its results with
+ * {@link OBJ2Geometry}.
+ *
+ * @author Michael Hoffer &lt;info@michaelhoffer.de&gt;
+ */
+public class PackedMeshLoaderTest {
+
+    private static final int GRID_SIZE = 300;
+
+    /**
+     * Creates an obj file that defines a regular grid of quads.
+     *
+     * @param n number of vertices per side
+     * @return the obj file content
+     */
+    private static byte[] createGrid(int n) {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("# grid ").append(n).append("x").append(n).append("\n");
+
+        for (int y = 0; y < n; y++) {
+            for (int x = 0; x < n; x++) {
+                sb.append("v ").append(x * 0.5f).append(' ').
+                        append(y * 0.5f).append(' ').
+                        append((float) Math.sin(x * y * 0.01)).append('\n');
+            }
+        }
+
+        sb.append("vn 0 0 1\n");
+
+        for (int y = 0; y < n - 1; y++) {
+            for (int x = 0; x < n - 1; x++) {
+                int v = y * n + x + 1;
+                sb.append("f ").append(v).append("//1 ").
+                        append(v + 1).append("//1 ").
+                        append(v + n + 1).append("//1 ").
+                        append(v + n).append("//1\n");
+            }
+        }
+
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void loadObjTest() throws IOException {
+        String obj = "# tetrahedron\n"
+                + "v  1  1 -1\n"
+                + "v -1 -1 -1\n"
+                + "v -1  1  1\n"
+                + "v  1 -1  1\n"
+                + "vn 0 0 1\n"
+                + "vn 0 1 0\n"
+                + "f 1//1 2//1 3//1\n"
+                + "f -4//2 -3/1/2 -1\r\n"
+                + "f 1 3 4 2\n";
+
+        PackedMesh mesh = new PackedMeshLoader().loadObj(
+                new ByteArrayInputStream(obj.getBytes(StandardCharsets.UTF_8)));
+
+        Assert.assertEquals("quad must be triangulated",
+                4, mesh.getNumberOfTriangles());
+        Assert.assertEquals("vertices with different normals must be split",
+                6, mesh.getNumberOfVertices());
+        Assert.assertTrue(mesh.hasNormals());
+        Assert.assertArrayEquals(new int[]{0, 1, 2, 4, 5, 3, 0, 2, 3, 0, 3, 1},
+                mesh.getIndices());
+        Assert.assertEquals(1.f, mesh.getVertices()[4 * 3], 0.f);
+        Assert.assertEquals(1.f, mesh.getNormals()[4 * 3 + 1], 0.f);
+    }
+
+    @Test
+    public void loadTxtTest() throws IOException {
+        String txt = "4 4\n"
+                + "0  1  1 -1\n"
+                + "1 -1 -1 -1\n"
+                + "2 -1  1  1\n"
+                + "3  1 -1  1\n"
+                + "0 0 1 2\n"
+                + "1 0 1 3\n"
+                + "2 0 2 3\n"
+                + "3 1 2 3\n";
+
+        PackedMesh mesh = new PackedMeshLoader().loadTxt(
+                new ByteArrayInputStream(txt.getBytes(StandardCharsets.UTF_8)));
+
+        Assert.assertEquals(4, mesh.getNumberOfVertices());
+        Assert.assertEquals(4, mesh.getNumberOfTriangles());
+        Assert.assertArrayEquals(new int[]{0, 1, 2, 0, 1, 3, 0, 2, 3, 1, 2, 3},
+                mesh.getIndices());
+    }
+
+    @Test(expected = IOException.class)
+    public void invalidIndexTest() throws IOException {
+        new PackedMeshLoader().loadObj(new ByteArrayInputStream(
+                "v 0 0 0\nv 1 0 0\nf 1 2 3\n".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Compares the packed mesh loader with {@link OBJ2Geometry}.
+     */
+    @Test
+    public void compareWithOBJ2GeometryTest() throws IOException {
+
+        byte[] obj = createGrid(GRID_SIZE);
+
+        int expectedTriangles = (GRID_SIZE - 1) * (GRID_SIZE - 1) * 2;
+
+        PackedMesh mesh
+                = new PackedMeshLoader().loadObj(new ByteArrayInputStream(obj));
+
+        VTriangleArray vTriangles
+                = new OBJ2Geometry().loadAsVTriangleArray(
+                        new ByteArrayInputStream(obj));
+
+        Assert.assertEquals(expectedTriangles, mesh.getNumberOfTriangles());
+        Assert.assertEquals(expectedTriangles, vTriangles.size());
+        Assert.assertEquals(expectedTriangles,
+                mesh.toVTriangleArray().size());
+    }
+}
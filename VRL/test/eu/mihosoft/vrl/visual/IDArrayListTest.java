@@ -0,0 +1,234 @@
+/* 
+ * IDArrayListTest.java
+ * 
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2007–2018 by Michael Hoffer,
+ * Copyright (c) 2015–2018 G-CSC, Uni Frankfurt,
+ * Copyright (c) 2009–2015 Steinbeis Forschungszentrum (STZ Ölbronn)
+ * 
+ * This file is part of Visual Reflection Library (VRL).
+ *
+ * VRL is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License version 3
+ * as published by the Free Software Foundation.
+ * 
+ * see: http://opensource.org/licenses/LGPL-3.0
+ *      file://path/to/VRL/src/eu/mihosoft/vrl/resources/license/lgplv3.txt
+ *
+ * VRL is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * This version of VRL includes copyright notice and attribution requirements.
+ * According to the LGPL this information must be displayed even if you modify
+ * the source code of VRL. Neither the VRL Canvas attribution icon nor any
+ * copyright statement/attribution may be removed.
+ *
+ * Attribution Requirements:
+ *
+ * If you create derived work you must do three things regarding copyright
+ * notice and author attribution.
+ *
+ * First, the following text must be displayed on the Canvas:
+ * "based on VRL source code". In this case the VRL canvas icon must be removed.
+ * 
+ * Second, the copyright notice must remain. It must be reproduced in any
+ * program that uses VRL.
+ *
+ * Third, add an additional notice, stating that you modified VRL. A suitable
+ * notice might read
+ * "VRL source code modified by YourName 2012".
+ * 
+ * Note, that these requirements are in full accordance with the LGPL v3
+ * (see 7. Additional Terms, b).
+ *
+ * Please cite the publication(s) listed below.
+ *
+ * Publications:
+ *
+ * M. Hoffer, C. Poliwoda, & G. Wittum. (2013). Visual reflection library:
+ * a framework for declarative GUI programming on the Java platform.
+ * Computing and Visualization in Science, 2013, 16(4),
+ * 181–192. http://doi.org/10.1007/s00791-014-0230-y
+ */
+
+package eu.mihosoft.vrl.visual;
+
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the id index of {@link IDArrayList}.
+ *
+ * @author Michael Hoffer &lt;info@michaelhoffer.de&gt;
+ */
+public class IDArrayListTest {
+
+    private static final int NUMBER_OF_ELEMENTS = 20000;
+
+    /**
+     * Simple id object.
+     */
+    private static class Element implements IDObject {
+
+        private int id;
+
+        @Override
+        public int getID() {
+            return id;
+        }
+
+        @Override
+        public void setID(int ID) {
+            this.id = ID;
+        }
+    }
+
+    @Test
+    public void newIdTest() {
+        IDArrayList<Element> list = new IDArrayList<Element>();
+
+        for (int i = 0; i < 10; i++) {
+            Element e = new Element();
+            list.add(e);
+            Assert.assertEquals(i, e.getID());
+        }
+
+        list.removeByID(3);
+        list.removeByID(5);
+
+        Assert.assertNull(list.getById(3));
+        Assert.assertNull(list.getIndexById(5));
+
+        // smallest unused ids are reused
+        Element e = new Element();
+        list.add(e);
+        Assert.assertEquals(3, e.getID());
+
+        e = new Element();
+        list.add(e);
+        Assert.assertEquals(5, e.getID());
+
+        e = new Element();
+        list.add(e);
+        Assert.assertEquals(10, e.getID());
+    }
+
+    @Test
+    public void getByIdTest() {
+        IDArrayList<Element> list = new IDArrayList<Element>();
+
+        Element[] elements = new Element[100];
+
+        for (int i = 0; i < elements.length; i++) {
+            elements[i] = new Element();
+            list.add(elements[i]);
+        }
+
+        list.remove(0);
+        list.add(10, new Element());
+
+        for (int i = 1; i < elements.length; i++) {
+            Assert.assertSame(elements[i], list.getById(elements[i].getID()));
+
+            int index = list.getIndexById(elements[i].getID());
+            Assert.assertSame(elements[i], list.get(index));
+        }
+
+        Assert.assertNull(list.getById(-1));
+        Assert.assertEquals(elements[1].getID(), (int) list.getIdTable().get(0));
+    }
+
+    @Test
+    public void externalModificationTest() {
+        IDArrayList<Element> list = new IDArrayList<Element>();
+
+        Element a = new Element();
+        Element b = new Element();
+        Element c = new Element();
+
+        list.add(a);
+
+        // bypasses the id management of the list
+        b.setID(7);
+        c.setID(8);
+        list.addAll(Arrays.asList(b, c));
+
+        Assert.assertSame(b, list.getById(7));
+        Assert.assertEquals(2, (int) list.getIndexById(8));
+
+        list.iterator().next();
+        list.removeAll(Arrays.asList(b));
+
+        Assert.assertNull(list.getById(7));
+        Assert.assertEquals(1, (int) list.getIndexById(8));
+    }
+
+    @Test
+    public void setIdTableTest() {
+        IDArrayList<Element> list = new IDArrayList<Element>();
+
+        for (int i = 0; i < 3; i++) {
+            list.add(new Element());
+        }
+
+        IDTable table = new IDTable();
+        table.add(7);
+
+        list.setIdTable(table);
+
+        // ids assigned in the same call must not be reused
+        Assert.assertEquals(7, list.get(0).getID());
+        Assert.assertEquals(0, list.get(1).getID());
+        Assert.assertEquals(1, list.get(2).getID());
+    }
+
+    @Test
+    public void externalIdChangeTest() {
+        IDArrayList<Element> list = new IDArrayList<Element>();
+
+        Element a = new Element();
+        Element b = new Element();
+
+        list.add(a);
+        list.add(b);
+
+        Assert.assertSame(b, list.getById(1));
+        Assert.assertEquals(1, (int) list.getIndexById(1));
+
+        // not visible to the list (modCount unchanged)
+        b.setID(5);
+
+        Assert.assertNull(list.getById(1));
+        Assert.assertSame(b, list.getById(5));
+        Assert.assertNull(list.getIndexById(1));
+        Assert.assertEquals(1, (int) list.getIndexById(5));
+
+        Element c = new Element();
+        list.add(c);
+        Assert.assertEquals(1, c.getID());
+    }
+
+    @Test
+    public void largeListTest() {
+        IDArrayList<Element> list = new IDArrayList<Element>();
+
+        for (int i = 0; i < NUMBER_OF_ELEMENTS; i++) {
+            list.add(new Element());
+        }
+
+        for (int i = 0; i < NUMBER_OF_ELEMENTS; i++) {
+            Assert.assertEquals(i, list.getById(i).getID());
+            Assert.assertEquals(i, (int) list.getIndexById(i));
+        }
+
+        for (int i = 0; i < NUMBER_OF_ELEMENTS; i += 2) {
+            list.removeByID(i);
+        }
+
+        Assert.assertEquals(NUMBER_OF_ELEMENTS / 2, list.size());
+    }
+}